@@ -17,6 +17,7 @@ import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.registries.DeferredHolder;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * @author BluSunrize - 19.05.2017
@@ -27,7 +28,9 @@ public class AlloyRecipe extends IESerializableRecipe
 {
 	// TODO SetRestrictedField?
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<AlloyRecipe>> SERIALIZER;
-	public static final CachedRecipeList<AlloyRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.ALLOY);
+	public static final CachedRecipeList<AlloyRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.ALLOY, r -> List.of(r.input0.getBaseIngredient(), r.input1.getBaseIngredient())
+	);
 
 	public final IngredientWithSize input0;
 	public final IngredientWithSize input1;
@@ -72,7 +75,7 @@ public class AlloyRecipe extends IESerializableRecipe
 			return null;
 		if (hint != null && hint.matches(input0, input1))
 			return hint;
-		for(RecipeHolder<AlloyRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<AlloyRecipe> recipe : RECIPES.getCandidates(level, input0))
 			if(recipe.value().matches(input0, input1))
 				return recipe.value();
 		return null;
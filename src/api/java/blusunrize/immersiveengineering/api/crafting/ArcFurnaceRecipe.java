@@ -44,7 +44,9 @@ public class ArcFurnaceRecipe extends MultiblockRecipe
 
 	public String specialRecipeType;
 	public static List<String> specialRecipeTypes = new ArrayList<>();
-	public static final CachedRecipeList<ArcFurnaceRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.ARC_FURNACE);
+	public static final CachedRecipeList<ArcFurnaceRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.ARC_FURNACE, r -> r.input!=null?List.of(r.input.getBaseIngredient()): List.of()
+	);
 
 	public ArcFurnaceRecipe(
 			TagOutputList output, @Nonnull TagOutput slag, List<StackWithChance> secondaryOutputs,
@@ -195,7 +197,7 @@ public class ArcFurnaceRecipe extends MultiblockRecipe
 
 	public static RecipeHolder<ArcFurnaceRecipe> findRecipe(Level level, ItemStack input, NonNullList<ItemStack> additives)
 	{
-		for(RecipeHolder<ArcFurnaceRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<ArcFurnaceRecipe> recipe : RECIPES.getCandidates(level, input))
 			if(recipe.value().matches(input, additives))
 				return recipe;
 		return null;
@@ -203,7 +205,7 @@ public class ArcFurnaceRecipe extends MultiblockRecipe
 
 	public static boolean isValidRecipeInput(Level level, ItemStack stack)
 	{
-		for(RecipeHolder<ArcFurnaceRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<ArcFurnaceRecipe> recipe : RECIPES.getCandidates(level, stack))
 			if(recipe.value().isValidInput(stack))
 				return true;
 		return false;
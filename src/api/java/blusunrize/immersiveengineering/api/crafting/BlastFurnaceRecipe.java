@@ -18,6 +18,7 @@ import net.neoforged.neoforge.registries.DeferredHolder;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * @author BluSunrize - 23.03.2015
@@ -27,7 +28,9 @@ import javax.annotation.Nullable;
 public class BlastFurnaceRecipe extends IESerializableRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<BlastFurnaceRecipe>> SERIALIZER;
-	public static final CachedRecipeList<BlastFurnaceRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.BLAST_FURNACE);
+	public static final CachedRecipeList<BlastFurnaceRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.BLAST_FURNACE, r -> List.of(r.input.getBaseIngredient())
+	);
 
 	public final IngredientWithSize input;
 	public final TagOutput output;
@@ -66,7 +69,7 @@ public class BlastFurnaceRecipe extends IESerializableRecipe
 			return null;
 		if (hint != null && hint.matches(input))
 			return hint;
-		for(RecipeHolder<BlastFurnaceRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<BlastFurnaceRecipe> recipe : RECIPES.getCandidates(level, input))
 			if(recipe.value().matches(input))
 				return recipe.value();
 		return null;
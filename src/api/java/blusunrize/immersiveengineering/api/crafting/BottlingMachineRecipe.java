@@ -20,6 +20,7 @@ import net.neoforged.neoforge.fluids.FluidStack;
 import net.neoforged.neoforge.items.ItemHandlerHelper;
 import net.neoforged.neoforge.registries.DeferredHolder;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +33,9 @@ import java.util.Map;
 public class BottlingMachineRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<BottlingMachineRecipe>> SERIALIZER;
-	public static final CachedRecipeList<BottlingMachineRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.BOTTLING_MACHINE);
+	public static final CachedRecipeList<BottlingMachineRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.BOTTLING_MACHINE, r -> IngredientWithSize.getBaseIngredients(r.inputs)
+	);
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public final List<IngredientWithSize> inputs;
@@ -104,7 +107,7 @@ public class BottlingMachineRecipe extends MultiblockRecipe
 	{
 		if(fluid.isEmpty())
 			return null;
-		for(RecipeHolder<BottlingMachineRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<BottlingMachineRecipe> recipe : RECIPES.getCandidates(level, Arrays.asList(input)))
 			if(recipe.value().matches(input, fluid))
 				return recipe;
 		return null;
@@ -34,7 +34,9 @@ public class ClocheRecipe extends IESerializableRecipe
 	public final int time;
 	public final ClocheRenderFunction renderFunction;
 
-	public static final CachedRecipeList<ClocheRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.CLOCHE);
+	public static final CachedRecipeList<ClocheRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.CLOCHE, r -> List.of(r.seed)
+	);
 	private static final List<Pair<Ingredient, ResourceLocation>> soilTextureList = new ArrayList<>();
 
 	public ClocheRecipe(TagOutputList outputs, Ingredient seed, Ingredient soil, int time, ClocheRenderFunction renderFunction)
@@ -82,7 +84,7 @@ public class ClocheRecipe extends IESerializableRecipe
 			return null;
 		if (hint != null && hint.matches(seed, soil))
 			return hint;
-		for(RecipeHolder<ClocheRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<ClocheRecipe> recipe : RECIPES.getCandidates(level, seed))
 			if(recipe.value().matches(seed, soil))
 				return recipe.value();
 		return null;
@@ -17,6 +17,7 @@ import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.registries.DeferredHolder;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * @author BluSunrize - 23.03.2015
@@ -26,7 +27,9 @@ import javax.annotation.Nullable;
 public class CokeOvenRecipe extends IESerializableRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<CokeOvenRecipe>> SERIALIZER;
-	public static final CachedRecipeList<CokeOvenRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.COKE_OVEN);
+	public static final CachedRecipeList<CokeOvenRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.COKE_OVEN, r -> List.of(r.input.getBaseIngredient())
+	);
 
 	public final IngredientWithSize input;
 	public final TagOutput output;
@@ -69,7 +72,7 @@ public class CokeOvenRecipe extends IESerializableRecipe
 			return null;
 		if (hint != null && hint.matches(input))
 			return hint;
-		for(RecipeHolder<CokeOvenRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<CokeOvenRecipe> recipe : RECIPES.getCandidates(level, input))
 			if(recipe.value().matches(input))
 				return recipe.value();
 		return null;
@@ -10,6 +10,7 @@ package blusunrize.immersiveengineering.api.crafting;
 
 import blusunrize.immersiveengineering.api.ApiUtils;
 import blusunrize.immersiveengineering.api.crafting.cache.CachedRecipeList;
+import blusunrize.immersiveengineering.api.crafting.cache.RejectedInputCache;
 import blusunrize.immersiveengineering.api.utils.SetRestrictedField;
 import com.google.common.collect.Lists;
 import net.minecraft.core.NonNullList;
@@ -30,7 +31,10 @@ import java.util.List;
 public class CrusherRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<CrusherRecipe>> SERIALIZER;
-	public static final CachedRecipeList<CrusherRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.CRUSHER);
+	public static final CachedRecipeList<CrusherRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.CRUSHER, r -> List.of(r.input)
+	);
+	public static final RejectedInputCache REJECTED_INPUTS = new RejectedInputCache();
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public final Ingredient input;
@@ -70,9 +74,12 @@ public class CrusherRecipe extends MultiblockRecipe
 
 	public static RecipeHolder<CrusherRecipe> findRecipe(Level level, ItemStack input)
 	{
-		for(RecipeHolder<CrusherRecipe> recipe : RECIPES.getRecipes(level))
+		if(REJECTED_INPUTS.isRejected(input))
+			return null;
+		for(RecipeHolder<CrusherRecipe> recipe : RECIPES.getCandidates(level, input))
 			if(recipe.value().input.test(input))
 				return recipe;
+		REJECTED_INPUTS.markRejected(input);
 		return null;
 	}
 
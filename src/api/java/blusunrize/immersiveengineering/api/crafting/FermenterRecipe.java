@@ -9,6 +9,7 @@
 package blusunrize.immersiveengineering.api.crafting;
 
 import blusunrize.immersiveengineering.api.crafting.cache.CachedRecipeList;
+import blusunrize.immersiveengineering.api.crafting.cache.RejectedInputCache;
 import blusunrize.immersiveengineering.api.utils.SetRestrictedField;
 import com.google.common.collect.Lists;
 import net.minecraft.network.chat.Component;
@@ -22,6 +23,7 @@ import net.neoforged.neoforge.registries.DeferredHolder;
 
 import javax.annotation.Nonnull;
 import java.util.Comparator;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.Function;
@@ -34,7 +36,10 @@ import java.util.function.Function;
 public class FermenterRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<FermenterRecipe>> SERIALIZER;
-	public static final CachedRecipeList<FermenterRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.FERMENTER);
+	public static final CachedRecipeList<FermenterRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.FERMENTER, r -> List.of(r.input.getBaseIngredient())
+	);
+	public static final RejectedInputCache REJECTED_INPUTS = new RejectedInputCache();
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public IngredientWithSize input;
@@ -68,11 +73,18 @@ public class FermenterRecipe extends MultiblockRecipe
 
 	public static RecipeHolder<FermenterRecipe> findRecipe(Level level, ItemStack input)
 	{
-		if(input.isEmpty())
+		if(input.isEmpty()||REJECTED_INPUTS.isRejected(input))
 			return null;
-		for(RecipeHolder<FermenterRecipe> recipe : RECIPES.getRecipes(level))
+		boolean acceptsItem = false;
+		for(RecipeHolder<FermenterRecipe> recipe : RECIPES.getCandidates(level, input))
+		{
 			if(recipe.value().input.test(input))
 				return recipe;
+			acceptsItem |= recipe.value().input.testIgnoringSize(input);
+		}
+		// Only reject if a larger stack of the same item would not match either
+		if(!acceptsItem)
+			REJECTED_INPUTS.markRejected(input);
 		return null;
 	}
 
@@ -26,6 +26,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -119,6 +120,14 @@ public class IngredientWithSize implements Predicate<ItemStack>
 		return basePredicate;
 	}
 
+	public static List<Ingredient> getBaseIngredients(List<IngredientWithSize> ingredients)
+	{
+		return ingredients.stream()
+				.filter(Objects::nonNull)
+				.map(IngredientWithSize::getBaseIngredient)
+				.toList();
+	}
+
 	public IngredientWithSize withSize(int size)
 	{
 		return new IngredientWithSize(this.basePredicate, size);
@@ -29,7 +29,9 @@ import java.util.*;
 public class MixerRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<MixerRecipe>> SERIALIZER;
-	public static final CachedRecipeList<MixerRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.MIXER);
+	public static final CachedRecipeList<MixerRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.MIXER, r -> IngredientWithSize.getBaseIngredients(r.itemInputs)
+	);
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public final List<IngredientWithSize> itemInputs;
@@ -60,7 +62,7 @@ public class MixerRecipe extends MultiblockRecipe
 	{
 		if(fluid.isEmpty())
 			return null;
-		for(RecipeHolder<MixerRecipe> recipe : RECIPES.getRecipes(level))
+		for(RecipeHolder<MixerRecipe> recipe : RECIPES.getCandidates(level, components))
 			if(recipe.value().matches(fluid, components))
 				return recipe;
 		return null;
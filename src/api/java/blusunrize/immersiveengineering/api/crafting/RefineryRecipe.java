@@ -21,6 +21,7 @@ import net.neoforged.neoforge.registries.DeferredHolder;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,7 +32,9 @@ import java.util.Optional;
 public class RefineryRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<RefineryRecipe>> SERIALIZER;
-	public static final CachedRecipeList<RefineryRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.REFINERY);
+	public static final CachedRecipeList<RefineryRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.REFINERY, r -> List.of(r.catalyst)
+	);
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public final FluidStack output;
@@ -67,7 +70,7 @@ public class RefineryRecipe extends MultiblockRecipe
 
 	public static RecipeHolder<RefineryRecipe> findRecipe(Level level, FluidStack input0, @Nonnull FluidStack input1, @Nonnull ItemStack catalyst)
 	{
-		for(RecipeHolder<RefineryRecipe> holder : RECIPES.getRecipes(level))
+		for(RecipeHolder<RefineryRecipe> holder : RECIPES.getCandidates(level, catalyst))
 		{
 			RefineryRecipe recipe = holder.value();
 			if(!recipe.catalyst.test(catalyst))
@@ -9,6 +9,7 @@
 package blusunrize.immersiveengineering.api.crafting;
 
 import blusunrize.immersiveengineering.api.crafting.cache.CachedRecipeList;
+import blusunrize.immersiveengineering.api.crafting.cache.RejectedInputCache;
 import blusunrize.immersiveengineering.api.utils.SetRestrictedField;
 import com.google.common.collect.Lists;
 import net.minecraft.core.NonNullList;
@@ -24,7 +25,10 @@ import java.util.List;
 public class SawmillRecipe extends MultiblockRecipe
 {
 	public static DeferredHolder<RecipeSerializer<?>, IERecipeSerializer<SawmillRecipe>> SERIALIZER;
-	public static final CachedRecipeList<SawmillRecipe> RECIPES = new CachedRecipeList<>(IERecipeTypes.SAWMILL);
+	public static final CachedRecipeList<SawmillRecipe> RECIPES = new CachedRecipeList<>(
+			IERecipeTypes.SAWMILL, r -> List.of(r.input)
+	);
+	public static final RejectedInputCache REJECTED_INPUTS = new RejectedInputCache();
 	public static final SetRestrictedField<RecipeMultiplier> MULTIPLIERS = SetRestrictedField.common();
 
 	public final Ingredient input;
@@ -72,10 +76,12 @@ public class SawmillRecipe extends MultiblockRecipe
 
 	public static SawmillRecipe findRecipe(Level level, ItemStack input)
 	{
-		if(!input.isEmpty())
-			for(RecipeHolder<SawmillRecipe> recipe : RECIPES.getRecipes(level))
-				if(recipe.value().input.test(input))
-					return recipe.value();
+		if(input.isEmpty()||REJECTED_INPUTS.isRejected(input))
+			return null;
+		for(RecipeHolder<SawmillRecipe> recipe : RECIPES.getCandidates(level, input))
+			if(recipe.value().input.test(input))
+				return recipe.value();
+		REJECTED_INPUTS.markRejected(input);
 		return null;
 	}
 
@@ -10,8 +10,15 @@ package blusunrize.immersiveengineering.api.crafting.cache;
 
 import blusunrize.immersiveengineering.api.Lib;
 import blusunrize.immersiveengineering.api.crafting.IERecipeTypes;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Streams;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.minecraft.world.item.crafting.RecipeManager;
@@ -24,12 +31,13 @@ import net.neoforged.neoforge.client.event.RecipesUpdatedEvent;
 import net.neoforged.neoforge.event.TagsUpdatedEvent;
 
 import javax.annotation.Nonnull;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @EventBusSubscriber(modid = Lib.MODID)
@@ -40,15 +48,35 @@ public class CachedRecipeList<R extends Recipe<?>>
 
 	private final Supplier<RecipeType<R>> type;
 	private final Class<R> recipeClass;
+	@Nullable
+	private final Function<R, List<Ingredient>> getIndexedIngredients;
 	private Map<ResourceLocation, R> recipes;
 	private List<RecipeHolder<R>> recipeHolders;
+	// Index from item to the recipes that may accept it, only used if getIndexedIngredients is set
+	private Map<Item, List<RecipeHolder<R>>> candidatesByItem;
+	private Map<Item, int[]> indexedOrdinalsByItem;
+	private List<RecipeHolder<R>> unindexedRecipes;
+	private int[] unindexedOrdinals;
 	private boolean cachedDataIsClient;
 	private int cachedAtReloadCount = INVALID_RELOAD_COUNT;
 
-	public CachedRecipeList(Supplier<RecipeType<R>> type, Class<R> recipeClass)
+	/**
+	 * @param getIndexedIngredients if not null, the recipes are indexed by the items matching the returned
+	 *                              ingredients, see {@link #getCandidates(Level, ItemStack)}
+	 */
+	public CachedRecipeList(
+			Supplier<RecipeType<R>> type, Class<R> recipeClass,
+			@Nullable Function<R, List<Ingredient>> getIndexedIngredients
+	)
 	{
 		this.type = type;
 		this.recipeClass = recipeClass;
+		this.getIndexedIngredients = getIndexedIngredients;
+	}
+
+	public CachedRecipeList(Supplier<RecipeType<R>> type, Class<R> recipeClass)
+	{
+		this(type, recipeClass, null);
 	}
 
 	public CachedRecipeList(IERecipeTypes.TypeWithClass<R> type)
@@ -56,6 +84,11 @@ public class CachedRecipeList<R extends Recipe<?>>
 		this(type.type(), type.recipeClass());
 	}
 
+	public CachedRecipeList(IERecipeTypes.TypeWithClass<R> type, Function<R, List<Ingredient>> getIndexedIngredients)
+	{
+		this(type.type(), type.recipeClass(), getIndexedIngredients);
+	}
+
 	@SubscribeEvent(priority = EventPriority.HIGH)
 	public static void onTagsUpdated(TagsUpdatedEvent ev)
 	{
@@ -68,6 +101,14 @@ public class CachedRecipeList<R extends Recipe<?>>
 		++reloadCount;
 	}
 
+	/**
+	 * Forces all recipe lists to be rebuilt, for recipes that are added after the initial load
+	 */
+	public static void invalidateAll()
+	{
+		++reloadCount;
+	}
+
 	public static int getReloadCount()
 	{
 		return reloadCount;
@@ -79,6 +120,42 @@ public class CachedRecipeList<R extends Recipe<?>>
 		return Objects.requireNonNull(recipeHolders);
 	}
 
+	/**
+	 * @return all recipes where the given stack may match one of the indexed ingredients, in the same order as
+	 * {@link #getRecipes}. Recipes with ingredients that can not be enumerated (e.g. NBT-sensitive ingredients) are
+	 * always included, so the caller still has to check whether the recipes actually match.
+	 */
+	public List<RecipeHolder<R>> getCandidates(@Nonnull Level level, ItemStack stack)
+	{
+		updateCache(level.getRecipeManager(), level.isClientSide());
+		Preconditions.checkState(getIndexedIngredients!=null, "Recipe list for %s is not indexed", type.get());
+		return candidatesByItem.getOrDefault(stack.getItem(), unindexedRecipes);
+	}
+
+	/**
+	 * @return all recipes where any of the given stacks may match one of the indexed ingredients, in the same order as
+	 * {@link #getRecipes}
+	 */
+	public List<RecipeHolder<R>> getCandidates(@Nonnull Level level, Iterable<ItemStack> stacks)
+	{
+		updateCache(level.getRecipeManager(), level.isClientSide());
+		Preconditions.checkState(getIndexedIngredients!=null, "Recipe list for %s is not indexed", type.get());
+		BitSet candidates = new BitSet(recipeHolders.size());
+		for(int ordinal : unindexedOrdinals)
+			candidates.set(ordinal);
+		for(ItemStack stack : stacks)
+		{
+			int[] ordinals = indexedOrdinalsByItem.get(stack.getItem());
+			if(ordinals!=null)
+				for(int ordinal : ordinals)
+					candidates.set(ordinal);
+		}
+		List<RecipeHolder<R>> result = new ArrayList<>(candidates.cardinality());
+		for(int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i+1))
+			result.add(recipeHolders.get(i));
+		return result;
+	}
+
 	public Collection<ResourceLocation> getRecipeNames(@Nonnull Level level)
 	{
 		updateCache(level.getRecipeManager(), level.isClientSide());
@@ -112,5 +189,63 @@ public class CachedRecipeList<R extends Recipe<?>>
 				.toList();
 		this.cachedDataIsClient = isClient;
 		this.cachedAtReloadCount = reloadCount;
+		if(getIndexedIngredients!=null)
+			buildIndex();
+	}
+
+	private void buildIndex()
+	{
+		Map<Item, IntList> indexed = new IdentityHashMap<>();
+		IntList unindexed = new IntArrayList();
+		for(int i = 0; i < recipeHolders.size(); ++i)
+		{
+			Set<Item> keys = getIndexKeys(getIndexedIngredients.apply(recipeHolders.get(i).value()));
+			if(keys==null)
+				unindexed.add(i);
+			else
+				for(Item key : keys)
+					indexed.computeIfAbsent(key, $ -> new IntArrayList()).add(i);
+		}
+		this.unindexedOrdinals = unindexed.toIntArray();
+		this.unindexedRecipes = getHolders(unindexedOrdinals);
+		this.indexedOrdinalsByItem = new IdentityHashMap<>();
+		this.candidatesByItem = new IdentityHashMap<>();
+		for(Entry<Item, IntList> entry : indexed.entrySet())
+		{
+			int[] ordinals = entry.getValue().toIntArray();
+			indexedOrdinalsByItem.put(entry.getKey(), ordinals);
+			// Unindexed recipes are candidates for every item, so merge them into the indexed ones
+			int[] merged = IntStream.concat(Arrays.stream(ordinals), Arrays.stream(unindexedOrdinals)).sorted().toArray();
+			candidatesByItem.put(entry.getKey(), getHolders(merged));
+		}
+	}
+
+	private List<RecipeHolder<R>> getHolders(int[] ordinals)
+	{
+		return Arrays.stream(ordinals).mapToObj(recipeHolders::get).toList();
+	}
+
+	/**
+	 * @return the items that can match any of the given ingredients, or null if those can not be determined
+	 */
+	@Nullable
+	private static Set<Item> getIndexKeys(List<Ingredient> ingredients)
+	{
+		if(ingredients.isEmpty())
+			return null;
+		Set<Item> keys = Collections.newSetFromMap(new IdentityHashMap<>());
+		for(Ingredient ingredient : ingredients)
+		{
+			// Non-simple ingredients may depend on more than the item
+			if(!ingredient.isSimple())
+				return null;
+			// Empty ingredients match empty stacks
+			if(ingredient.isEmpty())
+				keys.add(Items.AIR);
+			else
+				for(ItemStack stack : ingredient.getItems())
+					keys.add(stack.getItem());
+		}
+		return keys;
 	}
 }
@@ -0,0 +1,128 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.crafting.cache;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU set of item/NBT combinations that are known not to match any recipe of some type. Machines that are
+ * offered many unprocessable items (e.g. from a mixed conveyor line) can use this to skip repeated recipe lookups.
+ * The cache is cleared whenever recipes or tags are reloaded, see {@link CachedRecipeList#getReloadCount()}.
+ */
+public class RejectedInputCache
+{
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final Map<Key, Boolean> rejected;
+	private int cachedAtReloadCount = CachedRecipeList.INVALID_RELOAD_COUNT;
+	private long hits = 0;
+	private long misses = 0;
+
+	public RejectedInputCache(int maxSize)
+	{
+		this.rejected = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest)
+			{
+				return size() > maxSize;
+			}
+		};
+	}
+
+	public RejectedInputCache()
+	{
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @return true if the item and NBT of the given stack were marked as rejected since the last reload
+	 */
+	public synchronized boolean isRejected(ItemStack stack)
+	{
+		checkReloadCount();
+		if(rejected.get(new Key(stack.getItem(), stack.getTag()))!=null)
+		{
+			++hits;
+			return true;
+		}
+		++misses;
+		return false;
+	}
+
+	/**
+	 * Marks the item and NBT of the given stack as not matching any recipe, independent of the stack size
+	 */
+	public synchronized void markRejected(ItemStack stack)
+	{
+		checkReloadCount();
+		CompoundTag tag = stack.getTag();
+		rejected.put(new Key(stack.getItem(), tag!=null?tag.copy(): null), Boolean.TRUE);
+	}
+
+	private void checkReloadCount()
+	{
+		if(cachedAtReloadCount!=CachedRecipeList.getReloadCount())
+		{
+			rejected.clear();
+			cachedAtReloadCount = CachedRecipeList.getReloadCount();
+		}
+	}
+
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	public synchronized int getSize()
+	{
+		return rejected.size();
+	}
+
+	public synchronized void resetStats()
+	{
+		hits = misses = 0;
+	}
+
+	private record Key(Item item, @Nullable CompoundTag tag, int hash)
+	{
+		private Key(Item item, @Nullable CompoundTag tag)
+		{
+			this(item, tag, 31*item.hashCode()+Objects.hashCode(tag));
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(this==o)
+				return true;
+			if(!(o instanceof Key other))
+				return false;
+			return item==other.item&&hash==other.hash&&Objects.equals(tag, other.tag);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+}
@@ -40,8 +40,21 @@ import java.util.stream.Collectors;
 public class ExcavatorHandler
 {
 	private static final Multimap<ResourceKey<Level>, MineralVein> MINERAL_VEIN_LIST = ArrayListMultimap.create();
+	private static final int MAX_CACHED_INFOS = 4096;
 	// Only access when synchronized on MINERAL_VEIN_LIST
-	private static final Map<Pair<ResourceKey<Level>, ColumnPos>, MineralWorldInfo> MINERAL_INFO_CACHE = new HashMap<>();
+	private static final Map<Pair<ResourceKey<Level>, ColumnPos>, MineralWorldInfo> MINERAL_INFO_CACHE = new LinkedHashMap<>(
+			16, 0.75f, true
+	)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Pair<ResourceKey<Level>, ColumnPos>, MineralWorldInfo> eldest)
+		{
+			return size() > MAX_CACHED_INFOS;
+		}
+	};
+	// Only access when synchronized on MINERAL_VEIN_LIST, null if it needs to be rebuilt from MINERAL_VEIN_LIST
+	@Nullable
+	private static Map<ResourceKey<Level>, MineralVeinGrid> veinGrids = null;
 	static final SetRestrictedField<Runnable> MARK_SAVE_DATA_DIRTY = SetRestrictedField.common();
 	public static int mineralVeinYield = 0;
 	public static double initialVeinDepletion = 0;
@@ -81,8 +94,9 @@ public class ExcavatorHandler
 			{
 				List<Pair<MineralVein, Double>> inVeins = new ArrayList<>();
 				double totalSaturation = 0;
-				// Iterate all known veins
-				for(MineralVein vein : MINERAL_VEIN_LIST.get(dimension))
+				// Iterate all veins that may contain the position
+				MineralVeinGrid grid = getVeinGrid(dimension);
+				for(MineralVein vein : grid.getVeinsNear(columnPos, grid.getMaxRadius()))
 				{
 					// Use longs here to avoid overflow issues (#4468)
 					// With longs we can handle distances up to roughly 2**31 * sqrt(2), much larger than the maximum
@@ -122,7 +136,8 @@ public class ExcavatorHandler
 		synchronized(MINERAL_VEIN_LIST)
 		{
 			// filter maps already sold, then fiter by radius, finally order by weight
-			foundVeins = MINERAL_VEIN_LIST.get(dimension).stream()
+			ColumnPos villagerColumn = new ColumnPos(villagerPos.getX(), villagerPos.getZ());
+			foundVeins = getVeinGrid(dimension).getVeinsNear(villagerColumn, radius).stream()
 					.filter(vein -> !excludedPositions.contains(vein.getPos().toLong()))
 					.filter(vein -> {
 						long dX = vein.getPos().x()-villagerPos.getX();
@@ -163,7 +178,8 @@ public class ExcavatorHandler
 				ColumnPos finalPos = pos;
 				int radius = 12+rand.nextInt(32);
 				int radiusSq = radius*radius;
-				boolean crossover = MINERAL_VEIN_LIST.get(world.dimension()).stream().anyMatch(vein -> {
+				MineralVeinGrid grid = getVeinGrid(world.dimension());
+				boolean crossover = grid.getVeinsNear(finalPos, Math.max(radius, grid.getMaxRadius())).stream().anyMatch(vein -> {
 					// Use longs to prevent overflow
 					long dX = vein.getPos().x()-finalPos.x();
 					long dZ = vein.getPos().z()-finalPos.z();
@@ -210,7 +226,17 @@ public class ExcavatorHandler
 		synchronized(MINERAL_VEIN_LIST)
 		{
 			MINERAL_VEIN_LIST.put(dimension, vein);
-			resetCache();
+			if(veinGrids!=null)
+				veinGrids.computeIfAbsent(dimension, $ -> new MineralVeinGrid()).add(vein);
+			// Only columns inside the new vein are affected
+			long radiusSq = (long)vein.getRadius()*vein.getRadius();
+			MINERAL_INFO_CACHE.keySet().removeIf(key -> {
+				if(!key.getFirst().equals(dimension))
+					return false;
+				long dX = vein.getPos().x()-key.getSecond().x();
+				long dZ = vein.getPos().z()-key.getSecond().z();
+				return dX*dX+dZ*dZ < radiusSq;
+			});
 		}
 	}
 
@@ -219,7 +245,20 @@ public class ExcavatorHandler
 		synchronized(MINERAL_VEIN_LIST)
 		{
 			MINERAL_INFO_CACHE.clear();
+			veinGrids = null;
+		}
+	}
+
+	// Only call when synchronized on MINERAL_VEIN_LIST
+	private static MineralVeinGrid getVeinGrid(ResourceKey<Level> dimension)
+	{
+		if(veinGrids==null)
+		{
+			veinGrids = new HashMap<>();
+			for(Map.Entry<ResourceKey<Level>, MineralVein> entry : MINERAL_VEIN_LIST.entries())
+				veinGrids.computeIfAbsent(entry.getKey(), $ -> new MineralVeinGrid()).add(entry.getValue());
 		}
+		return veinGrids.computeIfAbsent(dimension, $ -> new MineralVeinGrid());
 	}
 
 	public static void setSetDirtyCallback(Runnable setDirty)
@@ -0,0 +1,78 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.excavator;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.server.level.ColumnPos;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Uniform grid over the centers of the mineral veins in one dimension. Queries return veins in the order they were
+ * added, so results match a linear scan over the vein list.
+ */
+class MineralVeinGrid
+{
+	// 64 blocks, the maximum radius of veins created by commands
+	private static final int CELL_SHIFT = 6;
+
+	private final Long2ObjectMap<List<IndexedVein>> cells = new Long2ObjectOpenHashMap<>();
+	private int nextOrdinal = 0;
+	private int maxRadius = 0;
+
+	public void add(MineralVein vein)
+	{
+		ColumnPos pos = vein.getPos();
+		long key = ChunkPos.asLong(pos.x() >> CELL_SHIFT, pos.z() >> CELL_SHIFT);
+		cells.computeIfAbsent(key, $ -> new ArrayList<>()).add(new IndexedVein(vein, nextOrdinal++));
+		maxRadius = Math.max(maxRadius, vein.getRadius());
+	}
+
+	/**
+	 * @return the largest radius of any vein in the grid
+	 */
+	public int getMaxRadius()
+	{
+		return maxRadius;
+	}
+
+	/**
+	 * @return all veins with a center at most range blocks away from pos on both axes, in the order they were added
+	 */
+	public List<MineralVein> getVeinsNear(ColumnPos pos, long range)
+	{
+		// Clamp to avoid overflows, the world border is far inside of this range
+		long clampedRange = Math.min(range, 1<<26);
+		int minX = (int)((pos.x()-clampedRange) >> CELL_SHIFT);
+		int maxX = (int)((pos.x()+clampedRange) >> CELL_SHIFT);
+		int minZ = (int)((pos.z()-clampedRange) >> CELL_SHIFT);
+		int maxZ = (int)((pos.z()+clampedRange) >> CELL_SHIFT);
+		List<IndexedVein> found = new ArrayList<>();
+		for(int x = minX; x <= maxX; ++x)
+			for(int z = minZ; z <= maxZ; ++z)
+			{
+				List<IndexedVein> inCell = cells.get(ChunkPos.asLong(x, z));
+				if(inCell!=null)
+					found.addAll(inCell);
+			}
+		found.sort(Comparator.comparingInt(IndexedVein::ordinal));
+		List<MineralVein> result = new ArrayList<>(found.size());
+		for(IndexedVein vein : found)
+			result.add(vein.vein());
+		return result;
+	}
+
+	private record IndexedVein(MineralVein vein, int ordinal)
+	{
+	}
+}
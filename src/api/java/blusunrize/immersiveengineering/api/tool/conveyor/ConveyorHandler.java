@@ -237,6 +237,15 @@ public class ConveyorHandler
 	{
 		T getConveyorInstance();
 
+		/**
+		 * @return a cache for the outputs of the conveyor, or null if they should be looked up on every access
+		 */
+		@Nullable
+		default ConveyorOutputCache getOutputCache()
+		{
+			return null;
+		}
+
 		@Override
 		default Direction[] sigOutputDirections()
 		{
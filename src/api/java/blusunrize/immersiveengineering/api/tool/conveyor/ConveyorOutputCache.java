@@ -0,0 +1,199 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.tool.conveyor;
+
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.ConveyorDirection;
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.IConveyorBlockEntity;
+import blusunrize.immersiveengineering.api.utils.CapabilityUtils;
+import blusunrize.immersiveengineering.api.utils.SafeChunkUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.FullChunkStatus;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.neoforged.neoforge.capabilities.Capabilities.ItemHandler;
+import net.neoforged.neoforge.items.IItemHandler;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Caches the conveyors and inventories a conveyor belt outputs to, so entity collisions do not need to look them up
+ * again on every tick. The cache is invalidated by neighbor updates, by changes of the facing or direction of the belt
+ * and by capability invalidation at any of the cached positions, i.e. whenever a block entity is added or removed or
+ * the chunk is loaded or unloaded. Conveyors whose {@link IConveyorBelt#getNextConveyorCandidates()} depend on other
+ * state need to call {@link #invalidate()} when that state changes.
+ * <br>
+ * Capability invalidation is only available on server levels, so client belts resolve their outputs directly.
+ */
+public class ConveyorOutputCache
+{
+	private static final IConveyorBelt[] NO_CONVEYORS = new IConveyorBelt[0];
+	private static final LevelChunk[] NO_CHUNKS = new LevelChunk[0];
+
+	private final IConveyorBelt belt;
+	private boolean valid = false;
+	// Set if some of the positions were in unloaded chunks on the last rebuild. Loading them invalidates the
+	// capabilities, so there is no need to rebuild before that.
+	private boolean waitingForChunks = false;
+	private int generation = 0;
+	@Nullable
+	private Direction facing;
+	@Nullable
+	private ConveyorDirection direction;
+	// Capability invalidation listeners are only weakly referenced by the level
+	private final List<BlockCapabilityCache<IItemHandler, Direction>> listeners = new ArrayList<>();
+	private LevelChunk[] candidateChunks = NO_CHUNKS;
+	private IConveyorBelt[] candidateConveyors = NO_CONVEYORS;
+	@Nullable
+	private BlockPos inventoryPos;
+	@Nullable
+	private BlockCapabilityCache<IItemHandler, Direction> inventory;
+	private boolean inventoryIsConveyor;
+	private boolean conveyorInFront;
+
+	public ConveyorOutputCache(IConveyorBelt belt)
+	{
+		this.belt = belt;
+	}
+
+	public void invalidate()
+	{
+		valid = false;
+		waitingForChunks = false;
+	}
+
+	/**
+	 * Rebuilds the cache if necessary. The other methods may only be called if this returned true.
+	 *
+	 * @return false if the cache can not be used and the outputs need to be looked up directly
+	 */
+	public boolean update()
+	{
+		BlockEntity be = belt.getBlockEntity();
+		if(!(be.getLevel() instanceof ServerLevel level))
+			return false;
+		boolean sameOrientation = facing==belt.getFacing()&&direction==belt.getConveyorDirection();
+		if(waitingForChunks&&sameOrientation)
+			return false;
+		if(!valid||!sameOrientation)
+			rebuild(level, be);
+		return valid;
+	}
+
+	private void rebuild(ServerLevel level, BlockEntity be)
+	{
+		final int currentGeneration = ++generation;
+		BooleanSupplier isValid = () -> generation==currentGeneration&&!be.isRemoved();
+		listeners.clear();
+		facing = belt.getFacing();
+		direction = belt.getConveyorDirection();
+		Direction side = facing.getOpposite();
+		// Outputs in chunks that are not loaded are looked up directly until the chunks are loaded
+		boolean allLoaded = true;
+
+		List<BlockPos> candidates = belt.getNextConveyorCandidates();
+		candidateChunks = new LevelChunk[candidates.size()];
+		candidateConveyors = new IConveyorBelt[candidates.size()];
+		for(int i = 0; i < candidates.size(); ++i)
+		{
+			BlockPos pos = candidates.get(i);
+			listen(level, pos, side, isValid);
+			LevelChunk chunk = SafeChunkUtils.getSafeChunk(level, pos);
+			candidateChunks[i] = chunk;
+			if(chunk==null)
+				allLoaded = false;
+			else if(chunk.getBlockEntity(pos) instanceof IConveyorBlockEntity<?> conveyor)
+				candidateConveyors[i] = conveyor.getConveyorInstance();
+		}
+
+		inventoryPos = belt.getOutputInventory();
+		inventory = listen(level, inventoryPos, side, isValid);
+		inventoryIsConveyor = SafeChunkUtils.getSafeBE(level, inventoryPos) instanceof IConveyorBlockEntity;
+
+		BlockPos front = be.getBlockPos().relative(facing);
+		listen(level, front, side, isValid);
+		conveyorInFront = SafeChunkUtils.getSafeBE(level, front) instanceof IConveyorBlockEntity;
+		allLoaded &= SafeChunkUtils.isChunkSafe(level, inventoryPos)&&SafeChunkUtils.isChunkSafe(level, front);
+
+		valid = allLoaded;
+		waitingForChunks = !allLoaded;
+	}
+
+	private BlockCapabilityCache<IItemHandler, Direction> listen(
+			ServerLevel level, BlockPos pos, Direction side, BooleanSupplier isValid
+	)
+	{
+		BlockCapabilityCache<IItemHandler, Direction> cache = BlockCapabilityCache.create(
+				ItemHandler.BLOCK, level, pos, side, isValid, this::invalidate
+		);
+		listeners.add(cache);
+		return cache;
+	}
+
+	/**
+	 * @see IConveyorBelt#isOutputBlocked()
+	 */
+	public boolean isOutputBlocked()
+	{
+		for(int i = 0; i < candidateChunks.length; ++i)
+		{
+			// Do not export entities into non-ticking chunks, where they would pile up at the boundary
+			if(!candidateChunks[i].getFullStatus().isOrAfter(FullChunkStatus.ENTITY_TICKING))
+				return true;
+			if(candidateConveyors[i]!=null)
+				return candidateConveyors[i].isBlocked();
+		}
+		return false;
+	}
+
+	/**
+	 * @see IConveyorBelt#getOutputConveyor()
+	 */
+	@Nullable
+	public IConveyorBelt getOutputConveyor()
+	{
+		for(IConveyorBelt conveyor : candidateConveyors)
+			if(conveyor!=null)
+				return conveyor;
+		return null;
+	}
+
+	/**
+	 * @return true if the block at {@link IConveyorBelt#getOutputInventory()} is a conveyor
+	 */
+	public boolean isOutputInventoryConveyor()
+	{
+		return inventoryIsConveyor;
+	}
+
+	/**
+	 * @return the item handler at {@link IConveyorBelt#getOutputInventory()}, or of a minecart on a rail there
+	 */
+	@Nullable
+	public IItemHandler getOutputInventory()
+	{
+		IItemHandler blockHandler = inventory.getCapability();
+		if(blockHandler!=null)
+			return blockHandler;
+		return CapabilityUtils.findCartItemHandlerAtPos(inventory.level(), inventoryPos);
+	}
+
+	/**
+	 * @return true if the block in front of the belt (ignoring its direction) is a conveyor
+	 */
+	public boolean isConveyorInFront()
+	{
+		return conveyorInFront;
+	}
+}
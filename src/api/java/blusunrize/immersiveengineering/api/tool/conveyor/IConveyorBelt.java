@@ -36,6 +36,7 @@ import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.phys.Vec3;
 import net.minecraft.world.phys.shapes.Shapes;
 import net.minecraft.world.phys.shapes.VoxelShape;
+import net.neoforged.neoforge.items.IItemHandler;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -231,12 +232,8 @@ public interface IConveyorBelt
 			}
 			if(!contact)
 				ConveyorHandler.applyMagnetSuppression(entity, (IConveyorBlockEntity<?>)getBlockEntity());
-			else
-			{
-				BlockPos nextPos = getBlockEntity().getBlockPos().relative(getFacing());
-				if(!(SafeChunkUtils.getSafeBE(getBlockEntity().getLevel(), nextPos) instanceof IConveyorBlockEntity))
-					ConveyorHandler.revertMagnetSuppression(entity, (IConveyorBlockEntity<?>)getBlockEntity());
-			}
+			else if(!isConveyorInFront())
+				ConveyorHandler.revertMagnetSuppression(entity, (IConveyorBlockEntity<?>)getBlockEntity());
 
 			// In the first tick this could be an entity the conveyor belt just dropped, causing #3023
 			if(entity instanceof ItemEntity item&&entity.tickCount > 1)
@@ -258,8 +255,42 @@ public interface IConveyorBelt
 		return false;
 	}
 
+	/**
+	 * @return the output cache of the block entity containing this belt, if it has one
+	 */
+	@Nullable
+	default ConveyorOutputCache getOutputCache()
+	{
+		if(getBlockEntity() instanceof IConveyorBlockEntity<?> conveyorBE)
+			return conveyorBE.getOutputCache();
+		return null;
+	}
+
+	/**
+	 * Invalidates the output cache, needs to be called when state other than the facing or the conveyor direction
+	 * affecting {@link #getNextConveyorCandidates()} or {@link #getOutputInventory()} changes
+	 */
+	default void invalidateOutputCache()
+	{
+		ConveyorOutputCache cache = getOutputCache();
+		if(cache!=null)
+			cache.invalidate();
+	}
+
+	private boolean isConveyorInFront()
+	{
+		ConveyorOutputCache cache = getOutputCache();
+		if(cache!=null&&cache.update())
+			return cache.isConveyorInFront();
+		BlockPos nextPos = getBlockEntity().getBlockPos().relative(getFacing());
+		return SafeChunkUtils.getSafeBE(getBlockEntity().getLevel(), nextPos) instanceof IConveyorBlockEntity;
+	}
+
 	default boolean isOutputBlocked()
 	{
+		ConveyorOutputCache cache = getOutputCache();
+		if(cache!=null&&cache.update())
+			return cache.isOutputBlocked();
 		Level level = Objects.requireNonNull(getBlockEntity().getLevel());
 		for(BlockPos pos : getNextConveyorCandidates())
 		{
@@ -284,11 +315,21 @@ public interface IConveyorBelt
 
 	default void handleInsertion(ItemEntity entity, ConveyorDirection conDir, double distX, double distZ)
 	{
+		boolean contact = getFacing().getAxis()==Axis.Z?distZ < .7: distX < .7;
+		if(!contact)
+			return;
+		ConveyorOutputCache cache = getOutputCache();
+		if(cache!=null&&cache.update())
+		{
+			IItemHandler handler = cache.isOutputInventoryConveyor()?null: cache.getOutputInventory();
+			if(handler!=null)
+				ItemUtils.tryInsertEntity(handler, entity);
+			return;
+		}
 		BlockPos invPos = getOutputInventory();
 		Level world = getBlockEntity().getLevel();
-		boolean contact = getFacing().getAxis()==Axis.Z?distZ < .7: distX < .7;
 		BlockEntity inventoryTile = SafeChunkUtils.getSafeBE(world, invPos);
-		if(!contact||inventoryTile instanceof IConveyorBlockEntity)
+		if(inventoryTile instanceof IConveyorBlockEntity)
 			return;
 
 		ItemUtils.tryInsertEntity(world, invPos, getFacing().getOpposite(), entity);
@@ -318,6 +359,9 @@ public interface IConveyorBelt
 	@Nullable
 	default IConveyorBelt getOutputConveyor()
 	{
+		ConveyorOutputCache cache = getOutputCache();
+		if(cache!=null&&cache.update())
+			return cache.getOutputConveyor();
 		for(BlockPos pos : getNextConveyorCandidates())
 		{
 			BlockEntity outputTile = SafeChunkUtils.getSafeBE(getBlockEntity().getLevel(), pos);
@@ -28,8 +28,15 @@ public class CapabilityUtils
 	)
 	{
 		IItemHandler blockHandler = world.getCapability(ItemHandler.BLOCK, pos, side);
-		if(blockHandler!=null||!allowCart||!BaseRailBlock.isRail(world, pos))
+		if(blockHandler!=null||!allowCart)
 			return blockHandler;
+		return findCartItemHandlerAtPos(world, pos);
+	}
+
+	public static @Nullable IItemHandler findCartItemHandlerAtPos(Level world, BlockPos pos)
+	{
+		if(!BaseRailBlock.isRail(world, pos))
+			return null;
 		List<Entity> list = world.getEntities((Entity)null, new AABB(pos), entity -> entity instanceof IAbstractMinecartExtension);
 		if(!list.isEmpty())
 			return list.get(world.random.nextInt(list.size())).getCapability(ItemHandler.ENTITY);
@@ -69,8 +69,12 @@ public class ItemUtils
 	public static void tryInsertEntity(Level level, BlockPos pos, Direction side, ItemEntity toInsert)
 	{
 		IItemHandler itemHandler = CapabilityUtils.findItemHandlerAtPos(level, pos, side, true);
-		if(itemHandler==null)
-			return;
+		if(itemHandler!=null)
+			tryInsertEntity(itemHandler, toInsert);
+	}
+
+	public static void tryInsertEntity(IItemHandler itemHandler, ItemEntity toInsert)
+	{
 		ItemStack stack = toInsert.getItem();
 		ItemStack temp = ItemHandlerHelper.insertItem(itemHandler, stack, true);
 		if(temp.getCount() < stack.getCount())
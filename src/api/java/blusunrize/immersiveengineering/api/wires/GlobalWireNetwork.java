@@ -21,9 +21,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArraySet;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
@@ -60,6 +64,7 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 {
 	public static final SetRestrictedField<BooleanSupplier> SANITIZE_CONNECTIONS = SetRestrictedField.common();
 	public static final SetRestrictedField<BooleanSupplier> VALIDATE_CONNECTIONS = SetRestrictedField.common();
+	public static final SetRestrictedField<BooleanSupplier> PARALLEL_TICKING = SetRestrictedField.common();
 	@Internal
 	public static final SetRestrictedField<Function<Level, GlobalWireNetwork>> GET_NET_UNCACHED = SetRestrictedField.common();
 
@@ -70,7 +75,10 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 	private static GlobalWireNetwork lastClientNet = null;
 
 	private final Map<ConnectionPoint, LocalWireNetwork> localNetsByPos = new HashMap<>();
-	private final Set<LocalWireNetwork> localNetSet = new ReferenceOpenHashSet<>();
+	// Keys of localNetsByPos, indexed by chunk
+	private final Long2ObjectMap<Set<ConnectionPoint>> connectionPointsByChunk = new Long2ObjectOpenHashMap<>();
+	// Insertion order, so nets are ticked in a deterministic order
+	private final Set<LocalWireNetwork> localNetSet = new ReferenceLinkedOpenHashSet<>();
 	private final WireCollisionData collisionData;
 	private final IICProxyProvider proxyProvider;
 	private final IWireSyncManager syncManager;
@@ -223,6 +231,7 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 		localNetSet.forEach(LocalWireNetwork::setInvalid);
 		localNetSet.clear();
 		localNetsByPos.clear();
+		connectionPointsByChunk.clear();
 		ListTag locals = nbt.getList("locals", Tag.TAG_COMPOUND);
 		for(Tag b : locals)
 		{
@@ -262,6 +271,7 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 			);
 			newNet.addConnector(pos, proxy, this);
 			localNetSet.add(newNet);
+			addToChunkIndex(pos);
 			return newNet;
 		});
 		Preconditions.checkState(ret.isValid(pos), "%s is not a valid net", ret);
@@ -451,7 +461,12 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 			return;
 		// Copy local nets before looping. If wires burn localNetSet will be modified, causing crashes (not CME because
 		// FastUtil doesn't check for those, but random NPEs like in #5374 instead)
-		for(LocalWireNetwork net : localNetSet.toArray(LocalWireNetwork[]::new))
+		LocalWireNetwork[] nets = localNetSet.toArray(LocalWireNetwork[]::new);
+		// Local nets do not share any state, so the world-independent part of their ticks can run in parallel. Side
+		// effects are applied in the usual order afterwards
+		if(nets.length > 1&&PARALLEL_TICKING.get().getAsBoolean())
+			Arrays.stream(nets).parallel().forEach(LocalWireNetwork::prepareTick);
+		for(LocalWireNetwork net : nets)
 			net.update(world);
 		if(SANITIZE_CONNECTIONS.get().getAsBoolean())
 			NetworkSanitizer.tick(world, this);
@@ -530,6 +545,20 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 			WireLogger.logger.warn("Actual set, but not in stored set: {}", new HashSet<>(Sets.difference(actualLocalSet, localNetSet)));
 			WireLogger.logger.warn("Stored set, but not in actual set: {}", new HashSet<>(Sets.difference(localNetSet, actualLocalSet)));
 		}
+		Set<ConnectionPoint> indexedPoints = new HashSet<>();
+		for(Long2ObjectMap.Entry<Set<ConnectionPoint>> chunk : connectionPointsByChunk.long2ObjectEntrySet())
+			for(ConnectionPoint cp : chunk.getValue())
+			{
+				if(getChunkKey(cp)!=chunk.getLongKey())
+					WireLogger.logger.warn("{} is indexed in chunk {}", cp, new ChunkPos(chunk.getLongKey()));
+				indexedPoints.add(cp);
+			}
+		if(!indexedPoints.equals(localNetsByPos.keySet()))
+		{
+			WireLogger.logger.warn("Chunk index does not match key set of local nets by position");
+			WireLogger.logger.warn("Indexed, but without net: {}", new HashSet<>(Sets.difference(indexedPoints, localNetsByPos.keySet())));
+			WireLogger.logger.warn("With net, but not indexed: {}", new HashSet<>(Sets.difference(localNetsByPos.keySet(), indexedPoints)));
+		}
 		WireLogger.logger.info("Validated!");
 		validating = false;
 	}
@@ -541,12 +570,10 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 
 	public Collection<ConnectionPoint> getAllConnectorsIn(ChunkPos pos)
 	{
-		//TODO better way of finding all connectors in a chunk
-		Collection<ConnectionPoint> ret = new ArrayList<>();
-		for(ConnectionPoint cp : localNetsByPos.keySet())
-			if(pos.equals(new ChunkPos(cp.position())))
-				ret.add(cp);
-		return ret;
+		Set<ConnectionPoint> inChunk = connectionPointsByChunk.get(pos.toLong());
+		if(inChunk==null)
+			return List.of();
+		return new ArrayList<>(inChunk);
 	}
 
 	// Internal use only, for network sanitization
@@ -554,19 +581,42 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 	{
 		LocalWireNetwork local = getNullableLocalNet(cp);
 		if(local!=null)
+		{
 			local.removeCP(cp);
+			putLocalNet(cp, null);
+		}
 	}
 
 	void removeConnector(BlockPos pos)
 	{
 		Collection<ConnectionPoint> cpsAtInvalid = new ArrayList<>();
-		for(ConnectionPoint cp : localNetsByPos.keySet())
+		for(ConnectionPoint cp : getAllConnectorsIn(new ChunkPos(pos)))
 			if(cp.position().equals(pos))
 				cpsAtInvalid.add(cp);
 		for(ConnectionPoint toRemove : cpsAtInvalid)
 			removeCP(toRemove);
 	}
 
+	private static long getChunkKey(ConnectionPoint cp)
+	{
+		return ChunkPos.asLong(
+				SectionPos.blockToSectionCoord(cp.getX()), SectionPos.blockToSectionCoord(cp.getZ())
+		);
+	}
+
+	private void addToChunkIndex(ConnectionPoint cp)
+	{
+		connectionPointsByChunk.computeIfAbsent(getChunkKey(cp), l -> new HashSet<>()).add(cp);
+	}
+
+	private void removeFromChunkIndex(ConnectionPoint cp)
+	{
+		final long chunkKey = getChunkKey(cp);
+		Set<ConnectionPoint> inChunk = connectionPointsByChunk.get(chunkKey);
+		if(inChunk!=null&&inChunk.remove(cp)&&inChunk.isEmpty())
+			connectionPointsByChunk.remove(chunkKey);
+	}
+
 	public void updateCatenaryData(Connection conn)
 	{
 		processQueuedLoads();
@@ -593,11 +643,12 @@ public class GlobalWireNetwork extends SavedData implements IWorldTickable
 		}
 		if(net!=null)
 		{
-			localNetsByPos.put(cp, net);
+			if(localNetsByPos.put(cp, net)==null)
+				addToChunkIndex(cp);
 			localNetSet.add(net);
 		}
-		else
-			localNetsByPos.remove(cp);
+		else if(localNetsByPos.remove(cp)!=null)
+			removeFromChunkIndex(cp);
 	}
 
 	public IImmersiveConnectable getExistingConnector(ConnectionPoint cp)
@@ -9,6 +9,7 @@
 package blusunrize.immersiveengineering.api.wires;
 
 import blusunrize.immersiveengineering.api.wires.localhandlers.ILocalHandlerProvider;
+import blusunrize.immersiveengineering.api.wires.localhandlers.IParallelTickable;
 import blusunrize.immersiveengineering.api.wires.localhandlers.IWorldTickable;
 import blusunrize.immersiveengineering.api.wires.localhandlers.LocalNetworkHandler;
 import blusunrize.immersiveengineering.api.wires.proxy.IICProxyProvider;
@@ -434,6 +435,17 @@ public class LocalWireNetwork implements IWorldTickable
 		return getConnector(cp.position());
 	}
 
+	/**
+	 * Runs the part of the tick that does not modify the world, see {@link IParallelTickable}. Must be followed by a
+	 * call to {@link #update}.
+	 */
+	public void prepareTick()
+	{
+		for(LocalNetworkHandler handler : handlers.values())
+			if(handler instanceof IParallelTickable parallelTickable)
+				parallelTickable.prepareTick();
+	}
+
 	@Override
 	public void update(Level w)
 	{
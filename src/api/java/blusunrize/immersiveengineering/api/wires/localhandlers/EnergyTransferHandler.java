@@ -10,10 +10,16 @@ package blusunrize.immersiveengineering.api.wires.localhandlers;
 
 import blusunrize.immersiveengineering.api.Lib;
 import blusunrize.immersiveengineering.api.wires.*;
-import blusunrize.immersiveengineering.api.wires.utils.BinaryHeap;
-import blusunrize.immersiveengineering.api.wires.utils.BinaryHeap.HeapEntry;
+import blusunrize.immersiveengineering.api.wires.utils.FlatWireGraph;
+import blusunrize.immersiveengineering.api.wires.utils.IndexedMinHeap;
 import com.google.common.base.Preconditions;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
 import it.unimi.dsi.fastutil.objects.Object2DoubleMaps;
 import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
@@ -27,21 +33,39 @@ import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.function.Consumer;
 
-public class EnergyTransferHandler extends LocalNetworkHandler implements IWorldTickable
+public class EnergyTransferHandler extends LocalNetworkHandler implements IParallelTickable
 {
 	public static final ResourceLocation ID = new ResourceLocation(Lib.MODID, "energy_transfer");
+	// If more wires than this are added or removed between two updates, rebuilding all paths is cheaper
+	private static final int MAX_INCREMENTAL_CONNECTIONS = 8;
 
-	private final Map<ConnectionPoint, Map<ConnectionPoint, Path>> energyPaths = new HashMap<>();
+	private final FlatWireGraph graph = new FlatWireGraph(EnergyTransferHandler::getBasicLoss);
+	private int graphGeneration = -1;
+	// Shortest path trees, by ID of the root point
+	private final Int2ObjectMap<PathTree> energyPaths = new Int2ObjectOpenHashMap<>();
 	private Object2DoubleOpenHashMap<Connection> transferredNextTick = new Object2DoubleOpenHashMap<>();
-	private Object2DoubleMap<Connection> transferredLastTick = new Object2DoubleOpenHashMap<>();
+	private Object2DoubleOpenHashMap<Connection> transferredLastTick = new Object2DoubleOpenHashMap<>();
 	private final Map<ConnectionPoint, EnergyConnector> sources = new HashMap<>();
 	private final Map<ConnectionPoint, EnergyConnector> sinks = new HashMap<>();
-	private final List<SinkPathsFromSource> transferPaths = new ArrayList<>();
-	private boolean sourceSinkMapInitialized = true;
-	HashMap<Connection, List<Double>> limits = new HashMap<>();
+	// Flat copies of sources and sinks for the transfer code
+	private final IntList sourceIds = new IntArrayList();
+	private final List<EnergyConnector> sourceConnectors = new ArrayList<>();
+	private final IntList sinkIds = new IntArrayList();
+	private final List<EnergyConnector> sinkConnectors = new ArrayList<>();
+	// Power limits, by connection ID. NaN for unlimited connections
+	private double[] powerLimits = new double[0];
+	private double[] remainingLimits = new double[0];
+	private final IntList limitedConnections = new IntArrayList();
+	private int connectionChanges = 0;
+	// Scratch data, only valid during a single method call
+	private final IndexedMinHeap heap = new IndexedMinHeap();
+	private final IntList detached = new IntArrayList();
+	private int[] detachState = new int[0];
+	private double[] requiredAtSource = new double[0];
+	// Transfers that have been computed but not applied to the connectors yet
+	private final PendingTransfers pending = new PendingTransfers();
+	private boolean tickPrepared = false;
 
 	public EnergyTransferHandler(LocalWireNetwork net, GlobalWireNetwork global)
 	{
@@ -51,46 +75,65 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 	@Override
 	public LocalNetworkHandler merge(LocalNetworkHandler other)
 	{
-		reset();
+		// The paths in this net stay valid, the connections of the other net are picked up as new connections
+		transferredNextTick.clear();
+		transferredLastTick.clear();
 		return this;
 	}
 
 	@Override
 	public void onConnectorLoaded(ConnectionPoint p, IImmersiveConnectable iic)
 	{
-		reset();//TODO slightly more intelligent behavior
+		// The graph itself does not change when a connector is (un)loaded, so the paths can be kept. The version of
+		// the net changes, so sources and sinks are updated on the next access.
 	}
 
 	@Override
 	public void onConnectorUnloaded(BlockPos p, IImmersiveConnectable iic)
 	{
-		reset();//TODO slightly more intelligent behavior
 	}
 
 	@Override
 	public void onConnectorRemoved(BlockPos p, IImmersiveConnectable iic)
 	{
-		reset();
+		// Removed connections are detected when the graph is rebuilt
 	}
 
 	@Override
 	public void onConnectionAdded(Connection c)
 	{
-		reset();
+		++connectionChanges;
 	}
 
 	@Override
 	public void onConnectionRemoved(Connection c)
 	{
-		reset();
+		++connectionChanges;
+		transferredNextTick.removeDouble(c);
+		transferredLastTick.removeDouble(c);
+	}
+
+	@Override
+	public void prepareTick()
+	{
+		transferPower(true);
+		tickPrepared = true;
 	}
 
 	@Override
 	public void update(Level w)
 	{
-		transferPower();
+		if(tickPrepared)
+		{
+			pending.apply();
+			tickPrepared = false;
+		}
+		else
+			transferPower(false);
+		Object2DoubleOpenHashMap<Connection> oldMap = transferredLastTick;
 		transferredLastTick = transferredNextTick;
-		transferredNextTick = new Object2DoubleOpenHashMap<>();
+		transferredNextTick = oldMap;
+		transferredNextTick.clear();
 		burnOverloaded(w);
 	}
 
@@ -111,18 +154,6 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 		return Object2DoubleMaps.unmodifiable(transferredLastTick);
 	}
 
-	private void reset()
-	{
-		energyPaths.clear();
-		transferredNextTick.clear();
-		transferredLastTick.clear();
-		sinks.clear();
-		sources.clear();
-		transferPaths.clear();
-		sourceSinkMapInitialized = false;
-		limits.clear();;
-	}
-
 	public Map<ConnectionPoint, EnergyConnector> getSources()
 	{
 		updateSourcesAndSinks();
@@ -135,158 +166,322 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 	@Nullable
 	public Path getPath(ConnectionPoint source, ConnectionPoint sink)
 	{
-		return getPathsFromSource(source).get(sink);
+		updateSourcesAndSinks();
+		int sourceId = graph.getPointId(source);
+		int sinkId = graph.getPointId(sink);
+		if(sourceId < 0||sinkId < 0)
+			return null;
+		PathTree tree = getOrComputeTree(sourceId);
+		if(tree.loss[sinkId] >= 1)
+			return null;
+		return tree.toPath(sinkId);
 	}
 
+	/**
+	 * @return all paths with base loss <1 starting at the given point. This constructs a new path object for every
+	 * reachable point, prefer {@link #getPath} where possible.
+	 */
 	public Map<ConnectionPoint, Path> getPathsFromSource(ConnectionPoint source)
 	{
-		Map<ConnectionPoint, Path> mutableResult = energyPaths.get(source);
-		if(mutableResult==null)
+		updateSourcesAndSinks();
+		int sourceId = graph.getPointId(source);
+		if(sourceId < 0)
+			return Map.of();
+		PathTree tree = getOrComputeTree(sourceId);
+		Map<ConnectionPoint, Path> result = new HashMap<>();
+		for(int i = 0; i < graph.getPointIdBound(); ++i)
+			if(tree.loss[i] < 1)
+				result.put(graph.getPoint(i), tree.toPath(i));
+		return Collections.unmodifiableMap(result);
+	}
+
+	private PathTree getOrComputeTree(int root)
+	{
+		PathTree tree = energyPaths.get(root);
+		if(tree==null)
 		{
-			mutableResult = new HashMap<>();
-			Map<ConnectionPoint, Path> finalMutableResult = mutableResult;
-			runDijkstraWithSource(source, p -> finalMutableResult.put(p.end, p));
-			energyPaths.put(source, mutableResult);
+			tree = new PathTree(root);
+			computeTree(tree);
+			energyPaths.put(root, tree);
 		}
-		return Collections.unmodifiableMap(mutableResult);
+		return tree;
 	}
 
 	private void updateSourcesAndSinks()
 	{
-		if(sourceSinkMapInitialized)
+		if(!graph.update(localNet))
 			return;
-		sourceSinkMapInitialized = true;
-		for(ConnectionPoint cp : localNet.getConnectionPoints())
+		if(graph.getGeneration()!=graphGeneration||connectionChanges > MAX_INCREMENTAL_CONNECTIONS)
 		{
-			IImmersiveConnectable iic = localNet.getConnector(cp);
-			if(iic instanceof EnergyConnector energyIIC)
+			energyPaths.clear();
+			graphGeneration = graph.getGeneration();
+		}
+		connectionChanges = 0;
+		sources.clear();
+		sinks.clear();
+		sourceIds.clear();
+		sourceConnectors.clear();
+		sinkIds.clear();
+		sinkConnectors.clear();
+		for(int id = 0; id < graph.getPointIdBound(); ++id)
+			if(graph.getConnector(id) instanceof EnergyConnector energyIIC)
 			{
+				ConnectionPoint cp = graph.getPoint(id);
 				if(energyIIC.isSink(cp))
+				{
 					sinks.put(cp, energyIIC);
+					sinkIds.add(id);
+					sinkConnectors.add(energyIIC);
+				}
 				if(energyIIC.isSource(cp))
+				{
 					sources.put(cp, energyIIC);
-				if(energyIIC instanceof LimitingEnergyConnector limiting)
-					for(Connection c : localNet.getConnections(cp))
-						limits.put(c, Arrays.asList(limiting.getPowerLimit(), limiting.getPowerLimit()));
+					sourceIds.add(id);
+					sourceConnectors.add(energyIIC);
+				}
 			}
-		}
-		for(Entry<ConnectionPoint, EnergyConnector> source : sources.entrySet())
+		updateLimits();
+		// Only trees rooted at sources are kept. Other trees are rarely used and can be recomputed if necessary.
+		energyPaths.keySet().removeIf(root -> !sources.containsKey(graph.getPoint(root)));
+		for(PathTree tree : energyPaths.values())
+			repairTree(tree);
+		if(requiredAtSource.length < sinkIds.size())
+			requiredAtSource = new double[sinkIds.size()];
+		pending.ensureCapacity(sinkIds.size());
+	}
+
+	private void updateLimits()
+	{
+		int numConnections = graph.getConnectionIdBound();
+		if(powerLimits.length < numConnections)
 		{
-			Map<ConnectionPoint, Path> paths = getPathsFromSource(source.getKey());
-			List<SinkPath> sinkPaths = new ArrayList<>();
-			for(Entry<ConnectionPoint, EnergyConnector> sink : sinks.entrySet())
+			powerLimits = new double[2*numConnections];
+			remainingLimits = new double[powerLimits.length];
+		}
+		Arrays.fill(powerLimits, Double.NaN);
+		limitedConnections.clear();
+		for(int c = 0; c < numConnections; ++c)
+			if(graph.isConnectionAlive(c))
 			{
-				Path pathTo = paths.get(sink.getKey());
-				if(pathTo!=null)
-					sinkPaths.add(new SinkPath(sink.getKey(), sink.getValue(), pathTo));
+				double limit = combineLimits(getPowerLimit(graph.getConnectionEndA(c)), getPowerLimit(graph.getConnectionEndB(c)));
+				if(!Double.isNaN(limit))
+				{
+					powerLimits[c] = limit;
+					limitedConnections.add(c);
+				}
 			}
-			transferPaths.add(new SinkPathsFromSource(source.getKey(), source.getValue(), sinkPaths));
+	}
+
+	private double getPowerLimit(int point)
+	{
+		if(graph.getConnector(point) instanceof LimitingEnergyConnector limiting)
+			return limiting.getPowerLimit();
+		else
+			return Double.NaN;
+	}
+
+	private static double combineLimits(double limitA, double limitB)
+	{
+		if(Double.isNaN(limitA))
+			return limitB;
+		else if(Double.isNaN(limitB))
+			return limitA;
+		else
+			return Math.min(limitA, limitB);
+	}
+
+	private void resetLimits()
+	{
+		for(int i = 0; i < limitedConnections.size(); ++i)
+		{
+			int c = limitedConnections.getInt(i);
+			remainingLimits[c] = powerLimits[c];
 		}
 	}
 
-	private void runDijkstraWithSource(ConnectionPoint source, Consumer<Path> output)
+	private void computeTree(PathTree tree)
 	{
-		Map<ConnectionPoint, Path> shortestKnown = new HashMap<>();
-		BinaryHeap<ConnectionPoint> heap = new BinaryHeap<>(
-				Comparator.comparingDouble(end -> shortestKnown.get(end).loss));
-		Map<ConnectionPoint, HeapEntry<ConnectionPoint>> entryMap = new HashMap<>();
-		shortestKnown.put(source, new Path(source));
-		entryMap.put(source, heap.insert(source));
-		while(!heap.empty())
+		tree.ensureCapacity(graph.getPointIdBound());
+		tree.clear();
+		tree.loss[tree.root] = 0;
+		heap.ensureCapacity(graph.getPointIdBound());
+		heap.insertOrDecrease(tree.root, 0);
+		propagatePaths(tree);
+	}
+
+	/**
+	 * Updates a tree computed for an older version of the graph. Removing connections only affects the points whose
+	 * shortest path used one of the removed connections, those are detached and reconnected through the remaining part
+	 * of the tree. Adding a connection can only make paths shorter, so only the points that can be reached more
+	 * cheaply through one of the new connections need to be updated.
+	 */
+	private void repairTree(PathTree tree)
+	{
+		final int numPoints = graph.getPointIdBound();
+		tree.ensureCapacity(numPoints);
+		heap.ensureCapacity(numPoints);
+		if(detachState.length < numPoints)
+			detachState = new int[graph.getPointIdBound()*2];
+		// 0: unknown, 1: still attached, 2: detached
+		Arrays.fill(detachState, 0, numPoints, 0);
+		detachState[tree.root] = 1;
+		detached.clear();
+		int reachable = 0;
+		for(int start = 0; start < numPoints; ++start)
 		{
-			ConnectionPoint endPoint = heap.extractMin();
-			entryMap.remove(endPoint);
-			Path shortest = shortestKnown.get(endPoint);
-			output.accept(shortest);
-			//Loss of 1 means no energy will be transferred, so the paths are irrelevant
-			if(shortest.loss >= 1)
-				break;
-			for(Connection next : localNet.getConnections(endPoint))
+			if(tree.loss[start] >= 1)
+				continue;
+			++reachable;
+			// Find the first point with known state on the way to the root
+			int current = start;
+			while(detachState[current]==0)
 			{
-				Path alternative = shortest.append(next, sinks.containsKey(next.getOtherEnd(shortest.end)));
-				if(!shortestKnown.containsKey(alternative.end))
-				{
-					shortestKnown.put(alternative.end, alternative);
-					entryMap.put(alternative.end, heap.insert(alternative.end));
-				}
+				int predConn = tree.predecessorConnection[current];
+				if(!graph.isPointAlive(current)||!graph.isConnectionAlive(predConn))
+					detachState[current] = 2;
 				else
-				{
-					Path oldPath = shortestKnown.get(alternative.end);
-					if(alternative.loss < oldPath.loss)
-					{
-						shortestKnown.put(alternative.end, alternative);
-						heap.decreaseKey(entryMap.get(alternative.end));
-					}
-				}
+					current = tree.predecessor[current];
+			}
+			// Everything between start and current has the same state as current
+			int state = detachState[current];
+			for(int p = start; detachState[p]==0; p = tree.predecessor[p])
+				detachState[p] = state;
+		}
+		for(int p = 0; p < numPoints; ++p)
+			if(detachState[p]==2)
+			{
+				tree.reset(p);
+				if(graph.isPointAlive(p))
+					detached.add(p);
 			}
+		if(2*detached.size() > reachable)
+		{
+			// Most of the tree is affected, so a clean recomputation is cheaper
+			computeTree(tree);
+			return;
+		}
+		for(int i = 0; i < detached.size(); ++i)
+		{
+			int point = detached.getInt(i);
+			for(int edge = graph.getEdgeStart(point); edge < graph.getEdgeEnd(point); ++edge)
+				relax(tree, graph.getEdgeTarget(edge), graph.getEdgeConnection(edge), point);
+		}
+		IntList newConnections = graph.getNewConnections();
+		for(int i = 0; i < newConnections.size(); ++i)
+		{
+			int c = newConnections.getInt(i);
+			relax(tree, graph.getConnectionEndA(c), c, graph.getConnectionEndB(c));
+			relax(tree, graph.getConnectionEndB(c), c, graph.getConnectionEndA(c));
+		}
+		propagatePaths(tree);
+	}
+
+	/**
+	 * Dijkstra's algorithm, continuing from the points currently in the heap. Points in the tree are only updated if a
+	 * strictly shorter path is found, so this can be used both for full computations and for repairing a tree.
+	 */
+	private void propagatePaths(PathTree tree)
+	{
+		while(!heap.isEmpty())
+		{
+			int point = heap.extractMin();
+			for(int edge = graph.getEdgeStart(point); edge < graph.getEdgeEnd(point); ++edge)
+				relax(tree, point, graph.getEdgeConnection(edge), graph.getEdgeTarget(edge));
+		}
+	}
+
+	private void relax(PathTree tree, int from, int connection, int to)
+	{
+		//Loss of 1 means no energy will be transferred, so the paths are irrelevant
+		if(tree.loss[from] >= 1)
+			return;
+		double newLoss = appendLoss(tree.loss[from], graph.getConnectionWeight(connection));
+		if(newLoss < 1&&newLoss < tree.loss[to])
+		{
+			tree.loss[to] = newLoss;
+			tree.predecessor[to] = from;
+			tree.predecessorConnection[to] = connection;
+			heap.insertOrDecrease(to, newLoss);
 		}
 	}
 
-	private void transferPower()
+	private static double appendLoss(double loss, double connectionLoss)
+	{
+		return loss+(1-loss)*connectionLoss;
+	}
+
+	/**
+	 * @param deferSideEffects if true, energy is not inserted into or extracted from connectors directly, instead this
+	 *                         is done in {@link PendingTransfers#apply()}
+	 */
+	private void transferPower(boolean deferSideEffects)
 	{
 		updateSourcesAndSinks();
 		resetLimits();
-		for(SinkPathsFromSource sourceData : transferPaths)
+		for(int sourceIndex = 0; sourceIndex < sourceIds.size(); ++sourceIndex)
 		{
-			ConnectionPoint sourceCp = sourceData.sourceCP();
-			EnergyConnector source = sourceData.sourceConnector();
+			EnergyConnector source = sourceConnectors.get(sourceIndex);
 			int available = source.getAvailableEnergy();
 			if(available <= 0)
 				continue;
+			PathTree tree = getOrComputeTree(sourceIds.getInt(sourceIndex));
 			double maxSum = 0;
-			record OutputData(double amount, Path path, EnergyConnector output)
-			{
-			}
-			List<OutputData> maxOut = new ArrayList<>(sourceData.paths().size());
-			for(SinkPath sinkEntry : sourceData.paths())
+			for(int sinkIndex = 0; sinkIndex < sinkIds.size(); ++sinkIndex)
 			{
+				requiredAtSource[sinkIndex] = 0;
+				int sink = sinkIds.getInt(sinkIndex);
+				double loss = tree.loss[sink];
+				if(loss >= 1)
+					continue;
+				// Use the limit closest to the sink
 				double limit = Double.MAX_VALUE;
-				Connection conn = null;
-				for(Connection c : sinkEntry.pathTo().conns)
-					if (limits.containsKey(c))
+				int limitingConnection = -1;
+				for(int point = sink; point!=tree.root; point = tree.predecessor[point])
+				{
+					int c = tree.predecessorConnection[point];
+					if(!Double.isNaN(powerLimits[c]))
 					{
-						limit = limits.get(c).get(1);
-						conn = c;
+						limit = remainingLimits[c];
+						limitingConnection = c;
+						break;
 					}
-				EnergyConnector sink = sinkEntry.sinkConnector();
-				int requested = (int)Math.min(sink.getRequestedEnergy(), limit*(1-sinkEntry.pathTo().loss));
+				}
+				// Energy inserted into the sink for earlier sources has not been applied yet if side effects are deferred
+				int stillRequested = sinkConnectors.get(sinkIndex).getRequestedEnergy()-pending.insertedBySink[sinkIndex];
+				int requested = (int)Math.min(stillRequested, limit*(1-loss));
 				if(requested <= 0)
 					continue;
-				double requiredAtSource = Math.min(requested/(1-sinkEntry.pathTo().loss), available);
-				if(conn!=null)
-					limits.put(conn, Arrays.asList(limits.get(conn).get(0), limit-requiredAtSource));
-				maxOut.add(new OutputData(requiredAtSource, sinkEntry.pathTo(), sink));
-				maxSum += requiredAtSource;
+				double required = Math.min(requested/(1-loss), available);
+				if(limitingConnection >= 0)
+					remainingLimits[limitingConnection] = limit-required;
+				requiredAtSource[sinkIndex] = required;
+				maxSum += required;
 			}
 			if(maxSum==0)
 				continue;
 			double allowedFactor = Math.min(1, available/maxSum);
-			for(OutputData entry : maxOut)
+			for(int sinkIndex = 0; sinkIndex < sinkIds.size(); ++sinkIndex)
 			{
-				Path path = entry.path();
-				double atSource = allowedFactor*entry.amount();
-				double availableFactor = 1;
-				ConnectionPoint currentPoint = sourceCp;
-				for(Connection c : path.conns)
+				if(requiredAtSource[sinkIndex] <= 0)
+					continue;
+				int sink = sinkIds.getInt(sinkIndex);
+				double atSource = allowedFactor*requiredAtSource[sinkIndex];
+				for(int point = sink; point!=tree.root; point = tree.predecessor[point])
 				{
-					currentPoint = c.getOtherEnd(currentPoint);
 					// We use exponential loss here so there is still some power at arbitrarily far distances
-					availableFactor *= (1-getBasicLoss(c));
-					double availableAtPoint = atSource*availableFactor;
-					transferredNextTick.addTo(c, availableAtPoint);
-					if(!currentPoint.equals(path.end))
-					{
-						IImmersiveConnectable iic = localNet.getConnector(currentPoint);
-						if(iic instanceof EnergyConnector)
-							((EnergyConnector)iic).onEnergyPassedThrough(availableAtPoint);
-					}
+					double availableAtPoint = atSource*(1-tree.loss[point]);
+					transferredNextTick.addTo(graph.getConnection(tree.predecessorConnection[point]), availableAtPoint);
+					if(point!=sink&&graph.getConnector(point) instanceof EnergyConnector passedThrough)
+						pending.passThrough(passedThrough, availableAtPoint);
 				}
-				entry.output.insertEnergy(ceilIfClose(atSource*availableFactor));
+				pending.insert(sinkIndex, ceilIfClose(atSource*(1-tree.loss[sink])));
 			}
 			if(allowedFactor < 1)
-				source.extractEnergy(available);
+				pending.extract(source, available);
 			else
-				source.extractEnergy(Mth.ceil(maxSum));
+				pending.extract(source, Mth.ceil(maxSum));
+			if(!deferSideEffects)
+				pending.apply();
 		}
 	}
 
@@ -298,16 +493,21 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 	private void burnOverloaded(Level world)
 	{
 		Preconditions.checkNotNull(globalNet);
-		List<Pair<Connection, Double>> toBurn = new ArrayList<>();
-		for(Object2DoubleMap.Entry<Connection> entry : transferredLastTick.object2DoubleEntrySet())
+		List<Pair<Connection, Double>> toBurn = null;
+		for(Object2DoubleMap.Entry<Connection> entry : Object2DoubleMaps.fastIterable(transferredLastTick))
 		{
 			Connection c = entry.getKey();
 			double transferred = entry.getDoubleValue();
 			if(c.type instanceof IEnergyWire&&((IEnergyWire)c.type).shouldBurn(c, transferred))
+			{
+				if(toBurn==null)
+					toBurn = new ArrayList<>();
 				toBurn.add(Pair.of(c, transferred));
+			}
 		}
-		for(Pair<Connection, Double> c : toBurn)
-			((IEnergyWire)c.getFirst().type).burn(c.getFirst(), c.getSecond(), globalNet, world);
+		if(toBurn!=null)
+			for(Pair<Connection, Double> c : toBurn)
+				((IEnergyWire)c.getFirst().type).burn(c.getFirst(), c.getSecond(), globalNet, world);
 	}
 
 	private static double getBasicLoss(Connection c)
@@ -320,12 +520,6 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 			return Double.POSITIVE_INFINITY;
 	}
 
-	private void resetLimits()
-	{
-		if (limits.isEmpty()) return;
-		limits.replaceAll((p, v) -> Arrays.asList(limits.get(p).get(0), limits.get(p).get(0)));
-	}
-
 	public static class Path
 	{
 		public final Connection[] conns;
@@ -437,13 +631,114 @@ public class EnergyTransferHandler extends LocalNetworkHandler implements IWorld
 		double getPowerLimit();
 	}
 
-	private record SinkPath(ConnectionPoint sinkCP, EnergyConnector sinkConnector, Path pathTo)
+	private class PendingTransfers
 	{
+		private int[] insertedBySink = new int[0];
+		private final IntList insertSinks = new IntArrayList();
+		private final List<EnergyConnector> insertConnectors = new ArrayList<>();
+		private final IntList insertAmounts = new IntArrayList();
+		private final List<EnergyConnector> passedThrough = new ArrayList<>();
+		private final DoubleList passedThroughAmounts = new DoubleArrayList();
+		private final List<EnergyConnector> extractSources = new ArrayList<>();
+		private final IntList extractAmounts = new IntArrayList();
+
+		private void ensureCapacity(int numSinks)
+		{
+			if(insertedBySink.length < numSinks)
+				insertedBySink = Arrays.copyOf(insertedBySink, numSinks);
+		}
+
+		private void insert(int sinkIndex, int amount)
+		{
+			insertedBySink[sinkIndex] += amount;
+			insertSinks.add(sinkIndex);
+			insertConnectors.add(sinkConnectors.get(sinkIndex));
+			insertAmounts.add(amount);
+		}
+
+		private void passThrough(EnergyConnector connector, double amount)
+		{
+			passedThrough.add(connector);
+			passedThroughAmounts.add(amount);
+		}
+
+		private void extract(EnergyConnector source, int amount)
+		{
+			extractSources.add(source);
+			extractAmounts.add(amount);
+		}
+
+		private void apply()
+		{
+			for(int i = 0; i < passedThrough.size(); ++i)
+				passedThrough.get(i).onEnergyPassedThrough(passedThroughAmounts.getDouble(i));
+			for(int i = 0; i < insertSinks.size(); ++i)
+			{
+				insertConnectors.get(i).insertEnergy(insertAmounts.getInt(i));
+				insertedBySink[insertSinks.getInt(i)] = 0;
+			}
+			for(int i = 0; i < extractSources.size(); ++i)
+				extractSources.get(i).extractEnergy(extractAmounts.getInt(i));
+			insertSinks.clear();
+			insertConnectors.clear();
+			insertAmounts.clear();
+			passedThrough.clear();
+			passedThroughAmounts.clear();
+			extractSources.clear();
+			extractAmounts.clear();
+		}
 	}
 
-	private record SinkPathsFromSource(
-			ConnectionPoint sourceCP, EnergyConnector sourceConnector, List<SinkPath> paths
-	)
+	private class PathTree
 	{
+		private final int root;
+		// Loss along the shortest path to each point, infinite for points that can't be reached with loss <1
+		private double[] loss = new double[0];
+		private int[] predecessor = new int[0];
+		private int[] predecessorConnection = new int[0];
+
+		private PathTree(int root)
+		{
+			this.root = root;
+		}
+
+		private void ensureCapacity(int numPoints)
+		{
+			int oldLength = loss.length;
+			if(oldLength >= numPoints)
+				return;
+			int newLength = Math.max(numPoints, 2*oldLength);
+			loss = Arrays.copyOf(loss, newLength);
+			predecessor = Arrays.copyOf(predecessor, newLength);
+			predecessorConnection = Arrays.copyOf(predecessorConnection, newLength);
+			for(int i = oldLength; i < newLength; ++i)
+				reset(i);
+		}
+
+		private void clear()
+		{
+			for(int i = 0; i < loss.length; ++i)
+				reset(i);
+		}
+
+		private void reset(int point)
+		{
+			loss[point] = Double.POSITIVE_INFINITY;
+			predecessor[point] = -1;
+			predecessorConnection[point] = -1;
+		}
+
+		private Path toPath(int end)
+		{
+			int length = 0;
+			for(int point = end; point!=root; point = predecessor[point])
+				++length;
+			Connection[] conns = new Connection[length];
+			for(int point = end; point!=root; point = predecessor[point])
+				conns[--length] = graph.getConnection(predecessorConnection[point]);
+			ConnectionPoint endPoint = graph.getPoint(end);
+			boolean isPathToSink = conns.length > 0&&sinks.containsKey(endPoint);
+			return new Path(conns, graph.getPoint(root), endPoint, loss[end], isPathToSink);
+		}
 	}
 }
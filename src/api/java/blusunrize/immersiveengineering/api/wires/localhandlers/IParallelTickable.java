@@ -0,0 +1,23 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.localhandlers;
+
+/**
+ * Handlers that can do the expensive part of their tick off the main thread. If parallel wire ticking is enabled,
+ * {@link #prepareTick()} is called for the handlers of all local nets in parallel, followed by
+ * {@link IWorldTickable#update} for each net on the main thread.
+ */
+public interface IParallelTickable extends IWorldTickable
+{
+	/**
+	 * Called on a worker thread, concurrently with the handlers of other local nets. Must not modify the world, the
+	 * wire network or any connectors. Side effects should be collected and applied in the next call to update.
+	 */
+	void prepareTick();
+}
@@ -31,7 +31,6 @@ import net.minecraft.world.phys.Vec3;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 
 public class WireDamageHandler extends LocalNetworkHandler implements ICollisionHandler
@@ -96,15 +95,13 @@ public class WireDamageHandler extends LocalNetworkHandler implements ICollision
 	private List<SourceData> getAvailableEnergy(EnergyTransferHandler energyHandler, ConnectionPoint target)
 	{
 		List<SourceData> ret = new ArrayList<>();
-		Map<ConnectionPoint, Path> paths = null;
 		for(Entry<ConnectionPoint, EnergyConnector> c : energyHandler.getSources().entrySet())
 		{
 			final int energy = c.getValue().getAvailableEnergy();
 			if(energy <= 0)
 				continue;
-			if(paths==null)
-				paths = energyHandler.getPathsFromSource(target);
-			final Path path = paths.get(c.getKey());
+			// Paths from the sources are cached by the energy handler, and loss does not depend on the direction
+			final Path path = energyHandler.getPath(c.getKey(), target);
 			if(path!=null)
 				ret.add(new SourceData(energy, path, c.getValue()));
 		}
@@ -0,0 +1,349 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.utils;
+
+import blusunrize.immersiveengineering.api.wires.Connection;
+import blusunrize.immersiveengineering.api.wires.ConnectionPoint;
+import blusunrize.immersiveengineering.api.wires.IImmersiveConnectable;
+import blusunrize.immersiveengineering.api.wires.LocalWireNetwork;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compact adjacency-array ("CSR") snapshot of a {@link LocalWireNetwork}, rebuilt only when the version of the net
+ * changes. Connection points and connections are assigned int IDs that stay stable across rebuilds, so data indexed
+ * by those IDs (e.g. shortest path trees) remains valid as long as {@link #getGeneration()} does not change. IDs of
+ * removed points and connections are not reused until the ID space is compacted, which increments the generation.
+ */
+public class FlatWireGraph
+{
+	private static final int MIN_IDS_FOR_COMPACTION = 64;
+
+	private final ToDoubleFunction<Connection> connectionWeight;
+	@Nullable
+	private LocalWireNetwork builtFor;
+	private int builtForVersion;
+	private int generation = 0;
+
+	// Points
+	private final Object2IntOpenHashMap<ConnectionPoint> pointIds = new Object2IntOpenHashMap<>();
+	private ConnectionPoint[] points = new ConnectionPoint[16];
+	private IImmersiveConnectable[] connectors = new IImmersiveConnectable[16];
+	private int numPointIds = 0;
+	private int numLivePoints = 0;
+	// Connections
+	private final Reference2IntOpenHashMap<Connection> connectionIds = new Reference2IntOpenHashMap<>();
+	private Connection[] connections = new Connection[16];
+	private int[] connectionEndA = new int[16];
+	private int[] connectionEndB = new int[16];
+	private double[] connectionWeights = new double[16];
+	private int numConnectionIds = 0;
+	private int numLiveConnections = 0;
+	private final IntArrayList newConnections = new IntArrayList();
+	// Adjacency: the edges of point i are at indices [edgeStart[i], edgeStart[i+1])
+	private int[] edgeStart = new int[17];
+	private int[] edgeTarget = new int[32];
+	private int[] edgeConnection = new int[32];
+	// Scratch data used during rebuilds
+	private int[] lastSeen = new int[16];
+	private int[] connectionLastSeen = new int[16];
+	private int[] edgeCursor = new int[16];
+	private int rebuildStamp = 0;
+
+	public FlatWireGraph(ToDoubleFunction<Connection> connectionWeight)
+	{
+		this.connectionWeight = connectionWeight;
+		pointIds.defaultReturnValue(-1);
+		connectionIds.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Rebuilds the snapshot if the net or its version changed since the last call.
+	 * @return true if the snapshot was rebuilt
+	 */
+	public boolean update(LocalWireNetwork net)
+	{
+		if(net==builtFor&&net.getVersion()==builtForVersion)
+			return false;
+		builtFor = net;
+		builtForVersion = net.getVersion();
+		newConnections.clear();
+		++rebuildStamp;
+		// Points
+		for(ConnectionPoint cp : net.getConnectionPoints())
+		{
+			int id = pointIds.getInt(cp);
+			if(id < 0)
+				id = addPoint(cp);
+			lastSeen[id] = rebuildStamp;
+			connectors[id] = net.getConnector(cp);
+		}
+		for(int id = 0; id < numPointIds; ++id)
+			if(points[id]!=null&&lastSeen[id]!=rebuildStamp)
+			{
+				pointIds.removeInt(points[id]);
+				points[id] = null;
+				connectors[id] = null;
+				--numLivePoints;
+			}
+		// Connections
+		for(int pointId = 0; pointId < numPointIds; ++pointId)
+		{
+			ConnectionPoint cp = points[pointId];
+			if(cp!=null)
+				for(Connection c : net.getConnections(cp))
+					if(c.isPositiveEnd(cp))
+					{
+						int id = connectionIds.getInt(c);
+						if(id < 0)
+						{
+							id = addConnection(c, connectionWeight.applyAsDouble(c));
+							newConnections.add(id);
+						}
+						connectionLastSeen[id] = rebuildStamp;
+					}
+		}
+		for(int id = 0; id < numConnectionIds; ++id)
+			if(connections[id]!=null&&connectionLastSeen[id]!=rebuildStamp)
+			{
+				connectionIds.removeInt(connections[id]);
+				connections[id] = null;
+				--numLiveConnections;
+			}
+		if(numPointIds > MIN_IDS_FOR_COMPACTION&&2*numLivePoints < numPointIds)
+			compact();
+		buildAdjacency();
+		return true;
+	}
+
+	private int addPoint(ConnectionPoint cp)
+	{
+		int id = numPointIds++;
+		if(id >= points.length)
+		{
+			int newLength = 2*points.length;
+			points = Arrays.copyOf(points, newLength);
+			connectors = Arrays.copyOf(connectors, newLength);
+			lastSeen = Arrays.copyOf(lastSeen, newLength);
+		}
+		points[id] = cp;
+		pointIds.put(cp, id);
+		++numLivePoints;
+		return id;
+	}
+
+	private int addConnection(Connection c, double weight)
+	{
+		int id = numConnectionIds++;
+		if(id >= connections.length)
+		{
+			int newLength = 2*connections.length;
+			connections = Arrays.copyOf(connections, newLength);
+			connectionEndA = Arrays.copyOf(connectionEndA, newLength);
+			connectionEndB = Arrays.copyOf(connectionEndB, newLength);
+			connectionWeights = Arrays.copyOf(connectionWeights, newLength);
+			connectionLastSeen = Arrays.copyOf(connectionLastSeen, newLength);
+		}
+		connections[id] = c;
+		connectionEndA[id] = pointIds.getInt(c.getEndA());
+		connectionEndB[id] = pointIds.getInt(c.getEndB());
+		connectionWeights[id] = weight;
+		connectionIds.put(c, id);
+		++numLiveConnections;
+		return id;
+	}
+
+	private void compact()
+	{
+		++generation;
+		ConnectionPoint[] oldPoints = points;
+		IImmersiveConnectable[] oldConnectors = connectors;
+		int oldNumPoints = numPointIds;
+		Connection[] oldConnections = connections;
+		double[] oldWeights = connectionWeights;
+		int oldNumConnections = numConnectionIds;
+		points = new ConnectionPoint[Math.max(16, oldPoints.length/2)];
+		connectors = new IImmersiveConnectable[points.length];
+		lastSeen = new int[points.length];
+		connections = new Connection[Math.max(16, oldConnections.length/2)];
+		connectionEndA = new int[connections.length];
+		connectionEndB = new int[connections.length];
+		connectionWeights = new double[connections.length];
+		connectionLastSeen = new int[connections.length];
+		pointIds.clear();
+		connectionIds.clear();
+		numPointIds = numLivePoints = 0;
+		numConnectionIds = numLiveConnections = 0;
+		for(int i = 0; i < oldNumPoints; ++i)
+			if(oldPoints[i]!=null)
+				connectors[addPoint(oldPoints[i])] = oldConnectors[i];
+		for(int i = 0; i < oldNumConnections; ++i)
+			if(oldConnections[i]!=null)
+				addConnection(oldConnections[i], oldWeights[i]);
+		// Everything has a new ID, so "new connections" is meaningless now
+		newConnections.clear();
+	}
+
+	private void buildAdjacency()
+	{
+		if(edgeStart.length < numPointIds+1)
+		{
+			edgeStart = new int[points.length+1];
+			edgeCursor = new int[points.length];
+		}
+		Arrays.fill(edgeStart, 0, numPointIds+1, 0);
+		for(int c = 0; c < numConnectionIds; ++c)
+			if(connections[c]!=null)
+			{
+				++edgeStart[connectionEndA[c]+1];
+				++edgeStart[connectionEndB[c]+1];
+			}
+		for(int i = 0; i < numPointIds; ++i)
+			edgeStart[i+1] += edgeStart[i];
+		int numEdges = edgeStart[numPointIds];
+		if(edgeTarget.length < numEdges)
+		{
+			edgeTarget = new int[2*numEdges];
+			edgeConnection = new int[2*numEdges];
+		}
+		System.arraycopy(edgeStart, 0, edgeCursor, 0, numPointIds);
+		for(int c = 0; c < numConnectionIds; ++c)
+			if(connections[c]!=null)
+			{
+				int a = connectionEndA[c];
+				int b = connectionEndB[c];
+				edgeTarget[edgeCursor[a]] = b;
+				edgeConnection[edgeCursor[a]++] = c;
+				edgeTarget[edgeCursor[b]] = a;
+				edgeConnection[edgeCursor[b]++] = c;
+			}
+	}
+
+	/**
+	 * @return a number that changes whenever previously assigned IDs become invalid
+	 */
+	public int getGeneration()
+	{
+		return generation;
+	}
+
+	/**
+	 * @return upper bound (exclusive) for point IDs, i.e. the size of arrays indexed by point ID
+	 */
+	public int getPointIdBound()
+	{
+		return numPointIds;
+	}
+
+	public int getNumLivePoints()
+	{
+		return numLivePoints;
+	}
+
+	public int getConnectionIdBound()
+	{
+		return numConnectionIds;
+	}
+
+	public int getNumLiveConnections()
+	{
+		return numLiveConnections;
+	}
+
+	/**
+	 * @return the ID of the given point, or -1 if it is not part of the net
+	 */
+	public int getPointId(ConnectionPoint cp)
+	{
+		return pointIds.getInt(cp);
+	}
+
+	/**
+	 * @return the point with the given ID, or null if the point has been removed
+	 */
+	@Nullable
+	public ConnectionPoint getPoint(int id)
+	{
+		return points[id];
+	}
+
+	public boolean isPointAlive(int id)
+	{
+		return points[id]!=null;
+	}
+
+	@Nullable
+	public IImmersiveConnectable getConnector(int pointId)
+	{
+		return connectors[pointId];
+	}
+
+	/**
+	 * @return the connection with the given ID, or null if the connection has been removed
+	 */
+	@Nullable
+	public Connection getConnection(int id)
+	{
+		return connections[id];
+	}
+
+	public boolean isConnectionAlive(int id)
+	{
+		return connections[id]!=null;
+	}
+
+	public double getConnectionWeight(int id)
+	{
+		return connectionWeights[id];
+	}
+
+	public int getConnectionEndA(int id)
+	{
+		return connectionEndA[id];
+	}
+
+	public int getConnectionEndB(int id)
+	{
+		return connectionEndB[id];
+	}
+
+	/**
+	 * @return IDs of the connections that were added in the last rebuild. Must not be modified.
+	 */
+	public IntList getNewConnections()
+	{
+		return newConnections;
+	}
+
+	public int getEdgeStart(int pointId)
+	{
+		return edgeStart[pointId];
+	}
+
+	public int getEdgeEnd(int pointId)
+	{
+		return edgeStart[pointId+1];
+	}
+
+	public int getEdgeTarget(int edge)
+	{
+		return edgeTarget[edge];
+	}
+
+	public int getEdgeConnection(int edge)
+	{
+		return edgeConnection[edge];
+	}
+}
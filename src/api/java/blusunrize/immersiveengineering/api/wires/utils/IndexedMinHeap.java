@@ -0,0 +1,117 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.utils;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over small integer IDs with double keys. Unlike {@link BinaryHeap} this does not allocate per
+ * insertion, and it can be reused by calling {@link #clear()}.
+ */
+public class IndexedMinHeap
+{
+	private int[] heap = new int[16];
+	private int[] indexInHeap = new int[0];
+	private double[] keys = new double[0];
+	private int size = 0;
+
+	public void ensureCapacity(int numIds)
+	{
+		if(indexInHeap.length >= numIds)
+			return;
+		int oldLength = indexInHeap.length;
+		indexInHeap = Arrays.copyOf(indexInHeap, numIds);
+		Arrays.fill(indexInHeap, oldLength, numIds, -1);
+		keys = Arrays.copyOf(keys, numIds);
+		if(heap.length < numIds)
+			heap = Arrays.copyOf(heap, numIds);
+	}
+
+	public boolean isEmpty()
+	{
+		return size==0;
+	}
+
+	public void clear()
+	{
+		for(int i = 0; i < size; ++i)
+			indexInHeap[heap[i]] = -1;
+		size = 0;
+	}
+
+	/**
+	 * Inserts the ID with the given key, or lowers its key if it is already in the heap
+	 */
+	public void insertOrDecrease(int id, double key)
+	{
+		int index = indexInHeap[id];
+		if(index < 0)
+		{
+			index = size++;
+			heap[index] = id;
+			indexInHeap[id] = index;
+		}
+		keys[id] = key;
+		siftUp(index);
+	}
+
+	public int extractMin()
+	{
+		int result = heap[0];
+		indexInHeap[result] = -1;
+		--size;
+		if(size > 0)
+		{
+			heap[0] = heap[size];
+			indexInHeap[heap[0]] = 0;
+			siftDown(0);
+		}
+		return result;
+	}
+
+	private void siftUp(int index)
+	{
+		int id = heap[index];
+		double key = keys[id];
+		while(index > 0)
+		{
+			int parent = (index-1)/2;
+			if(keys[heap[parent]] <= key)
+				break;
+			move(heap[parent], index);
+			index = parent;
+		}
+		move(id, index);
+	}
+
+	private void siftDown(int index)
+	{
+		int id = heap[index];
+		double key = keys[id];
+		while(true)
+		{
+			int child = 2*index+1;
+			if(child >= size)
+				break;
+			if(child+1 < size&&keys[heap[child+1]] < keys[heap[child]])
+				++child;
+			if(keys[heap[child]] >= key)
+				break;
+			move(heap[child], index);
+			index = child;
+		}
+		move(id, index);
+	}
+
+	private void move(int id, int index)
+	{
+		heap[index] = id;
+		indexInHeap[id] = index;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.data;
+
+import blusunrize.immersiveengineering.client.models.obj.BinaryOBJModel;
+import com.google.common.hash.Hashing;
+import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
+import malte0811.modelsplitter.model.OBJModel;
+import net.minecraft.data.CachedOutput;
+import net.minecraft.data.DataProvider;
+import net.minecraft.data.PackOutput;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackType;
+import net.neoforged.fml.ModList;
+import net.neoforged.neoforge.common.data.ExistingFileHelper;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Generates the binary form of all OBJ models, see {@link BinaryOBJModel}
+ */
+public class BinaryOBJModels implements DataProvider
+{
+	private static final String MODELS = "models";
+
+	private final String modid;
+	private final PackOutput output;
+	private final ExistingFileHelper helper;
+
+	public BinaryOBJModels(String modid, ExistingFileHelper helper, PackOutput output)
+	{
+		this.modid = modid;
+		this.output = output;
+		this.helper = helper;
+	}
+
+	@Override
+	public CompletableFuture<?> run(@Nonnull CachedOutput cache)
+	{
+		// The existing file helper can only look up files by name, so the OBJ files are found in the resources of the mod
+		Path models = ModList.get().getModFileById(modid).getFile().findResource("assets", modid, MODELS);
+		try(Stream<Path> files = Files.walk(models))
+		{
+			for(Path file : files.filter(p -> p.toString().endsWith(".obj")).toList())
+			{
+				String path = models.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+				process(new ResourceLocation(modid, MODELS+"/"+path), cache);
+			}
+			return CompletableFuture.completedFuture(null);
+		} catch(IOException|UncheckedIOException x)
+		{
+			return CompletableFuture.failedFuture(x);
+		}
+	}
+
+	private void process(ResourceLocation loc, CachedOutput cache) throws IOException
+	{
+		byte[] source;
+		try(InputStream input = open(loc))
+		{
+			source = input.readAllBytes();
+		}
+		Function<String, InputStream> getMaterialLibrary = name -> openMaterialLibrary(loc, name);
+		OBJModel<OBJMaterial> model = BinaryOBJModel.parseText(source, getMaterialLibrary);
+		byte[] bytes = BinaryOBJModel.write(model, source, getMaterialLibrary);
+		ResourceLocation outputLoc = BinaryOBJModel.getCacheLocation(loc);
+		Path outputPath = output.getOutputFolder().resolve("assets/"+outputLoc.getNamespace()+"/"+outputLoc.getPath());
+		cache.writeIfNeeded(outputPath, bytes, Hashing.sha1().hashBytes(bytes));
+	}
+
+	// Same resolution of material library names as IEOBJLoader
+	private InputStream openMaterialLibrary(ResourceLocation obj, String name)
+	{
+		ResourceLocation loc;
+		if(name.contains(":"))
+			loc = new ResourceLocation(name);
+		else
+			loc = new ResourceLocation(obj.getNamespace(), obj.getPath().substring(0, obj.getPath().lastIndexOf('/')+1)+name);
+		try
+		{
+			return open(loc);
+		} catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private InputStream open(ResourceLocation loc) throws IOException
+	{
+		String path = loc.getPath();
+		if(!path.startsWith(MODELS+"/"))
+			throw new IOException("Expected "+loc+" to be in the models folder");
+		ResourceLocation inModels = new ResourceLocation(loc.getNamespace(), path.substring(MODELS.length()+1));
+		return helper.getResource(inModels, PackType.CLIENT_RESOURCES, "", MODELS).open();
+	}
+
+	@Nonnull
+	@Override
+	public String getName()
+	{
+		return "Binary OBJ models";
+	}
+}
@@ -0,0 +1,33 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.benchmark;
+
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler.LimitingEnergyConnector;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyEnergyConnector;
+import net.minecraft.core.BlockPos;
+
+/**
+ * Relay limiting the power on all attached wires, similar to a transformer
+ */
+public class DummyLimitingConnector extends DummyEnergyConnector implements LimitingEnergyConnector
+{
+	private final double limit;
+
+	public DummyLimitingConnector(BlockPos pos, double limit)
+	{
+		super(pos, false, false, 0, 0);
+		this.limit = limit;
+	}
+
+	@Override
+	public double getPowerLimit()
+	{
+		return limit;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.benchmark;
+
+import blusunrize.immersiveengineering.api.wires.Connection;
+import blusunrize.immersiveengineering.api.wires.ConnectionPoint;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler.EnergyConnector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Energy distribution in a single large wire network. Run with "-prof gc" to get the allocation per tick
+ * (gc.alloc.rate.norm of {@link #tick()}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnergyTransferBenchmark
+{
+	@Param({"16", "64"})
+	public int size;
+	@Param({"16"})
+	public int sources;
+	@Param({"64"})
+	public int sinks;
+	@Param({"8"})
+	public int limiters;
+
+	private SyntheticGrid grid;
+	private EnergyTransferHandler handler;
+	private Connection toggled;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		grid = new SyntheticGrid(size, sources, sinks, limiters, 0);
+		handler = grid.getEnergyHandler();
+		// Compute all paths before measuring anything
+		handler.update(null);
+		// Removing a wire from the middle of the grid does not split the net
+		toggled = grid.connections.get(grid.connections.size()/2);
+	}
+
+	@Benchmark
+	public void tick()
+	{
+		handler.update(null);
+	}
+
+	@Benchmark
+	public Map<ConnectionPoint, EnergyConnector> pathRepairAfterTopologyChange()
+	{
+		grid.global.removeConnection(toggled);
+		handler.getSources();
+		grid.global.addConnection(toggled);
+		return handler.getSources();
+	}
+
+	@Benchmark
+	public EnergyTransferHandler fullPathComputation()
+	{
+		EnergyTransferHandler fresh = new EnergyTransferHandler(grid.getLocalNet(), grid.global);
+		fresh.update(null);
+		return fresh;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.benchmark;
+
+import blusunrize.immersiveengineering.api.wires.*;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler;
+import blusunrize.immersiveengineering.api.wires.localhandlers.LocalNetworkHandler;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyEnergyConnector;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyEnergyWireType;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyProxyProvider;
+import blusunrize.immersiveengineering.api.wires.testutils.DummySyncManager;
+import com.google.common.base.Preconditions;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Square grid of energy connectors, each connected to its direct neighbours. The roles of the connectors are assigned
+ * randomly (but deterministically), all connectors that are not sources, sinks or limiters are plain relays.
+ */
+public class SyntheticGrid
+{
+	public static final double LOSS_PER_WIRE = 0.001;
+	public static final int AVAILABLE_PER_SOURCE = 4096;
+	public static final int REQUESTED_PER_SINK = 1024;
+	public static final double LIMIT = 8192;
+
+	static
+	{
+		LocalNetworkHandler.register(EnergyTransferHandler.ID, EnergyTransferHandler::new);
+	}
+
+	public final GlobalWireNetwork global = new GlobalWireNetwork(false, new DummyProxyProvider(), new DummySyncManager());
+	public final WireType wireType = new DummyEnergyWireType(LOSS_PER_WIRE);
+	public final int size;
+	public final DummyEnergyConnector[][] connectors;
+	public final List<Connection> connections = new ArrayList<>();
+
+	public SyntheticGrid(int size, int sources, int sinks, int limiters, long seed)
+	{
+		Preconditions.checkArgument(sources+sinks+limiters <= size*size, "Too many special connectors for grid");
+		this.size = size;
+		this.connectors = new DummyEnergyConnector[size][size];
+		List<Integer> indices = new ArrayList<>(size*size);
+		for(int i = 0; i < size*size; ++i)
+			indices.add(i);
+		Collections.shuffle(indices, new Random(seed));
+		for(int i = 0; i < indices.size(); ++i)
+		{
+			int x = indices.get(i)%size;
+			int z = indices.get(i)/size;
+			BlockPos pos = new BlockPos(x, 0, z);
+			DummyEnergyConnector connector;
+			if(i < sources)
+				connector = new DummyEnergyConnector(pos, true, false, AVAILABLE_PER_SOURCE, 0);
+			else if(i < sources+sinks)
+				connector = new DummyEnergyConnector(pos, false, true, 0, REQUESTED_PER_SINK);
+			else if(i < sources+sinks+limiters)
+				connector = new DummyLimitingConnector(pos, LIMIT);
+			else
+				connector = new DummyEnergyConnector(pos, false, false, 0, 0);
+			connectors[x][z] = connector;
+			global.onConnectorLoad(connector, false);
+		}
+		for(int x = 0; x < size; ++x)
+			for(int z = 0; z < size; ++z)
+			{
+				if(x+1 < size)
+					connections.add(connect(x, z, x+1, z));
+				if(z+1 < size)
+					connections.add(connect(x, z, x, z+1));
+			}
+	}
+
+	public Connection connect(int xA, int zA, int xB, int zB)
+	{
+		Connection conn = new Connection(
+				wireType,
+				new ConnectionPoint(new BlockPos(xA, 0, zA), 0),
+				new ConnectionPoint(new BlockPos(xB, 0, zB), 0),
+				Vec3.ZERO, Vec3.ZERO
+		);
+		global.addConnection(conn);
+		return conn;
+	}
+
+	public LocalWireNetwork getLocalNet()
+	{
+		return global.getLocalNet(new ConnectionPoint(BlockPos.ZERO, 0));
+	}
+
+	public EnergyTransferHandler getEnergyHandler()
+	{
+		return getLocalNet().getHandler(EnergyTransferHandler.ID, EnergyTransferHandler.class);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.benchmark;
+
+import blusunrize.immersiveengineering.api.wires.Connection;
+import blusunrize.immersiveengineering.api.wires.ConnectionPoint;
+import net.minecraft.world.phys.Vec3;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding and removing connections in {@link blusunrize.immersiveengineering.api.wires.GlobalWireNetwork}. The grid is
+ * cut into two halves that are only joined by a single "bridge" wire, so removing and re-adding that wire splits and
+ * merges the local nets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireTopologyBenchmark
+{
+	@Param({"16", "64"})
+	public int size;
+	@Param({"16"})
+	public int sources;
+	@Param({"64"})
+	public int sinks;
+	@Param({"8"})
+	public int limiters;
+
+	private SyntheticGrid grid;
+	private Connection bridge;
+	private Connection diagonal;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		grid = new SyntheticGrid(size, sources, sinks, limiters, 0);
+		List<Connection> cut = new ArrayList<>();
+		for(Connection c : grid.connections)
+			if(crossesCut(c.getEndA(), c.getEndB())||crossesCut(c.getEndB(), c.getEndA()))
+				cut.add(c);
+		bridge = cut.remove(0);
+		for(Connection c : cut)
+			grid.global.removeConnection(c);
+		diagonal = new Connection(
+				grid.wireType,
+				new ConnectionPoint(grid.connectors[1][1].getPosition(), 0),
+				new ConnectionPoint(grid.connectors[2][2].getPosition(), 0),
+				Vec3.ZERO, Vec3.ZERO
+		);
+	}
+
+	private boolean crossesCut(ConnectionPoint left, ConnectionPoint right)
+	{
+		return left.getX()==size/2-1&&right.getX()==size/2;
+	}
+
+	@Benchmark
+	public void splitAndMerge()
+	{
+		grid.global.removeConnection(bridge);
+		grid.global.addConnection(bridge);
+	}
+
+	@Benchmark
+	public void addAndRemoveWithinNet()
+	{
+		grid.global.addConnection(diagonal);
+		grid.global.removeConnection(diagonal);
+	}
+}
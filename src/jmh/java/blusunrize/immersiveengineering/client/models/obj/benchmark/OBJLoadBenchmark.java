@@ -0,0 +1,105 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.models.obj.benchmark;
+
+import blusunrize.immersiveengineering.client.models.obj.BinaryOBJModel;
+import blusunrize.immersiveengineering.client.models.obj.BinaryOBJModel.Header;
+import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
+import malte0811.modelsplitter.model.OBJModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Loading an OBJ model from the text form as on a resource reload without a binary cache ({@link #parseText}), and from
+ * a memory-mapped binary cache file as in production ({@link #readBinary}) and in development environments, where the
+ * binary form is checked against the OBJ source ({@link #readBinaryValidated}). Needs to run from the project root,
+ * since the models are read from the main resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OBJLoadBenchmark
+{
+	private static final Path MODELS = Path.of("src/main/resources/assets/immersiveengineering/models");
+
+	@Param({"block/metal_multiblock/arc_furnace.obj", "block/metal_multiblock/auto_workbench.obj", "item/powerpack.obj"})
+	public String model;
+
+	private byte[] source;
+	private Function<String, InputStream> getMaterialLibrary;
+	private Path binaryFile;
+	private FileChannel binaryChannel;
+	private ByteBuffer binary;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		Path obj = MODELS.resolve(model);
+		source = Files.readAllBytes(obj);
+		getMaterialLibrary = name -> {
+			try
+			{
+				return Files.newInputStream(obj.resolveSibling(name));
+			} catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		};
+		OBJModel<OBJMaterial> parsed = BinaryOBJModel.parseText(source, getMaterialLibrary);
+		binaryFile = Files.createTempFile("ie_obj_benchmark", ".bin");
+		Files.write(binaryFile, BinaryOBJModel.write(parsed, source, getMaterialLibrary));
+		binaryChannel = FileChannel.open(binaryFile);
+		binary = binaryChannel.map(MapMode.READ_ONLY, 0, binaryChannel.size());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		binaryChannel.close();
+		Files.deleteIfExists(binaryFile);
+	}
+
+	@Benchmark
+	public OBJModel<OBJMaterial> parseText() throws IOException
+	{
+		return BinaryOBJModel.parseText(source, getMaterialLibrary);
+	}
+
+	@Benchmark
+	public OBJModel<OBJMaterial> readBinary()
+	{
+		ByteBuffer data = binary.duplicate();
+		if(BinaryOBJModel.readHeader(data)==null)
+			throw new IllegalStateException("Invalid binary model");
+		return BinaryOBJModel.readModel(data);
+	}
+
+	@Benchmark
+	public OBJModel<OBJMaterial> readBinaryValidated() throws IOException
+	{
+		ByteBuffer data = binary.duplicate();
+		Header header = BinaryOBJModel.readHeader(data);
+		if(header==null||!BinaryOBJModel.matchesSources(header, source, getMaterialLibrary))
+			throw new IllegalStateException("Binary model does not match the source");
+		return BinaryOBJModel.readModel(data);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.fluids.benchmark;
+
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork;
+import blusunrize.immersiveengineering.common.fluids.TestPipeAccess;
+import net.minecraft.core.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output queries on {@link FluidPipeNetwork} after a pipe changes. {@link #changeOneOfMany} changes a pipe in one of
+ * many separate networks and then queries all of them, so only the changed network should be rebuilt.
+ * {@link #rebuildLarge} measures the flood fill of a single long pipe line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluidPipeNetworkBenchmark
+{
+	@Param({"16", "256"})
+	public int networks;
+	@Param({"64"})
+	public int networkLength;
+	@Param({"4096", "16384"})
+	public int largeLength;
+
+	private TestPipeAccess access;
+	private FluidPipeNetwork network;
+	private BlockPos changedPipe;
+	private TestPipeAccess largeAccess;
+	private FluidPipeNetwork largeNetwork;
+	private BlockPos largeStart;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		access = new TestPipeAccess();
+		network = new FluidPipeNetwork(access);
+		for(int i = 0; i < networks; ++i)
+			addLine(access, 2*i, networkLength);
+		changedPipe = new BlockPos(networkLength/2, 0, 0);
+		largeAccess = new TestPipeAccess();
+		largeNetwork = new FluidPipeNetwork(largeAccess);
+		addLine(largeAccess, 0, largeLength);
+		largeStart = new BlockPos(0, 0, 0);
+	}
+
+	private static void addLine(TestPipeAccess access, int z, int length)
+	{
+		for(int x = 0; x < length; ++x)
+			access.addPipe(new BlockPos(x, 0, z));
+		access.addOutput(new BlockPos(-1, 0, z));
+		access.addOutput(new BlockPos(length, 0, z));
+	}
+
+	@Benchmark
+	public void changeOneOfMany(Blackhole blackhole)
+	{
+		access.removePipe(changedPipe);
+		network.onPipeRemoved(changedPipe);
+		access.addPipe(changedPipe);
+		network.onPipeAdded(changedPipe);
+		for(int i = 0; i < networks; ++i)
+			blackhole.consume(network.getOutputs(new BlockPos(0, 0, 2*i)));
+	}
+
+	@Benchmark
+	public void rebuildLarge(Blackhole blackhole)
+	{
+		largeNetwork.onPipeRemoved(largeStart);
+		blackhole.consume(largeNetwork.getOutputs(largeStart));
+	}
+}
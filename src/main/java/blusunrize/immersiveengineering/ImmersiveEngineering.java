@@ -227,6 +227,7 @@ public class ImmersiveEngineering
 		registerMessage(registrar, MessageNoSpamChat.ID, MessageNoSpamChat::new, CLIENTBOUND);
 		registerMessage(registrar, MessageOpenManual.ID, MessageOpenManual::new, CLIENTBOUND);
 		registerMessage(registrar, MessagePowerpackAntenna.ID, MessagePowerpackAntenna::new, CLIENTBOUND);
+		registerMessage(registrar, MessageMachineParticles.ID, MessageMachineParticles::new, CLIENTBOUND);
 //		registerMessage(registrar, MessageCrateName.ID, MessageCrateName::new, SERVERBOUND);
 	}
 
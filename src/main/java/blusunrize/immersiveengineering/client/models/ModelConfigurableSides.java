@@ -9,14 +9,14 @@
 package blusunrize.immersiveengineering.client.models;
 
 import blusunrize.immersiveengineering.ImmersiveEngineering;
+import blusunrize.immersiveengineering.api.IEApi;
 import blusunrize.immersiveengineering.api.IEEnums.IOSideConfig;
 import blusunrize.immersiveengineering.api.IEProperties.Model;
 import blusunrize.immersiveengineering.api.utils.DirectionUtils;
 import blusunrize.immersiveengineering.client.utils.ModelUtils;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.common.blocks.IEBlockInterfaces.IConfigurableSides;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.JsonDeserializationContext;
@@ -51,7 +51,6 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static net.minecraft.core.Direction.*;
@@ -59,6 +58,7 @@ import static net.minecraft.core.Direction.*;
 public class ModelConfigurableSides extends BakedIEModel
 {
 	private static final HashMap<String, ITextureNamer> TYPES = new HashMap<>();
+	private static final Set<ModelConfigurableSides> WEAK_INSTANCES = Collections.newSetFromMap(new WeakHashMap<>());
 
 	public enum Type
 	{
@@ -117,16 +117,12 @@ public class ModelConfigurableSides extends BakedIEModel
 	{
 		for(Type type : Type.values())
 			TYPES.put(type.getName(), type.nameMapper);
+		IEApi.renderCacheClearers.add(() -> WEAK_INSTANCES.forEach(m -> m.modelCache.invalidateAll()));
 	}
 
-	private final LoadingCache<Map<Direction, IOSideConfig>, Map<Direction, BakedQuad>> modelCache = CacheBuilder.newBuilder()
-			.expireAfterAccess(60, TimeUnit.SECONDS)
-			.build(CacheLoader.from(key -> {
-				Map<Direction, TextureAtlasSprite> tex = new EnumMap<>(Direction.class);
-				for(Direction d : DirectionUtils.VALUES)
-					tex.put(d, this.textures.get(d).get(key.get(d)));
-				return bakeQuads(tex);
-			}));
+	private final RenderCache<Map<Direction, IOSideConfig>, Map<Direction, BakedQuad>> modelCache = RenderCacheRegistry.INSTANCE.create(
+			"configurable_sides", quads -> RenderCacheRegistry.weighQuads(quads.values())
+	);
 
 	final String name;
 	public Map<Direction, Map<IOSideConfig, TextureAtlasSprite>> textures;
@@ -139,6 +135,7 @@ public class ModelConfigurableSides extends BakedIEModel
 		this.name = name;
 		this.textures = textures;
 		this.renderTypes = renderTypes;
+		WEAK_INSTANCES.add(this);
 	}
 
 	@Nonnull
@@ -163,7 +160,7 @@ public class ModelConfigurableSides extends BakedIEModel
 				config.put(d, IOSideConfig.NONE);
 		}
 		assert (config!=null);
-		return ImmutableList.of(modelCache.getUnchecked(config).get(side));
+		return ImmutableList.of(modelCache.get(config, this::bakeQuadsForConfig).get(side));
 	}
 
 	@Nonnull
@@ -182,6 +179,14 @@ public class ModelConfigurableSides extends BakedIEModel
 		return data.build();
 	}
 
+	private Map<Direction, BakedQuad> bakeQuadsForConfig(Map<Direction, IOSideConfig> config)
+	{
+		Map<Direction, TextureAtlasSprite> tex = new EnumMap<>(Direction.class);
+		for(Direction d : DirectionUtils.VALUES)
+			tex.put(d, this.textures.get(d).get(config.get(d)));
+		return bakeQuads(tex);
+	}
+
 	private static Map<Direction, BakedQuad> bakeQuads(Map<Direction, TextureAtlasSprite> sprites)
 	{
 		Map<Direction, BakedQuad> quads = new EnumMap<>(Direction.class);
@@ -9,6 +9,7 @@
 package blusunrize.immersiveengineering.client.models;
 
 import blusunrize.immersiveengineering.ImmersiveEngineering;
+import blusunrize.immersiveengineering.api.IEApi;
 import blusunrize.immersiveengineering.api.IEProperties;
 import blusunrize.immersiveengineering.api.Lib;
 import blusunrize.immersiveengineering.api.tool.conveyor.*;
@@ -17,11 +18,12 @@ import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.IConvey
 import blusunrize.immersiveengineering.api.tool.conveyor.IConveyorModelRender.RenderContext;
 import blusunrize.immersiveengineering.client.ClientUtils;
 import blusunrize.immersiveengineering.client.utils.ModelUtils;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.common.blocks.IEBlockInterfaces.IDirectionalBE;
 import blusunrize.immersiveengineering.common.blocks.metal.ConveyorBlock;
 import blusunrize.immersiveengineering.common.util.Utils;
 import blusunrize.immersiveengineering.common.util.chickenbones.Matrix4;
-import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -91,12 +93,21 @@ public class ModelConveyor<T extends IConveyorBelt> extends BakedIEModel
 			new ResourceLocation(ImmersiveEngineering.MODID, "block/conveyor/casing_full")
 	};
 
-	private final Map<RenderType, Cache<Object, List<BakedQuad>>> modelCache = new HashMap<>();
+	private static final Set<ModelConveyor<?>> WEAK_INSTANCES = Collections.newSetFromMap(new WeakHashMap<>());
+
+	static
+	{
+		IEApi.renderCacheClearers.add(() -> WEAK_INSTANCES.forEach(
+				m -> m.modelCache.values().forEach(RenderCache::invalidateAll)
+		));
+	}
+
+	private final Map<RenderType, RenderCache<Object, List<BakedQuad>>> modelCache = new HashMap<>();
 
 	{
-		modelCache.put(RenderType.translucent(), CacheBuilder.newBuilder().maximumSize(100).build());
-		modelCache.put(RenderType.cutout(), CacheBuilder.newBuilder().maximumSize(100).build());
-		modelCache.put(null, CacheBuilder.newBuilder().maximumSize(100).build());
+		modelCache.put(RenderType.translucent(), RenderCacheRegistry.INSTANCE.create("conveyors", RenderCacheRegistry::weighQuads));
+		modelCache.put(RenderType.cutout(), RenderCacheRegistry.INSTANCE.create("conveyors", RenderCacheRegistry::weighQuads));
+		modelCache.put(null, RenderCacheRegistry.INSTANCE.create("conveyors", RenderCacheRegistry::weighQuads));
 	}
 
 	private final IConveyorType<T> type;
@@ -106,6 +117,7 @@ public class ModelConveyor<T extends IConveyorBelt> extends BakedIEModel
 	{
 		this.type = type;
 		this.fallbackCover = fallbackCover;
+		WEAK_INSTANCES.add(this);
 	}
 
 	@Nonnull
@@ -137,7 +149,7 @@ public class ModelConveyor<T extends IConveyorBelt> extends BakedIEModel
 		IConveyorModelRender<T> clientData = ClientConveyors.getData(type);
 		IConveyorModelRender.RenderContext<T> context = new RenderContext<>(type, conveyor, fallbackCover);
 		Object key = clientData.getModelCacheKey(context);
-		Cache<Object, List<BakedQuad>> layerCache = modelCache.get(layer);
+		RenderCache<Object, List<BakedQuad>> layerCache = modelCache.get(layer);
 		List<BakedQuad> cachedQuads = layerCache.getIfPresent(key);
 		if(cachedQuads==null)
 		{
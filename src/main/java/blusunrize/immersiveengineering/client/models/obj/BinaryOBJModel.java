@@ -0,0 +1,255 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.models.obj;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import malte0811.modelsplitter.math.Vec3d;
+import malte0811.modelsplitter.model.Group;
+import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
+import malte0811.modelsplitter.model.OBJModel;
+import malte0811.modelsplitter.model.Polygon;
+import malte0811.modelsplitter.model.UVCoords;
+import malte0811.modelsplitter.model.Vertex;
+import net.minecraft.resources.ResourceLocation;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of OBJ models that have already been quadified and had their normals fixed, generated by the data
+ * generators. Each file starts with a {@link Header} naming the material libraries of the model and storing the length
+ * and a hash of the sources, so loaders can check whether the file still matches the OBJ file before reading the model.
+ */
+public class BinaryOBJModel
+{
+	private static final int MAGIC = 0x49454f42;
+	private static final int VERSION = 2;
+	private static final String MATERIAL_LIBRARY = "mtllib";
+
+	public static ResourceLocation getCacheLocation(ResourceLocation objLocation)
+	{
+		return new ResourceLocation(objLocation.getNamespace(), objLocation.getPath()+".bin");
+	}
+
+	/**
+	 * Parses the text form of the model, this is the slow path that {@link #readModel} is meant to avoid
+	 */
+	public static OBJModel<OBJMaterial> parseText(
+			byte[] obj, Function<String, InputStream> getMaterialLibrary
+	) throws IOException
+	{
+		return OBJModel.readFromStream(new ByteArrayInputStream(obj), getMaterialLibrary)
+				.quadify()
+				.recomputeZeroNormals();
+	}
+
+	private static byte[] hashSources(
+			byte[] obj, List<String> libraries, Function<String, InputStream> getMaterialLibrary
+	) throws IOException
+	{
+		Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(obj.length);
+		hasher.putBytes(obj);
+		for(String library : libraries)
+			try(InputStream input = getMaterialLibrary.apply(library))
+			{
+				byte[] mtl = input.readAllBytes();
+				hasher.putInt(mtl.length);
+				hasher.putBytes(mtl);
+			}
+		return hasher.hash().asBytes();
+	}
+
+	// Scans the raw bytes rather than decoding the (potentially large) file to a string
+	private static List<String> getMaterialLibraries(byte[] obj)
+	{
+		List<String> libraries = new ArrayList<>(1);
+		final byte[] prefix = MATERIAL_LIBRARY.getBytes(StandardCharsets.US_ASCII);
+		int lineStart = 0;
+		while(lineStart < obj.length)
+		{
+			int lineEnd = lineStart;
+			while(lineEnd < obj.length&&obj[lineEnd]!='\n')
+				++lineEnd;
+			if(lineEnd-lineStart > prefix.length&&Arrays.equals(obj, lineStart, lineStart+prefix.length, prefix, 0, prefix.length))
+			{
+				String name = new String(obj, lineStart+prefix.length, lineEnd-lineStart-prefix.length, StandardCharsets.UTF_8);
+				if(!name.isBlank()&&Character.isWhitespace(name.charAt(0)))
+					libraries.add(name.trim());
+			}
+			lineStart = lineEnd+1;
+		}
+		return libraries;
+	}
+
+	/**
+	 * Checks the length of the OBJ file against the header, and only hashes the sources if it matches
+	 */
+	public static boolean matchesSources(
+			Header header, byte[] obj, Function<String, InputStream> getMaterialLibrary
+	) throws IOException
+	{
+		if(header.sourceLength()!=obj.length)
+			return false;
+		return Arrays.equals(header.sourceHash(), hashSources(obj, header.materialLibraries(), getMaterialLibrary));
+	}
+
+	public static byte[] write(
+			OBJModel<OBJMaterial> model, byte[] obj, Function<String, InputStream> getMaterialLibrary
+	) throws IOException
+	{
+		List<String> libraries = getMaterialLibraries(obj);
+		byte[] sourceHash = hashSources(obj, libraries, getMaterialLibrary);
+		Map<OBJMaterial, Integer> materialIds = new LinkedHashMap<>();
+		for(Group<OBJMaterial> group : model.getFacesByGroup().values())
+			for(Polygon<OBJMaterial> face : group.getFaces())
+				materialIds.putIfAbsent(face.getTexture(), materialIds.size());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(obj.length);
+		out.writeByte(sourceHash.length);
+		out.write(sourceHash);
+		out.writeInt(libraries.size());
+		for(String library : libraries)
+			writeString(out, library);
+		out.writeInt(materialIds.size());
+		for(OBJMaterial material : materialIds.keySet())
+		{
+			writeString(out, material.name());
+			writeString(out, material.map_Kd());
+		}
+		out.writeInt(model.getFacesByGroup().size());
+		for(Entry<String, Group<OBJMaterial>> group : model.getFacesByGroup().entrySet())
+		{
+			writeString(out, group.getKey());
+			List<Polygon<OBJMaterial>> faces = group.getValue().getFaces();
+			out.writeInt(faces.size());
+			for(Polygon<OBJMaterial> face : faces)
+			{
+				out.writeInt(materialIds.get(face.getTexture()));
+				out.writeByte(face.getPoints().size());
+				for(Vertex vertex : face.getPoints())
+				{
+					for(int i = 0; i < 3; ++i)
+						out.writeFloat((float)vertex.position().get(i));
+					for(int i = 0; i < 3; ++i)
+						out.writeFloat((float)vertex.normal().get(i));
+					out.writeFloat((float)vertex.uv().u());
+					out.writeFloat((float)vertex.uv().v());
+				}
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads the header and leaves the buffer positioned at the model data, see {@link #readModel}
+	 *
+	 * @return the header, or null if the data is not in the current format
+	 */
+	@Nullable
+	public static Header readHeader(ByteBuffer data)
+	{
+		try
+		{
+			if(data.getInt()!=MAGIC||data.getInt()!=VERSION)
+				return null;
+			int sourceLength = data.getInt();
+			byte[] sourceHash = new byte[data.get()&0xff];
+			data.get(sourceHash);
+			String[] libraries = new String[data.getInt()];
+			for(int i = 0; i < libraries.length; ++i)
+				if((libraries[i] = readString(data))==null)
+					return null;
+			return new Header(sourceLength, sourceHash, List.of(libraries));
+		} catch(BufferUnderflowException|NegativeArraySizeException x)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * @return the model, or null if the data is truncated or otherwise invalid
+	 */
+	@Nullable
+	public static OBJModel<OBJMaterial> readModel(ByteBuffer data)
+	{
+		try
+		{
+			OBJMaterial[] materials = new OBJMaterial[data.getInt()];
+			for(int i = 0; i < materials.length; ++i)
+				materials[i] = new OBJMaterial(readString(data), readString(data));
+			int numGroups = data.getInt();
+			Map<String, Group<OBJMaterial>> groups = new LinkedHashMap<>(numGroups);
+			for(int groupId = 0; groupId < numGroups; ++groupId)
+			{
+				String name = readString(data);
+				int numFaces = data.getInt();
+				List<Polygon<OBJMaterial>> faces = new ArrayList<>(numFaces);
+				for(int faceId = 0; faceId < numFaces; ++faceId)
+				{
+					OBJMaterial material = materials[data.getInt()];
+					int numVertices = data.get()&0xff;
+					List<Vertex> vertices = new ArrayList<>(numVertices);
+					for(int vertexId = 0; vertexId < numVertices; ++vertexId)
+					{
+						Vec3d position = new Vec3d(data.getFloat(), data.getFloat(), data.getFloat());
+						Vec3d normal = new Vec3d(data.getFloat(), data.getFloat(), data.getFloat());
+						UVCoords uv = new UVCoords(data.getFloat(), data.getFloat());
+						vertices.add(new Vertex(position, normal, uv));
+					}
+					faces.add(new Polygon<>(vertices, material));
+				}
+				groups.put(name, new Group<>(faces));
+			}
+			return new OBJModel<>(groups);
+		} catch(BufferUnderflowException|IndexOutOfBoundsException|NegativeArraySizeException x)
+		{
+			return null;
+		}
+	}
+
+	public record Header(int sourceLength, byte[] sourceHash, List<String> materialLibraries)
+	{
+	}
+
+	private static void writeString(DataOutput out, @Nullable String value) throws IOException
+	{
+		if(value==null)
+			out.writeInt(-1);
+		else
+		{
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	@Nullable
+	private static String readString(ByteBuffer data)
+	{
+		int length = data.getInt();
+		if(length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		data.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -10,6 +10,7 @@
 package blusunrize.immersiveengineering.client.models.obj;
 
 import blusunrize.immersiveengineering.api.ApiUtils;
+import blusunrize.immersiveengineering.api.IEApi;
 import blusunrize.immersiveengineering.api.client.ICacheKeyProvider;
 import blusunrize.immersiveengineering.api.client.ieobj.BlockCallback;
 import blusunrize.immersiveengineering.api.client.ieobj.IEOBJCallback;
@@ -20,10 +21,8 @@ import blusunrize.immersiveengineering.api.shader.CapabilityShader.ShaderWrapper
 import blusunrize.immersiveengineering.api.shader.ShaderCase;
 import blusunrize.immersiveengineering.client.models.obj.GeneralIEOBJModel.ModelKey;
 import blusunrize.immersiveengineering.client.models.obj.SpecificIEOBJModel.ShadedQuads;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import com.google.common.collect.ImmutableList;
 import malte0811.modelsplitter.model.Group;
 import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
@@ -53,18 +52,27 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Function;
 
 public class GeneralIEOBJModel<T> implements ICacheKeyProvider<ModelKey<T>>
 {
-	private final Cache<GroupKey<T>, List<ShadedQuads>> groupCache = CacheBuilder.newBuilder()
-			.maximumSize(100)
-			.build();
-	private final LoadingCache<ModelKey<T>, SpecificIEOBJModel<T>> modelCache = CacheBuilder.newBuilder()
-			.maximumSize(100)
-			.build(CacheLoader.from(p -> new SpecificIEOBJModel<>(this, p.callbackKey(), p.shader(), p.renderTypeIfRelevant())));
+	private static final Set<GeneralIEOBJModel<?>> WEAK_INSTANCES = Collections.newSetFromMap(new WeakHashMap<>());
+
+	static
+	{
+		IEApi.renderCacheClearers.add(() -> WEAK_INSTANCES.forEach(m -> {
+			m.groupCache.invalidateAll();
+			m.modelCache.invalidateAll();
+		}));
+	}
+
+	private final RenderCache<GroupKey<T>, List<ShadedQuads>> groupCache = RenderCacheRegistry.INSTANCE.create(
+			"obj_groups", GeneralIEOBJModel::weighGroup
+	);
+	private final RenderCache<ModelKey<T>, SpecificIEOBJModel<T>> modelCache = RenderCacheRegistry.INSTANCE.create(
+			"obj_models", m -> RenderCacheRegistry.weighQuads(m.getQuads(null, null, ApiUtils.RANDOM_SOURCE))
+	);
 	private final IEOBJCallback<T> callback;
 	private final OBJModel<OBJMaterial> baseModel;
 	private final ChunkRenderTypeSet blockLayers;
@@ -114,6 +122,7 @@ public class GeneralIEOBJModel<T> implements ICacheKeyProvider<ModelKey<T>>
 				}
 			};
 		this.keyProperty = IEOBJCallbacks.getModelProperty(callback);
+		WEAK_INSTANCES.add(this);
 	}
 
 	@Override
@@ -121,7 +130,7 @@ public class GeneralIEOBJModel<T> implements ICacheKeyProvider<ModelKey<T>>
 	{
 		if(key==null)
 			return ImmutableList.of();
-		return modelCache.getUnchecked(key).getQuads(
+		return getSpecificModel(key).getQuads(
 				null, null, ApiUtils.RANDOM_SOURCE, ModelData.EMPTY, null
 		);
 	}
@@ -231,7 +240,20 @@ public class GeneralIEOBJModel<T> implements ICacheKeyProvider<ModelKey<T>>
 		return overrides;
 	}
 
-	public Cache<GroupKey<T>, List<ShadedQuads>> getGroupCache()
+	private SpecificIEOBJModel<T> getSpecificModel(ModelKey<T> key)
+	{
+		return modelCache.get(key, p -> new SpecificIEOBJModel<>(this, p.callbackKey(), p.shader(), p.renderTypeIfRelevant()));
+	}
+
+	private static long weighGroup(List<ShadedQuads> group)
+	{
+		long weight = RenderCacheRegistry.ENTRY_WEIGHT;
+		for(ShadedQuads layer : group)
+			weight += RenderCacheRegistry.weighQuads(layer.quadsInLayer());
+		return weight;
+	}
+
+	public RenderCache<GroupKey<T>, List<ShadedQuads>> getGroupCache()
 	{
 		return groupCache;
 	}
@@ -285,7 +307,7 @@ public class GeneralIEOBJModel<T> implements ICacheKeyProvider<ModelKey<T>>
 			T key = callback.extractKey(stack, holder);
 			ShaderWrapper wrapper = stack.getCapability(CapabilityShader.ITEM);
 			ShaderCase shader = wrapper==null?null: wrapper.getCase();
-			return modelCache.getUnchecked(new ModelKey<>(key, shader, null));
+			return getSpecificModel(new ModelKey<>(key, shader, null));
 		}
 	}
 
@@ -12,6 +12,8 @@ import blusunrize.immersiveengineering.ImmersiveEngineering;
 import blusunrize.immersiveengineering.api.client.ieobj.DefaultCallback;
 import blusunrize.immersiveengineering.api.client.ieobj.IEOBJCallback;
 import blusunrize.immersiveengineering.api.client.ieobj.IEOBJCallbacks;
+import blusunrize.immersiveengineering.client.models.obj.BinaryOBJModel.Header;
+import blusunrize.immersiveengineering.common.util.IELogger;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -20,13 +22,20 @@ import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
 import malte0811.modelsplitter.model.OBJModel;
 import net.minecraft.client.Minecraft;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.neoforge.client.model.geometry.IGeometryLoader;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 import static blusunrize.immersiveengineering.ImmersiveEngineering.MODID;
 
@@ -45,11 +54,9 @@ public class IEOBJLoader implements IGeometryLoader<IEOBJModel>
 	) throws JsonParseException
 	{
 		ResourceLocation modelLoc = toRL(modelContents.get(MODEL_KEY).getAsString(), null);
-		try(InputStream input = getStream(modelLoc))
+		try
 		{
-			OBJModel<OBJMaterial> model = OBJModel.readFromStream(input, s -> getStream(toRL(s, modelLoc)))
-					.quadify()
-					.recomputeZeroNormals();
+			OBJModel<OBJMaterial> model = loadModel(modelLoc);
 			IEOBJCallback<?> callback;
 			if(modelContents.has(CALLBACKS_KEY))
 			{
@@ -73,6 +80,69 @@ public class IEOBJLoader implements IGeometryLoader<IEOBJModel>
 		}
 	}
 
+	/**
+	 * Uses the binary form of the model generated by the data generators if it exists and comes from the same resource
+	 * pack as the OBJ file and its material libraries, and parses the OBJ file otherwise. Outside of development
+	 * environments only the length of the OBJ file is checked against the binary form, without keeping its contents.
+	 */
+	private OBJModel<OBJMaterial> loadModel(ResourceLocation modelLoc) throws IOException
+	{
+		ResourceManager resources = Minecraft.getInstance().getResourceManager();
+		Resource obj = resources.getResourceOrThrow(modelLoc);
+		Function<String, InputStream> getMaterialLibrary = s -> getStream(toRL(s, modelLoc));
+		byte[] source = null;
+		Optional<Resource> binary = resources.getResource(BinaryOBJModel.getCacheLocation(modelLoc));
+		// A binary form from another pack than the OBJ file does not belong to the OBJ file that is actually used
+		if(binary.isPresent()&&binary.get().sourcePackId().equals(obj.sourcePackId()))
+		{
+			ByteBuffer data;
+			try(InputStream input = binary.get().open())
+			{
+				data = ByteBuffer.wrap(input.readAllBytes());
+			}
+			Header header = BinaryOBJModel.readHeader(data);
+			boolean valid = header!=null;
+			if(valid)
+				for(String library : header.materialLibraries())
+				{
+					Optional<Resource> mtl = resources.getResource(toRL(library, modelLoc));
+					valid &= mtl.isPresent()&&mtl.get().sourcePackId().equals(obj.sourcePackId());
+				}
+			// OBJ files may be edited without running the data generators in a development environment. Stale binary
+			// forms in release builds are caught by tests, but an edit nearly always changes the length of the file
+			if(valid&&!FMLEnvironment.production)
+			{
+				source = readSource(obj);
+				valid = BinaryOBJModel.matchesSources(header, source, getMaterialLibrary);
+			}
+			else if(valid)
+				valid = header.sourceLength()==getLength(obj);
+			OBJModel<OBJMaterial> model = valid?BinaryOBJModel.readModel(data): null;
+			if(model!=null)
+				return model;
+			IELogger.logger.debug("Binary form of OBJ model {} does not match the OBJ file, parsing the OBJ file", modelLoc);
+		}
+		if(source==null)
+			source = readSource(obj);
+		return BinaryOBJModel.parseText(source, getMaterialLibrary);
+	}
+
+	private static byte[] readSource(Resource obj) throws IOException
+	{
+		try(InputStream input = obj.open())
+		{
+			return input.readAllBytes();
+		}
+	}
+
+	private static long getLength(Resource obj) throws IOException
+	{
+		try(InputStream input = obj.open())
+		{
+			return input.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+
 	private static ResourceLocation toRL(String name, @Nullable ResourceLocation basePath)
 	{
 		if(name.contains(":"))
@@ -12,9 +12,8 @@ package blusunrize.immersiveengineering.client.models.split;
 import blusunrize.immersiveengineering.api.IEApi;
 import blusunrize.immersiveengineering.api.IEProperties.Model;
 import blusunrize.immersiveengineering.api.client.ICacheKeyProvider;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import com.google.common.collect.ImmutableList;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.block.model.BakedQuad;
@@ -31,7 +30,6 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 public class BakedDynamicSplitModel<K, T extends ICacheKeyProvider<K> & BakedModel> extends AbstractSplitModel<T>
 {
@@ -40,18 +38,32 @@ public class BakedDynamicSplitModel<K, T extends ICacheKeyProvider<K> & BakedMod
 		IEApi.renderCacheClearers.add(() -> WEAK_INSTANCES.forEach(m -> m.subModelCache.invalidateAll()));
 	}
 
-	private final LoadingCache<K, Map<Vec3i, List<BakedQuad>>> subModelCache;
+	private final RenderCache<K, Map<Vec3i, List<BakedQuad>>> subModelCache = RenderCacheRegistry.INSTANCE.create(
+			"split_models", BakedDynamicSplitModel::weighSubModels
+	);
+	private final Set<Vec3i> parts;
+	private final ModelState transform;
 
 	public BakedDynamicSplitModel(T base, Set<Vec3i> parts, ModelState transform, @Nonnull Vec3i size)
 	{
 		super(base, size);
-		this.subModelCache = CacheBuilder.newBuilder()
-				.maximumSize(10)
-				.expireAfterAccess(1, TimeUnit.MINUTES)
-				.build(CacheLoader.from(key -> {
-					List<BakedQuad> baseQuads = base.getQuads(key);
-					return split(baseQuads, parts, transform);
-				}));
+		this.parts = parts;
+		this.transform = transform;
+		WEAK_INSTANCES.add(this);
+	}
+
+	private Map<Vec3i, List<BakedQuad>> buildSubModels(K key)
+	{
+		List<BakedQuad> baseQuads = base.getQuads(key);
+		return split(baseQuads, parts, transform);
+	}
+
+	private static long weighSubModels(Map<Vec3i, List<BakedQuad>> subModels)
+	{
+		long weight = RenderCacheRegistry.ENTRY_WEIGHT;
+		for(List<BakedQuad> quads : subModels.values())
+			weight += RenderCacheRegistry.weighQuads(quads);
+		return weight;
 	}
 
 	@Override
@@ -63,6 +75,6 @@ public class BakedDynamicSplitModel<K, T extends ICacheKeyProvider<K> & BakedMod
 		K key = base.getKey(state, side, rand, data, renderType);
 		if(key==null)
 			return ImmutableList.of();
-		return subModelCache.getUnchecked(key).getOrDefault(offset, ImmutableList.of());
+		return subModelCache.get(key, this::buildSubModels).getOrDefault(offset, ImmutableList.of());
 	}
 }
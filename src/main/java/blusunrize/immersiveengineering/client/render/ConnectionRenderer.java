@@ -16,9 +16,8 @@ import blusunrize.immersiveengineering.api.wires.Connection.CatenaryData;
 import blusunrize.immersiveengineering.api.wires.ConnectionPoint;
 import blusunrize.immersiveengineering.api.wires.GlobalWireNetwork;
 import blusunrize.immersiveengineering.api.wires.WireCollisionData.ConnectionSegments;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import malte0811.modelsplitter.model.UVCoords;
@@ -45,14 +44,13 @@ import net.neoforged.neoforge.client.event.AddSectionGeometryEvent.SectionRender
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @EventBusSubscriber(value = Dist.CLIENT, modid = Lib.MODID, bus = Bus.FORGE)
 public class ConnectionRenderer implements ResourceManagerReloadListener
 {
-	private static final LoadingCache<SectionKey, List<RenderedSegment>> SEGMENT_CACHE = CacheBuilder.newBuilder()
-			.expireAfterAccess(120, TimeUnit.SECONDS)
-			.build(CacheLoader.from(ConnectionRenderer::renderSectionForCache));
+	private static final RenderCache<SectionKey, List<RenderedSegment>> SEGMENT_CACHE = RenderCacheRegistry.INSTANCE.create(
+			"wire_segments", ConnectionRenderer::weighSection
+	);
 	private static final ResettableLazy<TextureAtlasSprite> WIRE_TEXTURE = new ResettableLazy<>(
 			() -> Minecraft.getInstance().getModelManager()
 					.getAtlas(InventoryMenu.BLOCK_ATLAS)
@@ -113,9 +111,9 @@ public class ConnectionRenderer implements ResourceManagerReloadListener
 		int color = connection.type.getColour(connection);
 		double radius = connection.type.getRenderDiameter()/2;
 		int lastLight = 0;
-		List<RenderedSegment> renderedSection = SEGMENT_CACHE.getUnchecked(new SectionKey(
+		List<RenderedSegment> renderedSection = SEGMENT_CACHE.get(new SectionKey(
 				radius, color, connection.getCatenaryData(), toRender.firstPointToRender(), toRender.lastPointToRender()
-		));
+		), ConnectionRenderer::renderSectionForCache);
 		for(int i = 0; i < renderedSection.size(); ++i)
 		{
 			RenderedSegment segment = renderedSection.get(i);
@@ -133,14 +131,22 @@ public class ConnectionRenderer implements ResourceManagerReloadListener
 			int light, int overlay
 	)
 	{
-		final List<RenderedSegment> section = SEGMENT_CACHE.getUnchecked(new SectionKey(
+		final List<RenderedSegment> section = SEGMENT_CACHE.get(new SectionKey(
 				radius, color, catenaryData, 0, Connection.RENDER_POINTS_PER_WIRE
-		));
+		), ConnectionRenderer::renderSectionForCache);
 		final PoseStack transform = new PoseStack();
 		for(RenderedSegment renderedSegment : section)
 			renderedSegment.render(light, light, overlay, out, transform);
 	}
 
+	private static long weighSection(List<RenderedSegment> section)
+	{
+		long weight = RenderCacheRegistry.ENTRY_WEIGHT;
+		for(RenderedSegment segment : section)
+			weight += 48+segment.vertices.size()*64L;
+		return weight;
+	}
+
 	private static List<RenderedSegment> renderSectionForCache(SectionKey key)
 	{
 		CatenaryData catenaryData = key.catenaryShape();
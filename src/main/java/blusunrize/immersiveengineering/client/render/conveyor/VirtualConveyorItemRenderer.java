@@ -0,0 +1,59 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.render.conveyor;
+
+import blusunrize.immersiveengineering.client.ClientUtils;
+import blusunrize.immersiveengineering.client.render.tile.IEBlockEntityRenderer;
+import blusunrize.immersiveengineering.common.blocks.metal.ConveyorBeltBlockEntity;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.BasicConveyor;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.VirtualItem;
+import com.mojang.blaze3d.vertex.PoseStack;
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraft.client.renderer.entity.ItemRenderer;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemDisplayContext;
+
+import java.util.List;
+
+/**
+ * Renders the items moved by {@link VirtualConveyorTransport}. Between updates from the server, moving items are
+ * advanced at the conveyor speed.
+ */
+public class VirtualConveyorItemRenderer extends IEBlockEntityRenderer<ConveyorBeltBlockEntity<?>>
+{
+	@Override
+	public void render(ConveyorBeltBlockEntity<?> be, float partialTicks, PoseStack matrixStack, MultiBufferSource bufferIn, int combinedLightIn, int combinedOverlayIn)
+	{
+		if(!(be.getConveyorInstance() instanceof BasicConveyor conveyor))
+			return;
+		List<VirtualItem> items = conveyor.getVirtualItems();
+		if(items.isEmpty())
+			return;
+		Direction facing = conveyor.getFacing();
+		float elapsed = be.getLevelNonnull().getGameTime()-conveyor.getVirtualSyncTime()+partialTicks;
+		ItemRenderer itemRenderer = ClientUtils.mc().getItemRenderer();
+		float maxProgress = 1;
+		for(VirtualItem item : items)
+		{
+			float progress = item.getProgress();
+			if(item.isMoving())
+				progress = Math.min(maxProgress, progress+VirtualConveyorTransport.SPEED*elapsed);
+			maxProgress = progress-VirtualConveyorTransport.SPACING;
+			matrixStack.pushPose();
+			matrixStack.translate(.5+(progress-.5)*facing.getStepX(), .25, .5+(progress-.5)*facing.getStepZ());
+			itemRenderer.renderStatic(
+					item.getStack(), ItemDisplayContext.GROUND,
+					combinedLightIn, combinedOverlayIn, matrixStack, bufferIn,
+					be.getLevel(), 0
+			);
+			matrixStack.popPose();
+		}
+	}
+}
@@ -11,6 +11,8 @@ package blusunrize.immersiveengineering.client.render.tile;
 import blusunrize.immersiveengineering.api.crafting.BlueprintCraftingRecipe;
 import blusunrize.immersiveengineering.client.ClientUtils;
 import blusunrize.immersiveengineering.client.utils.IERenderTypes;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import com.google.common.collect.HashMultimap;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
@@ -39,17 +41,20 @@ import java.util.function.Function;
 public class BlueprintRenderer
 {
 	public static final RenderType RENDER_TYPE = IERenderTypes.POSITION_COLOR_LIGHTMAP;
-	private static final HashMap<BlueprintCraftingRecipe, BlueprintLines> BLUEPRINT_CACHE = new HashMap<>();
+	private static final RenderCache<BlueprintCraftingRecipe, BlueprintLines> BLUEPRINT_CACHE = RenderCacheRegistry.INSTANCE.create(
+			"blueprints", lines -> RenderCacheRegistry.ENTRY_WEIGHT+lines.lines.size()*80L+lines.areas.size()*48L
+	);
 
 	public static BlueprintLines getBlueprintDrawable(BlueprintCraftingRecipe recipe, Level world)
 	{
 		if(recipe==null)
 			return null;
-		BlueprintLines blueprint = BLUEPRINT_CACHE.get(recipe);
+		BlueprintLines blueprint = BLUEPRINT_CACHE.getIfPresent(recipe);
 		if(blueprint==null)
 		{
 			blueprint = getBlueprintDrawable(recipe.output.get(), world);
-			BLUEPRINT_CACHE.put(recipe, blueprint);
+			if(blueprint!=null)
+				BLUEPRINT_CACHE.put(recipe, blueprint);
 		}
 		return blueprint;
 	}
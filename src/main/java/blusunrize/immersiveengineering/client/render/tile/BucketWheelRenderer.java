@@ -15,10 +15,10 @@ import blusunrize.immersiveengineering.api.multiblocks.blocks.env.IMultiblockCon
 import blusunrize.immersiveengineering.api.multiblocks.blocks.util.MultiblockOrientation;
 import blusunrize.immersiveengineering.api.utils.client.ModelDataUtils;
 import blusunrize.immersiveengineering.client.models.obj.callback.block.BucketWheelCallbacks;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.common.blocks.multiblocks.logic.BucketWheelLogic.State;
 import blusunrize.immersiveengineering.common.config.IEServerConfig;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.mojang.blaze3d.vertex.PoseStack;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
@@ -27,18 +27,13 @@ import net.minecraft.util.Mth;
 import net.neoforged.neoforge.client.model.data.ModelData;
 import org.joml.Quaternionf;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-
 public class BucketWheelRenderer extends IEMultiblockRenderer<State>
 {
 	public static final String NAME = "bucket_wheel";
 	public static DynamicModel WHEEL;
-	private static final Cache<BucketWheelCallbacks.Key, IVertexBufferHolder> CACHED_BUFFERS = CacheBuilder.newBuilder()
-			.maximumSize(100)
-			.expireAfterAccess(1, TimeUnit.MINUTES)
-			.<Object, IVertexBufferHolder>removalListener(rem -> rem.getValue().reset())
-			.build();
+	private static final RenderCache<BucketWheelCallbacks.Key, IVertexBufferHolder> CACHED_BUFFERS = RenderCacheRegistry.INSTANCE.create(
+			"bucket_wheel", $ -> RenderCacheRegistry.VERTEX_BUFFER_WEIGHT, RenderCacheRegistry::resetOnRenderThread
+	);
 
 	@Override
 	public void render(IMultiblockContext<State> ctx, float partialTicks, PoseStack matrixStack, MultiBufferSource bufferIn, int combinedLightIn, int combinedOverlayIn)
@@ -57,18 +52,12 @@ public class BucketWheelRenderer extends IEMultiblockRenderer<State>
 		matrixStack.mulPose(new Quaternionf().rotateX(rot*Mth.DEG_TO_RAD));
 
 		matrixStack.translate(-.5, -.5, -.5);
-		try
-		{
-			BucketWheelCallbacks.Key key = BucketWheelCallbacks.INSTANCE.extractKey(state);
-			ModelData extraData = ModelDataUtils.single(IEOBJCallbacks.getModelProperty(BucketWheelCallbacks.INSTANCE), key);
+		BucketWheelCallbacks.Key key = BucketWheelCallbacks.INSTANCE.extractKey(state);
+		ModelData extraData = ModelDataUtils.single(IEOBJCallbacks.getModelProperty(BucketWheelCallbacks.INSTANCE), key);
 
-			CACHED_BUFFERS.get(key, () -> IVertexBufferHolder.create(
-					() -> WHEEL.get().getQuads(null, null, ApiUtils.RANDOM_SOURCE, extraData, RenderType.solid())
-			)).render(RenderType.solid(), combinedLightIn, combinedOverlayIn, bufferIn, matrixStack, state.reverseRotation);
-		} catch(ExecutionException ex)
-		{
-			throw new RuntimeException(ex);
-		}
+		CACHED_BUFFERS.get(key, $ -> IVertexBufferHolder.create(
+				() -> WHEEL.get().getQuads(null, null, ApiUtils.RANDOM_SOURCE, extraData, RenderType.solid())
+		)).render(RenderType.solid(), combinedLightIn, combinedOverlayIn, bufferIn, matrixStack, state.reverseRotation);
 		matrixStack.popPose();
 	}
 
@@ -11,6 +11,8 @@ package blusunrize.immersiveengineering.client.render.tile;
 import blusunrize.immersiveengineering.api.ApiUtils;
 import blusunrize.immersiveengineering.api.crafting.ClocheRecipe;
 import blusunrize.immersiveengineering.client.ClientUtils;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.client.utils.RenderUtils;
 import blusunrize.immersiveengineering.common.blocks.metal.ClocheBlockEntity;
 import com.mojang.blaze3d.vertex.PoseStack;
@@ -39,7 +41,9 @@ import java.util.function.Consumer;
 
 public class ClocheRenderer extends IEBlockEntityRenderer<ClocheBlockEntity>
 {
-	private static final Map<BlockState, List<BakedQuad>> plantQuads = new HashMap<>();
+	private static final RenderCache<BlockState, List<BakedQuad>> plantQuads = RenderCacheRegistry.INSTANCE.create(
+			"cloche_plants", RenderCacheRegistry::weighQuads
+	);
 
 	@Override
 	public void render(ClocheBlockEntity tile, float partialTicks, PoseStack matrixStack, MultiBufferSource bufferIn, int combinedLightIn, int combinedOverlayIn)
@@ -73,7 +77,7 @@ public class ClocheRenderer extends IEBlockEntityRenderer<ClocheBlockEntity>
 			for(Pair<BlockState, Transformation> block : blocks)
 			{
 				BlockState state = block.getFirst();
-				List<BakedQuad> plantQuadList = plantQuads.get(state);
+				List<BakedQuad> plantQuadList = plantQuads.getIfPresent(state);
 				if(plantQuadList==null)
 				{
 					BakedModel plantModel = blockRenderer.getBlockModel(state);
@@ -105,7 +109,7 @@ public class ClocheRenderer extends IEBlockEntityRenderer<ClocheBlockEntity>
 
 	public static void reset()
 	{
-		plantQuads.clear();
+		plantQuads.invalidateAll();
 	}
 
 	@Override
@@ -12,6 +12,8 @@ import blusunrize.immersiveengineering.api.client.IVertexBufferHolder;
 import blusunrize.immersiveengineering.api.crafting.BlueprintCraftingRecipe;
 import blusunrize.immersiveengineering.client.ClientUtils;
 import blusunrize.immersiveengineering.client.render.tile.BlueprintRenderer.BlueprintLines;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.common.blocks.wooden.ModWorkbenchBlockEntity;
 import blusunrize.immersiveengineering.common.items.EngineersBlueprintItem;
 import blusunrize.immersiveengineering.common.util.ItemNBTHelper;
@@ -27,13 +29,13 @@ import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import org.joml.Quaternionf;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class ModWorkbenchRenderer extends IEBlockEntityRenderer<ModWorkbenchBlockEntity>
 {
-	private static final Map<String, IVertexBufferHolder> VBO_BY_BLUEPRINT = new HashMap<>();
+	private static final RenderCache<String, IVertexBufferHolder> VBO_BY_BLUEPRINT = RenderCacheRegistry.INSTANCE.create(
+			"workbench_blueprints", $ -> RenderCacheRegistry.VERTEX_BUFFER_WEIGHT, RenderCacheRegistry::resetOnRenderThread
+	);
 
 	@Override
 	public void render(ModWorkbenchBlockEntity te, float partialTicks, PoseStack transform, MultiBufferSource bufferIn, int combinedLightIn, int combinedOverlayIn)
@@ -60,7 +62,7 @@ public class ModWorkbenchRenderer extends IEBlockEntityRenderer<ModWorkbenchBloc
 				if(playerDistanceSq < 120)
 				{
 					final String category = ItemNBTHelper.getString(stack, "blueprint");
-					IVertexBufferHolder vbo = VBO_BY_BLUEPRINT.computeIfAbsent(category, this::buildVBO);
+					IVertexBufferHolder vbo = VBO_BY_BLUEPRINT.get(category, this::buildVBO);
 					vbo.render(BlueprintRenderer.RENDER_TYPE, combinedLightIn, combinedOverlayIn, bufferIn, transform);
 				}
 			}
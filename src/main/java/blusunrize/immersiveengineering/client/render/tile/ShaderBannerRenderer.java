@@ -13,10 +13,13 @@ import blusunrize.immersiveengineering.api.shader.ShaderCase;
 import blusunrize.immersiveengineering.api.shader.ShaderLayer;
 import blusunrize.immersiveengineering.client.ClientUtils;
 import blusunrize.immersiveengineering.client.render.IEShaderLayerCompositeTexture;
+import blusunrize.immersiveengineering.client.utils.RenderCache;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
 import blusunrize.immersiveengineering.common.blocks.cloth.ShaderBannerBlockEntity;
 import blusunrize.immersiveengineering.common.blocks.cloth.ShaderBannerStandingBlock;
 import blusunrize.immersiveengineering.common.blocks.cloth.ShaderBannerWallBlock;
 import blusunrize.immersiveengineering.common.register.IEBlocks.Cloth;
+import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import org.joml.Quaternionf;
@@ -34,7 +37,6 @@ import net.minecraft.util.Mth;
 import net.minecraft.world.item.ItemStack;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
 
 public class ShaderBannerRenderer extends IEBlockEntityRenderer<ShaderBannerBlockEntity>
 {
@@ -105,7 +107,11 @@ public class ShaderBannerRenderer extends IEBlockEntityRenderer<ShaderBannerBloc
 	}
 
 	private static final ResourceLocation BASE_TEXTURE = new ResourceLocation("textures/entity/banner_base.png");
-	private static final HashMap<ResourceLocation, ResourceLocation> CACHE = new HashMap<>();
+	// Banner textures are 64x64 RGBA
+	private static final RenderCache<ResourceLocation, ResourceLocation> CACHE = RenderCacheRegistry.INSTANCE.create(
+			"shader_banners", $ -> RenderCacheRegistry.ENTRY_WEIGHT+64*64*4,
+			texture -> RenderSystem.recordRenderCall(() -> ClientUtils.mc().getTextureManager().release(texture))
+	);
 
 	@Nullable
 	private ResourceLocation getBannerResourceLocation(ShaderBannerBlockEntity bannerObj)
@@ -122,8 +128,9 @@ public class ShaderBannerRenderer extends IEBlockEntityRenderer<ShaderBannerBloc
 		{
 			IShaderItem iShaderItem = ((IShaderItem)shader.getItem());
 			name = iShaderItem.getShaderName(shader);
-			if(CACHE.containsKey(name))
-				return CACHE.get(name);
+			ResourceLocation cached = CACHE.getIfPresent(name);
+			if(cached!=null)
+				return cached;
 			sCase = iShaderItem.getShaderCase(shader, shaderType);
 		}
 
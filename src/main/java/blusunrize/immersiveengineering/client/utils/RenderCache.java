@@ -0,0 +1,145 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.utils;
+
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry.EvictionCandidate;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry.Stats;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache whose size is limited by the memory budget of its {@link RenderCacheRegistry} rather than by a per-cache
+ * limit. Safe to use from multiple threads, lookups do not take any locks. Values are computed without holding any
+ * locks either, so two threads missing the same key at the same time may both compute the value.
+ */
+public class RenderCache<K, V>
+{
+	private final RenderCacheRegistry registry;
+	final Stats stats;
+	private final ToLongFunction<? super V> weigher;
+	@Nullable
+	private final Consumer<? super V> removalListener;
+	private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+	// Shared with the registry, which needs the weight of caches that have been garbage collected
+	final AtomicLong weight = new AtomicLong();
+
+	RenderCache(
+			RenderCacheRegistry registry, Stats stats,
+			ToLongFunction<? super V> weigher, @Nullable Consumer<? super V> removalListener
+	)
+	{
+		this.registry = registry;
+		this.stats = stats;
+		this.weigher = weigher;
+		this.removalListener = removalListener;
+	}
+
+	@Nullable
+	public V getIfPresent(K key)
+	{
+		Entry<V> entry = entries.get(key);
+		if(entry==null)
+		{
+			stats.misses.increment();
+			return null;
+		}
+		stats.hits.increment();
+		long now = registry.now();
+		if(entry.lastUsed!=now)
+			entry.lastUsed = now;
+		return entry.value;
+	}
+
+	public V get(K key, Function<? super K, ? extends V> loader)
+	{
+		V cached = getIfPresent(key);
+		if(cached!=null)
+			return cached;
+		V value = loader.apply(key);
+		put(key, value);
+		return value;
+	}
+
+	public void put(K key, V value)
+	{
+		Entry<V> entry = new Entry<>(value, weigher.applyAsLong(value), registry.tick());
+		Entry<V> replaced = entries.put(key, entry);
+		long delta = entry.weight-(replaced!=null?replaced.weight: 0);
+		weight.addAndGet(delta);
+		registry.addWeight(delta);
+		if(replaced!=null)
+			notifyRemoved(replaced);
+		registry.evictIfNeeded();
+	}
+
+	public void invalidateAll()
+	{
+		for(Map.Entry<K, Entry<V>> entry : entries.entrySet())
+			if(remove(entry.getKey(), entry.getValue()))
+				notifyRemoved(entry.getValue());
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	void addEvictionCandidates(List<EvictionCandidate> out)
+	{
+		// The access time is copied, since it may change while the candidates are sorted
+		entries.forEach((key, entry) -> out.add(new EvictionCandidate(this, key, entry, entry.lastUsed)));
+	}
+
+	void evict(Object key, Entry<?> entry)
+	{
+		// The entry may have been replaced or invalidated since it was picked for eviction
+		if(remove(key, entry))
+		{
+			stats.evictions.increment();
+			notifyRemoved(entry);
+		}
+	}
+
+	private boolean remove(Object key, Entry<?> entry)
+	{
+		if(!entries.remove(key, entry))
+			return false;
+		weight.addAndGet(-entry.weight);
+		registry.addWeight(-entry.weight);
+		return true;
+	}
+
+	private void notifyRemoved(Entry<?> entry)
+	{
+		if(removalListener!=null)
+			removalListener.accept((V)entry.value);
+	}
+
+	static class Entry<V>
+	{
+		private final V value;
+		private final long weight;
+		// Approximate time of the last access, see RenderCacheRegistry#now
+		private volatile long lastUsed;
+
+		private Entry(V value, long weight, long lastUsed)
+		{
+			this.value = value;
+			this.weight = weight;
+			this.lastUsed = lastUsed;
+		}
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.utils;
+
+import blusunrize.immersiveengineering.api.client.IVertexBufferHolder;
+import blusunrize.immersiveengineering.client.utils.RenderCache.Entry;
+import blusunrize.immersiveengineering.common.config.IEClientConfig;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps track of the entries of all client side render caches. The weight of each entry is an estimate of its memory
+ * use in bytes, and once the total weight of all caches exceeds the budget the least recently used entries are
+ * evicted, regardless of the cache they belong to.
+ * <br>
+ * Lookups only record an approximate access time and never wait for other threads, eviction is done by a single thread
+ * at a time after adding entries. Caches are only referenced weakly, so caches of models that are no longer used can be
+ * garbage collected along with their entries.
+ * <br>
+ * Caches with the same name share their statistics, so caches created per model can be inspected as a whole.
+ */
+public class RenderCacheRegistry
+{
+	public static final RenderCacheRegistry INSTANCE = new RenderCacheRegistry(() -> {
+		long budget = IEClientConfig.CONFIG_SPEC.isLoaded()?
+				IEClientConfig.renderCacheBudget.get(): IEClientConfig.renderCacheBudget.getDefault();
+		return budget*1024L*1024L;
+	});
+	// Rough estimates of the memory used by common values, including the objects wrapping them
+	public static final long ENTRY_WEIGHT = 64;
+	public static final long QUAD_WEIGHT = 192;
+	public static final long VERTEX_BUFFER_WEIGHT = 64*1024;
+
+	private final LongSupplier budget;
+	private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+	private final Set<CacheReference> caches = ConcurrentHashMap.newKeySet();
+	private final ReferenceQueue<RenderCache<?, ?>> collectedCaches = new ReferenceQueue<>();
+	private final AtomicLong totalWeight = new AtomicLong();
+	// Advanced whenever an entry is added. Entries store the time they were last used, hits store the current time,
+	// so a hit counts as more recent than all entries added before it
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	public RenderCacheRegistry(LongSupplier budget)
+	{
+		this.budget = budget;
+	}
+
+	public <K, V> RenderCache<K, V> create(String name, ToLongFunction<? super V> weigher)
+	{
+		return create(name, weigher, null);
+	}
+
+	/**
+	 * @param removalListener called with values that are evicted, replaced or invalidated, on the thread that caused
+	 *                        the removal
+	 */
+	public <K, V> RenderCache<K, V> create(
+			String name, ToLongFunction<? super V> weigher, @Nullable Consumer<? super V> removalListener
+	)
+	{
+		Stats cacheStats = stats.computeIfAbsent(name, Stats::new);
+		RenderCache<K, V> cache = new RenderCache<>(this, cacheStats, weigher, removalListener);
+		caches.add(new CacheReference(cache, collectedCaches));
+		return cache;
+	}
+
+	public static long weighQuads(Collection<BakedQuad> quads)
+	{
+		return ENTRY_WEIGHT+quads.size()*QUAD_WEIGHT;
+	}
+
+	/**
+	 * Removal listener for caches of vertex buffers, which may be evicted by threads other than the render thread
+	 */
+	public static void resetOnRenderThread(IVertexBufferHolder buffer)
+	{
+		RenderSystem.recordRenderCall(buffer::reset);
+	}
+
+	public List<StatsSnapshot> getStats()
+	{
+		expungeCollectedCaches();
+		Map<String, int[]> entries = new HashMap<>();
+		Map<String, long[]> weights = new HashMap<>();
+		for(CacheReference ref : caches)
+		{
+			RenderCache<?, ?> cache = ref.get();
+			if(cache==null)
+				continue;
+			entries.computeIfAbsent(cache.stats.name, $ -> new int[1])[0] += cache.size();
+			weights.computeIfAbsent(cache.stats.name, $ -> new long[1])[0] += cache.weight.get();
+		}
+		List<StatsSnapshot> result = new ArrayList<>(stats.size());
+		for(Stats cacheStats : stats.values())
+			result.add(new StatsSnapshot(
+					cacheStats.name,
+					cacheStats.hits.sum(),
+					cacheStats.misses.sum(),
+					cacheStats.evictions.sum(),
+					entries.getOrDefault(cacheStats.name, new int[1])[0],
+					weights.getOrDefault(cacheStats.name, new long[1])[0]
+			));
+		result.sort(Comparator.comparing(StatsSnapshot::name));
+		return result;
+	}
+
+	public void resetStats()
+	{
+		for(Stats cacheStats : stats.values())
+		{
+			cacheStats.hits.reset();
+			cacheStats.misses.reset();
+			cacheStats.evictions.reset();
+		}
+	}
+
+	public long getTotalWeight()
+	{
+		expungeCollectedCaches();
+		return totalWeight.get();
+	}
+
+	public long getBudget()
+	{
+		return budget.getAsLong();
+	}
+
+	long now()
+	{
+		return clock.get();
+	}
+
+	long tick()
+	{
+		return clock.getAndIncrement();
+	}
+
+	void addWeight(long delta)
+	{
+		totalWeight.addAndGet(delta);
+	}
+
+	/**
+	 * Evicts the least recently used entries if the total weight exceeds the budget. If another thread is already
+	 * evicting entries, this returns immediately and leaves the eviction to that thread.
+	 */
+	void evictIfNeeded()
+	{
+		final long maxWeight = getBudget();
+		// Entries added by other threads while this thread held the eviction flag are checked again once it is released
+		while(totalWeight.get() > maxWeight&&evicting.compareAndSet(false, true))
+		{
+			boolean foundCandidates;
+			try
+			{
+				foundCandidates = evict(maxWeight);
+			} finally
+			{
+				evicting.set(false);
+			}
+			if(!foundCandidates)
+				return;
+		}
+	}
+
+	/**
+	 * @return false if there were no entries to evict at all, so checking again would not help
+	 */
+	private boolean evict(long maxWeight)
+	{
+		expungeCollectedCaches();
+		if(totalWeight.get() <= maxWeight)
+			return true;
+		List<EvictionCandidate> candidates = new ArrayList<>();
+		for(CacheReference ref : caches)
+		{
+			RenderCache<?, ?> cache = ref.get();
+			if(cache!=null)
+				cache.addEvictionCandidates(candidates);
+		}
+		candidates.sort(Comparator.comparingLong(EvictionCandidate::lastUsed));
+		// Leave some room, so the next few additions do not each need another pass over all entries
+		final long targetWeight = maxWeight-maxWeight/8;
+		for(int i = 0; i < candidates.size()&&totalWeight.get() > targetWeight; ++i)
+		{
+			EvictionCandidate candidate = candidates.get(i);
+			candidate.cache().evict(candidate.key(), candidate.entry());
+		}
+		return !candidates.isEmpty();
+	}
+
+	private void expungeCollectedCaches()
+	{
+		Reference<? extends RenderCache<?, ?>> collected;
+		while((collected = collectedCaches.poll())!=null)
+		{
+			CacheReference ref = (CacheReference)collected;
+			caches.remove(ref);
+			totalWeight.addAndGet(-ref.weight.get());
+		}
+	}
+
+	record EvictionCandidate(RenderCache<?, ?> cache, Object key, Entry<?> entry, long lastUsed)
+	{
+	}
+
+	private static class CacheReference extends WeakReference<RenderCache<?, ?>>
+	{
+		// The weight of the cache is still needed once it has been collected
+		private final AtomicLong weight;
+
+		private CacheReference(RenderCache<?, ?> cache, ReferenceQueue<RenderCache<?, ?>> queue)
+		{
+			super(cache, queue);
+			this.weight = cache.weight;
+		}
+	}
+
+	static class Stats
+	{
+		private final String name;
+		final LongAdder hits = new LongAdder();
+		final LongAdder misses = new LongAdder();
+		final LongAdder evictions = new LongAdder();
+
+		private Stats(String name)
+		{
+			this.name = name;
+		}
+	}
+
+	public record StatsSnapshot(String name, long hits, long misses, long evictions, int entries, long weight)
+	{
+		public double hitRate()
+		{
+			long requests = hits+misses;
+			return requests > 0?hits/(double)requests: 0;
+		}
+	}
+}
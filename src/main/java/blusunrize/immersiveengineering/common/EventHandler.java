@@ -97,7 +97,6 @@ import java.util.function.Predicate;
 public class EventHandler
 {
 	public static Map<Level, Set<IEExplosion>> currentExplosions = new WeakHashMap<>();
-	public static final Queue<Runnable> SERVER_TASKS = new ArrayDeque<>();
 
 	@SubscribeEvent
 	public void onLoad(LevelEvent.Load event)
@@ -167,15 +166,6 @@ public class EventHandler
 			return;
 		GlobalWireNetwork.getNetwork(event.level).update(event.level);
 
-		// Explicitly support tasks adding more tasks to be delayed
-		int numToRun = SERVER_TASKS.size();
-		for(int i = 0; i < numToRun; ++i)
-		{
-			Runnable next = SERVER_TASKS.poll();
-			if(next!=null)
-				next.run();
-		}
-
 		final Set<IEExplosion> explosionsInLevel = currentExplosions.get(event.level);
 		if(explosionsInLevel!=null)
 		{
@@ -11,12 +11,15 @@ package blusunrize.immersiveengineering.common.blocks.metal;
 import blusunrize.immersiveengineering.api.Lib;
 import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler;
 import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.IConveyorBlockEntity;
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorOutputCache;
 import blusunrize.immersiveengineering.api.tool.conveyor.IConveyorBelt;
 import blusunrize.immersiveengineering.api.tool.conveyor.IConveyorType;
 import blusunrize.immersiveengineering.common.blocks.BlockCapabilityRegistration.BECapabilityRegistrar;
 import blusunrize.immersiveengineering.common.blocks.IEBaseBlockEntity;
 import blusunrize.immersiveengineering.common.blocks.IEBlockInterfaces.*;
 import blusunrize.immersiveengineering.common.blocks.PlacementLimitation;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.BasicConveyor;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport;
 import blusunrize.immersiveengineering.common.blocks.ticking.IEServerTickableBE;
 import blusunrize.immersiveengineering.common.register.IEBlockEntities;
 import blusunrize.immersiveengineering.common.register.IEBlocks.MetalDevices;
@@ -65,11 +68,14 @@ public class ConveyorBeltBlockEntity<T extends IConveyorBelt> extends IEBaseBloc
 	public static final Map<IConveyorType<?>, Supplier<BlockEntityType<?>>> BE_TYPES = new Reference2ObjectOpenHashMap<>();
 
 	private final T conveyorBeltSubtype;
+	@Nullable
+	private final ConveyorOutputCache outputCache;
 
 	public ConveyorBeltBlockEntity(IConveyorType<T> type, BlockPos pos, BlockState state)
 	{
 		super(Preconditions.checkNotNull(ConveyorHandler.getBEType(type), "Not BE type for "+type), pos, state);
 		conveyorBeltSubtype = ConveyorHandler.getConveyor(type, this);
+		outputCache = conveyorBeltSubtype!=null?new ConveyorOutputCache(conveyorBeltSubtype): null;
 	}
 
 	@Override
@@ -79,6 +85,21 @@ public class ConveyorBeltBlockEntity<T extends IConveyorBelt> extends IEBaseBloc
 		return conveyorBeltSubtype;
 	}
 
+	@Nullable
+	@Override
+	public ConveyorOutputCache getOutputCache()
+	{
+		return outputCache;
+	}
+
+	@Override
+	protected void onNeighborBlockChange(BlockPos otherPos)
+	{
+		super.onNeighborBlockChange(otherPos);
+		if(outputCache!=null)
+			outputCache.invalidate();
+	}
+
 	@Override
 	public void onEntityCollision(Level world, Entity entity)
 	{
@@ -103,6 +124,29 @@ public class ConveyorBeltBlockEntity<T extends IConveyorBelt> extends IEBaseBloc
 			nbt.put("conveyorBeltSubtypeNBT", conveyorBeltSubtype.writeConveyorNBT());
 	}
 
+	@Override
+	public void receiveMessageFromServer(CompoundTag message)
+	{
+		if(conveyorBeltSubtype instanceof BasicConveyor basicConveyor)
+			basicConveyor.receiveVirtualItems(message);
+	}
+
+	@Override
+	public void setRemovedIE()
+	{
+		super.setRemovedIE();
+		if(conveyorBeltSubtype instanceof BasicConveyor basicConveyor)
+			basicConveyor.onRemoved(false);
+	}
+
+	@Override
+	public void onChunkUnloaded()
+	{
+		super.onChunkUnloaded();
+		if(conveyorBeltSubtype instanceof BasicConveyor basicConveyor)
+			basicConveyor.onRemoved(true);
+	}
+
 	@Override
 	public Property<Direction> getFacingProperty()
 	{
@@ -255,6 +299,12 @@ public class ConveyorBeltBlockEntity<T extends IConveyorBelt> extends IEBaseBloc
 		{
 			if(conveyor.getConveyorInstance().isBlocked())
 				return stack;
+			if(conveyor.getConveyorInstance() instanceof BasicConveyor basicConveyor&&basicConveyor.supportsVirtualTransport()&&VirtualConveyorTransport.isEnabled())
+			{
+				if(simulate)
+					return basicConveyor.canInsertVirtual(.5f)?ItemStack.EMPTY: stack;
+				return basicConveyor.insertVirtual(stack, .5f, conveyor.getLevelNonnull().getGameTime())?ItemStack.EMPTY: stack;
+			}
 			if(!simulate)
 			{
 				ItemEntity entity = new ItemEntity(conveyor.getLevelNonnull(), conveyor.getBlockPos().getX()+.5, conveyor.getBlockPos().getY()+.1875, conveyor.getBlockPos().getZ()+.5, stack.copy());
@@ -15,18 +15,22 @@ import blusunrize.immersiveengineering.api.fluid.IPressurizedFluidOutput;
 import blusunrize.immersiveengineering.api.utils.DirectionUtils;
 import blusunrize.immersiveengineering.api.utils.SafeChunkUtils;
 import blusunrize.immersiveengineering.api.utils.shapes.CachedVoxelShapes;
-import blusunrize.immersiveengineering.common.EventHandler;
 import blusunrize.immersiveengineering.common.blocks.BlockCapabilityRegistration.BECapabilityRegistrar;
 import blusunrize.immersiveengineering.common.blocks.IEBaseBlock.IELadderBlock;
 import blusunrize.immersiveengineering.common.blocks.IEBaseBlockEntity;
 import blusunrize.immersiveengineering.common.blocks.IEBlockInterfaces.*;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork.ConnectedOutputs;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork.PipeAccess;
 import blusunrize.immersiveengineering.common.register.IEBlockEntities;
 import blusunrize.immersiveengineering.common.register.IEBlocks.WoodenDecoration;
 import blusunrize.immersiveengineering.common.register.IEItems.Tools;
 import blusunrize.immersiveengineering.common.util.IEBlockCapabilityCaches;
 import blusunrize.immersiveengineering.common.util.IEBlockCapabilityCaches.IEBlockCapabilityCache;
+import blusunrize.immersiveengineering.common.util.LevelTaskScheduler;
+import blusunrize.immersiveengineering.common.util.LevelTaskScheduler.Priority;
 import blusunrize.immersiveengineering.common.util.Utils;
-import blusunrize.immersiveengineering.common.util.WorldMap;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import it.unimi.dsi.fastutil.HashCommon;
@@ -37,6 +41,7 @@ import net.minecraft.core.Direction;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
@@ -71,14 +76,13 @@ import net.neoforged.neoforge.fluids.capability.IFluidHandler;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 @EventBusSubscriber(modid = Lib.MODID, bus = Bus.FORGE)
 public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPipe, IColouredBE, IPlayerInteraction,
 		IHammerInteraction, IPlacementInteraction, ISelectionBounds, ICollisionBounds, IAdditionalDrops
 {
-	static WorldMap<BlockPos, Set<DirectionalFluidOutput>> indirectConnections = new WorldMap<>();
+	private static final Map<ResourceKey<Level>, FluidPipeNetwork> NETWORKS = new HashMap<>();
 	public static ArrayList<Predicate<Block>> validPipeCovers = new ArrayList<>();
 	public static ArrayList<Predicate<Block>> climbablePipeCovers = new ArrayList<>();
 
@@ -114,40 +118,13 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 	{
 		if(world.isClientSide)
 			return ImmutableSet.of();
-		Set<DirectionalFluidOutput> cachedResult = indirectConnections.get(world, node);
-		if(cachedResult!=null)
-			return cachedResult;
-
-		ArrayList<BlockPos> openList = new ArrayList<>();
-		ArrayList<BlockPos> closedList = new ArrayList<>();
-		Set<DirectionalFluidOutput> fluidHandlers = Collections.newSetFromMap(new ConcurrentHashMap<>());
-		openList.add(node);
-		while(!openList.isEmpty()&&closedList.size() < 1024)
-		{
-			BlockPos next = openList.get(0);
-			BlockEntity pipeTile = Utils.getExistingTileEntity(world, next);
-			if(!closedList.contains(next)&&(pipeTile instanceof FluidPipeBlockEntity pipe))
-			{
-				closedList.add(next);
-				for(Direction fd : DirectionUtils.VALUES)
-					if(pipe.hasOutputConnection(fd))
-					{
-						BlockPos nextPos = next.relative(fd);
-						BlockEntity adjacentTile = Utils.getExistingTileEntity(world, nextPos);
-						if(adjacentTile instanceof FluidPipeBlockEntity)
-							openList.add(nextPos);
-						else
-						{
-							IFluidHandler handler = world.getCapability(FluidHandler.BLOCK, nextPos, fd.getOpposite());
-							if(handler!=null&&handler.getTanks() > 0)
-								fluidHandlers.add(new DirectionalFluidOutput(handler, fd, adjacentTile, nextPos));
-						}
-					}
-			}
-			openList.remove(0);
-		}
-		indirectConnections.put(world, node, fluidHandlers);
-		return fluidHandlers;
+		return getNetwork(world).getOutputs(node);
+	}
+
+	private static FluidPipeNetwork getNetwork(Level level)
+	{
+		Preconditions.checkArgument(!level.isClientSide);
+		return NETWORKS.computeIfAbsent(level.dimension(), $ -> new FluidPipeNetwork(new LevelPipeAccess(level)));
 	}
 
 	@Override
@@ -156,7 +133,10 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 		super.onLoad();
 		if(level instanceof ServerLevel serverLevel)
 		{
-			EventHandler.SERVER_TASKS.add(() -> {
+			getNetwork(serverLevel).onPipeAdded(worldPosition);
+			LevelTaskScheduler.schedule(serverLevel, Priority.NORMAL, worldPosition, FluidPipeBlockEntity.class, () -> {
+				if(isRemoved())
+					return;
 				boolean changed = false;
 				for(Direction f : DirectionUtils.VALUES)
 					changed |= updateConnectionByte(f);
@@ -174,7 +154,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 	{
 		super.setRemovedIE();
 		if(level!=null&&!level.isClientSide)
-			indirectConnections.clearDimension(level);
+			getNetwork(level).onPipeRemoved(worldPosition);
 	}
 
 	@Override
@@ -182,7 +162,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 	{
 		super.onChunkUnloaded();
 		if(level!=null&&!level.isClientSide)
-			indirectConnections.clearDimension(level);
+			getNetwork(level).onPipeRemoved(worldPosition);
 	}
 
 	@Override
@@ -255,7 +235,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 			nbt.putInt("color", color.getId());
 	}
 
-	boolean canOutputPressurized(@Nullable BlockEntity output, boolean consumePower)
+	static boolean canOutputPressurized(@Nullable BlockEntity output, boolean consumePower)
 	{
 		if(output instanceof IFluidPipe)
 			return ((IFluidPipe)output).canOutputPressurized(consumePower);
@@ -327,7 +307,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 			world.updateNeighborsAtExceptFromFacing(worldPosition, getBlockState().getBlock(), dir);
 			markContainingBlockForUpdate(null);
 			if(!world.isClientSide)
-				indirectConnections.clearDimension(world);
+				getNetwork(world).onOutputsChanged(worldPosition);
 		}
 	}
 
@@ -377,58 +357,100 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 			int canAccept = resource.getAmount();
 			if(canAccept <= 0)
 				return 0;
-			Set<DirectionalFluidOutput> outputList = getConnectedFluidHandlers(pipe.getBlockPos(), pipe.level);
+			if(pipe.level==null||pipe.level.isClientSide)
+				return 0;
+			ConnectedOutputs outputs = getNetwork(pipe.level).getConnectedOutputs(pipe.getBlockPos());
+			return fillOutputs(outputs, pipe.getBlockPos(), facing, resource, doFill);
+		}
 
-			if(outputList.isEmpty())
+		/**
+		 * The part of {@link #fill} after looking up the outputs, which does not need a level
+		 */
+		static int fillOutputs(
+				@Nullable ConnectedOutputs outputs, BlockPos pipePos, Direction facing,
+				FluidStack resource, FluidAction doFill
+		)
+		{
+			if(outputs==null||outputs.size()==0)
 				//NO OUTPUTS!
 				return 0;
-			BlockPos ccFrom = new BlockPos(pipe.getBlockPos().relative(facing));
+			int canAccept = resource.getAmount();
 			int sum = 0;
-			HashMap<DirectionalFluidOutput, Integer> sorting = new HashMap<>();
-			for(DirectionalFluidOutput output : outputList)
+			int[] simulated = outputs.claimScratch();
+			try
 			{
-				BlockPos cc = output.pos;
-				if(!cc.equals(ccFrom)&&pipe.level.hasChunkAt(cc)&&!pipe.getBlockPos().equals(output.pos))
+				for(int i = 0; i < outputs.size(); ++i)
 				{
-					int limit = getTransferableAmount(resource, output.containingTile);
-					int tileSpecificAcceptedFluid = Math.min(limit, canAccept);
-					int temp = output.output.fill(Utils.copyFluidStackWithAmount(resource, tileSpecificAcceptedFluid, output.stripPressure()), FluidAction.SIMULATE);
-					if(temp > 0)
+					simulated[i] = 0;
+					DirectionalFluidOutput output = outputs.get(i);
+					if(outputs.isLoaded(i)&&!isFillSource(pipePos, facing, output.pos)&&!pipePos.equals(output.pos))
 					{
-						sorting.put(output, temp);
-						sum += temp;
+						int limit = getTransferableAmount(resource, output.containingTile);
+						int tileSpecificAcceptedFluid = Math.min(limit, canAccept);
+						int temp = output.output.fill(withAmount(resource, tileSpecificAcceptedFluid, output.stripPressure()), FluidAction.SIMULATE);
+						if(temp > 0)
+						{
+							simulated[i] = temp;
+							sum += temp;
+						}
 					}
 				}
-			}
-			if(sum > 0)
-			{
-				int f = 0;
-				for(DirectionalFluidOutput output : sorting.keySet())
+				if(sum > 0)
 				{
-					int amount = sorting.get(output);
-					if(sum > resource.getAmount())
+					int f = 0;
+					for(int i = 0; i < outputs.size(); ++i)
 					{
-						int limit = getTransferableAmount(resource, output.containingTile);
-						int tileSpecificAcceptedFluid = Math.min(limit, canAccept);
-						float prio = amount/(float)sum;
-						amount = (int)Math.ceil(Mth.clamp(amount, 1,
-								Math.min(resource.getAmount()*prio, tileSpecificAcceptedFluid)));
-						amount = Math.min(amount, canAccept);
+						int amount = simulated[i];
+						if(amount <= 0)
+							continue;
+						DirectionalFluidOutput output = outputs.get(i);
+						if(sum > resource.getAmount())
+						{
+							int limit = getTransferableAmount(resource, output.containingTile);
+							int tileSpecificAcceptedFluid = Math.min(limit, canAccept);
+							float prio = amount/(float)sum;
+							amount = (int)Math.ceil(Mth.clamp(amount, 1,
+									Math.min(resource.getAmount()*prio, tileSpecificAcceptedFluid)));
+							amount = Math.min(amount, canAccept);
+						}
+						int r = output.output.fill(withAmount(resource, amount, output.stripPressure()), doFill);
+						if(r > IFluidPipe.AMOUNT_UNPRESSURIZED)
+							canOutputPressurized(output.containingTile, true);
+						f += r;
+						canAccept -= r;
+						if(canAccept <= 0)
+							break;
 					}
-					int r = output.output.fill(Utils.copyFluidStackWithAmount(resource, amount, output.stripPressure()), doFill);
-					if(r > IFluidPipe.AMOUNT_UNPRESSURIZED)
-						pipe.canOutputPressurized(output.containingTile, true);
-					f += r;
-					canAccept -= r;
-					if(canAccept <= 0)
-						break;
+					return f;
 				}
-				return f;
+				return 0;
+			} finally
+			{
+				outputs.releaseScratch(simulated);
 			}
-			return 0;
 		}
 
-		private int getTransferableAmount(FluidStack resource, @Nullable BlockEntity target)
+		/**
+		 * @return true if the given position is the block this handler is being filled from
+		 */
+		private static boolean isFillSource(BlockPos pipePos, Direction facing, BlockPos pos)
+		{
+			return pos.getX()==pipePos.getX()+facing.getStepX()
+					&&pos.getY()==pipePos.getY()+facing.getStepY()
+					&&pos.getZ()==pipePos.getZ()+facing.getStepZ();
+		}
+
+		/**
+		 * Only copies the resource if the amount or the pressure tag has to change
+		 */
+		private static FluidStack withAmount(FluidStack resource, int amount, boolean stripPressure)
+		{
+			if(amount==resource.getAmount()&&!(stripPressure&&resource.hasTag()&&resource.getTag().contains(IFluidPipe.NBT_PRESSURIZED)))
+				return resource;
+			return Utils.copyFluidStackWithAmount(resource, amount, stripPressure);
+		}
+
+		private static int getTransferableAmount(FluidStack resource, @Nullable BlockEntity target)
 		{
 			// certain targets may override the transfer limits. This only works for direct pipe connections.
 			if(target instanceof IPressurizedFluidOutput pressurizedOutput)
@@ -436,7 +458,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 
 			return IFluidPipe.getTransferableAmount(
 					(resource.hasTag()&&resource.getOrCreateTag().contains(IFluidPipe.NBT_PRESSURIZED))
-							||pipe.canOutputPressurized(target, false)
+							||canOutputPressurized(target, false)
 			);
 		}
 
@@ -473,6 +495,45 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 		}
 	}
 
+	private record LevelPipeAccess(Level level) implements PipeAccess
+	{
+		@Override
+		public boolean isPipe(BlockPos pos)
+		{
+			return Utils.getExistingTileEntity(level, pos) instanceof FluidPipeBlockEntity;
+		}
+
+		@Override
+		public boolean hasOutputConnection(BlockPos pipe, Direction side)
+		{
+			return Utils.getExistingTileEntity(level, pipe) instanceof FluidPipeBlockEntity pipeBE&&pipeBE.hasOutputConnection(side);
+		}
+
+		@Nullable
+		@Override
+		public DirectionalFluidOutput getOutput(BlockPos pipe, Direction side)
+		{
+			BlockPos nextPos = pipe.relative(side);
+			BlockEntity adjacentTile = Utils.getExistingTileEntity(level, nextPos);
+			IFluidHandler handler = level.getCapability(FluidHandler.BLOCK, nextPos, side.getOpposite());
+			if(handler!=null&&handler.getTanks() > 0)
+				return new DirectionalFluidOutput(handler, side, adjacentTile, nextPos);
+			return null;
+		}
+
+		@Override
+		public boolean isLoaded(BlockPos pos)
+		{
+			return level.hasChunkAt(pos);
+		}
+
+		@Override
+		public long getGameTime()
+		{
+			return level.getGameTime();
+		}
+	}
+
 	public record DirectionalFluidOutput(
 			IFluidHandler output,
 			Direction direction,
@@ -569,6 +630,8 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 			if(neighborTile instanceof FluidPipeBlockEntity)
 				((FluidPipeBlockEntity)neighborTile).setSide(side.getOpposite(), connectable, false);
 			updateConnectionByte(side); //yes, this is not meant for neighborTile
+			if(!level.isClientSide)
+				getNetwork(level).onPipeSideChanged(worldPosition, side);
 		}
 		level.blockEvent(getBlockPos(), getBlockState().getBlock(), 0, 0);
 	}
@@ -772,7 +835,6 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 		{
 			toggleSide(fd);
 			this.markContainingBlockForUpdate(null);
-			FluidPipeBlockEntity.indirectConnections.clearDimension(level);
 			return true;
 		}
 		return false;
@@ -807,7 +869,7 @@ public class FluidPipeBlockEntity extends IEBaseBlockEntity implements IFluidPip
 	public static void onWorldUnload(LevelEvent.Unload ev)
 	{
 		if(!ev.getLevel().isClientSide()&&ev.getLevel() instanceof Level level)
-			indirectConnections.clearDimension(level);
+			NETWORKS.remove(level.dimension());
 	}
 
 	@Nullable
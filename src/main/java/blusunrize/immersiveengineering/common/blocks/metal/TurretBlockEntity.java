@@ -19,6 +19,7 @@ import blusunrize.immersiveengineering.common.blocks.PlacementLimitation;
 import blusunrize.immersiveengineering.common.blocks.ticking.IEClientTickableBE;
 import blusunrize.immersiveengineering.common.blocks.ticking.IEServerTickableBE;
 import blusunrize.immersiveengineering.common.config.IEServerConfig;
+import blusunrize.immersiveengineering.common.util.DefenseTargetIndex;
 import blusunrize.immersiveengineering.common.util.EnergyHelper;
 import blusunrize.immersiveengineering.common.util.MultiblockCapability;
 import blusunrize.immersiveengineering.common.util.Utils;
@@ -58,10 +59,7 @@ import net.neoforged.neoforge.capabilities.Capabilities.EnergyStorage;
 import net.neoforged.neoforge.energy.IEnergyStorage;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Consumer;
 
 public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends IEBaseBlockEntity implements
@@ -70,6 +68,7 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		IModelOffsetProvider
 {
 	public static final int ENERGY_CAPACITY = 16000;
+	private static final int TARGET_SEARCH_INTERVAL = 10;
 
 	public MutableEnergyStorage energyStorage = new MutableEnergyStorage(ENERGY_CAPACITY);
 	public boolean redstoneControlInverted = false;
@@ -88,6 +87,11 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 	public float rotationPitch;
 
 	private UUID targetId;
+	@Nullable
+	private Set<String> listedNames;
+	// Searching for a new target is throttled while the same entities as in the last failed search are in range
+	private int lastSearchSignature;
+	private long nextTargetSearch;
 
 	public TurretBlockEntity(BlockEntityType<T> type, BlockPos pos, BlockState state)
 	{
@@ -107,7 +111,7 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		if(targetId!=null)
 		{
 			AABB validBox = Shapes.block().bounds().move(worldPosition).inflate(range);
-			List<LivingEntity> entities = level.getEntitiesOfClass(LivingEntity.class, validBox);
+			List<LivingEntity> entities = getEntities(validBox);
 			for(LivingEntity entity : entities)
 				if(entity.getUUID().equals(targetId)&&isValidTarget(entity, true))
 				{
@@ -201,7 +205,7 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 			return false;
 		//Don't shoot non-targeted entities between the turret and the target
 		AABB potentialCollateralArea = entity.getBoundingBox().minmax(new AABB(worldPosition.above()));
-		List<LivingEntity> potentialCollateral = level.getEntitiesOfClass(LivingEntity.class, potentialCollateralArea);
+		List<LivingEntity> potentialCollateral = getEntities(potentialCollateralArea);
 		for(LivingEntity coll : potentialCollateral)
 		{
 			AABB entityBB = coll.getBoundingBox().inflate(.125f/2+.4);//Add the range of a revolver bullet in all directions
@@ -227,16 +231,29 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		return getGunPosition().vectorTo(getTargetVector(target));
 	}
 
+	private List<LivingEntity> getEntities(AABB box)
+	{
+		AABB range = new AABB(worldPosition).inflate(getRange());
+		return DefenseTargetIndex.get(level).getEntities(level, worldPosition, range, LivingEntity.class, box);
+	}
+
 	@Nullable
 	private LivingEntity getTarget()
 	{
 		double range = getRange();
-		List<LivingEntity> list = level.getEntitiesOfClass(LivingEntity.class, new AABB(getBlockPos().getX()-range, getBlockPos().getY(), getBlockPos().getZ()-range, getBlockPos().getX()+range, getBlockPos().getY()+3, getBlockPos().getZ()+range));
+		List<LivingEntity> list = getEntities(new AABB(getBlockPos().getX()-range, getBlockPos().getY(), getBlockPos().getZ()-range, getBlockPos().getX()+range, getBlockPos().getY()+3, getBlockPos().getZ()+range));
 		if(list.isEmpty())
 			return null;
+		int signature = list.size();
+		for(LivingEntity entity : list)
+			signature = 31*signature+entity.getId();
+		if(signature==lastSearchSignature&&level.getGameTime() < nextTargetSearch)
+			return null;
 		for(LivingEntity entity : list)
 			if(isValidTarget(entity, true))
 				return entity;
+		lastSearchSignature = signature;
+		nextTargetSearch = level.getGameTime()+TARGET_SEARCH_INTERVAL;
 		return null;
 	}
 
@@ -245,14 +262,14 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		if(entity==null||!entity.isAlive()||entity.getHealth() <= 0)
 			return false;
 		//Continue if blacklist and name is in list, or whitelist and name is not in list
-		boolean isListed = isListedName(targetList, entity.getName().getString()) || isListedName(targetList, entity.getType().getDescription().getString());
+		boolean isListed = isListedName(entity.getName().getString()) || isListedName(entity.getType().getDescription().getString());
 		if(whitelist^isListed)
 			return false;
 		//Same as above but for the owner of the pet, to prevent shooting wolves
 		if(entity instanceof TamableAnimal)
 		{
 			Entity entityOwner = ((TamableAnimal)entity).getOwner();
-			if(entityOwner!=null&&(whitelist^isListedName(targetList, entityOwner.getName().getString())))
+			if(entityOwner!=null&&(whitelist^isListedName(entityOwner.getName().getString())))
 				return false;
 		}
 
@@ -268,7 +285,18 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		return !checkCanShoot||canShootEntity(entity);
 	}
 
-	private boolean isListedName(List<String> list, String name)
+	private boolean isListedName(String name)
+	{
+		if(listedNames==null)
+		{
+			listedNames = new HashSet<>();
+			for(String s : targetList)
+				listedNames.add(s.toLowerCase(Locale.ROOT));
+		}
+		return listedNames.contains(name.toLowerCase(Locale.ROOT));
+	}
+
+	private static boolean isListedName(List<String> list, String name)
 	{
 		for(String s : list)
 			if(name.equalsIgnoreCase(s))
@@ -298,6 +326,13 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 	public void resetTarget()
 	{
 		this.target = null;
+		onTargetSettingsChanged();
+	}
+
+	private void onTargetSettingsChanged()
+	{
+		listedNames = null;
+		nextTargetSearch = 0;
 	}
 
 	@Override
@@ -316,6 +351,7 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 		attackAnimals = nbt.getBoolean("attackAnimals");
 		attackPlayers = nbt.getBoolean("attackPlayers");
 		attackNeutrals = nbt.getBoolean("attackNeutrals");
+		onTargetSettingsChanged();
 
 		target = null;
 		if(nbt.contains("target", Tag.TAG_STRING))
@@ -578,6 +614,7 @@ public abstract class TurretBlockEntity<T extends TurretBlockEntity<T>> extends
 			this.owner = placer.getName().getString();
 			targetList.add(owner);
 		}
+		onTargetSettingsChanged();
 	}
 
 	private final MultiblockCapability<IEnergyStorage> energyCap = MultiblockCapability.make(
@@ -10,11 +10,28 @@ package blusunrize.immersiveengineering.common.blocks.metal.conveyors;
 
 import blusunrize.immersiveengineering.ImmersiveEngineering;
 import blusunrize.immersiveengineering.api.tool.conveyor.BasicConveyorType;
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.ConveyorDirection;
 import blusunrize.immersiveengineering.api.tool.conveyor.IConveyorType;
 import blusunrize.immersiveengineering.client.render.conveyor.BasicConveyorRender;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.VirtualItem;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
 public class BasicConveyor extends ConveyorBase
 {
 	public static final ResourceLocation NAME = new ResourceLocation(ImmersiveEngineering.MODID, "basic");
@@ -22,6 +39,13 @@ public class BasicConveyor extends ConveyorBase
 			NAME, false, true, BasicConveyor::new, () -> new BasicConveyorRender<>(texture_on, texture_off)
 	);
 
+	// Ordered by progress, the item closest to the end of the belt comes first
+	final List<VirtualItem> virtualItems = new ArrayList<>();
+	@Nullable
+	ConveyorChain chain;
+	private boolean virtualItemsChanged = false;
+	private long virtualSyncTime = 0;
+
 	public BasicConveyor(BlockEntity tile)
 	{
 		super(tile);
@@ -32,4 +56,180 @@ public class BasicConveyor extends ConveyorBase
 	{
 		return TYPE;
 	}
+
+	/* ============ VIRTUAL TRANSPORT ============ */
+
+	public boolean supportsVirtualTransport()
+	{
+		return getConveyorDirection()==ConveyorDirection.HORIZONTAL;
+	}
+
+	public List<VirtualItem> getVirtualItems()
+	{
+		return virtualItems;
+	}
+
+	/**
+	 * @return the game time at which the client last received the virtual items on this belt
+	 */
+	public long getVirtualSyncTime()
+	{
+		return virtualSyncTime;
+	}
+
+	public boolean canInsertVirtual(float progress)
+	{
+		return getVirtualInsertionIndex(progress) >= 0;
+	}
+
+	public boolean insertVirtual(ItemStack stack, float progress, long gameTime)
+	{
+		int index = getVirtualInsertionIndex(progress);
+		if(index < 0)
+			return false;
+		virtualItems.add(index, new VirtualItem(stack.copy(), progress, gameTime));
+		markVirtualItemsChanged();
+		return true;
+	}
+
+	private int getVirtualInsertionIndex(float progress)
+	{
+		int index = 0;
+		while(index < virtualItems.size()&&virtualItems.get(index).progress > progress)
+			++index;
+		if(index > 0&&virtualItems.get(index-1).progress-progress < VirtualConveyorTransport.SPACING)
+			return -1;
+		if(index < virtualItems.size()&&progress-virtualItems.get(index).progress < VirtualConveyorTransport.SPACING)
+			return -1;
+		return index;
+	}
+
+	void markVirtualItemsChanged()
+	{
+		virtualItemsChanged = true;
+		getBlockEntity().setChanged();
+	}
+
+	void syncVirtualItems()
+	{
+		if(!virtualItemsChanged)
+			return;
+		virtualItemsChanged = false;
+		CompoundTag data = new CompoundTag();
+		data.put("virtualItems", writeVirtualItems());
+		VirtualConveyorTransport.sendSync(this, data);
+	}
+
+	public void receiveVirtualItems(CompoundTag data)
+	{
+		readVirtualItems(data.getList("virtualItems", Tag.TAG_COMPOUND));
+	}
+
+	private ListTag writeVirtualItems()
+	{
+		ListTag list = new ListTag();
+		for(VirtualItem item : virtualItems)
+			list.add(item.save());
+		return list;
+	}
+
+	private void readVirtualItems(ListTag list)
+	{
+		virtualItems.clear();
+		for(int i = 0; i < list.size(); ++i)
+			virtualItems.add(VirtualItem.load(list.getCompound(i)));
+		Level level = getBlockEntity().getLevel();
+		if(level!=null)
+			virtualSyncTime = level.getGameTime();
+	}
+
+	private void invalidateChain()
+	{
+		if(chain!=null)
+			chain.invalidate();
+		chain = null;
+	}
+
+	/**
+	 * Called when the block entity holding this belt is removed or unloaded
+	 */
+	public void onRemoved(boolean unloaded)
+	{
+		invalidateChain();
+		Level level = getBlockEntity().getLevel();
+		if(!unloaded&&level!=null&&!level.isClientSide)
+			VirtualConveyorTransport.materializeAll(this, false);
+	}
+
+	@Override
+	public void tickServer()
+	{
+		super.tickServer();
+		if(!virtualItems.isEmpty())
+			VirtualConveyorTransport.tick(this);
+	}
+
+	@Override
+	public void onEntityCollision(@Nonnull Entity entity)
+	{
+		if(entity instanceof ItemEntity item&&VirtualConveyorTransport.tryAbsorb(this, item))
+			return;
+		super.onEntityCollision(entity);
+	}
+
+	@Override
+	public boolean isBlocked()
+	{
+		if(super.isBlocked())
+			return true;
+		return !virtualItems.isEmpty()&&virtualItems.get(virtualItems.size()-1).progress < VirtualConveyorTransport.SPACING;
+	}
+
+	@Override
+	public boolean playerInteraction(Player player, InteractionHand hand, ItemStack heldItem, float hitX, float hitY, float hitZ, Direction side)
+	{
+		if(!player.level().isClientSide)
+		{
+			VirtualConveyorTransport.materializeAll(this, false);
+			syncVirtualItems();
+		}
+		return super.playerInteraction(player, hand, heldItem, hitX, hitY, hitZ, side);
+	}
+
+	@Override
+	public boolean changeConveyorDirection()
+	{
+		invalidateChain();
+		return super.changeConveyorDirection();
+	}
+
+	@Override
+	public boolean setConveyorDirection(ConveyorDirection dir)
+	{
+		invalidateChain();
+		return super.setConveyorDirection(dir);
+	}
+
+	@Override
+	public void afterRotation(Direction oldDir, Direction newDir)
+	{
+		super.afterRotation(oldDir, newDir);
+		invalidateChain();
+	}
+
+	@Override
+	public CompoundTag writeConveyorNBT()
+	{
+		CompoundTag nbt = super.writeConveyorNBT();
+		if(!virtualItems.isEmpty())
+			nbt.put("virtualItems", writeVirtualItems());
+		return nbt;
+	}
+
+	@Override
+	public void readConveyorNBT(CompoundTag nbt)
+	{
+		super.readConveyorNBT(nbt);
+		readVirtualItems(nbt.getList("virtualItems", Tag.TAG_COMPOUND));
+	}
 }
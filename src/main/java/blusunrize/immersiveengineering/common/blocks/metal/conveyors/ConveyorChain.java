@@ -0,0 +1,162 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.metal.conveyors;
+
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorHandler.IConveyorBlockEntity;
+import blusunrize.immersiveengineering.api.utils.SafeChunkUtils;
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.VirtualItem;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.SPACING;
+import static blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.SPEED;
+
+/**
+ * A sequence of basic conveyor belts with the same facing, each outputting onto the next one. The virtual items on all
+ * belts of a chain are moved in a single pass per tick, starting at the end of the chain, so moving items along the
+ * chain does not need any block entity lookups. Chains are built lazily by belts carrying virtual items and discarded
+ * whenever one of their belts is rotated, removed or unloaded.
+ */
+class ConveyorChain
+{
+	private final BasicConveyor[] belts;
+	private final ChainOutput output;
+	private boolean valid = true;
+	private long lastTick = Long.MIN_VALUE;
+
+	ConveyorChain(BasicConveyor[] belts, ChainOutput output)
+	{
+		this.belts = belts;
+		this.output = output;
+		for(BasicConveyor belt : belts)
+			belt.chain = this;
+	}
+
+	static ConveyorChain getOrBuild(BasicConveyor start)
+	{
+		if(start.chain!=null&&start.chain.valid)
+			return start.chain;
+		List<BasicConveyor> belts = new ArrayList<>();
+		Set<BasicConveyor> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		belts.add(start);
+		seen.add(start);
+		BasicConveyor current = start;
+		while(true)
+		{
+			BasicConveyor next = getSuccessor(current);
+			// Stop at loops and at belts that already belong to a different chain
+			if(next==null||!seen.add(next)||(next.chain!=null&&next.chain.valid))
+				break;
+			belts.add(next);
+			current = next;
+		}
+		return new ConveyorChain(belts.toArray(new BasicConveyor[0]), VirtualConveyorTransport::tryOutput);
+	}
+
+	@Nullable
+	private static BasicConveyor getSuccessor(BasicConveyor belt)
+	{
+		BlockEntity next = SafeChunkUtils.getSafeBE(belt.getBlockEntity().getLevel(), belt.getOutputInventory());
+		if(next instanceof IConveyorBlockEntity<?> conveyorBE
+				&&conveyorBE.getConveyorInstance() instanceof BasicConveyor nextBelt
+				&&nextBelt.supportsVirtualTransport()
+				&&nextBelt.getFacing()==belt.getFacing())
+			return nextBelt;
+		return null;
+	}
+
+	void invalidate()
+	{
+		valid = false;
+	}
+
+	void tick(long gameTime)
+	{
+		if(lastTick==gameTime)
+			return;
+		lastTick = gameTime;
+		for(BasicConveyor belt : belts)
+			if(belt.getBlockEntity().isRemoved())
+			{
+				// Will be rebuilt on the next tick
+				invalidate();
+				return;
+			}
+		for(int i = belts.length-1; i >= 0; --i)
+			moveItems(i, gameTime);
+		for(BasicConveyor belt : belts)
+			belt.syncVirtualItems();
+	}
+
+	private void moveItems(int index, long gameTime)
+	{
+		BasicConveyor belt = belts[index];
+		List<VirtualItem> items = belt.virtualItems;
+		BasicConveyor next = index+1 < belts.length?belts[index+1]: null;
+		int i = 0;
+		while(i < items.size())
+		{
+			VirtualItem item = items.get(i);
+			if(item.lastMoved==gameTime)
+			{
+				++i;
+				continue;
+			}
+			item.lastMoved = gameTime;
+			float target = item.progress+SPEED;
+			if(i > 0)
+				target = Math.min(target, items.get(i-1).progress-SPACING);
+			else if(next!=null&&!next.virtualItems.isEmpty())
+				target = Math.min(target, 1+next.virtualItems.get(next.virtualItems.size()-1).progress-SPACING);
+			if(target >= 1)
+			{
+				if(next!=null)
+				{
+					items.remove(i);
+					item.progress = target-1;
+					item.moving = true;
+					next.virtualItems.add(item);
+					belt.markVirtualItemsChanged();
+					next.markVirtualItemsChanged();
+					continue;
+				}
+				else if(output.tryOutput(belt, item, gameTime))
+				{
+					items.remove(i);
+					belt.markVirtualItemsChanged();
+					continue;
+				}
+				target = 1;
+			}
+			boolean moving = target > item.progress;
+			if(moving!=item.moving)
+			{
+				item.moving = moving;
+				belt.markVirtualItemsChanged();
+			}
+			if(moving)
+				item.progress = target;
+			++i;
+		}
+	}
+
+	/**
+	 * Hands an item that reached the end of the chain to whatever the last belt outputs into, see
+	 * {@link VirtualConveyorTransport#tryOutput}
+	 */
+	interface ChainOutput
+	{
+		/**
+		 * @return true if the item left the belt
+		 */
+		boolean tryOutput(BasicConveyor belt, VirtualItem item, long gameTime);
+	}
+}
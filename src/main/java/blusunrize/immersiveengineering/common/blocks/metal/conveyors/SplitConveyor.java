@@ -112,6 +112,7 @@ public class SplitConveyor extends ConveyorBase
 						nextOutputLeft = !nextOutputLeft;
 					else if(((IConveyorBlockEntity<?>)nextTile).getFacing()!=this.getOutputFace())
 						nextOutputLeft = !nextOutputLeft;
+					invalidateOutputCache();
 				}
 			}
 		}
@@ -167,6 +168,7 @@ public class SplitConveyor extends ConveyorBase
 	{
 		super.readConveyorNBT(nbt);
 		nextOutputLeft = nbt.getBoolean("nextLeft");
+		invalidateOutputCache();
 	}
 
 	@Override
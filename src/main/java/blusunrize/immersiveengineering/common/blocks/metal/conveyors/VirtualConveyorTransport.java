@@ -0,0 +1,239 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.metal.conveyors;
+
+import blusunrize.immersiveengineering.api.tool.conveyor.ConveyorOutputCache;
+import blusunrize.immersiveengineering.api.tool.conveyor.IConveyorBelt;
+import blusunrize.immersiveengineering.api.utils.CapabilityUtils;
+import blusunrize.immersiveengineering.common.blocks.IEBaseBlockEntity;
+import blusunrize.immersiveengineering.common.config.IEServerConfig;
+import blusunrize.immersiveengineering.common.network.MessageBlockEntitySync;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.neoforge.items.IItemHandler;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+/**
+ * Moves items along chains of basic conveyor belts without item entities, if enabled in the config. Items are stored on
+ * the belt they are currently on (see {@link ConveyorChain} for how they are moved) and only turn back into entities
+ * when they leave the chain, when a player interacts with the belt or when the belt stops supporting virtual items.
+ */
+public class VirtualConveyorTransport
+{
+	// Same as the speed of item entities on horizontal conveyors
+	public static final float SPEED = 0.115f;
+	public static final float SPACING = 0.3f;
+	private static final double ITEM_HEIGHT = .1875;
+	private static final String NO_VIRTUAL_TRANSPORT = "immersiveengineering:noVirtualTransport";
+
+	public static boolean isEnabled()
+	{
+		return IEServerConfig.MACHINES.conveyor_virtualTransport.get();
+	}
+
+	static void tick(BasicConveyor belt)
+	{
+		Level level = belt.getBlockEntity().getLevel();
+		if(!isEnabled()||!belt.supportsVirtualTransport())
+			materializeAll(belt, true);
+		else
+			ConveyorChain.getOrBuild(belt).tick(level.getGameTime());
+		belt.syncVirtualItems();
+	}
+
+	/**
+	 * Replaces an item entity on the given belt by a virtual item
+	 *
+	 * @return true if the entity was removed
+	 */
+	static boolean tryAbsorb(BasicConveyor belt, ItemEntity entity)
+	{
+		Level level = belt.getBlockEntity().getLevel();
+		if(level==null||level.isClientSide||!isEnabled()||!belt.supportsVirtualTransport())
+			return false;
+		if(!entity.isAlive()||entity.tickCount <= 1||entity.getPersistentData().contains(NO_VIRTUAL_TRANSPORT))
+			return false;
+		BlockPos pos = belt.getBlockEntity().getBlockPos();
+		double relativeHeight = entity.getY()-pos.getY();
+		if(relativeHeight < 0||relativeHeight >= .25)
+			return false;
+		Direction facing = belt.getFacing();
+		double progress = .5+(entity.getX()-pos.getX()-.5)*facing.getStepX()+(entity.getZ()-pos.getZ()-.5)*facing.getStepZ();
+		if(!belt.insertVirtual(entity.getItem(), (float)Mth.clamp(progress, 0, 1), level.getGameTime()))
+			return false;
+		entity.discard();
+		return true;
+	}
+
+	/**
+	 * Hands an item that reached the end of a chain to whatever the last belt outputs into
+	 *
+	 * @return true if the item left the belt
+	 */
+	static boolean tryOutput(BasicConveyor belt, VirtualItem item, long gameTime)
+	{
+		if(belt.isOutputBlocked())
+			return false;
+		IConveyorBelt next = belt.getOutputConveyor();
+		if(next instanceof BasicConveyor nextBasic&&nextBasic.supportsVirtualTransport())
+		{
+			Direction nextFacing = nextBasic.getFacing();
+			if(nextFacing==belt.getFacing())
+				return nextBasic.insertVirtual(item.stack, 0, gameTime);
+			else if(nextFacing!=belt.getFacing().getOpposite())
+				// Entities arrive on the side of perpendicular belts and are centered from there
+				return nextBasic.insertVirtual(item.stack, .5f, gameTime);
+		}
+		if(next==null)
+		{
+			Level level = belt.getBlockEntity().getLevel();
+			BlockPos outputPos = belt.getOutputInventory();
+			ConveyorOutputCache cache = belt.getOutputCache();
+			IItemHandler handler;
+			if(cache!=null&&cache.update())
+				handler = cache.getOutputInventory();
+			else
+				handler = CapabilityUtils.findItemHandlerAtPos(level, outputPos, belt.getFacing().getOpposite(), true);
+			if(handler!=null)
+				return insertInto(belt, item, handler);
+			// Entities would get stuck at the end of the belt
+			if(!level.getBlockState(outputPos).getCollisionShape(level, outputPos).isEmpty())
+				return false;
+		}
+		Direction facing = belt.getFacing();
+		ItemEntity entity = spawnEntity(belt, item.stack, 1);
+		entity.setDeltaMovement(SPEED*facing.getStepX(), 0, SPEED*facing.getStepZ());
+		belt.onItemDeployed(entity);
+		return true;
+	}
+
+	/**
+	 * Inserts as much of the given item as possible into the given inventory, the rest stays on the belt
+	 *
+	 * @return true if all of the item was inserted
+	 */
+	static boolean insertInto(BasicConveyor belt, VirtualItem item, IItemHandler handler)
+	{
+		ItemStack remaining = ItemHandlerHelper.insertItem(handler, item.stack, false);
+		if(remaining.isEmpty())
+			return true;
+		if(remaining.getCount()!=item.stack.getCount())
+			belt.markVirtualItemsChanged();
+		item.stack = remaining;
+		return false;
+	}
+
+	/**
+	 * Turns all virtual items on the given belt into entities
+	 *
+	 * @param stayOnBelt false if the entities should not be turned back into virtual items, e.g. because a player
+	 *                   interacted with the belt or the belt is being removed
+	 */
+	static void materializeAll(BasicConveyor belt, boolean stayOnBelt)
+	{
+		if(belt.virtualItems.isEmpty())
+			return;
+		for(VirtualItem item : belt.virtualItems)
+		{
+			ItemEntity entity = spawnEntity(belt, item.stack, item.progress);
+			if(stayOnBelt)
+				belt.onItemDeployed(entity);
+			else
+				entity.getPersistentData().putBoolean(NO_VIRTUAL_TRANSPORT, true);
+		}
+		belt.virtualItems.clear();
+		belt.markVirtualItemsChanged();
+	}
+
+	private static ItemEntity spawnEntity(BasicConveyor belt, ItemStack stack, float progress)
+	{
+		BlockEntity be = belt.getBlockEntity();
+		Level level = be.getLevel();
+		BlockPos pos = be.getBlockPos();
+		Direction facing = belt.getFacing();
+		double offset = progress-.5;
+		ItemEntity entity = new ItemEntity(
+				level,
+				pos.getX()+.5+offset*facing.getStepX(),
+				pos.getY()+ITEM_HEIGHT,
+				pos.getZ()+.5+offset*facing.getStepZ(),
+				stack.copy()
+		);
+		entity.setDeltaMovement(Vec3.ZERO);
+		level.addFreshEntity(entity);
+		return entity;
+	}
+
+	static void sendSync(BasicConveyor belt, CompoundTag data)
+	{
+		BlockEntity be = belt.getBlockEntity();
+		if(be instanceof IEBaseBlockEntity ieBE)
+			PacketDistributor.TRACKING_CHUNK.with(ieBE.getLevelNonnull().getChunkAt(ieBE.getBlockPos()))
+					.send(new MessageBlockEntitySync(ieBE, data));
+	}
+
+	public static class VirtualItem
+	{
+		ItemStack stack;
+		float progress;
+		boolean moving = true;
+		long lastMoved;
+
+		VirtualItem(ItemStack stack, float progress, long lastMoved)
+		{
+			this.stack = stack;
+			this.progress = progress;
+			this.lastMoved = lastMoved;
+		}
+
+		public ItemStack getStack()
+		{
+			return stack;
+		}
+
+		/**
+		 * @return the position of the item along the belt, from 0 (start) to 1 (end)
+		 */
+		public float getProgress()
+		{
+			return progress;
+		}
+
+		/**
+		 * @return false if the item was blocked when it was last moved
+		 */
+		public boolean isMoving()
+		{
+			return moving;
+		}
+
+		CompoundTag save()
+		{
+			CompoundTag tag = stack.save(new CompoundTag());
+			tag.putFloat("progress", progress);
+			tag.putBoolean("moving", moving);
+			return tag;
+		}
+
+		static VirtualItem load(CompoundTag tag)
+		{
+			VirtualItem item = new VirtualItem(ItemStack.of(tag), tag.getFloat("progress"), 0);
+			item.moving = tag.getBoolean("moving");
+			return item;
+		}
+	}
+}
@@ -37,6 +37,7 @@ import blusunrize.immersiveengineering.common.blocks.multiblocks.shapes.CrusherS
 import blusunrize.immersiveengineering.common.util.DroppingMultiblockOutput;
 import blusunrize.immersiveengineering.common.util.IEDamageSources;
 import blusunrize.immersiveengineering.common.util.IESounds;
+import blusunrize.immersiveengineering.common.util.MachineParticles;
 import blusunrize.immersiveengineering.common.util.sound.MultiblockSound;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.particles.ItemParticleOption;
@@ -100,13 +101,11 @@ public class CrusherLogic implements
 			return;
 		final ItemStack particleStack = inWorld.inputItems.get(0);
 		final ItemParticleOption particleData = new ItemParticleOption(ParticleTypes.ITEM, particleStack);
+		final BlockPos origin = level.getAbsoluteOrigin();
 		for(final Vec3 relativeOffset : PARTICLE_POSITIONS)
-		{
-			final Vec3 absolutePos = level.toAbsolute(relativeOffset);
-			serverLevel.sendParticles(
-					particleData, absolutePos.x, absolutePos.y, absolutePos.z, 8, 0.125, 0.75, 0.125, 0.0625
+			MachineParticles.emit(
+					serverLevel, origin, particleData, level.toAbsolute(relativeOffset), 8, 0.125, 0.75, 0.125, 0.0625
 			);
-		}
 	}
 
 	@Override
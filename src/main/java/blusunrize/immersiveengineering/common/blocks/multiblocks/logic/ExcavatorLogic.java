@@ -34,6 +34,7 @@ import blusunrize.immersiveengineering.common.config.IEServerConfig;
 import blusunrize.immersiveengineering.common.util.DroppingMultiblockOutput;
 import blusunrize.immersiveengineering.common.util.FakePlayerUtil;
 import blusunrize.immersiveengineering.common.util.IESounds;
+import blusunrize.immersiveengineering.common.util.MachineParticles;
 import blusunrize.immersiveengineering.common.util.sound.MultiblockSound;
 import com.mojang.datafixers.util.Pair;
 import net.minecraft.Util;
@@ -230,11 +231,11 @@ public class ExcavatorLogic implements IMultiblockLogic<State>, IServerTickableC
 		double dirX = 0.375*outputDir.getStepX();
 		double dirY = -0.5;
 		double dirZ = 0.375*outputDir.getStepZ();
-		rawLevel.sendParticles(
+		MachineParticles.emit(
+				rawLevel,
+				level.getAbsoluteOrigin(),
 				new ItemParticleOption(ParticleTypes.ITEM, stack),
-				topCenterAbs.x+dirX,
-				topCenterAbs.y-1,
-				topCenterAbs.z+dirY,
+				new Vec3(topCenterAbs.x+dirX, topCenterAbs.y-1, topCenterAbs.z+dirY),
 				128,
 				dirX, dirY, dirZ, 0.075
 		);
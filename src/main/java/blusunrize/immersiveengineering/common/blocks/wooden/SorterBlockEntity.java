@@ -40,7 +40,6 @@ import net.neoforged.neoforge.items.ItemStackHandler;
 import javax.annotation.Nonnull;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 //TODO Metadata and oredict are gone. Update manual entry as well.
 public class SorterBlockEntity extends IEBaseBlockEntity implements IInteractionObjectIE<SorterBlockEntity>, IBlockEntityDrop
@@ -50,12 +49,9 @@ public class SorterBlockEntity extends IEBaseBlockEntity implements IInteraction
 
 	public SorterInventory filter;
 	public int[] sideFilter = {0, 0, 0, 0, 0, 0};//OreDict,nbt,fuzzy
-	/**
-	 * The positions of the routers that have been used in the current "outermost" `routeItem` call.
-	 * Necessary to stop "blocks" of routers (and similar setups) from causing massive lag (using just a boolean
-	 * results in every possible path to be "tested"). Using a set results in effectively a DFS.
-	 */
-	private static Set<BlockPos> routed = null;
+	// Compiled lazily from the filter inventory and side configuration, reset whenever either changes
+	private SorterFilter[] compiledFilters = null;
+	private SorterFilter[][] compiledPullFilters = null;
 
 	private final Map<Direction, IEBlockCapabilityCache<IItemHandler>> neighborCaps = IEBlockCapabilityCaches.allNeighbors(
 			ItemHandler.BLOCK, this
@@ -64,52 +60,56 @@ public class SorterBlockEntity extends IEBaseBlockEntity implements IInteraction
 	public SorterBlockEntity(BlockPos pos, BlockState state)
 	{
 		super(IEBlockEntities.SORTER.get(), pos, state);
-		filter = new SorterInventory();
+		filter = new SorterInventory(this::onFilterChanged);
 	}
 
 	public ItemStack routeItem(Direction inputSide, ItemStack stack, boolean simulate)
 	{
-		if(!level.isClientSide&&canRoute())
-		{
-			boolean first = startRouting();
-			Direction[][] validOutputs = getValidOutputs(inputSide, stack);
-			stack = doInsert(stack, validOutputs[0], simulate);
-			// Only if no filtered outputs were found, use unfiltered
-			if(validOutputs[0].length==0||!stack.isEmpty())
-				stack = doInsert(stack, validOutputs[1], simulate);
-			if(first)
-				routed = null;
-		}
-		return stack;
-	}
-
-	private boolean canRoute()
-	{
-		return routed==null||!routed.contains(worldPosition);
+		return routeItem(SorterRoutingContext.get(), inputSide, stack, simulate);
 	}
 
-	private boolean startRouting()
+	public ItemStack routeItem(SorterRoutingContext context, Direction inputSide, ItemStack stack, boolean simulate)
 	{
-		boolean first = routed==null;
-		if(first)
-			routed = new HashSet<>();
-		routed.add(worldPosition);
-		return first;
+		if(!level.isClientSide&&context.enter(level, worldPosition))
+			try
+			{
+				Direction[][] validOutputs = getValidOutputs(inputSide, stack);
+				stack = doInsert(context, stack, validOutputs[0], simulate);
+				// Only if no filtered outputs were found, use unfiltered
+				if(validOutputs[0].length==0||!stack.isEmpty())
+					stack = doInsert(context, stack, validOutputs[1], simulate);
+			} finally
+			{
+				context.exit();
+			}
+		return stack;
 	}
 
-	private ItemStack doInsert(ItemStack stack, Direction[] sides, boolean simulate)
+	private ItemStack doInsert(SorterRoutingContext context, ItemStack stack, Direction[] sides, boolean simulate)
 	{
 		int lengthFiltered = sides.length;
 		while(lengthFiltered > 0&&!stack.isEmpty())
 		{
 			int rand = ApiUtils.RANDOM.nextInt(lengthFiltered);
-			stack = this.outputItemToInv(stack, sides[rand], simulate);
+			stack = this.outputItemToInv(context, stack, sides[rand], simulate);
 			sides[rand] = sides[lengthFiltered-1];
 			lengthFiltered--;
 		}
 		return stack;
 	}
 
+	public void setSideFilter(int side, int filter)
+	{
+		sideFilter[side] = filter;
+		onFilterChanged();
+	}
+
+	private void onFilterChanged()
+	{
+		compiledFilters = null;
+		compiledPullFilters = null;
+	}
+
 	public boolean doOredict(int side)
 	{
 		if(side >= 0&&side < this.sideFilter.length)
@@ -173,80 +173,66 @@ public class SorterBlockEntity extends IEBaseBlockEntity implements IInteraction
 
 	public ItemStack pullItem(Direction outputSide, int amount, boolean simulate)
 	{
-		if(!level.isClientSide&&canRoute())
-		{
-			boolean first = startRouting();
-			for(Direction side : Direction.values())
-				if(side!=outputSide)
-				{
-					IEBlockCapabilityCache<IItemHandler> capRef = neighborCaps.get(side);
-					IItemHandler itemHandler = capRef.getCapability();
-					if(itemHandler!=null)
+		return pullItem(SorterRoutingContext.get(), outputSide, amount, simulate);
+	}
+
+	public ItemStack pullItem(SorterRoutingContext context, Direction outputSide, int amount, boolean simulate)
+	{
+		if(!level.isClientSide&&context.enter(level, worldPosition))
+			try
+			{
+				for(Direction side : Direction.values())
+					if(side!=outputSide)
 					{
-						Predicate<ItemStack> concatFilter = null;
-						for(int i = 0; i < itemHandler.getSlots(); i++)
+						IEBlockCapabilityCache<IItemHandler> capRef = neighborCaps.get(side);
+						IItemHandler itemHandler = capRef.getCapability();
+						if(itemHandler!=null)
 						{
-							ItemStack extractItem = itemHandler.extractItem(i, amount, true);
-							if(!extractItem.isEmpty())
+							SorterFilter concatFilter = this.concatFilters(outputSide, side);
+							for(int i = 0; i < itemHandler.getSlots(); i++)
 							{
-								if(concatFilter==null)//Init the filter here, to save on resources
-									concatFilter = this.concatFilters(outputSide, side);
-								if(concatFilter.test(extractItem))
+								ItemStack extractItem = extractItem(context, itemHandler, i, amount, true);
+								if(!extractItem.isEmpty())
 								{
-									if(first)
-										routed = null;
-									if(!simulate)
-										itemHandler.extractItem(i, amount, false);
-									return extractItem;
+									if(concatFilter.isEmpty()||concatFilter.matches(extractItem))
+									{
+										if(!simulate)
+											extractItem(context, itemHandler, i, amount, false);
+										return extractItem;
+									}
 								}
 							}
 						}
 					}
-				}
-			if(first)
-				routed = null;
-		}
+			} finally
+			{
+				context.exit();
+			}
 		return ItemStack.EMPTY;
 	}
 
-	private static final CompoundTag EMPTY_NBT = new CompoundTag();
-
-	private boolean compareStackToFilterstack(ItemStack stack, ItemStack filterStack, boolean fuzzy, boolean oredict, boolean nbt)
+	private static ItemStack extractItem(
+			SorterRoutingContext context, IItemHandler handler, int slot, int amount, boolean simulate
+	)
 	{
-		// "Item level" tests
-		if(oredict)
-		{
-			if(!stack.getItem().builtInRegistryHolder().tags().anyMatch(filterStack::is))
-				return false;
-		}
-		else if(!ItemStack.isSameItem(filterStack, stack))
-			return false;
-		// "NBT level" tests
-		if(!fuzzy&&(stack.isDamageableItem()||filterStack.isDamageableItem()))
-		{
-			final int damageStack = stack.getDamageValue();
-			final int damageFilter = filterStack.getDamageValue();
-			if(damageStack!=damageFilter)
-				return false;
-		}
-		if(nbt)
-		{
-			final CompoundTag stackTag = getTagWithoutDamage(stack);
-			final CompoundTag filterTag = getTagWithoutDamage(filterStack);
-			if(!stackTag.equals(filterTag))
-				return false;
-		}
-		return true;
+		if(handler instanceof SorterInventoryHandler sorterHandler)
+			return sorterHandler.sorter.pullItem(context, sorterHandler.side, amount, simulate);
+		else
+			return handler.extractItem(slot, amount, simulate);
 	}
 
-	private static CompoundTag getTagWithoutDamage(ItemStack stack)
+	private SorterFilter getFilter(Direction side)
 	{
-		final CompoundTag directTag = stack.getTag();
-		if(directTag==null)
-			return EMPTY_NBT;
-		final CompoundTag tagCopy = directTag.copy();
-		tagCopy.remove(ItemStack.TAG_DAMAGE);
-		return tagCopy;
+		if(compiledFilters==null)
+			compiledFilters = new SorterFilter[DirectionUtils.VALUES.length];
+		SorterFilter result = compiledFilters[side.ordinal()];
+		if(result==null)
+		{
+			final int id = side.ordinal();
+			result = new SorterFilter(filter.getFilterStacksOnSide(side), doFuzzy(id), doOredict(id), doNBT(id));
+			compiledFilters[id] = result;
+		}
+		return result;
 	}
 
 	/**
@@ -256,73 +242,68 @@ public class SorterBlockEntity extends IEBaseBlockEntity implements IInteraction
 	 */
 	private EnumFilterResult checkStackAgainstFilter(ItemStack stack, Direction side)
 	{
-		boolean unmapped = true;
-		for(ItemStack filterStack : filter.getFilterStacksOnSide(side))
-			if(!filterStack.isEmpty())
-			{
-				unmapped = false;
-				if(compareStackToFilterstack(stack, filterStack, doFuzzy(side.ordinal()), doOredict(side.ordinal()), doNBT(side.ordinal())))
-					return EnumFilterResult.VALID_FILTERED;
-			}
-		if(unmapped)
+		SorterFilter compiled = getFilter(side);
+		if(compiled.isEmpty())
 			return EnumFilterResult.VALID_UNFILTERED;
-		return EnumFilterResult.INVALID;
+		else if(compiled.matches(stack))
+			return EnumFilterResult.VALID_FILTERED;
+		else
+			return EnumFilterResult.INVALID;
 	}
 
 	/**
-	 * @return A Predicate representing the concatinated filters of two sides.<br>
+	 * @return The concatinated filters of two sides, matching all items if it is empty.<br>
 	 * If one filter is empty, uses the full filter of the other side, else the matching items make up the filter
 	 */
-	private Predicate<ItemStack> concatFilters(Direction side0, Direction side1)
+	private SorterFilter concatFilters(Direction side0, Direction side1)
 	{
+		if(compiledPullFilters==null)
+			compiledPullFilters = new SorterFilter[DirectionUtils.VALUES.length][DirectionUtils.VALUES.length];
+		SorterFilter result = compiledPullFilters[side0.ordinal()][side1.ordinal()];
+		if(result!=null)
+			return result;
+
 		final List<ItemStack> concat = new ArrayList<>();
 		for(ItemStack filterStack : filter.getFilterStacksOnSide(side0))
 			if(!filterStack.isEmpty())
 				concat.add(filterStack);
 
-		Predicate<ItemStack> matchFilter = concat.isEmpty()?(stack) -> true: new Predicate<ItemStack>()
-		{
-			final Set<ItemStack> filter = new HashSet<>(concat);
-
-			@Override
-			public boolean test(ItemStack stack)
-			{
-				for(ItemStack filterStack : filter)
-					if(compareStackToFilterstack(stack, filterStack, doFuzzy(side0.ordinal()), doOredict(side0.ordinal()), doNBT(side0.ordinal())))
-						return true;
-				return false;
-			}
-		};
-
+		SorterFilter matchFilter = getFilter(side0);
 		for(ItemStack filterStack : filter.getFilterStacksOnSide(side1))
-			if(!filterStack.isEmpty()&&matchFilter.test(filterStack))
+			if(!filterStack.isEmpty()&&(matchFilter.isEmpty()||matchFilter.matches(filterStack)))
 				concat.add(filterStack);
 
 		final boolean concatFuzzy = doFuzzy(side0.ordinal())|doFuzzy(side1.ordinal());
 		final boolean concatOredict = doOredict(side0.ordinal())|doOredict(side1.ordinal());
 		final boolean concatNBT = doNBT(side0.ordinal())|doNBT(side1.ordinal());
 
-		return concat.isEmpty()?stack -> true: stack -> {
-			for(ItemStack filterStack : concat)
-				if(compareStackToFilterstack(stack, filterStack, concatFuzzy, concatOredict, concatNBT))
-					return true;
-			return false;
-		};
+		result = new SorterFilter(concat, concatFuzzy, concatOredict, concatNBT);
+		compiledPullFilters[side0.ordinal()][side1.ordinal()] = result;
+		return result;
 	}
 
 	public ItemStack outputItemToInv(ItemStack stack, Direction side, boolean simulate)
 	{
-		return Utils.insertStackIntoInventory(neighborCaps.get(side), stack, simulate);
+		return outputItemToInv(SorterRoutingContext.get(), stack, side, simulate);
+	}
+
+	private ItemStack outputItemToInv(SorterRoutingContext context, ItemStack stack, Direction side, boolean simulate)
+	{
+		IItemHandler handler = neighborCaps.get(side).getCapability();
+		if(handler instanceof SorterInventoryHandler sorterHandler&&!stack.isEmpty())
+			return sorterHandler.sorter.routeItem(context, sorterHandler.side, stack.copy(), simulate);
+		return Utils.insertStackIntoInventory(() -> handler, stack, simulate);
 	}
 
 	@Override
 	public void readCustomNBT(CompoundTag nbt, boolean descPacket)
 	{
 		sideFilter = nbt.getIntArray("sideFilter");
+		onFilterChanged();
 		if(!descPacket)
 		{
 			ListTag filterList = nbt.getList("filter", 10);
-			filter = new SorterInventory();
+			filter = new SorterInventory(this::onFilterChanged);
 			filter.readFromNBT(filterList);
 		}
 	}
@@ -428,9 +409,19 @@ public class SorterBlockEntity extends IEBaseBlockEntity implements IInteraction
 
 	public static class SorterInventory extends ItemStackHandler
 	{
-		public SorterInventory()
+		private final Runnable onChanged;
+
+		public SorterInventory(Runnable onChanged)
 		{
 			super(NonNullList.withSize(6*FILTER_SLOTS_PER_SIDE, ItemStack.EMPTY));
+			this.onChanged = onChanged;
+		}
+
+		@Override
+		protected void onContentsChanged(int slot)
+		{
+			super.onContentsChanged(slot);
+			onChanged.run();
 		}
 
 		public ItemStack getStackBySideAndSlot(Direction side, int slotOnSide)
@@ -0,0 +1,193 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.wooden;
+
+import blusunrize.immersiveengineering.api.Lib;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.fml.common.Mod.EventBusSubscriber.Bus;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The filter stacks on one side of a sorter (or the combination of two sides used when pulling items), indexed by item
+ * so that checking a stack only needs to look at the filter stacks that can possibly match it.
+ */
+@EventBusSubscriber(modid = Lib.MODID, bus = Bus.FORGE)
+public class SorterFilter
+{
+	private static final Entry[] NO_ENTRIES = new Entry[0];
+	// Tag mode caches which entries share a tag with an item, which becomes outdated when tags are reloaded
+	private static int tagGeneration = 0;
+
+	private final List<Entry> entries = new ArrayList<>();
+	private final boolean fuzzy;
+	private final boolean tags;
+	private final boolean nbt;
+	private final Map<Item, Entry[]> byItem = new Reference2ObjectOpenHashMap<>();
+	private final Map<TagKey<Item>, List<Entry>> byTag = new Reference2ObjectOpenHashMap<>();
+	private int indexedTagGeneration = -1;
+
+	public SorterFilter(Iterable<ItemStack> filterStacks, boolean fuzzy, boolean tags, boolean nbt)
+	{
+		this.fuzzy = fuzzy;
+		this.tags = tags;
+		this.nbt = nbt;
+		for(ItemStack filterStack : filterStacks)
+			if(!filterStack.isEmpty())
+				entries.add(new Entry(filterStack));
+	}
+
+	@SubscribeEvent
+	public static void onTagsUpdated(TagsUpdatedEvent ev)
+	{
+		++tagGeneration;
+	}
+
+	public boolean isEmpty()
+	{
+		return entries.isEmpty();
+	}
+
+	public boolean matches(ItemStack stack)
+	{
+		Entry[] candidates = getCandidates(stack.getItem());
+		if(candidates.length==0)
+			return false;
+		final boolean damageable = stack.isDamageableItem();
+		final int damage = stack.getDamageValue();
+		final CompoundTag tag = stack.getTag();
+		int tagHash = 0;
+		boolean hashed = false;
+		for(Entry entry : candidates)
+		{
+			if(!fuzzy&&(damageable||entry.damageable)&&damage!=entry.damage)
+				continue;
+			if(nbt)
+			{
+				if(!hashed)
+				{
+					tagHash = hashWithoutDamage(tag);
+					hashed = true;
+				}
+				if(tagHash!=entry.tagHash||!equalsWithoutDamage(tag, entry.tag))
+					continue;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private Entry[] getCandidates(Item item)
+	{
+		if(indexedTagGeneration!=tagGeneration)
+			index();
+		Entry[] candidates = byItem.get(item);
+		if(candidates==null&&!tags)
+			return NO_ENTRIES;
+		else if(candidates==null)
+		{
+			Set<Entry> matching = new ReferenceLinkedOpenHashSet<>();
+			item.builtInRegistryHolder().tags().forEach(tag -> {
+				List<Entry> tagged = byTag.get(tag);
+				if(tagged!=null)
+					matching.addAll(tagged);
+			});
+			candidates = matching.isEmpty()?NO_ENTRIES: matching.toArray(NO_ENTRIES);
+			byItem.put(item, candidates);
+		}
+		return candidates;
+	}
+
+	private void index()
+	{
+		indexedTagGeneration = tagGeneration;
+		byItem.clear();
+		byTag.clear();
+		if(tags)
+			for(Entry entry : entries)
+				entry.item.builtInRegistryHolder().tags().forEach(
+						tag -> byTag.computeIfAbsent(tag, $ -> new ArrayList<>()).add(entry)
+				);
+		else
+		{
+			Map<Item, List<Entry>> grouped = new Reference2ObjectOpenHashMap<>();
+			for(Entry entry : entries)
+				grouped.computeIfAbsent(entry.item, $ -> new ArrayList<>()).add(entry);
+			grouped.forEach((item, itemEntries) -> byItem.put(item, itemEntries.toArray(NO_ENTRIES)));
+		}
+	}
+
+	private static int hashWithoutDamage(@Nullable CompoundTag tag)
+	{
+		if(tag==null)
+			return 0;
+		int hash = 0;
+		for(String key : tag.getAllKeys())
+			if(!ItemStack.TAG_DAMAGE.equals(key))
+				hash += key.hashCode()^Objects.hashCode(tag.get(key));
+		return hash;
+	}
+
+	/**
+	 * @param filterTag a tag that does not contain the damage value
+	 */
+	private static boolean equalsWithoutDamage(@Nullable CompoundTag tag, CompoundTag filterTag)
+	{
+		if(tag==null)
+			return filterTag.isEmpty();
+		int size = tag.size();
+		if(tag.contains(ItemStack.TAG_DAMAGE))
+			--size;
+		if(size!=filterTag.size())
+			return false;
+		for(String key : filterTag.getAllKeys())
+			if(!filterTag.get(key).equals(tag.get(key)))
+				return false;
+		return true;
+	}
+
+	private static final class Entry
+	{
+		private final Item item;
+		private final boolean damageable;
+		private final int damage;
+		private final CompoundTag tag;
+		private final int tagHash;
+
+		private Entry(ItemStack filterStack)
+		{
+			this.item = filterStack.getItem();
+			this.damageable = filterStack.isDamageableItem();
+			this.damage = filterStack.getDamageValue();
+			CompoundTag tag = filterStack.getTag();
+			if(tag==null)
+				tag = new CompoundTag();
+			else
+			{
+				tag = tag.copy();
+				tag.remove(ItemStack.TAG_DAMAGE);
+			}
+			this.tag = tag;
+			this.tagHash = hashWithoutDamage(tag);
+		}
+	}
+}
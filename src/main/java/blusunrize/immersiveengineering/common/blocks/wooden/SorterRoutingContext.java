@@ -0,0 +1,233 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.wooden;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of one "outermost" routing operation through a chain of sorters, i.e. the positions of the sorters that
+ * have already been used. Necessary to stop "blocks" of sorters (and similar setups) from causing massive lag (using just
+ * a boolean results in every possible path to be "tested"). Using a set results in effectively a DFS.
+ * <br>
+ * Sorters pass the context to each other directly. Routing operations that reach a sorter through other item handlers
+ * continue the operation running on the current thread, so each thread reuses a single context.
+ * <br>
+ * Statistics about the chains are only recorded while enabled with {@link #setRecording}, e.g. by the sorters command.
+ */
+public class SorterRoutingContext
+{
+	private static final ThreadLocal<SorterRoutingContext> CONTEXTS = ThreadLocal.withInitial(SorterRoutingContext::new);
+	// Only the most expensive chains are kept, so the stats can not grow without bound if they are never reset
+	private static final int MAX_TRACKED_CHAINS = 256;
+	private static final Map<GlobalPos, ChainStats> STATS = new HashMap<>();
+	private static volatile boolean recording = false;
+
+	// Sorters in the dimension of the origin, sorters in other dimensions are only reachable through modded handlers
+	private final LongSet visited = new LongOpenHashSet();
+	@Nullable
+	private Map<ResourceKey<Level>, LongSet> visitedInOtherDimensions;
+	private int depth = 0;
+	private int maxDepth = 0;
+	private int revisits = 0;
+	@Nullable
+	private ResourceKey<Level> originDimension;
+	private long originPos;
+
+	private SorterRoutingContext()
+	{
+	}
+
+	/**
+	 * @return the context of the routing operation running on the current thread, which starts a new operation if
+	 * there is none
+	 */
+	public static SorterRoutingContext get()
+	{
+		return CONTEXTS.get();
+	}
+
+	/**
+	 * Marks the sorter at the given position as used. Each successful call has to be followed by a call to
+	 * {@link #exit()} once the sorter is done routing.
+	 *
+	 * @return false if the sorter has already been used in the current operation
+	 */
+	public boolean enter(Level level, BlockPos pos)
+	{
+		if(depth==0)
+		{
+			originDimension = level.dimension();
+			originPos = pos.asLong();
+		}
+		if(!getVisited(level.dimension()).add(pos.asLong()))
+		{
+			++revisits;
+			return false;
+		}
+		++depth;
+		maxDepth = Math.max(maxDepth, depth);
+		return true;
+	}
+
+	public void exit()
+	{
+		--depth;
+		if(depth > 0)
+			return;
+		int sorters = visited.size();
+		if(visitedInOtherDimensions!=null)
+			for(LongSet inDimension : visitedInOtherDimensions.values())
+				sorters += inDimension.size();
+		if(recording&&(sorters > 1||revisits > 0))
+			record(GlobalPos.of(originDimension, BlockPos.of(originPos)), sorters, maxDepth, revisits);
+		visited.clear();
+		visitedInOtherDimensions = null;
+		maxDepth = 0;
+		revisits = 0;
+		originDimension = null;
+	}
+
+	private LongSet getVisited(ResourceKey<Level> dimension)
+	{
+		if(dimension.equals(originDimension))
+			return visited;
+		if(visitedInOtherDimensions==null)
+			visitedInOtherDimensions = new HashMap<>();
+		return visitedInOtherDimensions.computeIfAbsent(dimension, $ -> new LongOpenHashSet());
+	}
+
+	private static synchronized void record(GlobalPos origin, int sorters, int depth, int revisits)
+	{
+		if(!STATS.containsKey(origin)&&STATS.size() >= MAX_TRACKED_CHAINS)
+		{
+			ChainStats cheapest = Collections.min(STATS.values(), Comparator.comparingLong(ChainStats::getCost));
+			if(cheapest.getCost() > sorters+revisits)
+				return;
+			STATS.remove(cheapest.origin);
+		}
+		ChainStats stats = STATS.computeIfAbsent(origin, $ -> new ChainStats(origin));
+		++stats.operations;
+		stats.totalSorters += sorters;
+		stats.totalDepth += depth;
+		stats.maxDepth = Math.max(stats.maxDepth, depth);
+		stats.revisits += revisits;
+	}
+
+	public static void setRecording(boolean recording)
+	{
+		SorterRoutingContext.recording = recording;
+	}
+
+	public static boolean isRecording()
+	{
+		return recording;
+	}
+
+	/**
+	 * @return statistics for the sorter chains that were used while recording since the last reset, starting with the most expensive
+	 * ones. Operations only using a single sorter are not recorded.
+	 */
+	public static synchronized List<ChainStats> getStats(int limit)
+	{
+		List<ChainStats> result = new ArrayList<>(STATS.size());
+		for(ChainStats stats : STATS.values())
+			result.add(stats.copy());
+		result.sort(Comparator.comparingLong(ChainStats::getCost).reversed());
+		return result.size() > limit?result.subList(0, limit): result;
+	}
+
+	public static synchronized void resetStats()
+	{
+		STATS.clear();
+	}
+
+	public static class ChainStats
+	{
+		private final GlobalPos origin;
+		private long operations;
+		private long totalSorters;
+		private long totalDepth;
+		private int maxDepth;
+		private long revisits;
+
+		private ChainStats(GlobalPos origin)
+		{
+			this.origin = origin;
+		}
+
+		private ChainStats copy()
+		{
+			ChainStats copy = new ChainStats(origin);
+			copy.operations = operations;
+			copy.totalSorters = totalSorters;
+			copy.totalDepth = totalDepth;
+			copy.maxDepth = maxDepth;
+			copy.revisits = revisits;
+			return copy;
+		}
+
+		/**
+		 * @return the position of the sorter the operations started at
+		 */
+		public GlobalPos getOrigin()
+		{
+			return origin;
+		}
+
+		public long getOperations()
+		{
+			return operations;
+		}
+
+		public double getAverageDepth()
+		{
+			return totalDepth/(double)operations;
+		}
+
+		public int getMaxDepth()
+		{
+			return maxDepth;
+		}
+
+		/**
+		 * @return how often a sorter was reached again within an operation, due to loops or multiple paths to the same
+		 * sorter
+		 */
+		public long getRevisits()
+		{
+			return revisits;
+		}
+
+		public double getAverageSorters()
+		{
+			return totalSorters/(double)operations;
+		}
+
+		/**
+		 * @return the number of times a sorter was reached, summed over all operations
+		 */
+		public long getCost()
+		{
+			return totalSorters+revisits;
+		}
+	}
+}
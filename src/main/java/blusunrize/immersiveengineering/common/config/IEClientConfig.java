@@ -39,6 +39,7 @@ public class IEClientConfig
 	public final static BooleanValue stencilBufferEnabled;
 	public final static ConfigValue<List<? extends String>> earDefenders_SoundBlacklist;
 	public final static BooleanValue enableVBOs;
+	public final static IntValue renderCacheBudget;
 	public final static BooleanValue disableFancyTESR;
 	public final static BooleanValue showTextOverlay;
 	public final static IntValue manualGuiScale;
@@ -98,6 +99,10 @@ public class IEClientConfig
 				.comment("Use VBOs to render certain blocks. This is significantly faster than the usual rendering,",
 						"but may not work correctly with visual effects from other mods")
 				.define("enableVBO", true);
+		renderCacheBudget = builder
+				.comment("The approximate amount of memory in MB that may be used for caching the models and geometry of IE blocks.",
+						"If the caches need more memory, the least recently used entries are removed")
+				.defineInRange("renderCacheBudget", 64, 4, 1024);
 		builder.comment("Options to set the RGB color of all IE wire types")
 				.push("wire_colors");
 		addColor(builder, IEWireType.COPPER, 0xb36c3f);
@@ -50,6 +50,10 @@ public class IEServerConfig
 									"Use with care and backups and only when suspecting corrupted data.",
 							"This option will check and load all connection endpoints and may slow down the world loading process.")
 					.define("sanitizeConnections", false);
+			parallelNetworkTicking = builder
+					.comment("Computes energy transfer for independent wire networks on multiple threads. The results are applied on the server thread in a fixed order.",
+							"This can reduce tick times on servers with many separate wire networks, but connectors added by other mods have to support being queried from other threads.")
+					.define("parallelNetworkTicking", false);
 			// Split: Color in client, all others in server
 			energyWireConfigs.put(
 					IEWireType.COPPER,
@@ -94,6 +98,7 @@ public class IEServerConfig
 		}
 
 		public final BooleanValue sanitizeConnections;
+		public final BooleanValue parallelNetworkTicking;
 		public final BooleanValue enableWireDamage;
 		public final BooleanValue blocksBreakWires;
 		public final Map<IEWireType, WireConfig> wireConfigs = new EnumMap<>(IEWireType.class);
@@ -151,6 +156,21 @@ public class IEServerConfig
 				hvCapConfig = new CapacitorConfig(builder, () -> IEBlockEntities.CAPACITOR_HV.get(), "high", 4000000, 4096, 4096);
 				builder.pop();
 			}
+			gui_syncInterval = builder
+					.comment("The minimum number of ticks between updates of the stored energy shown in open machine GUIs. Higher values reduce network traffic on servers with many players")
+					.defineInRange("gui_syncInterval", 4, 1, 100);
+			machineParticles = builder
+					.comment("Set this to false to stop machines like the Crusher and the Excavator from sending particles to players")
+					.define("machineParticles", true);
+			machineParticles_distance = builder
+					.comment("The maximum distance at which players receive the particles of machines")
+					.defineInRange("machineParticles_distance", 32, 4, 128);
+			machineParticles_interval = builder
+					.comment("The minimum number of ticks between two particle emissions of the same machine. Higher values reduce network traffic on servers with many running machines")
+					.defineInRange("machineParticles_interval", 2, 1, 40);
+			tasks_tickBudget = builder
+					.comment("The maximum time in milliseconds per tick spent on deferred work, such as pipes updating their connections after being loaded. Remaining work is delayed to later ticks.")
+					.defineInRange("tasks_tickBudget", 5, 1, 50);
 			// TODO: Make this multiplier one on next major (1.21?) update
 			dynamo_output = builder
 					.comment("Output modifier for the energy created by the kinetic dynamo. This will be modified by the rotation modifier of the attached water- or windmill")
@@ -190,6 +210,13 @@ public class IEServerConfig
 						.define("placeCobble", true);
 				builder.pop();
 			}
+			{
+				builder.push("conveyor");
+				conveyor_virtualTransport = builder
+						.comment("If this is set to true, items on chains of basic conveyor belts are moved without creating item entities. They only turn back into entities at the end of the chain or when a player interacts with the belt. This greatly reduces lag in large conveyor systems.")
+						.define("virtualTransport", false);
+				builder.pop();
+			}
 			charger_consumption = addPositive(builder, "charger_consumption", 256,
 					"The Flux per tick the Charging Station can insert into an item");
 			{
@@ -371,6 +398,12 @@ public class IEServerConfig
 		public final CapacitorConfig mvCapConfig;
 		public final CapacitorConfig hvCapConfig;
 
+		public final IntValue gui_syncInterval;
+		public final BooleanValue machineParticles;
+		public final IntValue machineParticles_distance;
+		public final IntValue machineParticles_interval;
+		public final IntValue tasks_tickBudget;
+
 		//Generators
 		public final DoubleValue dynamo_output;
 		public final DoubleValue thermoelectric_output;
@@ -386,6 +419,7 @@ public class IEServerConfig
 		public final IntValue pump_consumption;
 		public final IntValue pump_consumption_accelerate;
 		public final BooleanValue pump_placeCobble;
+		public final BooleanValue conveyor_virtualTransport;
 		public final IntValue charger_consumption;
 		public final IntValue teslacoil_consumption;
 		public final IntValue teslacoil_consumption_active;
@@ -449,6 +483,9 @@ public class IEServerConfig
 			retrogen_log_remaining = builder
 					.comment("Set this to false to disable the logging of the chunks that are still left to retrogen.")
 					.define("retrogen_log_remaining", true);
+			retrogen_tickBudget = builder
+					.comment("The maximum time in milliseconds spent on retrogen per tick. Chunks that could not be processed in time are retrogenerated in later ticks.")
+					.defineInRange("retrogen_tickBudget", 5, 1, 50);
 			builder.pop();
 		}
 
@@ -456,6 +493,7 @@ public class IEServerConfig
 		public final Map<VeinType, OreConfig> ores = new EnumMap<>(VeinType.class);
 		public final BooleanValue retrogen_log_flagChunk;
 		public final BooleanValue retrogen_log_remaining;
+		public final IntValue retrogen_tickBudget;
 		public final ConfigValue<String> retrogen_key;
 
 		public static class OreConfig
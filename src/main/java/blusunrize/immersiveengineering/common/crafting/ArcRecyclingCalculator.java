@@ -10,24 +10,36 @@ package blusunrize.immersiveengineering.common.crafting;
 
 import blusunrize.immersiveengineering.api.ApiUtils;
 import blusunrize.immersiveengineering.api.IEApi;
+import blusunrize.immersiveengineering.api.Lib;
 import blusunrize.immersiveengineering.api.crafting.ArcFurnaceRecipe;
 import blusunrize.immersiveengineering.api.crafting.ArcRecyclingChecker;
 import blusunrize.immersiveengineering.api.crafting.IngredientWithSize;
 import blusunrize.immersiveengineering.api.crafting.TagOutput;
+import blusunrize.immersiveengineering.api.crafting.cache.CachedRecipeList;
 import blusunrize.immersiveengineering.common.util.IELogger;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.mojang.datafixers.util.Pair;
+import net.minecraft.Util;
+import net.minecraft.core.Holder;
 import net.minecraft.core.NonNullList;
+import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.*;
+import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.Recipe;
 import net.minecraft.world.item.crafting.RecipeHolder;
 import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.ModList;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforgespi.language.IModInfo;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.OnDatapackSyncEvent;
 import net.neoforged.neoforge.event.TickEvent.ServerTickEvent;
@@ -37,13 +49,24 @@ import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableObject;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ArcRecyclingCalculator
 {
+	private static final int CACHE_FORMAT_VERSION = 1;
+	private static final Path CACHE_FILE = FMLPaths.GAMEDIR.get()
+			.resolve(".cache")
+			.resolve(Lib.MODID)
+			.resolve("arc_recycling.dat");
+
 	private final List<RecipeHolder<?>> recipeList;
 	private final long startTime;
 	private final ArcRecyclingChecker checker;
@@ -57,103 +80,251 @@ public class ArcRecyclingCalculator
 		this.checker = pair.getSecond();
 		this.recipeList = allRecipes.stream()
 				.filter(r -> pair.getFirst().test(r.value()))
+				.sorted(Comparator.comparing((RecipeHolder<?> r) -> r.id()))
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Computes the recycling recipes, or loads them from the disk cache if the relevant recipes, tags and mods did not
+	 * change since they were last computed. Does not need to be called on the server thread.
+	 */
 	public List<ArcFurnaceRecipe> run()
+	{
+		String hash = computeInputHash();
+		List<RecyclingResult> results = readCache(hash);
+		if(results!=null)
+			IELogger.info("Loaded arc recycling recipes from cache, took "+(System.currentTimeMillis()-startTime)+" milliseconds");
+		else
+		{
+			results = calculate();
+			writeCache(hash, results);
+			IELogger.info("Finished recipe profiler for Arc Recycling, took "
+					+(System.currentTimeMillis()-startTime)+" milliseconds");
+		}
+		return results.stream().map(this::makeRecipe).collect(Collectors.toList());
+	}
+
+	private List<RecyclingResult> calculate()
 	{
 		RecipeIterator iterator = new RecipeIterator(recipeList, checker, tags);
 		iterator.process();
-		int timeout = 0;
-		while(!iterator.nonValidated.isEmpty()&&timeout++ < (iterator.invalidCount*10))
+		// Calculations waiting for a valid calculation for each item
+		Map<Item, List<RecyclingCalculation>> waitingFor = new HashMap<>();
+		for(RecyclingCalculation nonValid : iterator.nonValidated)
+			for(ItemStack subcomponent : nonValid.queriedSubcomponents.keySet())
+				waitingFor.computeIfAbsent(subcomponent.getItem(), $ -> new ArrayList<>()).add(nonValid);
+		Deque<RecyclingCalculation> worklist = new ArrayDeque<>(iterator.validated);
+		while(!worklist.isEmpty())
 		{
-			ArrayList<RecyclingCalculation> newlyValid = new ArrayList<>();
-			for(RecyclingCalculation valid : iterator.validated)
-				for(ItemStack key : iterator.nonValidated.keySet())
+			RecyclingCalculation valid = worklist.poll();
+			List<RecyclingCalculation> waiting = waitingFor.get(valid.stack.getItem());
+			if(waiting==null)
+				continue;
+			for(RecyclingCalculation nonValid : waiting)
+				if(!nonValid.isValid()&&nonValid.validateSubcomponent(valid))
 				{
-					if(ItemStack.isSameItem(key, valid.stack))
-						for(RecyclingCalculation nonValid : iterator.nonValidated.get(key))
-							if(nonValid.validateSubcomponent(valid))
-								newlyValid.add(nonValid);
+					iterator.nonValidated.remove(nonValid);
+					iterator.validated.add(nonValid);
+					worklist.add(nonValid);
 				}
-			// No new ingredients, so further iterations are useless
-			if(newlyValid.isEmpty())
-				break;
-			iterator.nonValidated.values().removeAll(newlyValid);
-			iterator.validated.addAll(newlyValid);
 		}
-		List<ArcFurnaceRecipe> generatedRecipes = new ArrayList<>();
+		List<RecyclingResult> results = new ArrayList<>();
 		Set<String> finishedRecycles = new HashSet<>();
 		for(RecyclingCalculation valid : iterator.validated)
 			if(finishedRecycles.add(valid.stack.toString())&&!valid.outputs.isEmpty())
-				generatedRecipes.add(makeRecipe(valid));
-		for(RecyclingCalculation invalid : Sets.newHashSet(iterator.nonValidated.values()))
+				results.add(new RecyclingResult(valid.stack, valid.outputs));
+		for(RecyclingCalculation invalid : iterator.nonValidated)
 			if(finishedRecycles.add(invalid.stack.toString())&&!invalid.outputs.isEmpty())
 			{
 				IELogger.info("Couldn't fully analyze "+invalid.stack+", missing knowledge for "+invalid.queriedSubcomponents);
-				generatedRecipes.add(makeRecipe(invalid));
+				results.add(new RecyclingResult(invalid.stack, invalid.outputs));
 			}
-		IELogger.info("Finished recipe profiler for Arc Recycling, took "
-				+(System.currentTimeMillis()-startTime)+" milliseconds");
-		return generatedRecipes;
+		return results;
 	}
 
-	public static Mutable<List<ArcFurnaceRecipe>> makeFuture()
+	/**
+	 * Starts the calculation on the first server tick (or data pack sync) after the recipes are loaded. The calculation
+	 * runs on a background thread, the recipes are sent to clients again once it is done.
+	 */
+	public static CompletableFuture<List<ArcFurnaceRecipe>> makeFuture()
 	{
-		Mutable<List<ArcFurnaceRecipe>> result = new MutableObject<>();
+		CompletableFuture<List<ArcFurnaceRecipe>> result = new CompletableFuture<>();
 		Mutable<Object> eventListener = new MutableObject<>();
 		eventListener.setValue(new Object()
 		{
+			private boolean started = false;
+
 			@SubscribeEvent
 			public void onServerStarted(ServerStartedEvent ev)
 			{
-				fillInRecipes(ev.getServer());
+				startCalculation(ev.getServer());
 			}
 
 			@SubscribeEvent
 			public void onServerTick(ServerTickEvent ev)
 			{
-				fillInRecipes(ServerLifecycleHooks.getCurrentServer());
+				startCalculation(ServerLifecycleHooks.getCurrentServer());
 			}
 
 			@SubscribeEvent
 			public void onDatapackSync(OnDatapackSyncEvent ev)
 			{
-				fillInRecipes(ev.getPlayerList().getServer());
+				startCalculation(ev.getPlayerList().getServer());
 			}
 
-			private void fillInRecipes(MinecraftServer server)
+			private void startCalculation(MinecraftServer server)
 			{
-				if(result.getValue()==null)
-				{
-					NeoForge.EVENT_BUS.unregister(eventListener.getValue());
-					Collection<RecipeHolder<?>> recipes = server.getRecipeManager().getRecipes();
-					ArcRecyclingCalculator calculator = new ArcRecyclingCalculator(recipes, server.registryAccess());
-					result.setValue(calculator.run());
-				}
+				if(started)
+					return;
+				started = true;
+				NeoForge.EVENT_BUS.unregister(eventListener.getValue());
+				Collection<RecipeHolder<?>> recipes = server.getRecipeManager().getRecipes();
+				ArcRecyclingCalculator calculator = new ArcRecyclingCalculator(recipes, server.registryAccess());
+				CompletableFuture.supplyAsync(calculator::run, Util.backgroundExecutor())
+						.exceptionally(error -> {
+							IELogger.logger.error("Failed to calculate arc recycling recipes", error);
+							return List.of();
+						})
+						.thenAcceptAsync(recyclingRecipes -> {
+							result.complete(recyclingRecipes);
+							publishRecipes(server);
+						}, server);
 			}
 		});
 		NeoForge.EVENT_BUS.register(eventListener.getValue());
 		return result;
 	}
 
-	private ArcRecyclingRecipe makeRecipe(RecyclingCalculation calculation)
+	private static void publishRecipes(MinecraftServer server)
+	{
+		if(server.isStopped())
+			return;
+		// The recipe lists on the server need to include the new recipes, and clients need to receive them
+		CachedRecipeList.invalidateAll();
+		server.getPlayerList().broadcastAll(new ClientboundUpdateRecipesPacket(server.getRecipeManager().getRecipes()));
+	}
+
+	private ArcRecyclingRecipe makeRecipe(RecyclingResult result)
 	{
 		return new ArcRecyclingRecipe(
 				() -> tags,
-				calculation.outputs.entrySet().stream()
+				result.outputs().entrySet().stream()
 						.map(e -> Pair.of(new TagOutput(e.getKey()), e.getValue()))
 						.toList(),
-				IngredientWithSize.of(calculation.stack), 100, 51200);
+				IngredientWithSize.of(result.input()), 100, 51200);
+	}
+
+	/**
+	 * @return a hash of everything the calculation depends on: The filtered recipes with their (resolved) inputs and
+	 * outputs, the item tags and the installed mods
+	 */
+	private String computeInputHash()
+	{
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putInt(CACHE_FORMAT_VERSION);
+		for(IModInfo mod : ModList.get().getMods())
+			hasher.putUnencodedChars(mod.getModId()).putUnencodedChars(mod.getVersion().toString());
+		for(RecipeHolder<?> recipe : recipeList)
+		{
+			hasher.putUnencodedChars(recipe.id().toString());
+			putStack(hasher, recipe.value().getResultItem(tags));
+			for(Ingredient ingredient : recipe.value().getIngredients())
+			{
+				hasher.putInt(-1);
+				for(ItemStack stack : ingredient.getItems())
+					putStack(hasher, stack);
+			}
+		}
+		Registry<Item> items = tags.registryOrThrow(Registries.ITEM);
+		items.getTags()
+				.sorted(Comparator.comparing(tag -> tag.getFirst().location()))
+				.forEach(tag -> {
+					hasher.putUnencodedChars(tag.getFirst().location().toString());
+					for(Holder<Item> item : tag.getSecond())
+						hasher.putUnencodedChars(item.unwrapKey().orElseThrow().location().toString());
+				});
+		return hasher.hash().toString();
+	}
+
+	private static void putStack(Hasher hasher, ItemStack stack)
+	{
+		hasher.putUnencodedChars(BuiltInRegistries.ITEM.getKey(stack.getItem()).toString());
+		hasher.putInt(stack.getCount());
+		if(stack.getTag()!=null)
+			hasher.putUnencodedChars(stack.getTag().toString());
+	}
+
+	@Nullable
+	private static List<RecyclingResult> readCache(String hash)
+	{
+		if(!Files.exists(CACHE_FILE))
+			return null;
+		try
+		{
+			CompoundTag cache = NbtIo.readCompressed(CACHE_FILE, NbtAccounter.unlimitedHeap());
+			if(!hash.equals(cache.getString("hash")))
+				return null;
+			List<RecyclingResult> results = new ArrayList<>();
+			for(Tag resultNBT : cache.getList("results", Tag.TAG_COMPOUND))
+			{
+				CompoundTag resultTag = (CompoundTag)resultNBT;
+				Map<ItemStack, Double> outputs = new IdentityHashMap<>();
+				for(Tag outputNBT : resultTag.getList("outputs", Tag.TAG_COMPOUND))
+				{
+					CompoundTag outputTag = (CompoundTag)outputNBT;
+					outputs.put(ItemStack.of(outputTag.getCompound("stack")), outputTag.getDouble("amount"));
+				}
+				results.add(new RecyclingResult(ItemStack.of(resultTag.getCompound("input")), outputs));
+			}
+			return results;
+		} catch(IOException|RuntimeException x)
+		{
+			IELogger.logger.warn("Failed to read arc recycling cache, recalculating", x);
+			return null;
+		}
+	}
+
+	private static void writeCache(String hash, List<RecyclingResult> results)
+	{
+		CompoundTag cache = new CompoundTag();
+		cache.putString("hash", hash);
+		ListTag resultList = new ListTag();
+		for(RecyclingResult result : results)
+		{
+			CompoundTag resultTag = new CompoundTag();
+			resultTag.put("input", result.input().save(new CompoundTag()));
+			ListTag outputList = new ListTag();
+			for(Entry<ItemStack, Double> output : result.outputs().entrySet())
+			{
+				CompoundTag outputTag = new CompoundTag();
+				outputTag.put("stack", output.getKey().save(new CompoundTag()));
+				outputTag.putDouble("amount", output.getValue());
+				outputList.add(outputTag);
+			}
+			resultTag.put("outputs", outputList);
+			resultList.add(resultTag);
+		}
+		cache.put("results", resultList);
+		try
+		{
+			Files.createDirectories(CACHE_FILE.getParent());
+			NbtIo.writeCompressed(cache, CACHE_FILE);
+		} catch(IOException x)
+		{
+			IELogger.logger.warn("Failed to write arc recycling cache", x);
+		}
+	}
+
+	private record RecyclingResult(ItemStack input, Map<ItemStack, Double> outputs)
+	{
 	}
 
 	private static class RecipeIterator
 	{
 		final List<RecipeHolder<?>> recipeList;
 		final List<RecyclingCalculation> validated = new ArrayList<>();
-		final Multimap<ItemStack, RecyclingCalculation> nonValidated = ArrayListMultimap.create();
+		final Set<RecyclingCalculation> nonValidated = new LinkedHashSet<>();
 		private final ArcRecyclingChecker checker;
-		int invalidCount = 0;
 		private final RegistryAccess tags;
 
 		public RecipeIterator(List<RecipeHolder<?>> recipeList, ArcRecyclingChecker checker, RegistryAccess tags)
@@ -173,11 +344,7 @@ public class ArcRecyclingCalculator
 					if(calc.isValid())
 						validated.add(calc);
 					else
-					{
-						for(ItemStack s : calc.queriedSubcomponents.keySet())
-							nonValidated.put(s, calc);
-						invalidCount++;
-					}
+						nonValidated.add(calc);
 				}
 			}
 		}
@@ -24,8 +24,9 @@ import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static blusunrize.immersiveengineering.ImmersiveEngineering.rl;
@@ -47,7 +48,8 @@ public class GeneratedListRecipe<R extends IESerializableRecipe, E> extends IESe
 		));
 		LIST_GENERATORS.put(rl("arc_recycling_list"), RecipeListGenerator.fromSerializer(
 				ArcRecyclingCalculator::makeFuture,
-				recyclingList -> Objects.requireNonNull(recyclingList.getValue()),
+				recyclingList -> recyclingList.getNow(List.of()),
+				CompletableFuture::isDone,
 				ArcFurnaceRecipe.SERIALIZER,
 				IERecipeTypes.ARC_FURNACE
 		));
@@ -113,9 +115,13 @@ public class GeneratedListRecipe<R extends IESerializableRecipe, E> extends IESe
 
 	public List<? extends IESerializableRecipe> getSubRecipes()
 	{
-		if(cachedRecipes==null)
-			cachedRecipes = generator.generator().apply(earlyResult);
-		return cachedRecipes;
+		if(cachedRecipes!=null)
+			return cachedRecipes;
+		List<? extends R> generated = generator.generator().apply(earlyResult);
+		// Asynchronous generators return incomplete results until they are done, which must not be cached
+		if(generator.isComplete().test(earlyResult))
+			cachedRecipes = generated;
+		return generated;
 	}
 
 	public ResourceLocation getGeneratorID()
@@ -131,6 +137,7 @@ public class GeneratedListRecipe<R extends IESerializableRecipe, E> extends IESe
 	public record RecipeListGenerator<T extends IESerializableRecipe, EarlyResult>(
 			Supplier<EarlyResult> makeEarlyResult,
 			Function<EarlyResult, List<? extends T>> generator,
+			Predicate<EarlyResult> isComplete,
 			ResourceLocation serialized,
 			IERecipeTypes.TypeWithClass<T> recipeType
 	)
@@ -138,12 +145,23 @@ public class GeneratedListRecipe<R extends IESerializableRecipe, E> extends IESe
 		public static <T extends IESerializableRecipe, ER> RecipeListGenerator<T, ER> fromSerializer(
 				Supplier<ER> makeEarlyResult,
 				Function<ER, List<? extends T>> generator,
+				Predicate<ER> isComplete,
 				Holder<? extends RecipeSerializer<?>> serialized,
 				IERecipeTypes.TypeWithClass<T> recipeType
 		)
 		{
 			ResourceLocation serializedKey = serialized.unwrapKey().orElseThrow().location();
-			return new RecipeListGenerator<>(makeEarlyResult, generator, serializedKey, recipeType);
+			return new RecipeListGenerator<>(makeEarlyResult, generator, isComplete, serializedKey, recipeType);
+		}
+
+		public static <T extends IESerializableRecipe, ER> RecipeListGenerator<T, ER> fromSerializer(
+				Supplier<ER> makeEarlyResult,
+				Function<ER, List<? extends T>> generator,
+				Holder<? extends RecipeSerializer<?>> serialized,
+				IERecipeTypes.TypeWithClass<T> recipeType
+		)
+		{
+			return fromSerializer(makeEarlyResult, generator, $ -> true, serialized, recipeType);
 		}
 
 		public static <R extends IESerializableRecipe>
@@ -0,0 +1,327 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.fluids;
+
+import blusunrize.immersiveengineering.api.utils.DirectionUtils;
+import blusunrize.immersiveengineering.common.blocks.metal.FluidPipeBlockEntity.DirectionalFluidOutput;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Connected components of the fluid pipes in one level. Components are discovered lazily by flood fill when their
+ * outputs are first requested, and each component caches the fluid outputs adjacent to any of its pipes. Changes only
+ * invalidate the components they touch: Adding a pipe merges the adjacent components, removing a pipe or changing its
+ * sides discards the affected components so they are rebuilt on the next query.
+ * <br>
+ * Two adjacent pipes are connected if both of them allow connections on the shared side.
+ */
+public class FluidPipeNetwork
+{
+	private final PipeAccess access;
+	private final Long2ObjectMap<Component> componentByPipe = new Long2ObjectOpenHashMap<>();
+
+	public FluidPipeNetwork(PipeAccess access)
+	{
+		this.access = access;
+	}
+
+	/**
+	 * @return all fluid outputs connected to the pipe at the given position
+	 */
+	public Set<DirectionalFluidOutput> getOutputs(BlockPos pipe)
+	{
+		ConnectedOutputs outputs = getConnectedOutputs(pipe);
+		return outputs!=null?outputs.asSet(): Set.of();
+	}
+
+	/**
+	 * @return the outputs connected to the pipe at the given position, with their loaded status updated for the
+	 * current tick. Null if there is no pipe at the given position.
+	 */
+	@Nullable
+	public ConnectedOutputs getConnectedOutputs(BlockPos pipe)
+	{
+		Component component = getComponent(pipe);
+		if(component==null)
+			return null;
+		if(component.outputs==null)
+			component.outputs = collectOutputs(component);
+		component.outputs.updateLoaded(access);
+		return component.outputs;
+	}
+
+	/**
+	 * Called when a pipe is added (placed or loaded). Merges all components the pipe connects to. If the pipe connects
+	 * to a pipe that is not part of a known component, the adjacent components are discarded instead, so the next
+	 * query finds the unknown pipes by flood fill.
+	 */
+	public void onPipeAdded(BlockPos pos)
+	{
+		Component merged = null;
+		boolean unknownNeighbor = false;
+		for(Direction side : DirectionUtils.VALUES)
+		{
+			if(!isConnected(pos, side))
+				continue;
+			Component neighbor = componentByPipe.get(pos.relative(side).asLong());
+			if(neighbor==null)
+				unknownNeighbor = true;
+			else if(merged==null)
+				merged = neighbor;
+			else if(merged!=neighbor)
+				merged = merge(merged, neighbor);
+		}
+		Component old = componentByPipe.get(pos.asLong());
+		if(old!=null&&old!=merged)
+			discard(old);
+		if(unknownNeighbor)
+		{
+			if(merged!=null)
+				discard(merged);
+			return;
+		}
+		if(merged!=null)
+		{
+			if(componentByPipe.put(pos.asLong(), merged)!=merged)
+				merged.pipes.add(pos.asLong());
+			merged.outputs = null;
+		}
+	}
+
+	/**
+	 * Called when a pipe is removed or unloaded. Its component may split, so it is discarded.
+	 */
+	public void onPipeRemoved(BlockPos pos)
+	{
+		Component component = componentByPipe.get(pos.asLong());
+		if(component!=null)
+			discard(component);
+	}
+
+	/**
+	 * Called when the connections of a pipe to other pipes change, discards the components on both sides.
+	 */
+	public void onPipeSideChanged(BlockPos pos, Direction side)
+	{
+		onPipeRemoved(pos);
+		onPipeRemoved(pos.relative(side));
+	}
+
+	/**
+	 * Called when the non-pipe neighbors of a pipe change. Keeps the component, but recomputes its outputs.
+	 */
+	public void onOutputsChanged(BlockPos pos)
+	{
+		Component component = componentByPipe.get(pos.asLong());
+		if(component!=null)
+			component.outputs = null;
+	}
+
+	public int getComponentSize(BlockPos pipe)
+	{
+		Component component = getComponent(pipe);
+		return component!=null?component.pipes.size(): 0;
+	}
+
+	public boolean isSameComponent(BlockPos pipeA, BlockPos pipeB)
+	{
+		Component component = getComponent(pipeA);
+		return component!=null&&component==getComponent(pipeB);
+	}
+
+	@Nullable
+	private Component getComponent(BlockPos pipe)
+	{
+		Component existing = componentByPipe.get(pipe.asLong());
+		if(existing!=null)
+			return existing;
+		if(!access.isPipe(pipe))
+			return null;
+		return floodFill(pipe);
+	}
+
+	private Component floodFill(BlockPos start)
+	{
+		Component component = new Component();
+		LongArrayFIFOQueue open = new LongArrayFIFOQueue();
+		open.enqueue(start.asLong());
+		componentByPipe.put(start.asLong(), component);
+		component.pipes.add(start.asLong());
+		while(!open.isEmpty())
+		{
+			BlockPos next = BlockPos.of(open.dequeueLong());
+			for(Direction side : DirectionUtils.VALUES)
+			{
+				if(!isConnected(next, side))
+					continue;
+				long neighborPos = next.relative(side).asLong();
+				Component neighborComponent = componentByPipe.get(neighborPos);
+				if(neighborComponent==component)
+					continue;
+				// Stale component that should have been merged with this one, rebuild it as part of this one
+				if(neighborComponent!=null)
+					discard(neighborComponent);
+				componentByPipe.put(neighborPos, component);
+				component.pipes.add(neighborPos);
+				open.enqueue(neighborPos);
+			}
+		}
+		return component;
+	}
+
+	private ConnectedOutputs collectOutputs(Component component)
+	{
+		Set<DirectionalFluidOutput> outputs = new LinkedHashSet<>();
+		for(int i = 0; i < component.pipes.size(); ++i)
+		{
+			BlockPos pipe = BlockPos.of(component.pipes.getLong(i));
+			for(Direction side : DirectionUtils.VALUES)
+				if(access.hasOutputConnection(pipe, side)&&!access.isPipe(pipe.relative(side)))
+				{
+					DirectionalFluidOutput output = access.getOutput(pipe, side);
+					if(output!=null)
+						outputs.add(output);
+				}
+		}
+		return new ConnectedOutputs(outputs);
+	}
+
+	private boolean isConnected(BlockPos pipe, Direction side)
+	{
+		if(!access.hasOutputConnection(pipe, side))
+			return false;
+		BlockPos neighbor = pipe.relative(side);
+		return access.isPipe(neighbor)&&access.hasOutputConnection(neighbor, side.getOpposite());
+	}
+
+	private Component merge(Component a, Component b)
+	{
+		Component larger = a.pipes.size() >= b.pipes.size()?a: b;
+		Component smaller = larger==a?b: a;
+		for(int i = 0; i < smaller.pipes.size(); ++i)
+			componentByPipe.put(smaller.pipes.getLong(i), larger);
+		larger.pipes.addAll(smaller.pipes);
+		larger.outputs = null;
+		return larger;
+	}
+
+	private void discard(Component component)
+	{
+		for(int i = 0; i < component.pipes.size(); ++i)
+			componentByPipe.remove(component.pipes.getLong(i), component);
+	}
+
+	public interface PipeAccess
+	{
+		boolean isPipe(BlockPos pos);
+
+		/**
+		 * @return true if the pipe at the given position allows connections on the given side
+		 */
+		boolean hasOutputConnection(BlockPos pipe, Direction side);
+
+		/**
+		 * @return the output for the non-pipe neighbor of the given pipe, or null if there is none
+		 */
+		@Nullable
+		DirectionalFluidOutput getOutput(BlockPos pipe, Direction side);
+
+		boolean isLoaded(BlockPos pos);
+
+		long getGameTime();
+	}
+
+	/**
+	 * The outputs of one component in a fixed order, along with scratch space for distributing fluid among them
+	 */
+	public static class ConnectedOutputs
+	{
+		private final Set<DirectionalFluidOutput> asSet;
+		private final DirectionalFluidOutput[] outputs;
+		private final boolean[] loaded;
+		private long loadedAtTime = Long.MIN_VALUE;
+		private final int[] scratch;
+		private boolean scratchInUse = false;
+
+		private ConnectedOutputs(Set<DirectionalFluidOutput> outputs)
+		{
+			this.asSet = Collections.unmodifiableSet(outputs);
+			this.outputs = outputs.toArray(new DirectionalFluidOutput[0]);
+			this.loaded = new boolean[this.outputs.length];
+			this.scratch = new int[this.outputs.length];
+		}
+
+		private void updateLoaded(PipeAccess access)
+		{
+			long time = access.getGameTime();
+			if(time==loadedAtTime)
+				return;
+			for(int i = 0; i < outputs.length; ++i)
+				loaded[i] = access.isLoaded(outputs[i].pos());
+			loadedAtTime = time;
+		}
+
+		public int size()
+		{
+			return outputs.length;
+		}
+
+		public DirectionalFluidOutput get(int index)
+		{
+			return outputs[index];
+		}
+
+		/**
+		 * @return whether the chunk containing the output was loaded when it was first checked in the current tick
+		 */
+		public boolean isLoaded(int index)
+		{
+			return loaded[index];
+		}
+
+		public Set<DirectionalFluidOutput> asSet()
+		{
+			return asSet;
+		}
+
+		/**
+		 * @return an array with one entry per output. Must be returned using {@link #releaseScratch} once it is no
+		 * longer used. If the shared array is already in use (i.e. on reentrant calls), a new array is returned.
+		 */
+		public int[] claimScratch()
+		{
+			if(scratchInUse)
+				return new int[outputs.length];
+			scratchInUse = true;
+			return scratch;
+		}
+
+		public void releaseScratch(int[] array)
+		{
+			if(array==scratch)
+				scratchInUse = false;
+		}
+	}
+
+	private static class Component
+	{
+		private final LongArrayList pipes = new LongArrayList();
+		@Nullable
+		private ConnectedOutputs outputs;
+	}
+}
@@ -101,6 +101,7 @@ public class ClocheMenu extends IEContainerMenu
 		addGenericData(GenericContainerData.fluid(tank));
 		addGenericData(new GenericContainerData<>(GenericDataSerializers.INT32, fertilizerAmount));
 		addGenericData(new GenericContainerData<>(GenericDataSerializers.FLOAT, fertilizerMod));
-		addGenericData(new GenericContainerData<>(GenericDataSerializers.FLOAT, guiProgress));
+		// The progress arrow is 12 pixels wide
+		addGenericData(GenericContainerData.float32(guiProgress::get, guiProgress::set).quantize(1/12f, 1));
 	}
 }
\ No newline at end of file
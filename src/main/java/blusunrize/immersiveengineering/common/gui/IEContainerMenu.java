@@ -65,16 +65,27 @@ public abstract class IEContainerMenu extends AbstractContainerMenu implements I
 	public void broadcastChanges()
 	{
 		super.broadcastChanges();
-		List<Pair<Integer, DataPair<?>>> toSync = new ArrayList<>();
+		if(usingPlayers.isEmpty())
+			return;
+		long gameTime = usingPlayers.get(0).level().getGameTime();
+		List<Pair<Integer, DataPair<?>>> toSync = null;
 		for(int i = 0; i < genericData.size(); i++)
 		{
 			GenericContainerData<?> data = genericData.get(i);
-			if(data.needsUpdate())
+			if(data.needsUpdate(gameTime))
+			{
+				if(toSync==null)
+					toSync = new ArrayList<>();
 				toSync.add(Pair.of(i, data.dataPair()));
+			}
 		}
-		if(!toSync.isEmpty())
+		if(toSync!=null)
+		{
+			// Encoded once for all players
+			MessageContainerData message = new MessageContainerData(toSync);
 			for(ServerPlayer player : usingPlayers)
-				player.connection.send(new MessageContainerData(toSync));
+				player.connection.send(message);
+		}
 	}
 
 	public void receiveSync(List<Pair<Integer, DataPair<?>>> synced)
@@ -33,7 +33,7 @@ public class SorterMenu extends IEContainerMenu
 	)
 	{
 		final List<GetterAndSetter<Integer>> filters = IntStream.range(0, 6)
-				.mapToObj(i -> new GetterAndSetter<>(() -> be.sideFilter[i], f -> be.sideFilter[i] = f))
+				.mapToObj(i -> new GetterAndSetter<>(() -> be.sideFilter[i], f -> be.setSideFilter(i, f)))
 				.toList();
 		return new SorterMenu(blockCtx(type, id, be), invPlayer, be.filter, filters);
 	}
@@ -0,0 +1,77 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ *
+ */
+
+package blusunrize.immersiveengineering.common.gui.sync;
+
+import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataPair;
+
+/**
+ * Container data for float values that does not box the value unless it is sent
+ */
+public class FloatContainerData extends GenericContainerData<Float>
+{
+	private final FloatGetter get;
+	private final FloatSetter set;
+	private float current;
+	private float resolution = 0;
+	private float limit;
+
+	public FloatContainerData(FloatGetter get, FloatSetter set)
+	{
+		super(GenericDataSerializers.FLOAT);
+		this.get = get;
+		this.set = set;
+	}
+
+	/**
+	 * Only send changes of at least the given size immediately, smaller changes are sent after a delay. Reaching 0 or
+	 * the limit is always sent immediately.
+	 */
+	public FloatContainerData quantize(float resolution, float limit)
+	{
+		this.resolution = resolution;
+		this.limit = limit;
+		return this;
+	}
+
+	@Override
+	protected boolean hasChanged(long sinceSync)
+	{
+		float newValue = get.get();
+		if(Float.compare(newValue, current)==0)
+			return false;
+		if(Math.abs(newValue-current) < resolution&&newValue!=0&&newValue!=limit&&sinceSync < MAX_QUANTIZATION_DELAY)
+			return false;
+		current = newValue;
+		return true;
+	}
+
+	@Override
+	public void processSync(Object receivedData)
+	{
+		current = (Float)receivedData;
+		set.set(current);
+	}
+
+	@Override
+	public DataPair<Float> dataPair()
+	{
+		return new DataPair<>(GenericDataSerializers.FLOAT, current);
+	}
+
+	public interface FloatGetter
+	{
+		float get();
+	}
+
+	public interface FloatSetter
+	{
+		void set(float value);
+	}
+}
@@ -10,20 +10,28 @@
 package blusunrize.immersiveengineering.common.gui.sync;
 
 import blusunrize.immersiveengineering.api.energy.IMutableEnergyStorage;
+import blusunrize.immersiveengineering.common.config.IEServerConfig;
 import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataPair;
 import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataSerializer;
 import net.neoforged.neoforge.fluids.FluidStack;
 import net.neoforged.neoforge.fluids.capability.templates.FluidTank;
 
-import java.util.function.Consumer;
-import java.util.function.Supplier;
+import java.util.function.*;
 
 public class GenericContainerData<T>
 {
+	// Values that are not sent immediately due to quantization are sent once they are this old
+	protected static final int MAX_QUANTIZATION_DELAY = 20;
+	// Height of the energy bars in GUIs, in pixels
+	private static final int ENERGY_BAR_HEIGHT = 46;
+
 	private final DataSerializer<T> serializer;
 	private final Supplier<T> get;
 	private final Consumer<T> set;
 	private T current;
+	private int minInterval = 1;
+	private boolean synced = false;
+	private long lastSync;
 
 	public GenericContainerData(DataSerializer<T> serializer, Supplier<T> get, Consumer<T> set)
 	{
@@ -32,6 +40,14 @@ public class GenericContainerData<T>
 		this.set = set;
 	}
 
+	/**
+	 * For subclasses that override all methods accessing the value
+	 */
+	protected GenericContainerData(DataSerializer<T> serializer)
+	{
+		this(serializer, null, null);
+	}
+
 	public GenericContainerData(DataSerializer<T> serializer, GetterAndSetter<T> io)
 	{
 		this.serializer = serializer;
@@ -39,14 +55,25 @@ public class GenericContainerData<T>
 		this.set = io.setter();
 	}
 
-	public static GenericContainerData<Integer> int32(Supplier<Integer> get, Consumer<Integer> set)
+	public static IntContainerData int32(IntSupplier get, IntConsumer set)
 	{
-		return new GenericContainerData<>(GenericDataSerializers.INT32, get, set);
+		return new IntContainerData(get, set);
 	}
 
+	public static LongContainerData int64(LongSupplier get, LongConsumer set)
+	{
+		return new LongContainerData(get, set);
+	}
+
+	/**
+	 * Energy changes on most ticks in many machines, so it is only synced as often as configured and to the resolution
+	 * of the energy bars in GUIs
+	 */
 	public static GenericContainerData<?> energy(IMutableEnergyStorage storage)
 	{
-		return int32(storage::getEnergyStored, storage::setStoredEnergy);
+		return int32(storage::getEnergyStored, storage::setStoredEnergy)
+				.quantize(storage.getMaxEnergyStored()/ENERGY_BAR_HEIGHT, storage.getMaxEnergyStored())
+				.withMinInterval(IEServerConfig.MACHINES.gui_syncInterval.get());
 	}
 
 	public static GenericContainerData<FluidStack> fluid(FluidTank tank)
@@ -59,12 +86,38 @@ public class GenericContainerData<T>
 		return new GenericContainerData<>(GenericDataSerializers.BOOLEAN, get, set);
 	}
 
-	public static GenericContainerData<Float> float32(Supplier<Float> get, Consumer<Float> set)
+	public static FloatContainerData float32(FloatContainerData.FloatGetter get, FloatContainerData.FloatSetter set)
+	{
+		return new FloatContainerData(get, set);
+	}
+
+	/**
+	 * Only send updates to this value to clients if the given number of ticks has passed since the last one
+	 */
+	public GenericContainerData<T> withMinInterval(int ticks)
+	{
+		this.minInterval = ticks;
+		return this;
+	}
+
+	public final boolean needsUpdate(long gameTime)
 	{
-		return new GenericContainerData<>(GenericDataSerializers.FLOAT, get, set);
+		long sinceSync = gameTime-lastSync;
+		if(synced&&sinceSync < minInterval)
+			return false;
+		if(!hasChanged(synced?sinceSync: Long.MAX_VALUE))
+			return false;
+		synced = true;
+		lastSync = gameTime;
+		return true;
 	}
 
-	public boolean needsUpdate()
+	/**
+	 * Updates the value to be sent to clients if it changed enough to be sent
+	 *
+	 * @param sinceSync the number of ticks since the value was last sent
+	 */
+	protected boolean hasChanged(long sinceSync)
 	{
 		T newValue = get.get();
 		if(newValue==null&&current==null)
@@ -32,6 +32,9 @@ public class GenericDataSerializers
 	public static final DataSerializer<Integer> INT32 = register(
 			FriendlyByteBuf::readVarInt, FriendlyByteBuf::writeVarInt
 	);
+	public static final DataSerializer<Long> INT64 = register(
+			FriendlyByteBuf::readVarLong, FriendlyByteBuf::writeVarLong
+	);
 	public static final DataSerializer<FluidStack> FLUID_STACK = register(
 			FriendlyByteBuf::readFluidStack, FriendlyByteBuf::writeFluidStack,
 			FluidStack::copy, FluidStack::isFluidStackIdentical
@@ -0,0 +1,70 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ *
+ */
+
+package blusunrize.immersiveengineering.common.gui.sync;
+
+import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataPair;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Container data for int values that does not box the value unless it is sent
+ */
+public class IntContainerData extends GenericContainerData<Integer>
+{
+	private final IntSupplier get;
+	private final IntConsumer set;
+	private int current;
+	private int resolution = 1;
+	private int limit;
+
+	public IntContainerData(IntSupplier get, IntConsumer set)
+	{
+		super(GenericDataSerializers.INT32);
+		this.get = get;
+		this.set = set;
+	}
+
+	/**
+	 * Only send changes of at least the given size immediately, smaller changes are sent after a delay. Reaching 0 or
+	 * the limit is always sent immediately.
+	 */
+	public IntContainerData quantize(int resolution, int limit)
+	{
+		this.resolution = Math.max(resolution, 1);
+		this.limit = limit;
+		return this;
+	}
+
+	@Override
+	protected boolean hasChanged(long sinceSync)
+	{
+		int newValue = get.getAsInt();
+		if(newValue==current)
+			return false;
+		if(Math.abs((long)newValue-current) < resolution&&newValue!=0&&newValue!=limit&&sinceSync < MAX_QUANTIZATION_DELAY)
+			return false;
+		current = newValue;
+		return true;
+	}
+
+	@Override
+	public void processSync(Object receivedData)
+	{
+		current = (Integer)receivedData;
+		set.accept(current);
+	}
+
+	@Override
+	public DataPair<Integer> dataPair()
+	{
+		return new DataPair<>(GenericDataSerializers.INT32, current);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ *
+ */
+
+package blusunrize.immersiveengineering.common.gui.sync;
+
+import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataPair;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Container data for long values that does not box the value unless it is sent
+ */
+public class LongContainerData extends GenericContainerData<Long>
+{
+	private final LongSupplier get;
+	private final LongConsumer set;
+	private long current;
+	private long resolution = 1;
+	private long limit;
+
+	public LongContainerData(LongSupplier get, LongConsumer set)
+	{
+		super(GenericDataSerializers.INT64);
+		this.get = get;
+		this.set = set;
+	}
+
+	/**
+	 * Only send changes of at least the given size immediately, smaller changes are sent after a delay. Reaching 0 or
+	 * the limit is always sent immediately.
+	 */
+	public LongContainerData quantize(long resolution, long limit)
+	{
+		this.resolution = Math.max(resolution, 1);
+		this.limit = limit;
+		return this;
+	}
+
+	@Override
+	protected boolean hasChanged(long sinceSync)
+	{
+		long newValue = get.getAsLong();
+		if(newValue==current)
+			return false;
+		if(Math.abs(newValue-current) < resolution&&newValue!=0&&newValue!=limit&&sinceSync < MAX_QUANTIZATION_DELAY)
+			return false;
+		current = newValue;
+		return true;
+	}
+
+	@Override
+	public void processSync(Object receivedData)
+	{
+		current = (Long)receivedData;
+		set.accept(current);
+	}
+
+	@Override
+	public DataPair<Long> dataPair()
+	{
+		return new DataPair<>(GenericDataSerializers.INT64, current);
+	}
+}
@@ -15,35 +15,52 @@ import blusunrize.immersiveengineering.common.gui.IEContainerMenu;
 import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers;
 import blusunrize.immersiveengineering.common.gui.sync.GenericDataSerializers.DataPair;
 import com.mojang.datafixers.util.Pair;
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.neoforged.neoforge.network.handling.PlayPayloadContext;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Objects;
 
 public class MessageContainerData implements IMessage
 {
 	public static final ResourceLocation ID = IEApi.ieLoc("container_data");
 	private final List<Pair<Integer, DataPair<?>>> synced;
+	// The same message is usually sent to multiple players, so the data is only encoded once
+	@Nullable
+	private final byte[] encoded;
 
 	public MessageContainerData(List<Pair<Integer, DataPair<?>>> synced)
 	{
 		this.synced = synced;
+		FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+		try
+		{
+			PacketUtils.writeList(buf, synced, (pair, b) -> {
+				b.writeVarInt(pair.getFirst());
+				pair.getSecond().write(b);
+			});
+			this.encoded = new byte[buf.readableBytes()];
+			buf.readBytes(this.encoded);
+		} finally
+		{
+			buf.release();
+		}
 	}
 
 	public MessageContainerData(FriendlyByteBuf buf)
 	{
-		this(PacketUtils.readList(buf, pb -> Pair.of(pb.readVarInt(), GenericDataSerializers.read(pb))));
+		this.synced = PacketUtils.readList(buf, pb -> Pair.of(pb.readVarInt(), GenericDataSerializers.read(pb)));
+		this.encoded = null;
 	}
 
 	@Override
 	public void write(FriendlyByteBuf buf)
 	{
-		PacketUtils.writeList(buf, synced, (pair, b) -> {
-			b.writeVarInt(pair.getFirst());
-			pair.getSecond().write(b);
-		});
+		buf.writeBytes(Objects.requireNonNull(encoded));
 	}
 
 	@Override
@@ -0,0 +1,107 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.network;
+
+import blusunrize.immersiveengineering.ImmersiveEngineering;
+import blusunrize.immersiveengineering.api.IEApi;
+import blusunrize.immersiveengineering.common.util.MachineParticles.Emission;
+import net.minecraft.core.particles.ParticleOptions;
+import net.minecraft.core.particles.ParticleType;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.handling.PlayPayloadContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All particles emitted by machines near a player in one tick, see
+ * {@link blusunrize.immersiveengineering.common.util.MachineParticles}
+ */
+public class MessageMachineParticles implements IMessage
+{
+	public static final ResourceLocation ID = IEApi.ieLoc("machine_particles");
+	private final List<Emission> emissions;
+
+	public MessageMachineParticles(List<Emission> emissions)
+	{
+		this.emissions = emissions;
+	}
+
+	public MessageMachineParticles(FriendlyByteBuf buf)
+	{
+		int count = buf.readVarInt();
+		emissions = new ArrayList<>(count);
+		for(int i = 0; i < count; ++i)
+			emissions.add(new Emission(
+					readParticle(buf.readById(BuiltInRegistries.PARTICLE_TYPE), buf),
+					buf.readDouble(), buf.readDouble(), buf.readDouble(),
+					buf.readVarInt(),
+					buf.readFloat(), buf.readFloat(), buf.readFloat(), buf.readFloat()
+			));
+	}
+
+	private static <T extends ParticleOptions> T readParticle(ParticleType<T> type, FriendlyByteBuf buf)
+	{
+		return type.getDeserializer().fromNetwork(type, buf);
+	}
+
+	@Override
+	public void write(FriendlyByteBuf buf)
+	{
+		buf.writeVarInt(emissions.size());
+		for(Emission emission : emissions)
+		{
+			buf.writeId(BuiltInRegistries.PARTICLE_TYPE, emission.particle().getType());
+			emission.particle().writeToNetwork(buf);
+			buf.writeDouble(emission.x()).writeDouble(emission.y()).writeDouble(emission.z());
+			buf.writeVarInt(emission.count());
+			buf.writeFloat(emission.dx()).writeFloat(emission.dy()).writeFloat(emission.dz());
+			buf.writeFloat(emission.speed());
+		}
+	}
+
+	@Override
+	public void process(PlayPayloadContext context)
+	{
+		context.workHandler().execute(() -> {
+			Level level = ImmersiveEngineering.proxy.getClientWorld();
+			if(level==null)
+				return;
+			RandomSource random = level.getRandom();
+			// Same distribution as vanilla particle packets
+			for(Emission emission : emissions)
+				if(emission.count()==0)
+					level.addParticle(
+							emission.particle(), emission.x(), emission.y(), emission.z(),
+							emission.speed()*emission.dx(), emission.speed()*emission.dy(), emission.speed()*emission.dz()
+					);
+				else
+					for(int i = 0; i < emission.count(); ++i)
+						level.addParticle(
+								emission.particle(),
+								emission.x()+random.nextGaussian()*emission.dx(),
+								emission.y()+random.nextGaussian()*emission.dy(),
+								emission.z()+random.nextGaussian()*emission.dz(),
+								random.nextGaussian()*emission.speed(),
+								random.nextGaussian()*emission.speed(),
+								random.nextGaussian()*emission.speed()
+						);
+		});
+	}
+
+	@Override
+	public ResourceLocation id()
+	{
+		return ID;
+	}
+}
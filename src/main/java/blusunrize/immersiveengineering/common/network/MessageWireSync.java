@@ -12,8 +12,10 @@ import blusunrize.immersiveengineering.ImmersiveEngineering;
 import blusunrize.immersiveengineering.api.IEApi;
 import blusunrize.immersiveengineering.api.wires.*;
 import blusunrize.immersiveengineering.api.wires.utils.WireUtils;
-import it.unimi.dsi.fastutil.objects.ObjectArraySet;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
@@ -22,91 +24,139 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 import net.neoforged.neoforge.network.handling.PlayPayloadContext;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static blusunrize.immersiveengineering.common.network.MessageWireSync.Operation.ADD;
 import static blusunrize.immersiveengineering.common.network.MessageWireSync.Operation.REMOVE;
 
+/**
+ * Syncs any number of connections. Wire types and connection points are written once into tables that the connections
+ * refer to, and the positions in the point table are written relative to the previous position.
+ */
 public class MessageWireSync implements IMessage
 {
 	public static final ResourceLocation ID = IEApi.ieLoc("wire_sync");
-	private final ConnectionPoint start;
-	private final ConnectionPoint end;
-	private final WireType type;
-	private final Operation operation;
-	private final Vec3 offsetStart;
-	private final Vec3 offsetEnd;
-
-	public MessageWireSync(Connection conn, Operation operation)
+	private final List<SyncedConnection> connections;
+
+	public MessageWireSync(List<SyncedConnection> connections)
 	{
-		this.start = conn.getEndA();
-		this.end = conn.getEndB();
-		this.type = conn.type;
-		this.operation = operation;
-		this.offsetStart = conn.getEndAOffset();
-		this.offsetEnd = conn.getEndBOffset();
+		this.connections = connections;
 	}
 
 	public MessageWireSync(FriendlyByteBuf buf)
 	{
-		operation = Operation.VALUES[buf.readByte()];
-		start = readConnPoint(buf);
-		end = readConnPoint(buf);
-		type = WireType.getValue(buf.readUtf(128));
-		offsetStart = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
-		offsetEnd = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
+		WireType[] types = new WireType[buf.readVarInt()];
+		for(int i = 0; i < types.length; ++i)
+			types[i] = WireType.getValue(buf.readUtf(128));
+		ConnectionPoint[] points = new ConnectionPoint[buf.readVarInt()];
+		BlockPos lastPos = BlockPos.ZERO;
+		for(int i = 0; i < points.length; ++i)
+		{
+			BlockPos pos = lastPos.offset(readSigned(buf), readSigned(buf), readSigned(buf));
+			points[i] = new ConnectionPoint(pos, buf.readVarInt());
+			lastPos = pos;
+		}
+		final int numConnections = buf.readVarInt();
+		connections = new ArrayList<>(numConnections);
+		for(int i = 0; i < numConnections; ++i)
+		{
+			Operation operation = Operation.VALUES[buf.readByte()];
+			ConnectionPoint start = points[buf.readVarInt()];
+			ConnectionPoint end = points[buf.readVarInt()];
+			WireType type = types[buf.readVarInt()];
+			Vec3 offsetStart = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
+			Vec3 offsetEnd = new Vec3(buf.readDouble(), buf.readDouble(), buf.readDouble());
+			connections.add(new SyncedConnection(start, end, type, offsetStart, offsetEnd, operation));
+		}
 	}
 
-	private ConnectionPoint readConnPoint(FriendlyByteBuf buf)
+	@Override
+	public void write(FriendlyByteBuf buf)
 	{
-		return new ConnectionPoint(buf.readBlockPos(), buf.readInt());
+		Object2IntMap<WireType> typeIds = new Object2IntLinkedOpenHashMap<>();
+		Object2IntMap<ConnectionPoint> pointIds = new Object2IntLinkedOpenHashMap<>();
+		for(SyncedConnection conn : connections)
+		{
+			typeIds.putIfAbsent(conn.type(), typeIds.size());
+			pointIds.putIfAbsent(conn.start(), pointIds.size());
+			pointIds.putIfAbsent(conn.end(), pointIds.size());
+		}
+		buf.writeVarInt(typeIds.size());
+		for(WireType type : typeIds.keySet())
+			buf.writeUtf(type.getUniqueName());
+		buf.writeVarInt(pointIds.size());
+		BlockPos lastPos = BlockPos.ZERO;
+		for(ConnectionPoint cp : pointIds.keySet())
+		{
+			BlockPos pos = cp.position();
+			writeSigned(buf, pos.getX()-lastPos.getX());
+			writeSigned(buf, pos.getY()-lastPos.getY());
+			writeSigned(buf, pos.getZ()-lastPos.getZ());
+			buf.writeVarInt(cp.index());
+			lastPos = pos;
+		}
+		buf.writeVarInt(connections.size());
+		for(SyncedConnection conn : connections)
+		{
+			buf.writeByte(conn.operation().ordinal());
+			buf.writeVarInt(pointIds.getInt(conn.start()));
+			buf.writeVarInt(pointIds.getInt(conn.end()));
+			buf.writeVarInt(typeIds.getInt(conn.type()));
+			buf.writeDouble(conn.offsetStart().x).writeDouble(conn.offsetStart().y).writeDouble(conn.offsetStart().z);
+			buf.writeDouble(conn.offsetEnd().x).writeDouble(conn.offsetEnd().y).writeDouble(conn.offsetEnd().z);
+		}
 	}
 
-	private void writeConnPoint(ConnectionPoint cp, FriendlyByteBuf buf)
+	// Zigzag encoding, so small negative numbers are written as small var-ints
+	private static void writeSigned(FriendlyByteBuf buf, int value)
 	{
-		buf.writeBlockPos(cp.position());
-		buf.writeInt(cp.index());
+		buf.writeVarInt((value<<1)^(value>>31));
 	}
 
-	@Override
-	public void write(FriendlyByteBuf buf)
+	private static int readSigned(FriendlyByteBuf buf)
 	{
-		buf.writeByte(operation.ordinal());
-		writeConnPoint(start, buf);
-		writeConnPoint(end, buf);
-		buf.writeUtf(type.getUniqueName());
-		buf.writeDouble(offsetStart.x).writeDouble(offsetStart.y).writeDouble(offsetStart.z);
-		buf.writeDouble(offsetEnd.x).writeDouble(offsetEnd.y).writeDouble(offsetEnd.z);
+		int encoded = buf.readVarInt();
+		return (encoded>>>1)^-(encoded&1);
 	}
 
 	@Override
 	public void process(PlayPayloadContext context)
 	{
 		context.workHandler().execute(() -> {
-			WireLogger.logger.debug(
-					"Processing sync for connection from {} to {}, type {}, op {}",
-					start, end, type, operation.name()
-			);
 			Player player = ImmersiveEngineering.proxy.getClientPlayer();
 			Level w = player.level();
-
 			GlobalWireNetwork globalNet = GlobalWireNetwork.getNetwork(w);
-			Connection connection = new Connection(type, start, end, offsetStart, offsetEnd);
-			if(operation!=ADD&&globalNet.getNullableLocalNet(start)!=null&&globalNet.getNullableLocalNet(end)!=null)
-			{
-				globalNet.removeConnection(connection);
-				removeProxyIfNoWires(start, globalNet);
-				removeProxyIfNoWires(end, globalNet);
-			}
-			if(operation!=REMOVE)
-				globalNet.addConnection(connection);
-			Set<SectionPos> sectionsToRerender = new ObjectArraySet<>();
-			WireUtils.forEachRenderPoint(connection, ($, $2, section) -> sectionsToRerender.add(section));
+			Set<SectionPos> sectionsToRerender = new HashSet<>();
+			for(SyncedConnection synced : connections)
+				processConnection(synced, globalNet, sectionsToRerender);
 			for(SectionPos section : sectionsToRerender)
 				Minecraft.getInstance().levelRenderer.setSectionDirty(section.x(), section.y(), section.z());
 		});
 	}
 
+	private void processConnection(SyncedConnection synced, GlobalWireNetwork globalNet, Set<SectionPos> sectionsToRerender)
+	{
+		WireLogger.logger.debug(
+				"Processing sync for connection from {} to {}, type {}, op {}",
+				synced.start(), synced.end(), synced.type(), synced.operation().name()
+		);
+		ConnectionPoint start = synced.start();
+		ConnectionPoint end = synced.end();
+		Connection connection = new Connection(synced.type(), start, end, synced.offsetStart(), synced.offsetEnd());
+		if(synced.operation()!=ADD&&globalNet.getNullableLocalNet(start)!=null&&globalNet.getNullableLocalNet(end)!=null)
+		{
+			globalNet.removeConnection(connection);
+			removeProxyIfNoWires(start, globalNet);
+			removeProxyIfNoWires(end, globalNet);
+		}
+		if(synced.operation()!=REMOVE)
+			globalNet.addConnection(connection);
+		WireUtils.forEachRenderPoint(connection, ($, $2, section) -> sectionsToRerender.add(section));
+	}
+
 	private void removeProxyIfNoWires(ConnectionPoint point, GlobalWireNetwork globalNet)
 	{
 		LocalWireNetwork localNet = globalNet.getLocalNet(point);
@@ -115,6 +165,22 @@ public class MessageWireSync implements IMessage
 			globalNet.removeConnector(iic);
 	}
 
+	public record SyncedConnection(
+			ConnectionPoint start, ConnectionPoint end, WireType type, Vec3 offsetStart, Vec3 offsetEnd,
+			Operation operation
+	)
+	{
+		public SyncedConnection(Connection conn, Operation operation)
+		{
+			this(conn.getEndA(), conn.getEndB(), conn.type, conn.getEndAOffset(), conn.getEndBOffset(), operation);
+		}
+
+		public SyncedConnection withOperation(Operation operation)
+		{
+			return new SyncedConnection(start, end, type, offsetStart, offsetEnd, operation);
+		}
+	}
+
 	public enum Operation
 	{
 		ADD, REMOVE, UPDATE;
@@ -0,0 +1,158 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-tick cache of the entities around defensive blocks like turrets and tesla coils. Blocks register their full range
+ * when querying the index. The first query in a tick loads the entities in the union of all overlapping registered
+ * ranges with a single lookup, so blocks with overlapping ranges share the work of finding the entities near them.
+ */
+@EventBusSubscriber
+public class DefenseTargetIndex
+{
+	private static final Map<Level, DefenseTargetIndex> INDICES = new WeakHashMap<>();
+	// Ranges of blocks that did not query the index for this long are forgotten
+	private static final int RANGE_TIMEOUT = 200;
+	// Keep unions of ranges spread over a large area from loading all entities in between
+	private static final double MAX_CLUSTER_SIZE = 96;
+
+	private final Long2ObjectMap<Range> ranges = new Long2ObjectOpenHashMap<>();
+	private final List<Cluster> clusters = new ArrayList<>();
+	private long currentTick = Long.MIN_VALUE;
+
+	private DefenseTargetIndex()
+	{
+	}
+
+	public static DefenseTargetIndex get(Level level)
+	{
+		// Client and server levels are ticked on different threads in singleplayer
+		synchronized(INDICES)
+		{
+			return INDICES.computeIfAbsent(level, $ -> new DefenseTargetIndex());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onLevelUnload(LevelEvent.Unload ev)
+	{
+		// The cached entities reference their level, so the weak keys alone would never be cleared
+		synchronized(INDICES)
+		{
+			INDICES.remove(ev.getLevel());
+		}
+	}
+
+	/**
+	 * Equivalent to {@link Level#getEntitiesOfClass(Class, AABB)}, except that entities are only looked up once per tick
+	 * for overlapping ranges
+	 *
+	 * @param level the level this index belongs to
+	 * @param owner the position of the querying block
+	 * @param range the largest area the querying block searches for entities
+	 * @param box   the area to search, usually but not necessarily inside the range
+	 */
+	public <T extends Entity> List<T> getEntities(Level level, BlockPos owner, AABB range, Class<T> type, AABB box)
+	{
+		long gameTime = level.getGameTime();
+		if(gameTime!=currentTick)
+		{
+			currentTick = gameTime;
+			clusters.clear();
+			if(gameTime%RANGE_TIMEOUT==0)
+				ranges.values().removeIf(r -> gameTime-r.lastUsed > RANGE_TIMEOUT);
+		}
+		Range ownRange = ranges.get(owner.asLong());
+		if(ownRange==null||!ownRange.box.equals(range))
+		{
+			ownRange = new Range(range);
+			ranges.put(owner.asLong(), ownRange);
+		}
+		ownRange.lastUsed = gameTime;
+
+		Cluster cluster = null;
+		for(Cluster existing : clusters)
+			if(contains(existing.box, box))
+			{
+				cluster = existing;
+				break;
+			}
+		if(cluster==null)
+		{
+			if(!contains(range, box))
+				return level.getEntitiesOfClass(type, box);
+			cluster = buildCluster(level, range);
+		}
+
+		List<T> result = new ArrayList<>();
+		for(Entity entity : cluster.entities)
+			if(type.isInstance(entity)&&!entity.isRemoved()&&entity.getBoundingBox().intersects(box))
+				result.add(type.cast(entity));
+		return result;
+	}
+
+	private Cluster buildCluster(Level level, AABB start)
+	{
+		AABB box = start;
+		boolean grown = true;
+		while(grown)
+		{
+			grown = false;
+			for(Range range : ranges.values())
+				if(!contains(box, range.box)&&box.intersects(range.box))
+				{
+					AABB union = box.minmax(range.box);
+					if(union.getXsize() <= MAX_CLUSTER_SIZE&&union.getZsize() <= MAX_CLUSTER_SIZE&&union.getYsize() <= MAX_CLUSTER_SIZE)
+					{
+						box = union;
+						grown = true;
+					}
+				}
+		}
+		Cluster cluster = new Cluster(box, level.getEntitiesOfClass(Entity.class, box));
+		clusters.add(cluster);
+		return cluster;
+	}
+
+	private static boolean contains(AABB outer, AABB inner)
+	{
+		return outer.minX <= inner.minX&&outer.minY <= inner.minY&&outer.minZ <= inner.minZ
+				&&outer.maxX >= inner.maxX&&outer.maxY >= inner.maxY&&outer.maxZ >= inner.maxZ;
+	}
+
+	private static class Range
+	{
+		private final AABB box;
+		private long lastUsed;
+
+		private Range(AABB box)
+		{
+			this.box = box;
+		}
+	}
+
+	private record Cluster(AABB box, List<Entity> entities)
+	{
+	}
+}
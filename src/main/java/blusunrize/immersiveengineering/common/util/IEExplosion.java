@@ -10,12 +10,19 @@ package blusunrize.immersiveengineering.common.util;
 
 import blusunrize.immersiveengineering.api.ApiUtils;
 import blusunrize.immersiveengineering.common.EventHandler;
+import blusunrize.immersiveengineering.common.util.MachineParticles.Emission;
 import blusunrize.immersiveengineering.mixin.accessors.ExplosionAccess;
-import com.google.common.collect.Sets;
 import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.longs.Long2FloatMap;
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2FloatMap;
+import it.unimi.dsi.fastutil.objects.Reference2FloatOpenHashMap;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
@@ -30,16 +37,17 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.PalettedContainer;
 import net.minecraft.world.level.material.FluidState;
 import net.minecraft.world.level.storage.loot.LootParams;
 import net.minecraft.world.level.storage.loot.parameters.LootContextParams;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class IEExplosion extends Explosion
 {
@@ -69,14 +77,13 @@ public class IEExplosion extends Explosion
 	public void doExplosionTick()
 	{
 		ObjectArrayList<Pair<ItemStack, BlockPos>> objectarraylist = new ObjectArrayList<>();
-		int max = Math.min(blockDestroyInt+blocksPerTick, this.getToBlow().size());
+		List<Emission> particles = new ArrayList<>();
+		int max = Math.min(blockDestroyInt+getBlocksThisTick(), this.getToBlow().size());
 		for(; blockDestroyInt < max; blockDestroyInt++)
 		{
 			BlockPos pos = this.getToBlow().get(blockDestroyInt);
 			BlockState state = this.world.getBlockState(pos);
-			Block block = state.getBlock();
 
-//			if(spawnParticles)
 			{
 				var center = center();
 				double d0 = (float)pos.getX()+ApiUtils.RANDOM.nextFloat();
@@ -94,8 +101,8 @@ public class IEExplosion extends Explosion
 				d3 = d3*d7;
 				d4 = d4*d7;
 				d5 = d5*d7;
-				this.world.addParticle(ParticleTypes.EXPLOSION, (d0+center.x*1.0D)/2.0D, (d1+center.y*1.0D)/2.0D, (d2+center.z*1.0D)/2.0D, d3, d4, d5);
-				this.world.addParticle(ParticleTypes.SMOKE, d0, d1, d2, d3, d4, d5);
+				particles.add(new Emission(ParticleTypes.EXPLOSION, (d0+center.x*1.0D)/2.0D, (d1+center.y*1.0D)/2.0D, (d2+center.z*1.0D)/2.0D, 0, (float)d3, (float)d4, (float)d5, 1));
+				particles.add(new Emission(ParticleTypes.SMOKE, d0, d1, d2, 0, (float)d3, (float)d4, (float)d5, 1));
 			}
 
 			if(!state.isAir())
@@ -120,17 +127,66 @@ public class IEExplosion extends Explosion
 		{
 			Block.popResource(this.world, pair.getSecond(), pair.getFirst());
 		}
+		if(this.world instanceof ServerLevel serverLevel&&!particles.isEmpty())
+			MachineParticles.send(serverLevel, particles);
 		if(blockDestroyInt >= this.getToBlow().size())
 			this.isExplosionFinished = true;
 	}
 
+	/**
+	 * @return the number of blocks to destroy in this tick, which is between a quarter and twice
+	 * {@link #blocksPerTick}, depending on how much of the tick time the server currently uses
+	 */
+	private int getBlocksThisTick()
+	{
+		MinecraftServer server = this.world.getServer();
+		if(server==null)
+			return blocksPerTick;
+		double load = server.getAverageTickTimeNanos()/(double)server.tickRateManager().nanosecondsPerTick();
+		double factor = Mth.clamp(2*(1-load), .25, 2);
+		return Math.max(1, (int)(blocksPerTick*factor));
+	}
+
+	/**
+	 * Traces the rays and damages entities before returning, like vanilla explosions, so the detonation event and the
+	 * damage happen in the same tick as the visible explosion. Only destroying the blocks is spread over later ticks. On
+	 * servers the rays are traced on worker threads, split by their first coordinate.
+	 */
 	@Override
 	public void explode()
 	{
-		Set<BlockPos> set = Sets.newHashSet();
-		int i = 16;
+		ResistanceSnapshot snapshot = new ResistanceSnapshot(this.world, this, center(), this.size);
+		Long2FloatMap reached;
+		if(this.world instanceof ServerLevel)
+		{
+			List<CompletableFuture<Long2FloatMap>> slices = new ArrayList<>(16);
+			for(int j = 0; j < 16; ++j)
+			{
+				final int slice = j;
+				Random random = new Random(ApiUtils.RANDOM.nextLong());
+				slices.add(CompletableFuture.supplyAsync(() -> traceRays(snapshot, slice, slice+1, random), Util.backgroundExecutor()));
+			}
+			reached = slices.get(0).join();
+			for(int j = 1; j < slices.size(); ++j)
+				for(Long2FloatMap.Entry entry : slices.get(j).join().long2FloatEntrySet())
+					if(entry.getFloatValue() > reached.get(entry.getLongKey()))
+						reached.put(entry.getLongKey(), entry.getFloatValue());
+		}
+		else
+			reached = traceRays(snapshot, 0, 16, new Random(ApiUtils.RANDOM.nextLong()));
+		commitRays(reached);
+	}
 
-		for(int j = 0; j < 16; ++j)
+	/**
+	 * Traces the rays of the explosion starting with the given range of first coordinates through the snapshot. Does not
+	 * access the level, so it can run on a worker thread.
+	 *
+	 * @return the reached positions, mapped to the highest remaining strength of a ray at that position
+	 */
+	private static Long2FloatMap traceRays(ResistanceSnapshot snapshot, int minJ, int maxJ, Random random)
+	{
+		Long2FloatMap reached = new Long2FloatOpenHashMap();
+		for(int j = minJ; j < maxJ; ++j)
 			for(int k = 0; k < 16; ++k)
 				for(int l = 0; l < 16; ++l)
 					if(j==0||j==15||k==0||k==15||l==0||l==15)
@@ -142,30 +198,25 @@ public class IEExplosion extends Explosion
 						d0 = d0/d3;
 						d1 = d1/d3;
 						d2 = d2/d3;
-						float f = this.size*(0.7F+ApiUtils.RANDOM.nextFloat()*0.6F);
-						double d4 = center().x;
-						double d6 = center().y;
-						double d8 = center().z;
+						float f = snapshot.size*(0.7F+random.nextFloat()*0.6F);
+						double d4 = snapshot.center.x;
+						double d6 = snapshot.center.y;
+						double d8 = snapshot.center.z;
 
-						for(float f1 = 0.3F; f > 0.0F; f -= 0.22500001F)
+						for(; f > 0.0F; f -= 0.22500001F)
 						{
-							BlockPos blockpos = BlockPos.containing(d4, d6, d8);
-							BlockState iblockstate = this.world.getBlockState(blockpos);
-							FluidState ifluidstate = this.world.getFluidState(blockpos);
-							if(!iblockstate.isAir()||!ifluidstate.isEmpty())
-							{
-								float f2 = Math.max(iblockstate.getExplosionResistance(world, blockpos, this), ifluidstate.getExplosionResistance(world, blockpos, this));
-								if(this.getDirectSourceEntity()!=null)
-								{
-									f2 = this.getDirectSourceEntity().getBlockExplosionResistance(this, this.world, blockpos, iblockstate, ifluidstate, f2);
-								}
-
+							int x = Mth.floor(d4);
+							int y = Mth.floor(d6);
+							int z = Mth.floor(d8);
+							float f2 = snapshot.getResistance(x, y, z);
+							if(f2 >= 0)
 								f -= (f2+0.3F)*0.3F;
-							}
 
-							if(f > 0.0F&&(this.getDirectSourceEntity()==null||this.getDirectSourceEntity().shouldBlockExplode(this, this.world, blockpos, iblockstate, f)))
+							if(f > 0.0F)
 							{
-								set.add(blockpos);
+								long pos = BlockPos.asLong(x, y, z);
+								if(f > reached.get(pos))
+									reached.put(pos, f);
 							}
 
 							d4 += d0*(double)0.3F;
@@ -173,8 +224,22 @@ public class IEExplosion extends Explosion
 							d8 += d2*(double)0.3F;
 						}
 					}
+		return reached;
+	}
 
-		this.getToBlow().addAll(set);
+	/**
+	 * Adds the positions reached by the rays to the blocks to destroy and damages the entities in range. Runs the part of
+	 * vanilla explosions after the ray march, including the detonation event.
+	 */
+	private void commitRays(Long2FloatMap reached)
+	{
+		Entity source = this.getDirectSourceEntity();
+		for(Long2FloatMap.Entry entry : reached.long2FloatEntrySet())
+		{
+			BlockPos blockpos = BlockPos.of(entry.getLongKey());
+			if(source==null||source.shouldBlockExplode(this, this.world, blockpos, this.world.getBlockState(blockpos), entry.getFloatValue()))
+				this.getToBlow().add(blockpos);
+		}
 		Vec3 center = center();
 		this.getToBlow().sort(Comparator.comparingDouble(pos -> pos.distToCenterSqr(center)));
 
@@ -237,4 +302,94 @@ public class IEExplosion extends Explosion
 		if(!this.world.isClientSide)
 			EventHandler.currentExplosions.computeIfAbsent(this.world, $ -> new HashSet<>()).add(this);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The block states of all sections the rays of an explosion can reach, copied on the main thread, and the explosion
+	 * resistance of each state in them. Copying the sections is much cheaper than looking up every block, and the
+	 * resistance only needs to be computed once per state.
+	 * <br>
+	 * Resistance is computed at the origin of the first section containing the state, so blocks whose resistance depends
+	 * on their position use the resistance at that position.
+	 */
+	private static class ResistanceSnapshot
+	{
+		private final Vec3 center;
+		private final float size;
+		private final int minSectionX;
+		private final int minSectionY;
+		private final int minSectionZ;
+		private final int sectionsX;
+		private final int sectionsY;
+		private final int sectionsZ;
+		// Null for sections that only contain air or are outside the build height
+		private final PalettedContainer<BlockState>[] sections;
+		// Negative for states without a block or fluid
+		private final Reference2FloatMap<BlockState> resistance = new Reference2FloatOpenHashMap<>();
+
+		private ResistanceSnapshot(Level world, Explosion explosion, Vec3 center, float size)
+		{
+			this.center = center;
+			this.size = size;
+			// The strongest ray loses at least 0.225 strength per 0.3 blocks
+			int radius = Mth.ceil(size*1.3F/0.22500001F*0.3F)+1;
+			this.minSectionX = SectionPos.blockToSectionCoord(Mth.floor(center.x)-radius);
+			this.minSectionY = SectionPos.blockToSectionCoord(Mth.floor(center.y)-radius);
+			this.minSectionZ = SectionPos.blockToSectionCoord(Mth.floor(center.z)-radius);
+			this.sectionsX = SectionPos.blockToSectionCoord(Mth.floor(center.x)+radius)-minSectionX+1;
+			this.sectionsY = SectionPos.blockToSectionCoord(Mth.floor(center.y)+radius)-minSectionY+1;
+			this.sectionsZ = SectionPos.blockToSectionCoord(Mth.floor(center.z)+radius)-minSectionZ+1;
+			this.sections = new PalettedContainer[sectionsX*sectionsY*sectionsZ];
+			this.resistance.defaultReturnValue(-1);
+			Entity source = explosion.getDirectSourceEntity();
+			for(int x = 0; x < sectionsX; ++x)
+				for(int z = 0; z < sectionsZ; ++z)
+				{
+					ChunkAccess chunk = world.getChunk(minSectionX+x, minSectionZ+z);
+					for(int y = 0; y < sectionsY; ++y)
+					{
+						int index = chunk.getSectionIndexFromSectionY(minSectionY+y);
+						if(index < 0||index >= chunk.getSectionsCount()||chunk.getSection(index).hasOnlyAir())
+							continue;
+						PalettedContainer<BlockState> states = chunk.getSection(index).getStates().copy();
+						sections[(x*sectionsY+y)*sectionsZ+z] = states;
+						BlockPos origin = SectionPos.of(minSectionX+x, minSectionY+y, minSectionZ+z).origin();
+						// Visits all states in the palette. The global palette used by sections with many different states
+						// can not be visited, so the states of those sections are visited one by one instead
+						if(states.maybeHas(state -> {
+							addResistance(world, explosion, source, origin, state);
+							return false;
+						}))
+							states.getAll(state -> addResistance(world, explosion, source, origin, state));
+					}
+				}
+		}
+
+		private void addResistance(Level world, Explosion explosion, @Nullable Entity source, BlockPos pos, BlockState state)
+		{
+			if(resistance.containsKey(state))
+				return;
+			FluidState fluid = state.getFluidState();
+			float value = -1;
+			if(!state.isAir()||!fluid.isEmpty())
+			{
+				value = Math.max(state.getExplosionResistance(world, pos, explosion), fluid.getExplosionResistance(world, pos, explosion));
+				if(source!=null)
+					value = source.getBlockExplosionResistance(explosion, world, pos, state, fluid, value);
+			}
+			resistance.put(state, value);
+		}
+
+		private float getResistance(int x, int y, int z)
+		{
+			int sectionX = SectionPos.blockToSectionCoord(x)-minSectionX;
+			int sectionY = SectionPos.blockToSectionCoord(y)-minSectionY;
+			int sectionZ = SectionPos.blockToSectionCoord(z)-minSectionZ;
+			if(sectionX < 0||sectionY < 0||sectionZ < 0||sectionX >= sectionsX||sectionY >= sectionsY||sectionZ >= sectionsZ)
+				return -1;
+			PalettedContainer<BlockState> states = sections[(sectionX*sectionsY+sectionY)*sectionsZ+sectionZ];
+			if(states==null)
+				return -1;
+			return resistance.getFloat(states.get(x&15, y&15, z&15));
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util;
+
+import blusunrize.immersiveengineering.common.config.IEServerConfig;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.neoforge.event.TickEvent.LevelTickEvent;
+import net.neoforged.neoforge.event.TickEvent.Phase;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Runs tasks deferred to the next tick of a level, at the start of that tick. High priority tasks always run in the
+ * next tick, other tasks only run while the time spent on tasks in this tick is below the configured budget and are
+ * otherwise delayed to later ticks. Time not used in one tick can be used in the next one, and time spent over the
+ * budget is taken from the next tick.
+ * <br>
+ * Tasks for a position can be scheduled with a kind, in which case scheduling the same kind of task for the same
+ * position again replaces the pending task instead of queueing a second one.
+ */
+@EventBusSubscriber
+public class LevelTaskScheduler
+{
+	private static final Map<Level, LevelTaskScheduler> SCHEDULERS = new WeakHashMap<>();
+
+	private final EnumMap<Priority, ArrayDeque<Task>> queues = new EnumMap<>(Priority.class);
+	private final Map<TaskKey, Task> byKey = new HashMap<>();
+	// Tasks scheduled while tasks are running are delayed to the next tick, like all other tasks
+	private int currentPass = 0;
+	private long nextSequence = 0;
+	private long carriedNanos = 0;
+	private final Stats stats = new Stats();
+
+	private LevelTaskScheduler()
+	{
+		for(Priority priority : Priority.values())
+			queues.put(priority, new ArrayDeque<>());
+	}
+
+	public static void schedule(ServerLevel level, Runnable task)
+	{
+		schedule(level, Priority.NORMAL, task);
+	}
+
+	public static void schedule(ServerLevel level, Priority priority, Runnable task)
+	{
+		get(level).add(priority, null, task);
+	}
+
+	/**
+	 * Schedules a task for the given position, replacing any pending task of the same kind for that position. The
+	 * replaced task keeps its place in the queue, but its priority is raised if the new task has a higher priority.
+	 *
+	 * @param kind identifies what the task does, e.g. a string or the class of the scheduling block entity
+	 */
+	public static void schedule(ServerLevel level, Priority priority, BlockPos pos, Object kind, Runnable task)
+	{
+		get(level).add(priority, new TaskKey(pos.asLong(), kind), task);
+	}
+
+	@Nullable
+	public static Stats getStats(ServerLevel level)
+	{
+		LevelTaskScheduler scheduler = SCHEDULERS.get(level);
+		return scheduler!=null?scheduler.stats.copy(scheduler): null;
+	}
+
+	public static void resetStats(ServerLevel level)
+	{
+		LevelTaskScheduler scheduler = SCHEDULERS.get(level);
+		if(scheduler!=null)
+			scheduler.stats.reset();
+	}
+
+	private static LevelTaskScheduler get(ServerLevel level)
+	{
+		return SCHEDULERS.computeIfAbsent(level, $ -> new LevelTaskScheduler());
+	}
+
+	@SubscribeEvent
+	public static void onLevelTick(LevelTickEvent ev)
+	{
+		if(ev.phase!=Phase.START||!(ev.level instanceof ServerLevel level))
+			return;
+		LevelTaskScheduler scheduler = SCHEDULERS.get(level);
+		if(scheduler!=null)
+			scheduler.runTasks();
+	}
+
+	@SubscribeEvent
+	public static void onLevelUnload(LevelEvent.Unload ev)
+	{
+		SCHEDULERS.remove(ev.getLevel());
+	}
+
+	private void add(Priority priority, @Nullable TaskKey key, Runnable runnable)
+	{
+		if(key!=null)
+		{
+			Task existing = byKey.get(key);
+			if(existing!=null)
+			{
+				existing.runnable = runnable;
+				++stats.coalesced;
+				if(priority.ordinal() < existing.priority.ordinal())
+				{
+					queues.get(existing.priority).remove(existing);
+					existing.priority = priority;
+					insertInOrder(queues.get(priority), existing);
+				}
+				return;
+			}
+		}
+		Task task = new Task(runnable, priority, key, currentPass, nextSequence++);
+		if(key!=null)
+			byKey.put(key, task);
+		queues.get(priority).add(task);
+		++stats.scheduled;
+		stats.maxQueued = Math.max(stats.maxQueued, getQueued());
+	}
+
+	/**
+	 * Inserts a task with raised priority behind all tasks of that priority that were scheduled before it
+	 */
+	private static void insertInOrder(ArrayDeque<Task> queue, Task task)
+	{
+		ArrayDeque<Task> later = new ArrayDeque<>();
+		while(!queue.isEmpty()&&queue.peekLast().sequence > task.sequence)
+			later.addFirst(queue.pollLast());
+		queue.addLast(task);
+		queue.addAll(later);
+	}
+
+	private void runTasks()
+	{
+		final int pass = currentPass++;
+		final long budget = IEServerConfig.MACHINES.tasks_tickBudget.get()*1_000_000L;
+		final long start = System.nanoTime();
+		final long deadline = start+budget+carriedNanos;
+		boolean delayed = false;
+		for(Priority priority : Priority.values())
+		{
+			ArrayDeque<Task> queue = queues.get(priority);
+			while(!queue.isEmpty()&&queue.peekFirst().pass <= pass)
+			{
+				if(priority!=Priority.HIGH&&System.nanoTime() >= deadline)
+				{
+					delayed = true;
+					break;
+				}
+				Task task = queue.pollFirst();
+				if(task.key!=null)
+					byKey.remove(task.key);
+				task.runnable.run();
+				++stats.run;
+			}
+		}
+		if(delayed)
+			++stats.delayedTicks;
+		final long end = System.nanoTime();
+		stats.totalNanos += end-start;
+		stats.lastTickNanos = end-start;
+		// Both unused time and overruns are only carried over to the next tick, so a single slow tick does not stop
+		// normal tasks from running for many ticks
+		carriedNanos = Math.max(-budget, Math.min(deadline-end, budget));
+	}
+
+	private int getQueued()
+	{
+		int queued = 0;
+		for(ArrayDeque<Task> queue : queues.values())
+			queued += queue.size();
+		return queued;
+	}
+
+	public enum Priority
+	{
+		// Tasks that need to run in the next tick, regardless of the time budget
+		HIGH,
+		NORMAL,
+		LOW
+	}
+
+	private static class Task
+	{
+		private Runnable runnable;
+		private Priority priority;
+		@Nullable
+		private final TaskKey key;
+		private final int pass;
+		private final long sequence;
+
+		private Task(Runnable runnable, Priority priority, @Nullable TaskKey key, int pass, long sequence)
+		{
+			this.runnable = runnable;
+			this.priority = priority;
+			this.key = key;
+			this.pass = pass;
+			this.sequence = sequence;
+		}
+	}
+
+	private record TaskKey(long pos, Object kind)
+	{
+	}
+
+	public static class Stats
+	{
+		private int queued;
+		private long scheduled;
+		private long coalesced;
+		private long run;
+		private long delayedTicks;
+		private int maxQueued;
+		private long totalNanos;
+		private long lastTickNanos;
+
+		private Stats copy(LevelTaskScheduler scheduler)
+		{
+			Stats copy = new Stats();
+			copy.queued = scheduler.getQueued();
+			copy.scheduled = scheduled;
+			copy.coalesced = coalesced;
+			copy.run = run;
+			copy.delayedTicks = delayedTicks;
+			copy.maxQueued = maxQueued;
+			copy.totalNanos = totalNanos;
+			copy.lastTickNanos = lastTickNanos;
+			return copy;
+		}
+
+		private void reset()
+		{
+			scheduled = coalesced = run = delayedTicks = totalNanos = lastTickNanos = 0;
+			maxQueued = 0;
+		}
+
+		public int getQueued()
+		{
+			return queued;
+		}
+
+		public long getScheduled()
+		{
+			return scheduled;
+		}
+
+		/**
+		 * @return the number of tasks that replaced a pending task for the same position
+		 */
+		public long getCoalesced()
+		{
+			return coalesced;
+		}
+
+		public long getRun()
+		{
+			return run;
+		}
+
+		/**
+		 * @return the number of ticks in which tasks were delayed because the time budget was used up
+		 */
+		public long getDelayedTicks()
+		{
+			return delayedTicks;
+		}
+
+		public int getMaxQueued()
+		{
+			return maxQueued;
+		}
+
+		public double getTotalMillis()
+		{
+			return totalNanos/1e6;
+		}
+
+		public double getLastTickMillis()
+		{
+			return lastTickNanos/1e6;
+		}
+	}
+}
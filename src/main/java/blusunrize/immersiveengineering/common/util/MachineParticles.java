@@ -0,0 +1,142 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util;
+
+import blusunrize.immersiveengineering.common.config.IEServerConfig;
+import blusunrize.immersiveengineering.common.network.MessageMachineParticles;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.particles.ParticleOptions;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.neoforge.event.TickEvent.LevelTickEvent;
+import net.neoforged.neoforge.event.TickEvent.Phase;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Central emitter for the particles of machines. Unlike {@link ServerLevel#sendParticles}, which sends one packet per
+ * call to every player in range, emissions are collected over a tick and sent as a single packet per player at the
+ * end of the tick. Machines emitting particles every tick are throttled to the configured interval, and emissions are
+ * only sent to players within the configured distance.
+ */
+@EventBusSubscriber
+public class MachineParticles
+{
+	private static final Map<Level, Pending> PENDING = new WeakHashMap<>();
+	private static final long NEVER = Long.MIN_VALUE;
+
+	/**
+	 * Queues particles for the given machine, using the same parameters as {@link ServerLevel#sendParticles}. All
+	 * emissions of a machine in the tick it first emits are kept, after that further emissions are dropped until the
+	 * interval configured in {@link IEServerConfig.Machines#machineParticles_interval} has passed.
+	 *
+	 * @param machine the position identifying the emitting machine, e.g. the master block of a multiblock
+	 */
+	public static void emit(
+			Level level, BlockPos machine, ParticleOptions particle, Vec3 pos,
+			int count, double dx, double dy, double dz, double speed
+	)
+	{
+		if(!(level instanceof ServerLevel)||!IEServerConfig.MACHINES.machineParticles.get())
+			return;
+		Pending pending = PENDING.computeIfAbsent(level, $ -> new Pending());
+		long gameTime = level.getGameTime();
+		long lastEmission = pending.lastEmission.get(machine.asLong());
+		if(lastEmission!=gameTime)
+		{
+			if(lastEmission!=NEVER&&gameTime-lastEmission < IEServerConfig.MACHINES.machineParticles_interval.get())
+				return;
+			pending.lastEmission.put(machine.asLong(), gameTime);
+		}
+		pending.emissions.add(new Emission(
+				particle, pos.x, pos.y, pos.z, count, (float)dx, (float)dy, (float)dz, (float)speed
+		));
+	}
+
+	@SubscribeEvent
+	public static void onLevelTick(LevelTickEvent ev)
+	{
+		if(ev.phase!=Phase.END||!(ev.level instanceof ServerLevel level))
+			return;
+		Pending pending = PENDING.get(level);
+		if(pending==null)
+			return;
+		if(!pending.emissions.isEmpty())
+		{
+			send(level, pending.emissions);
+			pending.emissions.clear();
+		}
+		long gameTime = level.getGameTime();
+		if(gameTime%200==0)
+		{
+			int interval = IEServerConfig.MACHINES.machineParticles_interval.get();
+			pending.lastEmission.values().removeIf(last -> gameTime-last > interval);
+		}
+	}
+
+	/**
+	 * Immediately sends the given emissions to all players within the configured distance, without rate limiting. Used
+	 * for one-off effects that are not machines, e.g. explosions.
+	 */
+	public static void send(ServerLevel level, List<Emission> emissions)
+	{
+		double maxDistanceSq = IEServerConfig.MACHINES.machineParticles_distance.get();
+		maxDistanceSq *= maxDistanceSq;
+		MessageMachineParticles allEmissions = null;
+		for(ServerPlayer player : level.players())
+		{
+			List<Emission> visible = null;
+			for(int i = 0; i < emissions.size(); ++i)
+			{
+				Emission emission = emissions.get(i);
+				boolean inRange = player.distanceToSqr(emission.x, emission.y, emission.z) <= maxDistanceSq;
+				if(inRange&&visible!=null)
+					visible.add(emission);
+				else if(!inRange&&visible==null)
+					visible = new ArrayList<>(emissions.subList(0, i));
+			}
+			if(visible==null)
+			{
+				// Most players are either near all machines or near none of them, those share one message
+				if(allEmissions==null)
+					allEmissions = new MessageMachineParticles(List.copyOf(emissions));
+				PacketDistributor.PLAYER.with(player).send(allEmissions);
+			}
+			else if(!visible.isEmpty())
+				PacketDistributor.PLAYER.with(player).send(new MessageMachineParticles(visible));
+		}
+	}
+
+	public record Emission(
+			ParticleOptions particle, double x, double y, double z, int count, float dx, float dy, float dz, float speed
+	)
+	{
+	}
+
+	private static class Pending
+	{
+		private final List<Emission> emissions = new ArrayList<>();
+		private final Long2LongMap lastEmission = new Long2LongOpenHashMap();
+
+		private Pending()
+		{
+			lastEmission.defaultReturnValue(NEVER);
+		}
+	}
+}
@@ -10,10 +10,13 @@ package blusunrize.immersiveengineering.common.util.commands;
 
 import blusunrize.immersiveengineering.ImmersiveEngineering;
 import blusunrize.immersiveengineering.api.Lib;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry.StatsSnapshot;
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.neoforge.client.event.RegisterClientCommandsEvent;
 import net.neoforged.bus.api.SubscribeEvent;
@@ -27,7 +30,8 @@ public class ClientCommands
 	{
 		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("cie");
 		main.then(createResetRender())
-				.then(createResetManual());
+				.then(createResetManual())
+				.then(createRenderCaches());
 		ev.getDispatcher().register(main);
 	}
 
@@ -50,4 +54,30 @@ public class ClientCommands
 		});
 		return ret;
 	}
+
+	public static LiteralArgumentBuilder<CommandSourceStack> createRenderCaches()
+	{
+		LiteralArgumentBuilder<CommandSourceStack> ret = Commands.literal("rendercaches");
+		ret.executes(context -> {
+			CommandSourceStack source = context.getSource();
+			RenderCacheRegistry registry = RenderCacheRegistry.INSTANCE;
+			source.sendSuccess(() -> Component.translatable(
+					Lib.CHAT_COMMAND+"rendercaches.total",
+					String.format("%.1f", registry.getTotalWeight()/(1024.*1024.)), registry.getBudget()/(1024*1024)
+			), false);
+			for(StatsSnapshot stats : registry.getStats())
+				source.sendSuccess(() -> Component.translatable(
+						Lib.CHAT_COMMAND+"rendercaches.stats",
+						stats.name(), stats.entries(), stats.weight()/1024,
+						String.format("%.1f", 100*stats.hitRate()), stats.hits(), stats.misses(), stats.evictions()
+				), false);
+			return Command.SINGLE_SUCCESS;
+		});
+		ret.then(Commands.literal("reset").executes(context -> {
+			RenderCacheRegistry.INSTANCE.resetStats();
+			context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"rendercaches.reset"), false);
+			return Command.SINGLE_SUCCESS;
+		}));
+		return ret;
+	}
 }
@@ -20,7 +20,11 @@ public class CommandHandler
 		//TODO do all subcommands have proper permission requirements?
 		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("ie");
 		main.then(CommandMineral.create())
-				.then(CommandShaders.create());
+				.then(CommandShaders.create())
+				.then(CommandSorters.create())
+				.then(CommandRetrogen.create())
+				.then(CommandTasks.create())
+				.then(CommandRejectedInputs.create());
 		dispatcher.register(main);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util.commands;
+
+import blusunrize.immersiveengineering.api.Lib;
+import blusunrize.immersiveengineering.api.crafting.CrusherRecipe;
+import blusunrize.immersiveengineering.api.crafting.FermenterRecipe;
+import blusunrize.immersiveengineering.api.crafting.SawmillRecipe;
+import blusunrize.immersiveengineering.api.crafting.SqueezerRecipe;
+import blusunrize.immersiveengineering.api.crafting.cache.RejectedInputCache;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.Map;
+
+public class CommandRejectedInputs
+{
+	private static final Map<String, RejectedInputCache> CACHES = Map.of(
+			"crusher", CrusherRecipe.REJECTED_INPUTS,
+			"fermenter", FermenterRecipe.REJECTED_INPUTS,
+			"sawmill", SawmillRecipe.REJECTED_INPUTS,
+			"squeezer", SqueezerRecipe.REJECTED_INPUTS
+	);
+
+	public static LiteralArgumentBuilder<CommandSourceStack> create()
+	{
+		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("rejected_inputs");
+		main.requires(source -> source.hasPermission(2));
+		main.then(Commands.literal("stats").executes(CommandRejectedInputs::printStats));
+		main.then(Commands.literal("reset").executes(context -> {
+			CACHES.values().forEach(RejectedInputCache::resetStats);
+			context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"rejected_inputs.reset"), true);
+			return Command.SINGLE_SUCCESS;
+		}));
+		return main;
+	}
+
+	private static int printStats(CommandContext<CommandSourceStack> context)
+	{
+		CommandSourceStack source = context.getSource();
+		CACHES.keySet().stream().sorted().forEach(name -> {
+			RejectedInputCache cache = CACHES.get(name);
+			long hits = cache.getHits();
+			long lookups = hits+cache.getMisses();
+			source.sendSuccess(() -> Component.translatable(
+					Lib.CHAT_COMMAND+"rejected_inputs.stats",
+					name, cache.getSize(), hits, lookups,
+					String.format("%.1f", lookups > 0?100*hits/(double)lookups: 0)
+			), false);
+		});
+		return Command.SINGLE_SUCCESS;
+	}
+}
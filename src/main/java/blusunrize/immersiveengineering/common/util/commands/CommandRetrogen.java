@@ -0,0 +1,70 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util.commands;
+
+import blusunrize.immersiveengineering.api.Lib;
+import blusunrize.immersiveengineering.common.world.OreRetrogen;
+import blusunrize.immersiveengineering.common.world.OreRetrogen.Status;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.coordinates.ColumnPosArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ColumnPos;
+import net.minecraft.server.level.ServerLevel;
+
+public class CommandRetrogen
+{
+	public static LiteralArgumentBuilder<CommandSourceStack> create()
+	{
+		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("retrogen");
+		main.requires(source -> source.hasPermission(2));
+		main.then(Commands.literal("status").executes(CommandRetrogen::printStatus));
+		main.then(Commands.literal("scan").then(
+				Commands.argument("from", ColumnPosArgument.columnPos()).then(
+						Commands.argument("to", ColumnPosArgument.columnPos()).executes(CommandRetrogen::scan)
+				)
+		));
+		main.then(Commands.literal("cancel").executes(context -> {
+			OreRetrogen.cancelScan(context.getSource().getLevel());
+			context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"retrogen.cancel"), true);
+			return Command.SINGLE_SUCCESS;
+		}));
+		return main;
+	}
+
+	private static int printStatus(CommandContext<CommandSourceStack> context)
+	{
+		CommandSourceStack source = context.getSource();
+		ServerLevel level = source.getLevel();
+		Status status = OreRetrogen.getStatus(level);
+		if(!OreRetrogen.isAnyEnabled())
+			source.sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"retrogen.disabled"), false);
+		source.sendSuccess(() -> Component.translatable(
+				Lib.CHAT_COMMAND+"retrogen.status",
+				level.dimension().location().toString(),
+				status.pending(), status.scanQueued(), status.flagged(), status.generated(), status.scanned()
+		), false);
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int scan(CommandContext<CommandSourceStack> context)
+	{
+		CommandSourceStack source = context.getSource();
+		ColumnPos from = ColumnPosArgument.getColumnPos(context, "from");
+		ColumnPos to = ColumnPosArgument.getColumnPos(context, "to");
+		if(!OreRetrogen.isAnyEnabled())
+			source.sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"retrogen.disabled"), false);
+		int added = OreRetrogen.scan(source.getLevel(), from.toChunkPos(), to.toChunkPos());
+		source.sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"retrogen.scan", added), true);
+		return Command.SINGLE_SUCCESS;
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util.commands;
+
+import blusunrize.immersiveengineering.api.Lib;
+import blusunrize.immersiveengineering.common.blocks.wooden.SorterRoutingContext;
+import blusunrize.immersiveengineering.common.blocks.wooden.SorterRoutingContext.ChainStats;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+
+import java.util.List;
+
+public class CommandSorters
+{
+	public static LiteralArgumentBuilder<CommandSourceStack> create()
+	{
+		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("sorters");
+		main.requires(source -> source.hasPermission(2));
+		main.then(Commands.literal("stats")
+				.executes(context -> printStats(context, 10))
+				.then(Commands.argument("count", IntegerArgumentType.integer(1)).executes(
+						context -> printStats(context, IntegerArgumentType.getInteger(context, "count"))
+				)));
+		main.then(Commands.literal("start").executes(context -> setRecording(context, true)));
+		main.then(Commands.literal("stop").executes(context -> setRecording(context, false)));
+		main.then(Commands.literal("reset").executes(context -> {
+			SorterRoutingContext.resetStats();
+			context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"sorters.reset"), true);
+			return Command.SINGLE_SUCCESS;
+		}));
+		return main;
+	}
+
+	private static int setRecording(CommandContext<CommandSourceStack> context, boolean recording)
+	{
+		SorterRoutingContext.setRecording(recording);
+		String key = recording?"sorters.start": "sorters.stop";
+		context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+key), true);
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int printStats(CommandContext<CommandSourceStack> context, int count)
+	{
+		List<ChainStats> stats = SorterRoutingContext.getStats(count);
+		CommandSourceStack source = context.getSource();
+		if(stats.isEmpty())
+			source.sendSuccess(() -> Component.translatable(
+					Lib.CHAT_COMMAND+(SorterRoutingContext.isRecording()?"sorters.stats.none": "sorters.stats.not_recording")
+			), false);
+		for(ChainStats chain : stats)
+		{
+			BlockPos pos = chain.getOrigin().pos();
+			source.sendSuccess(() -> Component.translatable(
+					Lib.CHAT_COMMAND+"sorters.stats",
+					pos.getX(), pos.getY(), pos.getZ(), chain.getOrigin().dimension().location().toString(),
+					chain.getOperations(),
+					String.format("%.1f", chain.getAverageSorters()),
+					chain.getMaxDepth(),
+					chain.getRevisits()
+			), false);
+		}
+		return Command.SINGLE_SUCCESS;
+	}
+}
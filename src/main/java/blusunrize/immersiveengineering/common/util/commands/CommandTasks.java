@@ -0,0 +1,61 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.util.commands;
+
+import blusunrize.immersiveengineering.api.Lib;
+import blusunrize.immersiveengineering.common.util.LevelTaskScheduler;
+import blusunrize.immersiveengineering.common.util.LevelTaskScheduler.Stats;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+
+public class CommandTasks
+{
+	public static LiteralArgumentBuilder<CommandSourceStack> create()
+	{
+		LiteralArgumentBuilder<CommandSourceStack> main = Commands.literal("tasks");
+		main.requires(source -> source.hasPermission(2));
+		main.then(Commands.literal("stats").executes(CommandTasks::printStats));
+		main.then(Commands.literal("reset").executes(context -> {
+			for(ServerLevel level : context.getSource().getServer().getAllLevels())
+				LevelTaskScheduler.resetStats(level);
+			context.getSource().sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"tasks.reset"), true);
+			return Command.SINGLE_SUCCESS;
+		}));
+		return main;
+	}
+
+	private static int printStats(CommandContext<CommandSourceStack> context)
+	{
+		CommandSourceStack source = context.getSource();
+		boolean any = false;
+		for(ServerLevel level : source.getServer().getAllLevels())
+		{
+			Stats stats = LevelTaskScheduler.getStats(level);
+			if(stats==null)
+				continue;
+			any = true;
+			source.sendSuccess(() -> Component.translatable(
+					Lib.CHAT_COMMAND+"tasks.stats",
+					level.dimension().location().toString(),
+					stats.getQueued(), stats.getMaxQueued(),
+					stats.getRun(), stats.getScheduled(), stats.getCoalesced(),
+					String.format("%.1f", stats.getTotalMillis()), String.format("%.2f", stats.getLastTickMillis()),
+					stats.getDelayedTicks()
+			), false);
+		}
+		if(!any)
+			source.sendSuccess(() -> Component.translatable(Lib.CHAT_COMMAND+"tasks.stats.none"), false);
+		return Command.SINGLE_SUCCESS;
+	}
+}
@@ -33,6 +33,7 @@ public class PeripheralCreator<T extends BlockEntity>
 	public PeripheralCreator(CallbackOwner<T> owner) throws IllegalAccessException
 	{
 		this.methods = ComputerCallback.getInClass(owner, CCLuaTypeConverter.INSTANCE, Function.identity());
+		ComputerCallback.addStatusCallback(this.methods);
 		this.methodNames = this.methods.stream()
 				.map(ComputerCallback::getName)
 				.toArray(String[]::new);
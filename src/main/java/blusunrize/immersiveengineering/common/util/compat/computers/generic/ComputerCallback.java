@@ -13,17 +13,23 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Primitives;
 
+import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.function.Function;
 
 public class ComputerCallback<T>
 {
+	public static final String STATUS_CALLBACK = "getStatus";
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
 	private final List<ArgumentType> userArguments;
 	private final Function<Object, Object[]> wrapReturnValue;
+	// Takes all arguments (including the environment) as an array, so it can be called with invokeExact
 	private final MethodHandle caller;
 	private final String name;
 	private final boolean isAsync;
@@ -35,7 +41,8 @@ public class ComputerCallback<T>
 	) throws IllegalAccessException
 	{
 		this.remapOwner = remapOwner;
-		this.caller = MethodHandles.lookup().unreflect(method).bindTo(owner);
+		MethodHandle boundCaller = MethodHandles.lookup().unreflect(method).bindTo(owner);
+		this.caller = boundCaller.asSpreader(Object[].class, boundCaller.type().parameterCount()).asType(INVOKER_TYPE);
 		Function<Object, Object[]> wrapResult;
 		Class<?> actualReturnType = method.getReturnType();
 		if(actualReturnType!=EventWaiterResult.class)
@@ -61,6 +68,17 @@ public class ComputerCallback<T>
 		this.userArguments = ImmutableList.copyOf(userArguments);
 	}
 
+	private ComputerCallback(String name, Class<?> luaReturnType)
+	{
+		this.userArguments = ImmutableList.of();
+		this.wrapReturnValue = o -> new Object[]{o};
+		this.caller = null;
+		this.name = name;
+		this.isAsync = false;
+		this.luaReturnType = luaReturnType;
+		this.remapOwner = Function.identity();
+	}
+
 	public String getName()
 	{
 		return name;
@@ -84,6 +102,46 @@ public class ComputerCallback<T>
 		return callbacks;
 	}
 
+	/**
+	 * Adds a callback returning the values of all getters without arguments in a single table, so scripts polling
+	 * the state of a machine only need one call instead of one per value
+	 */
+	public static <T>
+	void addStatusCallback(List<ComputerCallback<? super T>> callbacks)
+	{
+		Map<String, ComputerCallback<? super T>> getters = new LinkedHashMap<>();
+		for(ComputerCallback<? super T> callback : callbacks)
+		{
+			if(callback.getName().equals(STATUS_CALLBACK))
+				return;
+			if(callback.isAsync()||!callback.getUserArguments().isEmpty()||callback.getLuaReturnType()==void.class)
+				continue;
+			String key = getStatusKey(callback.getName());
+			if(key==null)
+				continue;
+			ComputerCallback<? super T> previous = getters.put(key, callback);
+			if(previous!=null)
+				throw new RuntimeException(
+						"Getters "+previous.getName()+" and "+callback.getName()+" both map to status key "+key
+				);
+		}
+		if(!getters.isEmpty())
+			callbacks.add(new StatusCallback<>(getters));
+	}
+
+	/**
+	 * @return the key of the value returned by the given getter in the status table, e.g. "energy" for "getEnergy", or
+	 * null if the name is not a getter name
+	 */
+	@Nullable
+	private static String getStatusKey(String name)
+	{
+		for(String prefix : new String[]{"get", "is"})
+			if(name.length() > prefix.length()&&name.startsWith(prefix)&&Character.isUpperCase(name.charAt(prefix.length())))
+				return Character.toLowerCase(name.charAt(prefix.length()))+name.substring(prefix.length()+1);
+		return null;
+	}
+
 	public Class<?> getLuaReturnType()
 	{
 		return luaReturnType;
@@ -109,7 +167,7 @@ public class ComputerCallback<T>
 			ArgumentType expectedType = this.userArguments.get(i);
 			realArguments[realIndex] = expectedType.transform(arguments[i]);
 		}
-		return wrapReturnValue.apply(caller.invokeWithArguments(realArguments));
+		return wrapReturnValue.apply((Object)caller.invokeExact(realArguments));
 	}
 
 	public boolean isAsync()
@@ -135,6 +193,38 @@ public class ComputerCallback<T>
 			return fromLua;
 	}
 
+	private static class StatusCallback<T> extends ComputerCallback<T>
+	{
+		private static final Object[] NO_ARGUMENTS = new Object[0];
+		private final List<ComputerCallback<? super T>> getters;
+		private final String[] keys;
+
+		private StatusCallback(Map<String, ComputerCallback<? super T>> getters)
+		{
+			super(STATUS_CALLBACK, Map.class);
+			this.getters = ImmutableList.copyOf(getters.values());
+			this.keys = getters.keySet().toArray(new String[0]);
+		}
+
+		@Override
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		public Object[] invoke(Object[] arguments, CallbackEnvironment<T> env) throws Throwable
+		{
+			if(arguments.length!=0)
+				throw new RuntimeException("Unexpected number of arguments: Expected 0, got "+arguments.length);
+			Map<String, Object> status = new HashMap<>();
+			for(int i = 0; i < getters.size(); ++i)
+			{
+				Object[] result = getters.get(i).invoke(NO_ARGUMENTS, (CallbackEnvironment)env);
+				if(result.length==1)
+					status.put(keys[i], result[0]);
+				else
+					status.put(keys[i], Arrays.asList(result));
+			}
+			return new Object[]{status};
+		}
+	}
+
 	public static class ArgumentType
 	{
 		private final Class<?> type;
@@ -13,6 +13,7 @@ import blusunrize.immersiveengineering.api.ApiUtils;
 import blusunrize.immersiveengineering.api.wires.*;
 import blusunrize.immersiveengineering.common.network.MessageWireSync;
 import blusunrize.immersiveengineering.common.network.MessageWireSync.Operation;
+import blusunrize.immersiveengineering.common.network.MessageWireSync.SyncedConnection;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 import net.minecraft.server.level.ServerChunkCache;
@@ -22,18 +23,23 @@ import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.neoforge.event.TickEvent.Phase;
+import net.neoforged.neoforge.event.TickEvent.ServerTickEvent;
 import net.neoforged.neoforge.event.level.ChunkWatchEvent;
 import net.neoforged.neoforge.network.PacketDistributor;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.Map.Entry;
 
 @EventBusSubscriber(modid = ImmersiveEngineering.MODID)
 public class WireSyncManager implements IWireSyncManager
 {
+	// Keep sync messages well below the maximum packet size
+	private static final int MAX_CONNECTIONS_PER_MESSAGE = 4096;
 	private static final SetMultimap<UUID, ChunkPos> wireWatchedChunksByPlayer = HashMultimap.create();
+	// Connections to sync at the end of the current tick, keyed by their endpoints
+	private static final Map<ServerPlayer, Map<WireEnds, SyncedConnection>> pendingSyncs = new LinkedHashMap<>();
 
 	private static void sendMessagesForChunk(Level w, ChunkPos pos, ServerPlayer player, boolean add)
 	{
@@ -44,11 +50,54 @@ public class WireSyncManager implements IWireSyncManager
 			for(Connection conn : net.getLocalNet(cp).getConnections(cp))
 				if(shouldSendConnection(conn, pos, player, add, cp))
 				{
-					WireLogger.logger.info("Sending connection {} ({}) for chunk change at {}", conn, add, pos);
-					PacketDistributor.PLAYER.with(player).send(new MessageWireSync(conn, operation));
+					WireLogger.logger.debug("Sending connection {} ({}) for chunk change at {}", conn, add, pos);
+					queueSync(player, conn, operation);
 				}
 	}
 
+	private static void queueSync(ServerPlayer player, Connection conn, Operation operation)
+	{
+		pendingSyncs.computeIfAbsent(player, p -> new LinkedHashMap<>()).merge(
+				new WireEnds(conn.getEndA(), conn.getEndB()),
+				new SyncedConnection(conn, operation),
+				WireSyncManager::combine
+		);
+	}
+
+	/**
+	 * Combines two syncs for the same connection into one sync with the same effect on the client
+	 * @return the combined sync, or null if the syncs cancel out
+	 */
+	@Nullable
+	private static SyncedConnection combine(SyncedConnection first, SyncedConnection second)
+	{
+		final boolean addedFirst = first.operation()==Operation.ADD;
+		if(second.operation()==Operation.REMOVE)
+			return addedFirst?null: second;
+		// UPDATE is processed as removal followed by addition
+		return second.withOperation(addedFirst?Operation.ADD: Operation.UPDATE);
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(ServerTickEvent ev)
+	{
+		if(ev.phase!=Phase.END||pendingSyncs.isEmpty())
+			return;
+		for(Entry<ServerPlayer, Map<WireEnds, SyncedConnection>> entry : pendingSyncs.entrySet())
+		{
+			ServerPlayer player = entry.getKey();
+			if(player.hasDisconnected())
+				continue;
+			List<SyncedConnection> toSync = new ArrayList<>(entry.getValue().values());
+			for(int start = 0; start < toSync.size(); start += MAX_CONNECTIONS_PER_MESSAGE)
+			{
+				int end = Math.min(start+MAX_CONNECTIONS_PER_MESSAGE, toSync.size());
+				PacketDistributor.PLAYER.with(player).send(new MessageWireSync(List.copyOf(toSync.subList(start, end))));
+			}
+		}
+		pendingSyncs.clear();
+	}
+
 	private static boolean shouldSendConnection(Connection conn, ChunkPos pos, ServerPlayer player, boolean add,
 												ConnectionPoint currEnd)
 	{
@@ -80,9 +129,8 @@ public class WireSyncManager implements IWireSyncManager
 			Set<ServerPlayer> targets = new HashSet<>();
 			addPlayersTrackingPoint(targets, connection.getEndA().getX(), connection.getEndA().getZ(), serverLevel);
 			addPlayersTrackingPoint(targets, connection.getEndB().getX(), connection.getEndB().getZ(), serverLevel);
-			MessageWireSync msg = new MessageWireSync(connection, operation);
 			for(ServerPlayer p : targets)
-				PacketDistributor.PLAYER.with(p).send(msg);
+				queueSync(p, connection, operation);
 		}, true);
 	}
 
@@ -106,6 +154,10 @@ public class WireSyncManager implements IWireSyncManager
 				}, true);
 	}
 
+	private record WireEnds(ConnectionPoint endA, ConnectionPoint endB)
+	{
+	}
+
 	private final Level world;
 
 	public WireSyncManager(Level world)
@@ -20,7 +20,6 @@ import net.neoforged.neoforge.registries.DeferredRegister;
 
 public class IEWorldGen
 {
-	// TODO make retrogen happen again
 	private static final DeferredRegister<Feature<?>> FEATURE_REGISTER = DeferredRegister.create(BuiltInRegistries.FEATURE, ImmersiveEngineering.MODID);
 	public static final DeferredHolder<Feature<?>, FeatureMineralVein> MINERAL_VEIN_FEATURE = FEATURE_REGISTER.register(
 			"mineral_vein", FeatureMineralVein::new
@@ -28,6 +27,9 @@ public class IEWorldGen
 	public static final DeferredHolder<Feature<?>, IEOreFeature> IE_CONFIG_ORE = FEATURE_REGISTER.register(
 			"ie_ore", IEOreFeature::new
 	);
+	public static final DeferredHolder<Feature<?>, OreRetrogenFeature> ORE_RETROGEN = FEATURE_REGISTER.register(
+			"ore_retrogen", OreRetrogenFeature::new
+	);
 
 	private static final DeferredRegister<PlacementModifierType<?>> PLACEMENT_REGISTER = DeferredRegister.create(
 			Registries.PLACEMENT_MODIFIER_TYPE, ImmersiveEngineering.MODID
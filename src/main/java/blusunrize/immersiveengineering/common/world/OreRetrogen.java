@@ -0,0 +1,425 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.world;
+
+import blusunrize.immersiveengineering.ImmersiveEngineering;
+import blusunrize.immersiveengineering.common.config.IEServerConfig;
+import blusunrize.immersiveengineering.common.config.IEServerConfig.Ores.VeinType;
+import blusunrize.immersiveengineering.common.util.IELogger;
+import blusunrize.immersiveengineering.common.world.IEOreFeature.IEOreFeatureConfig;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkStatus.ChunkType;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ChunkSerializer;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import net.minecraft.world.level.levelgen.feature.configurations.OreConfiguration;
+import net.minecraft.world.level.levelgen.placement.PlacedFeature;
+import net.minecraft.world.level.levelgen.placement.PlacementContext;
+import net.minecraft.world.level.levelgen.placement.PlacementModifier;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.saveddata.SavedData.Factory;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.Mod.EventBusSubscriber;
+import net.neoforged.neoforge.event.TickEvent.LevelTickEvent;
+import net.neoforged.neoforge.event.TickEvent.Phase;
+import net.neoforged.neoforge.event.level.ChunkDataEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Generates IE ores in chunks that were generated before the ores were added, or before the retrogen key in the config
+ * was changed. Chunks are marked with the key when they are saved, unless they are still waiting for retrogen. Loaded
+ * chunks without the current key are queued and processed once their neighbors are loaded, with the time spent per
+ * tick limited by {@link IEServerConfig.Ores#retrogen_tickBudget}. Since the key is only written after retrogen, chunks
+ * that were unloaded or not processed before a restart are queued again the next time they are loaded.
+ * <br>
+ * Regions can also be scanned ahead of time with {@link #scan}, which reads the chunks from disk and loads those that
+ * need retrogen. The scan queue is stored in the level data, so it resumes after restarts.
+ */
+@EventBusSubscriber
+public class OreRetrogen
+{
+	private static final String KEY_TAG = "immersiveengineering:retrogen";
+	private static final String SCAN_DATA_NAME = "ImmersiveEngineering-RetrogenScan";
+	private static final TicketType<ChunkPos> RETROGEN_TICKET = TicketType.create(
+			"immersiveengineering:retrogen", Comparator.comparingLong(ChunkPos::toLong)
+	);
+	// Chunks being read from disk or loaded for retrogen at the same time, per level
+	private static final int MAX_SCANS_IN_FLIGHT = 16;
+	private static final int LOG_INTERVAL = 600;
+	private static final int NOT_SCANNING = 0;
+	private static final int READING = 1;
+	private static final int LOADING = 2;
+
+	private static final Map<ResourceKey<Level>, LevelState> STATES = new HashMap<>();
+	private static int budgetTick = -1;
+	private static long budgetUsed = 0;
+
+	@SubscribeEvent
+	public static void onChunkLoad(ChunkDataEvent.Load ev)
+	{
+		if(!(ev.getChunk() instanceof LevelChunk chunk)||!(chunk.getLevel() instanceof ServerLevel level)||!isAnyEnabled())
+			return;
+		if(getKey().equals(ev.getData().getString(KEY_TAG)))
+			return;
+		ChunkPos pos = chunk.getPos();
+		LevelState state = getState(level);
+		if(state.pending.add(pos.toLong()))
+		{
+			++state.flagged;
+			if(IEServerConfig.ORES.retrogen_log_flagChunk.get())
+				IELogger.info("Chunk {} in {} was flagged for retrogen", pos, level.dimension().location());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onChunkSave(ChunkDataEvent.Save ev)
+	{
+		if(!(ev.getLevel() instanceof ServerLevel level))
+			return;
+		LevelState state = STATES.get(level.dimension());
+		if(state==null||!state.pending.contains(ev.getChunk().getPos().toLong()))
+			ev.getData().putString(KEY_TAG, getKey());
+	}
+
+	@SubscribeEvent
+	public static void onLevelTick(LevelTickEvent ev)
+	{
+		if(ev.phase!=Phase.END||!(ev.level instanceof ServerLevel level))
+			return;
+		LevelState state = STATES.get(level.dimension());
+		ScanQueue scan = getScanQueue(level);
+		if(state==null&&scan.isEmpty())
+			return;
+		if(state==null)
+			state = getState(level);
+		int tick = level.getServer().getTickCount();
+		if(tick!=budgetTick)
+		{
+			budgetTick = tick;
+			budgetUsed = 0;
+		}
+		long start = System.nanoTime();
+		long deadline = start+IEServerConfig.ORES.retrogen_tickBudget.get()*1_000_000L-budgetUsed;
+		state.process(level, scan, deadline);
+		state.sendChangedChunks(level);
+		state.scan(level, scan);
+		budgetUsed += System.nanoTime()-start;
+
+		if(IEServerConfig.ORES.retrogen_log_remaining.get()&&level.getGameTime()%LOG_INTERVAL==0)
+		{
+			int remaining = state.pending.size()+scan.size();
+			if(remaining!=state.lastLoggedRemaining)
+				IELogger.info("{} chunks left to retrogen in {}", remaining, level.dimension().location());
+			state.lastLoggedRemaining = remaining;
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent ev)
+	{
+		STATES.clear();
+	}
+
+	/**
+	 * Queues all chunks in the given area for a scan
+	 *
+	 * @return the number of chunks that were not already queued
+	 */
+	public static int scan(ServerLevel level, ChunkPos from, ChunkPos to)
+	{
+		ScanQueue queue = getScanQueue(level);
+		int added = 0;
+		for(int x = Math.min(from.x, to.x); x <= Math.max(from.x, to.x); ++x)
+			for(int z = Math.min(from.z, to.z); z <= Math.max(from.z, to.z); ++z)
+				if(queue.remaining.add(ChunkPos.asLong(x, z)))
+					++added;
+		queue.setDirty();
+		return added;
+	}
+
+	public static void cancelScan(ServerLevel level)
+	{
+		ScanQueue queue = getScanQueue(level);
+		queue.remaining.clear();
+		queue.setDirty();
+		for(long packed : queue.inFlight.keySet().toLongArray())
+			queue.finish(level, packed);
+	}
+
+	public static Status getStatus(ServerLevel level)
+	{
+		LevelState state = STATES.get(level.dimension());
+		int scanQueued = getScanQueue(level).size();
+		if(state==null)
+			return new Status(0, scanQueued, 0, 0, 0);
+		return new Status(state.pending.size(), scanQueued, state.flagged, state.generated, state.scanned);
+	}
+
+	public static boolean isAnyEnabled()
+	{
+		for(VeinType type : VeinType.VALUES)
+			if(IEServerConfig.ORES.ores.get(type).retrogenEnabled.get())
+				return true;
+		return false;
+	}
+
+	private static String getKey()
+	{
+		return IEServerConfig.ORES.retrogen_key.get();
+	}
+
+	private static LevelState getState(ServerLevel level)
+	{
+		return STATES.computeIfAbsent(level.dimension(), $ -> new LevelState());
+	}
+
+	private static ScanQueue getScanQueue(ServerLevel level)
+	{
+		return level.getDataStorage().computeIfAbsent(new Factory<>(ScanQueue::new, ScanQueue::new), SCAN_DATA_NAME);
+	}
+
+	private static boolean areNeighborsLoaded(ServerLevel level, ChunkPos pos)
+	{
+		for(int x = -1; x <= 1; ++x)
+			for(int z = -1; z <= 1; ++z)
+				if(level.getChunkSource().getChunkNow(pos.x+x, pos.z+z)==null)
+					return false;
+		return true;
+	}
+
+	private static void generate(ServerLevel level, LevelChunk chunk, LongSet changedChunks)
+	{
+		Registry<PlacedFeature> placedFeatures = level.registryAccess().registryOrThrow(Registries.PLACED_FEATURE);
+		ChunkGenerator generator = level.getChunkSource().getGenerator();
+		ChunkPos pos = chunk.getPos();
+		WorldgenRandom random = new WorldgenRandom(new LegacyRandomSource(0));
+		long decorationSeed = random.setDecorationSeed(level.getSeed(), pos.getMinBlockX(), pos.getMinBlockZ());
+		for(VeinType type : VeinType.VALUES)
+		{
+			if(!IEServerConfig.ORES.ores.get(type).retrogenEnabled.get())
+				continue;
+			PlacedFeature placed = placedFeatures.get(ImmersiveEngineering.rl(type.getVeinName()));
+			if(placed==null||!(placed.feature().value().config() instanceof IEOreFeatureConfig config)||config.getSize() <= 0)
+				continue;
+			random.setFeatureSeed(decorationSeed, type.ordinal(), 0);
+			// The vanilla ore feature relies on worldgen heightmaps, which are not available in generated chunks
+			OreConfiguration oreConfig = new OreConfiguration(
+					config.targetList(), config.getSize(), (float)config.getAirExposure()
+			);
+			PlacementContext context = new PlacementContext(level, generator, Optional.of(placed));
+			Stream<BlockPos> positions = Stream.of(pos.getWorldPosition());
+			for(PlacementModifier modifier : placed.placement())
+				positions = positions.flatMap(p -> modifier.getPositions(context, random, p));
+			positions.forEach(p -> IEWorldGen.ORE_RETROGEN.get().place(new FeaturePlaceContext<>(
+					Optional.empty(), level, generator, random, p, oreConfig
+			)));
+		}
+		// Ore placement writes to the sections of the neighboring chunks directly, so all of them need to be saved again
+		// and players already tracking them need to get them again
+		for(int x = -1; x <= 1; ++x)
+			for(int z = -1; z <= 1; ++z)
+			{
+				LevelChunk changedChunk = level.getChunkSource().getChunkNow(pos.x+x, pos.z+z);
+				if(changedChunk==null)
+					continue;
+				changedChunk.setUnsaved(true);
+				changedChunks.add(ChunkPos.asLong(pos.x+x, pos.z+z));
+			}
+	}
+
+	public record Status(int pending, int scanQueued, long flagged, long generated, long scanned)
+	{
+	}
+
+	private static class LevelState
+	{
+		// Loaded chunks waiting for retrogen, in the order they were loaded
+		private final LongLinkedOpenHashSet pending = new LongLinkedOpenHashSet();
+		// Chunks changed by retrogen in this tick, neighbors of several generated chunks are only sent once
+		private final LongSet changedChunks = new LongOpenHashSet();
+		private long flagged;
+		private long generated;
+		private long scanned;
+		private int lastLoggedRemaining = 0;
+
+		private void process(ServerLevel level, ScanQueue queue, long deadline)
+		{
+			// Chunks with unloaded neighbors are moved to the end, so each chunk is only checked once per tick
+			int toCheck = pending.size();
+			while(toCheck > 0&&System.nanoTime() < deadline)
+			{
+				--toCheck;
+				long packed = pending.removeFirstLong();
+				ChunkPos pos = new ChunkPos(packed);
+				// Unloaded chunks were saved without the key and will be queued again when they are loaded
+				LevelChunk chunk = level.getChunkSource().getChunkNow(pos.x, pos.z);
+				if(chunk==null)
+					continue;
+				if(!areNeighborsLoaded(level, pos))
+				{
+					pending.add(packed);
+					continue;
+				}
+				generate(level, chunk, changedChunks);
+				++generated;
+				queue.finish(level, packed);
+			}
+		}
+
+		private void sendChangedChunks(ServerLevel level)
+		{
+			for(long packed : changedChunks)
+			{
+				ChunkPos pos = new ChunkPos(packed);
+				LevelChunk chunk = level.getChunkSource().getChunkNow(pos.x, pos.z);
+				if(chunk==null)
+					continue;
+				for(ServerPlayer player : level.getChunkSource().chunkMap.getPlayers(pos, false))
+					player.connection.send(new ClientboundLevelChunkWithLightPacket(
+							chunk, level.getLightEngine(), null, null
+					));
+			}
+			changedChunks.clear();
+		}
+
+		private void scan(ServerLevel level, ScanQueue queue)
+		{
+			// Release the tickets of chunks that turned out to be up to date once they were loaded
+			LongList done = new LongArrayList();
+			for(Long2IntMap.Entry entry : queue.inFlight.long2IntEntrySet())
+				if(entry.getIntValue()==LOADING&&!pending.contains(entry.getLongKey()))
+				{
+					ChunkPos pos = new ChunkPos(entry.getLongKey());
+					if(level.getChunkSource().getChunkNow(pos.x, pos.z)!=null)
+						done.add(entry.getLongKey());
+				}
+			for(int i = 0; i < done.size(); ++i)
+				queue.finish(level, done.getLong(i));
+
+			while(queue.inFlight.size() < MAX_SCANS_IN_FLIGHT&&!queue.remaining.isEmpty())
+			{
+				long packed = queue.remaining.removeFirstLong();
+				queue.setDirty();
+				if(queue.inFlight.containsKey(packed))
+					continue;
+				ChunkPos pos = new ChunkPos(packed);
+				if(level.getChunkSource().getChunkNow(pos.x, pos.z)!=null)
+				{
+					// Loaded chunks were already checked when they were loaded
+					++scanned;
+					continue;
+				}
+				queue.inFlight.put(packed, READING);
+				level.getChunkSource().chunkMap.read(pos).thenAcceptAsync(
+						data -> onScanRead(level, queue, pos, data.orElse(null)), level.getServer()
+				);
+			}
+		}
+
+		private void onScanRead(ServerLevel level, ScanQueue queue, ChunkPos pos, @Nullable CompoundTag data)
+		{
+			// The chunk may have been loaded and processed in the meantime
+			if(queue.inFlight.get(pos.toLong())!=READING)
+				return;
+			++scanned;
+			boolean outdated = data!=null&&ChunkSerializer.getChunkTypeFromTag(data)==ChunkType.LEVELCHUNK
+					&&!getKey().equals(data.getString(KEY_TAG));
+			if(outdated&&isAnyEnabled())
+			{
+				// Loading the neighbors as well allows retrogen to run as soon as the chunk is loaded
+				queue.inFlight.put(pos.toLong(), LOADING);
+				level.getChunkSource().addRegionTicket(RETROGEN_TICKET, pos, 1, pos);
+			}
+			else
+				queue.finish(level, pos.toLong());
+		}
+	}
+
+	private static class ScanQueue extends SavedData
+	{
+		private final LongLinkedOpenHashSet remaining = new LongLinkedOpenHashSet();
+		// Chunks that are being read from disk or loaded by a ticket
+		private final Long2IntMap inFlight = new Long2IntOpenHashMap();
+
+		public ScanQueue()
+		{
+			inFlight.defaultReturnValue(NOT_SCANNING);
+		}
+
+		public ScanQueue(CompoundTag nbt)
+		{
+			this();
+			for(long packed : nbt.getLongArray("remaining"))
+				remaining.add(packed);
+		}
+
+		private boolean isEmpty()
+		{
+			return remaining.isEmpty()&&inFlight.isEmpty();
+		}
+
+		private int size()
+		{
+			return remaining.size()+inFlight.size();
+		}
+
+		private void finish(ServerLevel level, long packed)
+		{
+			int scanState = inFlight.remove(packed);
+			if(scanState==NOT_SCANNING)
+				return;
+			if(scanState==LOADING)
+			{
+				ChunkPos pos = new ChunkPos(packed);
+				level.getChunkSource().removeRegionTicket(RETROGEN_TICKET, pos, 1, pos);
+			}
+			setDirty();
+		}
+
+		@Nonnull
+		@Override
+		public CompoundTag save(@Nonnull CompoundTag nbt)
+		{
+			// Chunks that are currently being scanned are saved as well, so they are scanned again after a restart
+			LongLinkedOpenHashSet toSave = new LongLinkedOpenHashSet(remaining);
+			toSave.addAll(inFlight.keySet());
+			nbt.put("remaining", new LongArrayTag(toSave.toLongArray()));
+			return nbt;
+		}
+	}
+}
@@ -13,7 +13,9 @@ import blusunrize.immersiveengineering.api.wires.testutils.DummyProxyProvider;
 import blusunrize.immersiveengineering.api.wires.testutils.DummySyncManager;
 import blusunrize.immersiveengineering.api.wires.testutils.DummyWireType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.phys.Vec3;
 import org.junit.Assert;
 import org.junit.Before;
@@ -65,4 +67,21 @@ public class GlobalWireNetworkTest
 		global.removeConnection(new Connection(wiretype, cpA0, cpB0, Vec3.ZERO, Vec3.ZERO));
 		Assert.assertNotEquals(global.getLocalNet(cpA0), global.getLocalNet(cpB0));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testConnectorsInChunk()
+	{
+		BlockPos posC = new BlockPos(20, 0, -5);
+		ConnectionPoint cpC0 = new ConnectionPoint(posC, 0);
+		global.onConnectorLoad(iicA, false);
+		global.onConnectorLoad(iicB, false);
+		global.onConnectorLoad(new DummyIIC(posC, false, ImmutableList.of(cpC0), ImmutableList.of()), false);
+		Assert.assertEquals(
+				ImmutableSet.of(cpA0, cpB0, cpB1), ImmutableSet.copyOf(global.getAllConnectorsIn(new ChunkPos(posA)))
+		);
+		Assert.assertEquals(ImmutableSet.of(cpC0), ImmutableSet.copyOf(global.getAllConnectorsIn(new ChunkPos(posC))));
+		Assert.assertTrue(global.getAllConnectorsIn(new ChunkPos(1, 1)).isEmpty());
+		global.removeConnector(iicB);
+		Assert.assertEquals(ImmutableSet.of(cpA0), ImmutableSet.copyOf(global.getAllConnectorsIn(new ChunkPos(posA))));
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.localhandlers;
+
+import blusunrize.immersiveengineering.api.wires.*;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler.Path;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyEnergyConnector;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyEnergyWireType;
+import blusunrize.immersiveengineering.api.wires.testutils.DummyProxyProvider;
+import blusunrize.immersiveengineering.api.wires.testutils.DummySyncManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.Vec3;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+public class EnergyTransferHandlerTest
+{
+	private static final int SIZE = 6;
+
+	private GlobalWireNetwork global;
+	private final WireType wiretype = new DummyEnergyWireType(0.02);
+	private final DummyEnergyConnector[][] connectors = new DummyEnergyConnector[SIZE][SIZE];
+	private final List<Connection> connections = new ArrayList<>();
+
+	@BeforeClass
+	public static void registerHandler()
+	{
+		LocalNetworkHandler.register(EnergyTransferHandler.ID, EnergyTransferHandler::new);
+	}
+
+	@Before
+	public void setupNetwork()
+	{
+		global = new GlobalWireNetwork(false, new DummyProxyProvider(), new DummySyncManager());
+		for(int x = 0; x < SIZE; ++x)
+			for(int z = 0; z < SIZE; ++z)
+			{
+				boolean source = (x+2*z)%5==0;
+				boolean sink = (3*x+z)%4==1;
+				connectors[x][z] = new DummyEnergyConnector(new BlockPos(x, 0, z), source, sink, 1000, 64);
+				global.onConnectorLoad(connectors[x][z], false);
+			}
+		for(int x = 0; x < SIZE; ++x)
+			for(int z = 0; z < SIZE; ++z)
+			{
+				if(x+1 < SIZE)
+					connect(x, z, x+1, z);
+				if(z+1 < SIZE)
+					connect(x, z, x, z+1);
+			}
+		// Initialize the handler, everything after this is handled incrementally
+		getHandler().getSources();
+		assertMatchesFullRecompute();
+	}
+
+	@Test
+	public void testConnectionRemoved()
+	{
+		// None of these removals split the grid
+		for(int i = 0; i < connections.size(); i += 7)
+		{
+			global.removeConnection(connections.get(i));
+			assertMatchesFullRecompute();
+		}
+	}
+
+	@Test
+	public void testConnectionAdded()
+	{
+		for(int i = 0; i+1 < SIZE; i += 2)
+		{
+			connect(i, i, i+1, i+1);
+			assertMatchesFullRecompute();
+			connect(SIZE-1-i, i, SIZE-2-i, i+1);
+			assertMatchesFullRecompute();
+		}
+	}
+
+	@Test
+	public void testConnectorReloaded()
+	{
+		for(int i = 0; i < SIZE; ++i)
+		{
+			DummyEnergyConnector connector = connectors[i][(2*i)%SIZE];
+			global.onConnectorUnload(connector);
+			assertMatchesFullRecompute();
+			global.onConnectorLoad(connector, false);
+			assertMatchesFullRecompute();
+		}
+	}
+
+	@Test
+	public void testMixedChanges()
+	{
+		global.onConnectorUnload(connectors[0][0]);
+		global.removeConnection(connections.get(3));
+		connect(1, 1, 2, 2);
+		global.removeConnection(connections.get(10));
+		global.onConnectorLoad(connectors[0][0], false);
+		global.onConnectorUnload(connectors[3][2]);
+		assertMatchesFullRecompute();
+		assertSameTransfer(h -> h.update(null));
+	}
+
+	@Test
+	public void testPreparedTick()
+	{
+		global.removeConnection(connections.get(5));
+		assertSameTransfer(h -> {
+			h.prepareTick();
+			h.update(null);
+		});
+	}
+
+	private void connect(int xA, int zA, int xB, int zB)
+	{
+		Connection conn = new Connection(
+				wiretype,
+				new ConnectionPoint(new BlockPos(xA, 0, zA), 0),
+				new ConnectionPoint(new BlockPos(xB, 0, zB), 0),
+				Vec3.ZERO, Vec3.ZERO
+		);
+		global.addConnection(conn);
+		connections.add(conn);
+	}
+
+	private LocalWireNetwork getLocalNet()
+	{
+		return global.getLocalNet(new ConnectionPoint(BlockPos.ZERO, 0));
+	}
+
+	private EnergyTransferHandler getHandler()
+	{
+		EnergyTransferHandler handler = getLocalNet().getHandler(EnergyTransferHandler.ID, EnergyTransferHandler.class);
+		Assert.assertNotNull(handler);
+		return handler;
+	}
+
+	private void assertMatchesFullRecompute()
+	{
+		LocalWireNetwork localNet = getLocalNet();
+		EnergyTransferHandler incremental = getHandler();
+		EnergyTransferHandler full = new EnergyTransferHandler(localNet, global);
+		Assert.assertEquals(full.getSources().keySet(), incremental.getSources().keySet());
+		for(ConnectionPoint source : full.getSources().keySet())
+		{
+			Map<ConnectionPoint, Path> expected = full.getPathsFromSource(source);
+			Map<ConnectionPoint, Path> actual = incremental.getPathsFromSource(source);
+			Assert.assertEquals(expected.keySet(), actual.keySet());
+			for(Entry<ConnectionPoint, Path> entry : expected.entrySet())
+			{
+				Path actualPath = actual.get(entry.getKey());
+				Assert.assertEquals(entry.getValue().loss, actualPath.loss, 1e-9);
+				Assert.assertEquals(entry.getValue().isPathToSink, actualPath.isPathToSink);
+				assertValidPath(localNet, actualPath, source, entry.getKey());
+			}
+		}
+	}
+
+	private void assertSameTransfer(Consumer<EnergyTransferHandler> tick)
+	{
+		List<DummyEnergyConnector> all = new ArrayList<>();
+		for(DummyEnergyConnector[] row : connectors)
+			for(DummyEnergyConnector connector : row)
+			{
+				connector.getAndResetReceived();
+				all.add(connector);
+			}
+		tick.accept(getHandler());
+		long[] incrementalReceived = all.stream().mapToLong(DummyEnergyConnector::getAndResetReceived).toArray();
+		new EnergyTransferHandler(getLocalNet(), global).update(null);
+		long[] fullReceived = all.stream().mapToLong(DummyEnergyConnector::getAndResetReceived).toArray();
+		Assert.assertArrayEquals(fullReceived, incrementalReceived);
+	}
+
+	private static void assertValidPath(LocalWireNetwork net, Path path, ConnectionPoint start, ConnectionPoint end)
+	{
+		ConnectionPoint current = start;
+		for(Connection c : path.conns)
+		{
+			Assert.assertTrue(net.getConnections(current).contains(c));
+			current = c.getOtherEnd(current);
+		}
+		Assert.assertEquals(end, current);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2020
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.testutils;
+
+import blusunrize.immersiveengineering.api.wires.ConnectionPoint;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler.EnergyConnector;
+import com.google.common.collect.ImmutableList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.Collection;
+
+public class DummyEnergyConnector extends DummyIIC implements EnergyConnector
+{
+	private final boolean isSource;
+	private final boolean isSink;
+	private final int available;
+	private final int requested;
+	private long received = 0;
+
+	public DummyEnergyConnector(BlockPos pos, boolean isSource, boolean isSink, int available, int requested)
+	{
+		super(pos, false, ImmutableList.of(new ConnectionPoint(pos, 0)), ImmutableList.of());
+		this.isSource = isSource;
+		this.isSink = isSink;
+		this.available = available;
+		this.requested = requested;
+	}
+
+	@Override
+	public boolean isSource(ConnectionPoint cp)
+	{
+		return isSource;
+	}
+
+	@Override
+	public boolean isSink(ConnectionPoint cp)
+	{
+		return isSink;
+	}
+
+	@Override
+	public int getAvailableEnergy()
+	{
+		return isSource?available: 0;
+	}
+
+	@Override
+	public int getRequestedEnergy()
+	{
+		// Behaves like a buffer that is emptied whenever the received energy is reset
+		return isSink?(int)Math.max(0, requested-received): 0;
+	}
+
+	@Override
+	public void insertEnergy(int amount)
+	{
+		received += amount;
+	}
+
+	public long getAndResetReceived()
+	{
+		long result = received;
+		received = 0;
+		return result;
+	}
+
+	@Override
+	public Collection<ResourceLocation> getRequestedHandlers()
+	{
+		return ImmutableList.of(EnergyTransferHandler.ID);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2020
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.api.wires.testutils;
+
+import blusunrize.immersiveengineering.api.wires.Connection;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler;
+import blusunrize.immersiveengineering.api.wires.localhandlers.EnergyTransferHandler.IEnergyWire;
+import com.google.common.collect.ImmutableList;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.Collection;
+
+public class DummyEnergyWireType extends DummyWireType implements IEnergyWire
+{
+	private final double lossRate;
+
+	public DummyEnergyWireType(double lossRate)
+	{
+		super(0);
+		this.lossRate = lossRate;
+	}
+
+	@Override
+	public int getTransferRate()
+	{
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public double getBasicLossRate(Connection c)
+	{
+		return lossRate;
+	}
+
+	@Override
+	public double getLossRate(Connection c, int transferred)
+	{
+		return lossRate;
+	}
+
+	@Override
+	public Collection<ResourceLocation> getRequestedHandlers()
+	{
+		return ImmutableList.of(EnergyTransferHandler.ID);
+	}
+}
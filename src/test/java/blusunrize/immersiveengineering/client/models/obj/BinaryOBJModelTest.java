@@ -0,0 +1,151 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.models.obj;
+
+import blusunrize.immersiveengineering.client.models.obj.BinaryOBJModel.Header;
+import malte0811.modelsplitter.model.Group;
+import malte0811.modelsplitter.model.MaterialLibrary.OBJMaterial;
+import malte0811.modelsplitter.model.OBJModel;
+import malte0811.modelsplitter.model.Polygon;
+import malte0811.modelsplitter.model.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class BinaryOBJModelTest
+{
+	// Tests run from the project root
+	private static final Path MODELS = Path.of("src/main/resources/assets/immersiveengineering/models");
+	private static final Path GENERATED_MODELS = Path.of("src/generated/resources/assets/immersiveengineering/models");
+
+	private static Function<String, InputStream> getMaterialLibrary(Path obj)
+	{
+		return name -> {
+			try
+			{
+				return Files.newInputStream(obj.resolveSibling(name));
+			} catch(IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		Assume.assumeTrue(Files.isDirectory(MODELS));
+		for(String model : List.of(
+				"block/metal_multiblock/arc_furnace.obj", "block/metal_multiblock/auto_workbench.obj", "item/powerpack.obj"
+		))
+		{
+			Path obj = MODELS.resolve(model);
+			byte[] source = Files.readAllBytes(obj);
+			OBJModel<OBJMaterial> parsed = BinaryOBJModel.parseText(source, getMaterialLibrary(obj));
+			ByteBuffer data = ByteBuffer.wrap(BinaryOBJModel.write(parsed, source, getMaterialLibrary(obj)));
+			Header header = BinaryOBJModel.readHeader(data);
+			Assert.assertNotNull(model, header);
+			Assert.assertTrue(model, BinaryOBJModel.matchesSources(header, source, getMaterialLibrary(obj)));
+			assertSameGeometry(model, parsed, BinaryOBJModel.readModel(data));
+			Assert.assertFalse(model, data.hasRemaining());
+		}
+	}
+
+	@Test
+	public void testModifiedSourceDoesNotMatch() throws IOException
+	{
+		Assume.assumeTrue(Files.isDirectory(MODELS));
+		Path obj = MODELS.resolve("item/powerpack.obj");
+		byte[] source = Files.readAllBytes(obj);
+		OBJModel<OBJMaterial> parsed = BinaryOBJModel.parseText(source, getMaterialLibrary(obj));
+		ByteBuffer data = ByteBuffer.wrap(BinaryOBJModel.write(parsed, source, getMaterialLibrary(obj)));
+		Header header = BinaryOBJModel.readHeader(data);
+		// Same length, different contents
+		byte[] modified = source.clone();
+		modified[modified.length/2] ^= 1;
+		Assert.assertFalse(BinaryOBJModel.matchesSources(header, modified, getMaterialLibrary(obj)));
+		Assert.assertNull(BinaryOBJModel.readHeader(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+	}
+
+	/**
+	 * Release builds only check the length of the OBJ file against the binary form, so binary forms that were not
+	 * regenerated after editing an OBJ file fail the build here
+	 */
+	@Test
+	public void testGeneratedModelsAreUpToDate() throws IOException
+	{
+		Assume.assumeTrue(Files.isDirectory(MODELS));
+		if(!Files.isDirectory(GENERATED_MODELS))
+			return;
+		List<String> stale = new ArrayList<>();
+		try(Stream<Path> files = Files.walk(GENERATED_MODELS))
+		{
+			for(Path binary : files.filter(p -> p.toString().endsWith(".obj.bin")).toList())
+			{
+				String name = binary.getFileName().toString();
+				Path obj = MODELS.resolve(GENERATED_MODELS.relativize(binary)).resolveSibling(name.substring(0, name.length()-4));
+				if(!Files.exists(obj))
+				{
+					stale.add(GENERATED_MODELS.relativize(binary)+" (no OBJ file)");
+					continue;
+				}
+				Header header = BinaryOBJModel.readHeader(ByteBuffer.wrap(Files.readAllBytes(binary)));
+				if(header==null||!BinaryOBJModel.matchesSources(header, Files.readAllBytes(obj), getMaterialLibrary(obj)))
+					stale.add(GENERATED_MODELS.relativize(binary).toString());
+			}
+		}
+		Assert.assertTrue("Binary OBJ models need to be regenerated with runData: "+stale, stale.isEmpty());
+	}
+
+	private static void assertSameGeometry(String model, OBJModel<OBJMaterial> expected, OBJModel<OBJMaterial> actual)
+	{
+		Assert.assertNotNull(model, actual);
+		Assert.assertEquals(model, List.copyOf(expected.getFacesByGroup().keySet()), List.copyOf(actual.getFacesByGroup().keySet()));
+		for(Entry<String, Group<OBJMaterial>> group : expected.getFacesByGroup().entrySet())
+		{
+			List<Polygon<OBJMaterial>> expectedFaces = group.getValue().getFaces();
+			List<Polygon<OBJMaterial>> actualFaces = actual.getFacesByGroup().get(group.getKey()).getFaces();
+			Assert.assertEquals(model, expectedFaces.size(), actualFaces.size());
+			for(int face = 0; face < expectedFaces.size(); ++face)
+			{
+				Polygon<OBJMaterial> expectedFace = expectedFaces.get(face);
+				Polygon<OBJMaterial> actualFace = actualFaces.get(face);
+				Assert.assertEquals(model, expectedFace.getTexture().name(), actualFace.getTexture().name());
+				Assert.assertEquals(model, expectedFace.getTexture().map_Kd(), actualFace.getTexture().map_Kd());
+				Assert.assertEquals(model, expectedFace.getPoints().size(), actualFace.getPoints().size());
+				for(int vertex = 0; vertex < expectedFace.getPoints().size(); ++vertex)
+					assertSameVertex(model, expectedFace.getPoints().get(vertex), actualFace.getPoints().get(vertex));
+			}
+		}
+	}
+
+	// The binary form stores single precision floats
+	private static void assertSameVertex(String model, Vertex expected, Vertex actual)
+	{
+		for(int i = 0; i < 3; ++i)
+		{
+			Assert.assertEquals(model, (float)expected.position().get(i), (float)actual.position().get(i), 0);
+			Assert.assertEquals(model, (float)expected.normal().get(i), (float)actual.normal().get(i), 0);
+		}
+		Assert.assertEquals(model, (float)expected.uv().u(), (float)actual.uv().u(), 0);
+		Assert.assertEquals(model, (float)expected.uv().v(), (float)actual.uv().v(), 0);
+	}
+}
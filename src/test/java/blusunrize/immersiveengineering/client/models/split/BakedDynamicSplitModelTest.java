@@ -0,0 +1,156 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.models.split;
+
+import blusunrize.immersiveengineering.api.IEApi;
+import blusunrize.immersiveengineering.api.IEProperties.Model;
+import blusunrize.immersiveengineering.api.client.ICacheKeyProvider;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry;
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry.StatsSnapshot;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.ItemOverrides;
+import net.minecraft.client.renderer.block.model.ItemTransforms;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.resources.model.BlockModelRotation;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.Vec3i;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.client.model.data.ModelData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Set;
+
+public class BakedDynamicSplitModelTest
+{
+	private static final ModelData OFFSET_DATA = ModelData.builder().with(Model.SUBMODEL_OFFSET, BlockPos.ZERO).build();
+
+	private static StatsSnapshot getStats()
+	{
+		for(StatsSnapshot stats : RenderCacheRegistry.INSTANCE.getStats())
+			if(stats.name().equals("split_models"))
+				return stats;
+		throw new AssertionError("No stats for split models");
+	}
+
+	@Test
+	public void testSubModelsAreCached()
+	{
+		KeyedModel base = new KeyedModel();
+		BakedDynamicSplitModel<Integer, KeyedModel> model = new BakedDynamicSplitModel<>(
+				base, Set.of(Vec3i.ZERO), BlockModelRotation.X0_Y0, new Vec3i(1, 1, 1)
+		);
+		StatsSnapshot before = getStats();
+		base.key = 1;
+		model.getQuads(null, null, RandomSource.create(), OFFSET_DATA, null);
+		model.getQuads(null, null, RandomSource.create(), OFFSET_DATA, null);
+		base.key = 2;
+		model.getQuads(null, null, RandomSource.create(), OFFSET_DATA, null);
+		StatsSnapshot after = getStats();
+		Assert.assertEquals(2, base.queries);
+		Assert.assertEquals(1, after.hits()-before.hits());
+		Assert.assertEquals(2, after.misses()-before.misses());
+		Assert.assertEquals(2, after.entries()-before.entries());
+		Assert.assertEquals(2*RenderCacheRegistry.ENTRY_WEIGHT, after.weight()-before.weight());
+	}
+
+	@Test
+	public void testReloadReleasesSubModels()
+	{
+		KeyedModel base = new KeyedModel();
+		BakedDynamicSplitModel<Integer, KeyedModel> model = new BakedDynamicSplitModel<>(
+				base, Set.of(Vec3i.ZERO), BlockModelRotation.X0_Y0, new Vec3i(1, 1, 1)
+		);
+		model.getQuads(null, null, RandomSource.create(), OFFSET_DATA, null);
+		Assert.assertTrue(getStats().entries() > 0);
+		// Same as ClientProxy#clearRenderCaches, which runs on every resource reload
+		IEApi.renderCacheClearers.forEach(Runnable::run);
+		Assert.assertEquals(0, getStats().entries());
+		Assert.assertEquals(0, getStats().weight());
+		model.getQuads(null, null, RandomSource.create(), OFFSET_DATA, null);
+		Assert.assertEquals(2, base.queries);
+	}
+
+	private static class KeyedModel implements ICacheKeyProvider<Integer>
+	{
+		private int key;
+		private int queries;
+
+		@Override
+		public List<BakedQuad> getQuads(Integer key)
+		{
+			++queries;
+			return List.of();
+		}
+
+		@Nullable
+		@Override
+		public Integer getKey(
+				@Nullable BlockState state,
+				@Nullable Direction side,
+				@Nonnull RandomSource rand,
+				@Nonnull ModelData extraData,
+				@Nullable RenderType layer
+		)
+		{
+			return key;
+		}
+
+		@Override
+		public boolean useAmbientOcclusion()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isGui3d()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean usesBlockLight()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean isCustomRenderer()
+		{
+			return false;
+		}
+
+		@Nonnull
+		@Override
+		public TextureAtlasSprite getParticleIcon()
+		{
+			return null;
+		}
+
+		@Nonnull
+		@Override
+		public ItemTransforms getTransforms()
+		{
+			return ItemTransforms.NO_TRANSFORMS;
+		}
+
+		@Nonnull
+		@Override
+		public ItemOverrides getOverrides()
+		{
+			return ItemOverrides.EMPTY;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.client.utils;
+
+import blusunrize.immersiveengineering.client.utils.RenderCacheRegistry.StatsSnapshot;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.core.Direction;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class RenderCacheRegistryTest
+{
+	private RenderCacheRegistry registry;
+
+	@Before
+	public void setup()
+	{
+		registry = new RenderCacheRegistry(() -> 100);
+	}
+
+	private StatsSnapshot getStats(String name)
+	{
+		for(StatsSnapshot stats : registry.getStats())
+			if(stats.name().equals(name))
+				return stats;
+		throw new AssertionError("No stats for "+name);
+	}
+
+	@Test
+	public void testHitsAndMisses()
+	{
+		RenderCache<String, Integer> cache = registry.create("test", i -> i);
+		Assert.assertEquals(3, (int)cache.get("a", $ -> 3));
+		Assert.assertEquals(3, (int)cache.get("a", $ -> 4));
+		Assert.assertNull(cache.getIfPresent("b"));
+		StatsSnapshot stats = getStats("test");
+		Assert.assertEquals(1, stats.hits());
+		Assert.assertEquals(2, stats.misses());
+		Assert.assertEquals(1, stats.entries());
+		Assert.assertEquals(3, stats.weight());
+		Assert.assertEquals(3, registry.getTotalWeight());
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedAcrossCaches()
+	{
+		List<Integer> removed = new ArrayList<>();
+		RenderCache<String, Integer> first = registry.create("first", i -> 40, removed::add);
+		RenderCache<String, Integer> second = registry.create("second", i -> 40, removed::add);
+		first.put("a", 1);
+		second.put("b", 2);
+		first.getIfPresent("a");
+		second.put("c", 3);
+		Assert.assertEquals(List.of(2), removed);
+		Assert.assertEquals(1, first.size());
+		Assert.assertEquals(1, second.size());
+		Assert.assertNull(second.getIfPresent("b"));
+		Assert.assertEquals(80, registry.getTotalWeight());
+		Assert.assertEquals(1, getStats("second").evictions());
+		Assert.assertEquals(0, getStats("first").evictions());
+	}
+
+	@Test
+	public void testReplaceAndInvalidate()
+	{
+		List<Integer> removed = new ArrayList<>();
+		RenderCache<String, Integer> cache = registry.create("test", i -> i, removed::add);
+		cache.put("a", 10);
+		cache.put("a", 20);
+		Assert.assertEquals(20, registry.getTotalWeight());
+		cache.put("b", 30);
+		cache.invalidateAll();
+		Assert.assertEquals(List.of(10, 20, 30), removed.stream().sorted().toList());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, registry.getTotalWeight());
+		Assert.assertEquals(0, getStats("test").evictions());
+	}
+
+	@Test
+	public void testSharedStats()
+	{
+		RenderCache<String, Integer> first = registry.create("shared", i -> i);
+		RenderCache<String, Integer> second = registry.create("shared", i -> i);
+		first.put("a", 5);
+		second.put("a", 7);
+		Assert.assertEquals(5, (int)first.getIfPresent("a"));
+		Assert.assertEquals(7, (int)second.getIfPresent("a"));
+		StatsSnapshot stats = getStats("shared");
+		Assert.assertEquals(2, stats.entries());
+		Assert.assertEquals(12, stats.weight());
+		Assert.assertEquals(1, stats.hitRate(), 1e-9);
+	}
+
+	@Test
+	public void testQuadWeights()
+	{
+		registry = new RenderCacheRegistry(() -> 2*RenderCacheRegistry.weighQuads(List.of(quad())));
+		RenderCache<Integer, List<BakedQuad>> cache = registry.create("quads", RenderCacheRegistry::weighQuads);
+		cache.put(0, List.of(quad()));
+		cache.put(1, List.of(quad()));
+		Assert.assertEquals(2, cache.size());
+		cache.put(2, List.of(quad(), quad()));
+		Assert.assertEquals(1, cache.size());
+		Assert.assertNotNull(cache.getIfPresent(2));
+	}
+
+	@Test
+	public void testConcurrentAccess() throws InterruptedException
+	{
+		List<RenderCache<Integer, Integer>> caches = new ArrayList<>();
+		for(int i = 0; i < 4; ++i)
+			caches.add(registry.create("concurrent", v -> 1));
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+		for(int t = 0; t < 8; ++t)
+		{
+			final int seed = t;
+			Thread thread = new Thread(() -> {
+				Random random = new Random(seed);
+				for(int i = 0; i < 20000; ++i)
+				{
+					RenderCache<Integer, Integer> cache = caches.get(random.nextInt(caches.size()));
+					int key = random.nextInt(200);
+					if(cache.get(key, k -> k)!=key)
+						errors.add(new AssertionError("Wrong value for "+key));
+				}
+			});
+			thread.setUncaughtExceptionHandler((th, x) -> errors.add(x));
+			threads.add(thread);
+			thread.start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		Assert.assertEquals(List.of(), errors);
+		int entries = 0;
+		for(RenderCache<Integer, Integer> cache : caches)
+			entries += cache.size();
+		// Entries are all weighed as 1, so the weight has to match the number of entries exactly once all threads are done
+		Assert.assertEquals(entries, registry.getTotalWeight());
+		Assert.assertEquals(entries, getStats("concurrent").entries());
+		Assert.assertTrue(entries <= 100);
+		Assert.assertEquals(8*20000, getStats("concurrent").hits()+getStats("concurrent").misses());
+	}
+
+	private static BakedQuad quad()
+	{
+		return new BakedQuad(new int[32], -1, Direction.UP, null, true);
+	}
+}
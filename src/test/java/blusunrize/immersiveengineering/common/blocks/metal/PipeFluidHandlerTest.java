@@ -0,0 +1,107 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.metal;
+
+import blusunrize.immersiveengineering.api.fluid.IFluidPipe;
+import blusunrize.immersiveengineering.common.blocks.metal.FluidPipeBlockEntity.PipeFluidHandler;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork.ConnectedOutputs;
+import blusunrize.immersiveengineering.common.fluids.TestPipeAccess;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.material.Fluids;
+import net.neoforged.neoforge.fluids.FluidStack;
+import net.neoforged.neoforge.fluids.capability.IFluidHandler.FluidAction;
+import net.neoforged.neoforge.fluids.capability.templates.VoidFluidHandler;
+import org.junit.*;
+
+import java.lang.management.ManagementFactory;
+
+public class PipeFluidHandlerTest
+{
+	private static final int LENGTH = 64;
+
+	private FluidPipeNetwork network;
+	private CountingOutput output;
+
+	@BeforeClass
+	public static void bootstrap()
+	{
+		SharedConstants.tryDetectVersion();
+		Bootstrap.bootStrap();
+	}
+
+	@Before
+	public void setup()
+	{
+		TestPipeAccess access = new TestPipeAccess();
+		network = new FluidPipeNetwork(access);
+		output = new CountingOutput();
+		// Pipes from (0, 0, 0) to (LENGTH-1, 0, 0) with outputs at both ends, filled from the one at the start
+		for(int x = 0; x < LENGTH; ++x)
+			access.addPipe(new BlockPos(x, 0, 0));
+		access.addOutput(new BlockPos(-1, 0, 0), output);
+		access.addOutput(new BlockPos(LENGTH, 0, 0), output);
+	}
+
+	@Test
+	public void testFillSkipsSource()
+	{
+		FluidStack resource = new FluidStack(Fluids.WATER, IFluidPipe.AMOUNT_UNPRESSURIZED);
+		Assert.assertEquals(IFluidPipe.AMOUNT_UNPRESSURIZED, fill(resource));
+		Assert.assertEquals(1, output.fills);
+		Assert.assertEquals(IFluidPipe.AMOUNT_UNPRESSURIZED, output.filled);
+	}
+
+	@Test
+	public void testNoAllocationOnRepeatedFills()
+	{
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported()&&threads.isThreadAllocatedMemoryEnabled());
+		FluidStack resource = new FluidStack(Fluids.WATER, IFluidPipe.AMOUNT_UNPRESSURIZED);
+		// Warm up, including the flood fill and JIT compilation
+		for(int i = 0; i < 20000; ++i)
+			fill(resource);
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < 100000; ++i)
+			fill(resource);
+		long allocated = threads.getThreadAllocatedBytes(threadId)-before;
+		// Allows for some noise from the measurement itself, but not for one allocation per fill
+		Assert.assertTrue("Allocated "+allocated+" bytes", allocated < 100000);
+		Assert.assertEquals(120000, output.fills);
+	}
+
+	// Same as PipeFluidHandler#fill on the first pipe, once the outputs have been looked up
+	private int fill(FluidStack resource)
+	{
+		ConnectedOutputs outputs = network.getConnectedOutputs(BlockPos.ZERO);
+		return PipeFluidHandler.fillOutputs(outputs, BlockPos.ZERO, Direction.WEST, resource, FluidAction.EXECUTE);
+	}
+
+	private static class CountingOutput extends VoidFluidHandler
+	{
+		private int fills;
+		private long filled;
+
+		@Override
+		public int fill(FluidStack resource, FluidAction action)
+		{
+			if(action.execute())
+			{
+				++fills;
+				filled += resource.getAmount();
+			}
+			return resource.getAmount();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.blocks.metal.conveyors;
+
+import blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.VirtualItem;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+import net.neoforged.neoforge.items.ItemStackHandler;
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.SPACING;
+import static blusunrize.immersiveengineering.common.blocks.metal.conveyors.VirtualConveyorTransport.SPEED;
+
+public class ConveyorChainTest
+{
+	private static final float EPSILON = 1e-4f;
+
+	private final List<ItemStack> output = new ArrayList<>();
+	private final List<BasicConveyor> outputFrom = new ArrayList<>();
+	private boolean outputBlocked = false;
+	private long gameTime = 0;
+
+	@BeforeClass
+	public static void bootstrap()
+	{
+		SharedConstants.tryDetectVersion();
+		Bootstrap.bootStrap();
+	}
+
+	// Belts are not in a level, only the chain itself is tested
+	private ConveyorChain makeChain(BasicConveyor... belts)
+	{
+		return new ConveyorChain(belts, (belt, item, time) -> {
+			if(outputBlocked)
+				return false;
+			output.add(item.getStack());
+			outputFrom.add(belt);
+			return true;
+		});
+	}
+
+	private static BasicConveyor[] makeBelts(int count)
+	{
+		BasicConveyor[] belts = new BasicConveyor[count];
+		for(int i = 0; i < count; ++i)
+		{
+			BlockPos pos = new BlockPos(0, 0, -i);
+			belts[i] = new BasicConveyor(new BlockEntity(BlockEntityType.CHEST, pos, Blocks.CHEST.defaultBlockState())
+			{
+			});
+		}
+		return belts;
+	}
+
+	private static ItemStack stone()
+	{
+		return new ItemStack(Items.STONE);
+	}
+
+	private void tick(ConveyorChain chain, int ticks)
+	{
+		for(int i = 0; i < ticks; ++i)
+			chain.tick(++gameTime);
+	}
+
+	@Test
+	public void testItemsMoveAlongChain()
+	{
+		BasicConveyor[] belts = makeBelts(3);
+		ConveyorChain chain = makeChain(belts);
+		Assert.assertTrue(belts[0].insertVirtual(stone(), 0, gameTime));
+		tick(chain, 8);
+		Assert.assertEquals(1, belts[0].getVirtualItems().size());
+		Assert.assertEquals(8*SPEED, belts[0].getVirtualItems().get(0).getProgress(), EPSILON);
+		// Items moved onto the next belt are not moved again in the same tick
+		tick(chain, 1);
+		Assert.assertTrue(belts[0].getVirtualItems().isEmpty());
+		Assert.assertEquals(1, belts[1].getVirtualItems().size());
+		Assert.assertEquals(9*SPEED-1, belts[1].getVirtualItems().get(0).getProgress(), EPSILON);
+		Assert.assertTrue(belts[1].getVirtualItems().get(0).isMoving());
+		Assert.assertTrue(output.isEmpty());
+	}
+
+	@Test
+	public void testTickOncePerGameTick()
+	{
+		BasicConveyor[] belts = makeBelts(2);
+		ConveyorChain chain = makeChain(belts);
+		belts[0].insertVirtual(stone(), 0, gameTime);
+		tick(chain, 1);
+		// Every belt of the chain ticks it, but items only move once
+		chain.tick(gameTime);
+		Assert.assertEquals(SPEED, belts[0].getVirtualItems().get(0).getProgress(), EPSILON);
+	}
+
+	@Test
+	public void testInsertionKeepsSpacing()
+	{
+		BasicConveyor belt = makeBelts(1)[0];
+		Assert.assertTrue(belt.insertVirtual(stone(), .5f, gameTime));
+		Assert.assertFalse(belt.canInsertVirtual(.5f+SPACING/2));
+		Assert.assertFalse(belt.canInsertVirtual(.5f-SPACING/2));
+		Assert.assertTrue(belt.insertVirtual(stone(), .9f, gameTime));
+		Assert.assertTrue(belt.insertVirtual(stone(), .1f, gameTime));
+		// Ordered by progress, closest to the end first
+		List<VirtualItem> items = belt.getVirtualItems();
+		Assert.assertEquals(3, items.size());
+		for(int i = 1; i < items.size(); ++i)
+			Assert.assertTrue(items.get(i-1).getProgress() > items.get(i).getProgress());
+	}
+
+	@Test
+	public void testBlockedItemsKeepSpacing()
+	{
+		BasicConveyor[] belts = makeBelts(2);
+		ConveyorChain chain = makeChain(belts);
+		outputBlocked = true;
+		for(int i = 0; i < 100; ++i)
+		{
+			if(belts[0].canInsertVirtual(0))
+				belts[0].insertVirtual(stone(), 0, gameTime);
+			tick(chain, 1);
+		}
+		// Positions along the whole chain, closest to the end first
+		List<Float> positions = new ArrayList<>();
+		for(int belt = belts.length-1; belt >= 0; --belt)
+			for(VirtualItem item : belts[belt].getVirtualItems())
+			{
+				positions.add(belt+item.getProgress());
+				Assert.assertFalse(item.isMoving());
+			}
+		Assert.assertEquals(2f, positions.get(0), EPSILON);
+		for(int i = 1; i < positions.size(); ++i)
+			Assert.assertEquals(SPACING, positions.get(i-1)-positions.get(i), EPSILON);
+		Assert.assertTrue(positions.get(positions.size()-1) < SPACING);
+		Assert.assertTrue(output.isEmpty());
+	}
+
+	@Test
+	public void testOutputAtChainEnd()
+	{
+		BasicConveyor[] belts = makeBelts(2);
+		ConveyorChain chain = makeChain(belts);
+		outputBlocked = true;
+		belts[1].insertVirtual(stone(), 1-SPEED/2, gameTime);
+		// Moved to the end of the belt in the first tick, blocked in the second one
+		tick(chain, 2);
+		VirtualItem waiting = belts[1].getVirtualItems().get(0);
+		Assert.assertEquals(1, waiting.getProgress(), EPSILON);
+		Assert.assertFalse(waiting.isMoving());
+		outputBlocked = false;
+		tick(chain, 1);
+		Assert.assertTrue(belts[1].getVirtualItems().isEmpty());
+		Assert.assertEquals(1, output.size());
+		Assert.assertSame(Items.STONE, output.get(0).getItem());
+		Assert.assertSame(belts[1], outputFrom.get(0));
+	}
+
+	@Test
+	public void testPartialInsertion()
+	{
+		BasicConveyor belt = makeBelts(1)[0];
+		belt.insertVirtual(new ItemStack(Items.STONE, 16), 1, gameTime);
+		VirtualItem item = belt.getVirtualItems().get(0);
+		ItemStackHandler inventory = new ItemStackHandler(1);
+		inventory.setStackInSlot(0, new ItemStack(Items.STONE, 60));
+		Assert.assertFalse(VirtualConveyorTransport.insertInto(belt, item, inventory));
+		Assert.assertEquals(12, item.getStack().getCount());
+		Assert.assertEquals(64, inventory.getStackInSlot(0).getCount());
+		inventory.setStackInSlot(0, ItemStack.EMPTY);
+		Assert.assertTrue(VirtualConveyorTransport.insertInto(belt, item, inventory));
+		Assert.assertEquals(12, inventory.getStackInSlot(0).getCount());
+	}
+}
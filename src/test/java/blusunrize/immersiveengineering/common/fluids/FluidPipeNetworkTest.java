@@ -0,0 +1,192 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.fluids;
+
+import blusunrize.immersiveengineering.common.blocks.metal.FluidPipeBlockEntity.DirectionalFluidOutput;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork.ConnectedOutputs;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+public class FluidPipeNetworkTest
+{
+	private TestPipeAccess access;
+	private FluidPipeNetwork network;
+
+	@Before
+	public void setup()
+	{
+		access = new TestPipeAccess();
+		network = new FluidPipeNetwork(access);
+	}
+
+	// Pipes from (0, y, z) to (length-1, y, z) with outputs at both ends
+	private void addLine(int y, int z, int length)
+	{
+		for(int x = 0; x < length; ++x)
+			access.addPipe(new BlockPos(x, y, z));
+		access.addOutput(new BlockPos(-1, y, z));
+		access.addOutput(new BlockPos(length, y, z));
+	}
+
+	@Test
+	public void testSeparateComponents()
+	{
+		addLine(0, 0, 8);
+		addLine(0, 2, 8);
+		Set<DirectionalFluidOutput> outputsA = network.getOutputs(new BlockPos(3, 0, 0));
+		Set<DirectionalFluidOutput> outputsB = network.getOutputs(new BlockPos(3, 0, 2));
+		Assert.assertEquals(2, outputsA.size());
+		Assert.assertEquals(2, outputsB.size());
+		Assert.assertFalse(network.isSameComponent(new BlockPos(0, 0, 0), new BlockPos(0, 0, 2)));
+		// Changes to one component must not invalidate the other
+		network.onOutputsChanged(new BlockPos(0, 0, 0));
+		network.onPipeRemoved(new BlockPos(1, 0, 0));
+		Assert.assertSame(outputsB, network.getOutputs(new BlockPos(0, 0, 2)));
+		Assert.assertNotSame(outputsA, network.getOutputs(new BlockPos(0, 0, 0)));
+	}
+
+	@Test
+	public void testMergeOnAdd()
+	{
+		addLine(0, 0, 8);
+		BlockPos gap = new BlockPos(4, 0, 0);
+		access.removePipe(gap);
+		// Only the left side is known when the gap is filled, the right side must still be found
+		Assert.assertEquals(1, network.getOutputs(new BlockPos(0, 0, 0)).size());
+		access.addPipe(gap);
+		network.onPipeAdded(gap);
+		Assert.assertEquals(2, network.getOutputs(new BlockPos(0, 0, 0)).size());
+		Assert.assertTrue(network.isSameComponent(new BlockPos(0, 0, 0), new BlockPos(7, 0, 0)));
+		Assert.assertEquals(8, network.getComponentSize(gap));
+	}
+
+	@Test
+	public void testMergeKnownOnAdd()
+	{
+		addLine(0, 0, 8);
+		BlockPos gap = new BlockPos(4, 0, 0);
+		access.removePipe(gap);
+		Assert.assertEquals(1, network.getOutputs(new BlockPos(0, 0, 0)).size());
+		Assert.assertEquals(1, network.getOutputs(new BlockPos(7, 0, 0)).size());
+		access.addPipe(gap);
+		network.onPipeAdded(gap);
+		Assert.assertEquals(2, network.getOutputs(new BlockPos(7, 0, 0)).size());
+		Assert.assertEquals(8, network.getComponentSize(gap));
+	}
+
+	@Test
+	public void testSplitOnRemove()
+	{
+		addLine(0, 0, 8);
+		Assert.assertEquals(8, network.getComponentSize(new BlockPos(0, 0, 0)));
+		BlockPos middle = new BlockPos(4, 0, 0);
+		access.removePipe(middle);
+		network.onPipeRemoved(middle);
+		Assert.assertFalse(network.isSameComponent(new BlockPos(0, 0, 0), new BlockPos(7, 0, 0)));
+		Assert.assertEquals(4, network.getComponentSize(new BlockPos(0, 0, 0)));
+		Assert.assertEquals(3, network.getComponentSize(new BlockPos(7, 0, 0)));
+		Assert.assertEquals(0, network.getComponentSize(middle));
+		Assert.assertTrue(network.getOutputs(middle).isEmpty());
+	}
+
+	@Test
+	public void testClosedSide()
+	{
+		addLine(0, 0, 8);
+		BlockPos pos = new BlockPos(3, 0, 0);
+		Assert.assertEquals(8, network.getComponentSize(pos));
+		// Closing one of the two sides is enough to disconnect the pipes
+		access.setSide(pos, Direction.EAST, false);
+		network.onPipeSideChanged(pos, Direction.EAST);
+		Assert.assertEquals(4, network.getComponentSize(pos));
+		Assert.assertEquals(4, network.getComponentSize(pos.east()));
+		access.setSide(pos, Direction.EAST, true);
+		network.onPipeSideChanged(pos, Direction.EAST);
+		Assert.assertEquals(8, network.getComponentSize(pos));
+	}
+
+	@Test
+	public void testLargeNetwork()
+	{
+		addLine(0, 0, 5000);
+		Assert.assertEquals(5000, network.getComponentSize(new BlockPos(0, 0, 0)));
+		Assert.assertEquals(2, network.getOutputs(new BlockPos(2500, 0, 0)).size());
+	}
+
+	@Test
+	public void testLoadedStatusOncePerTick()
+	{
+		addLine(0, 0, 8);
+		access.setLoaded(new BlockPos(8, 0, 0), false);
+		ConnectedOutputs outputs = network.getConnectedOutputs(new BlockPos(0, 0, 0));
+		Assert.assertNotNull(outputs);
+		int checks = access.getLoadedChecks();
+		for(int i = 0; i < 10; ++i)
+			network.getConnectedOutputs(new BlockPos(i%8, 0, 0));
+		Assert.assertEquals(checks, access.getLoadedChecks());
+		for(int i = 0; i < outputs.size(); ++i)
+			Assert.assertEquals(!outputs.get(i).pos().equals(new BlockPos(8, 0, 0)), outputs.isLoaded(i));
+		access.setLoaded(new BlockPos(8, 0, 0), true);
+		access.tick();
+		network.getConnectedOutputs(new BlockPos(0, 0, 0));
+		Assert.assertEquals(checks+outputs.size(), access.getLoadedChecks());
+		for(int i = 0; i < outputs.size(); ++i)
+			Assert.assertTrue(outputs.isLoaded(i));
+	}
+
+	@Test
+	public void testScratchReuse()
+	{
+		addLine(0, 0, 8);
+		ConnectedOutputs outputs = network.getConnectedOutputs(new BlockPos(0, 0, 0));
+		Assert.assertNotNull(outputs);
+		int[] first = outputs.claimScratch();
+		int[] nested = outputs.claimScratch();
+		Assert.assertNotSame(first, nested);
+		outputs.releaseScratch(nested);
+		outputs.releaseScratch(first);
+		Assert.assertSame(first, outputs.claimScratch());
+	}
+
+	@Test
+	public void testNoAllocationOnRepeatedQueries()
+	{
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported()&&threads.isThreadAllocatedMemoryEnabled());
+		addLine(0, 0, 64);
+		BlockPos pipe = new BlockPos(10, 0, 0);
+		// Warm up, including the flood fill and JIT compilation
+		for(int i = 0; i < 20000; ++i)
+			queryAndClaim(pipe);
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for(int i = 0; i < 100000; ++i)
+			queryAndClaim(pipe);
+		long allocated = threads.getThreadAllocatedBytes(threadId)-before;
+		// Allows for some noise from the measurement itself, but not for one allocation per query
+		Assert.assertTrue("Allocated "+allocated+" bytes", allocated < 100000);
+	}
+
+	private void queryAndClaim(BlockPos pipe)
+	{
+		ConnectedOutputs outputs = network.getConnectedOutputs(pipe);
+		int[] scratch = outputs.claimScratch();
+		for(int i = 0; i < outputs.size(); ++i)
+			scratch[i] = outputs.isLoaded(i)?i: 0;
+		outputs.releaseScratch(scratch);
+	}
+}
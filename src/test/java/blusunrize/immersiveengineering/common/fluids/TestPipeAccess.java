@@ -0,0 +1,160 @@
+/*
+ * BluSunrize
+ * Copyright (c) 2024
+ *
+ * This code is licensed under "Blu's License of Common Sense"
+ * Details can be found in the license file in the root folder of this project
+ */
+
+package blusunrize.immersiveengineering.common.fluids;
+
+import blusunrize.immersiveengineering.common.blocks.metal.FluidPipeBlockEntity.DirectionalFluidOutput;
+import blusunrize.immersiveengineering.common.fluids.FluidPipeNetwork.PipeAccess;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.neoforged.neoforge.fluids.FluidStack;
+import net.neoforged.neoforge.fluids.capability.IFluidHandler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+public class TestPipeAccess implements PipeAccess
+{
+	private final Map<BlockPos, EnumSet<Direction>> pipes = new HashMap<>();
+	private final Map<BlockPos, IFluidHandler> outputs = new HashMap<>();
+	private final Set<BlockPos> unloaded = new HashSet<>();
+	private long gameTime = 0;
+	private int loadedChecks = 0;
+
+	public void addPipe(BlockPos pos)
+	{
+		pipes.put(pos, EnumSet.allOf(Direction.class));
+	}
+
+	public void removePipe(BlockPos pos)
+	{
+		pipes.remove(pos);
+	}
+
+	public void setSide(BlockPos pipe, Direction side, boolean open)
+	{
+		if(open)
+			pipes.get(pipe).add(side);
+		else
+			pipes.get(pipe).remove(side);
+	}
+
+	public void addOutput(BlockPos pos)
+	{
+		outputs.put(pos, new DummyFluidHandler());
+	}
+
+	public void addOutput(BlockPos pos, IFluidHandler handler)
+	{
+		outputs.put(pos, handler);
+	}
+
+	public void setLoaded(BlockPos pos, boolean loaded)
+	{
+		if(loaded)
+			unloaded.remove(pos);
+		else
+			unloaded.add(pos);
+	}
+
+	public void tick()
+	{
+		++gameTime;
+	}
+
+	public int getLoadedChecks()
+	{
+		return loadedChecks;
+	}
+
+	@Override
+	public boolean isPipe(BlockPos pos)
+	{
+		return pipes.containsKey(pos);
+	}
+
+	@Override
+	public boolean hasOutputConnection(BlockPos pipe, Direction side)
+	{
+		EnumSet<Direction> openSides = pipes.get(pipe);
+		return openSides!=null&&openSides.contains(side);
+	}
+
+	@Nullable
+	@Override
+	public DirectionalFluidOutput getOutput(BlockPos pipe, Direction side)
+	{
+		BlockPos outputPos = pipe.relative(side);
+		IFluidHandler handler = outputs.get(outputPos);
+		if(handler==null)
+			return null;
+		return new DirectionalFluidOutput(handler, side, null, outputPos);
+	}
+
+	@Override
+	public boolean isLoaded(BlockPos pos)
+	{
+		++loadedChecks;
+		return !unloaded.contains(pos);
+	}
+
+	@Override
+	public long getGameTime()
+	{
+		return gameTime;
+	}
+
+	private static class DummyFluidHandler implements IFluidHandler
+	{
+		@Override
+		public int getTanks()
+		{
+			return 1;
+		}
+
+		@Nonnull
+		@Override
+		public FluidStack getFluidInTank(int tank)
+		{
+			return FluidStack.EMPTY;
+		}
+
+		@Override
+		public int getTankCapacity(int tank)
+		{
+			return 0;
+		}
+
+		@Override
+		public boolean isFluidValid(int tank, @Nonnull FluidStack stack)
+		{
+			return false;
+		}
+
+		@Override
+		public int fill(FluidStack resource, FluidAction action)
+		{
+			return 0;
+		}
+
+		@Nonnull
+		@Override
+		public FluidStack drain(FluidStack resource, FluidAction action)
+		{
+			return FluidStack.EMPTY;
+		}
+
+		@Nonnull
+		@Override
+		public FluidStack drain(int maxDrain, FluidAction action)
+		{
+			return FluidStack.EMPTY;
+		}
+	}
+}